@@ -1,6 +1,7 @@
 package com.thy.flightroutes;
 
 import com.thy.flightroutes.exception.ResourceNotFoundException;
+import com.thy.flightroutes.exception.RouteSearchTimeoutException;
 import io.swagger.v3.oas.annotations.Hidden;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -17,6 +18,7 @@ import org.springframework.web.servlet.NoHandlerFoundException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @RestControllerAdvice
@@ -72,6 +74,26 @@ public class GlobalExceptionHandler {
                 Collections.singletonList(ex.getMessage())
         );
     }
+    @ExceptionHandler(RejectedExecutionException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    private ApiError handleRejectedExecution(RejectedExecutionException ex) {
+        log.warn("Search rejected, worker pool saturated: {}", ex.getMessage());
+        return new ApiError(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service busy",
+                List.of("Too many searches in progress, try again shortly")
+        );
+    }
+    @ExceptionHandler(RouteSearchTimeoutException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    private ApiError handleRouteSearchTimeout(RouteSearchTimeoutException ex) {
+        log.warn(ex.getMessage());
+        return new ApiError(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Search timed out",
+                Collections.singletonList(ex.getMessage())
+        );
+    }
     @ExceptionHandler(NoHandlerFoundException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
     @ResponseBody
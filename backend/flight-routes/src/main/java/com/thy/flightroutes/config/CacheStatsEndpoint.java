@@ -0,0 +1,196 @@
+package com.thy.flightroutes.config;
+
+import com.thy.flightroutes.config.KeyHitTrackingRedisCache.KeyHits;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@code /actuator/cachestats}: per cache, the number of entries in Redis, hits and misses since startup, the
+ * memory and remaining TTL of a sample of entries and the hottest keys on this instance. This is the input for
+ * tuning the TTLs and key layout in {@link RedisConfig}.
+ * <p>
+ * {@code DELETE /actuator/cachestats/{cache}?pattern=...} evicts the keys of one cache matching a Redis glob,
+ * e.g. {@code pattern=*IST*} on {@code routes} for every route touching IST. Keys are walked with SCAN, so
+ * neither operation blocks Redis, but both read the whole key space of the cache.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "cachestats")
+public class CacheStatsEndpoint {
+
+    static final String KEY_SEPARATOR = "::";
+    private static final int SCAN_BATCH = 1000;
+
+    // KEYS sampled entries. Returns {bytes, entries sized, remaining ttl millis, entries with a ttl}
+    private static final RedisScript<List> SAMPLE = new DefaultRedisScript<>("""
+            local bytes, sized, ttl, expiring = 0, 0, 0, 0
+            for _, key in ipairs(KEYS) do
+              local usage = redis.call('MEMORY', 'USAGE', key)
+              if usage then
+                bytes = bytes + usage
+                sized = sized + 1
+              end
+              local pttl = redis.call('PTTL', key)
+              if pttl > 0 then
+                ttl = ttl + pttl
+                expiring = expiring + 1
+              end
+            end
+            return {bytes, sized, ttl, expiring}
+            """, List.class);
+
+    public record CacheReport(String name, long size, long hits, long misses, Double hitRatio, long puts,
+                              long removals, int sampledEntries, Long averageEntryBytes, Long estimatedBytes,
+                              Long averageTtlMillis, List<KeyHits> topKeys) {
+    }
+
+    public record EvictionResult(String cache, String pattern, long evicted) {
+    }
+
+    private record Sample(int entries, Long averageEntryBytes, Long averageTtlMillis) {
+    }
+
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${caches.stats.sample-size:100}")
+    private int sampleSize;
+
+    @Value("${caches.stats.top-keys:10}")
+    private int topKeys;
+
+    public CacheStatsEndpoint(CacheManager cacheManager, StringRedisTemplate redisTemplate) {
+        this.cacheManager = cacheManager;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @ReadOperation
+    public Map<String, CacheReport> caches() {
+        Map<String, CacheReport> reports = new TreeMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            reports.put(name, cache(name));
+        }
+        return reports;
+    }
+
+    @ReadOperation
+    public CacheReport cache(@Selector String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache == null) {
+            return null;
+        }
+        long size = 0;
+        List<String> sampled = new ArrayList<>();
+        try (Cursor<String> keys = scan(name + KEY_SEPARATOR + "*")) {
+            while (keys.hasNext()) {
+                String key = keys.next();
+                if (sampled.size() < sampleSize) {
+                    sampled.add(key);
+                }
+                size++;
+            }
+        }
+        Sample sample = sample(sampled);
+
+        long hits = 0;
+        long misses = 0;
+        long puts = 0;
+        long removals = 0;
+        if (cache instanceof RedisCache redisCache) {
+            CacheStatistics statistics = redisCache.getStatistics();
+            hits = statistics.getHits();
+            misses = statistics.getMisses();
+            puts = statistics.getPuts();
+            removals = statistics.getDeletes();
+        }
+        Double hitRatio = hits + misses > 0 ? (double) hits / (hits + misses) : null;
+        Long estimatedBytes = sample.averageEntryBytes() != null ? sample.averageEntryBytes() * size : null;
+        List<KeyHits> hottest = cache instanceof KeyHitTrackingRedisCache tracking
+                ? tracking.topKeys(topKeys) : List.of();
+        return new CacheReport(name, size, hits, misses, hitRatio, puts, removals, sample.entries(),
+                sample.averageEntryBytes(), estimatedBytes, sample.averageTtlMillis(), hottest);
+    }
+
+    @DeleteOperation
+    public EvictionResult evict(@Selector String name, String pattern) {
+        if (pattern.isBlank()) {
+            throw new InvalidEndpointRequestException("pattern must not be empty", "Missing eviction pattern");
+        }
+        Cache cache = cacheManager.getCache(name);
+        if (cache == null) {
+            return null;
+        }
+        String prefix = name + KEY_SEPARATOR;
+        long evicted = 0;
+        List<String> batch = new ArrayList<>(SCAN_BATCH);
+        try (Cursor<String> keys = scan(prefix + pattern)) {
+            while (keys.hasNext()) {
+                batch.add(keys.next());
+                if (batch.size() == SCAN_BATCH) {
+                    evicted += delete(cache, prefix, batch);
+                    batch.clear();
+                }
+            }
+        }
+        evicted += delete(cache, prefix, batch);
+        log.info("Evicted {} entries of cache {} matching {}", evicted, name, pattern);
+        return new EvictionResult(name, pattern, evicted);
+    }
+
+    private Cursor<String> scan(String match) {
+        return redisTemplate.scan(ScanOptions.scanOptions().match(match).count(SCAN_BATCH).build());
+    }
+
+    private long delete(Cache cache, String prefix, List<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        Long deleted = redisTemplate.unlink(keys);
+        if (cache instanceof KeyHitTrackingRedisCache tracking) {
+            tracking.forget(keys.stream().map(key -> key.substring(prefix.length())).toList());
+        }
+        return deleted != null ? deleted : 0;
+    }
+
+    private Sample sample(List<String> keys) {
+        if (keys.isEmpty()) {
+            return new Sample(0, null, null);
+        }
+        try {
+            List<?> result = redisTemplate.execute(SAMPLE, keys);
+            if (result == null || result.size() < 4) {
+                return new Sample(keys.size(), null, null);
+            }
+            long bytes = ((Number) result.get(0)).longValue();
+            long sized = ((Number) result.get(1)).longValue();
+            long ttl = ((Number) result.get(2)).longValue();
+            long expiring = ((Number) result.get(3)).longValue();
+            return new Sample(keys.size(), sized > 0 ? bytes / sized : null, expiring > 0 ? ttl / expiring : null);
+        } catch (DataAccessException ex) {
+            // MEMORY may be disabled on managed Redis; sizes are then left out
+            log.warn("Could not sample cache entries: {}", ex.getMessage());
+            return new Sample(keys.size(), null, null);
+        }
+    }
+}
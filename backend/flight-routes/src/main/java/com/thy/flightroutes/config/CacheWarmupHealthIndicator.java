@@ -0,0 +1,30 @@
+package com.thy.flightroutes.config;
+
+import com.thy.flightroutes.service.CacheWarmupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports OUT_OF_SERVICE until the startup cache warm-up has finished (or its readiness timeout passed),
+ * so the readiness probe keeps traffic away from an instance with cold caches.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheWarmupHealthIndicator implements HealthIndicator {
+
+    private final CacheWarmupService cacheWarmupService;
+
+    @Override
+    public Health health() {
+        CacheWarmupService.Status status = cacheWarmupService.status();
+        Health.Builder builder = status.ready() ? Health.up() : Health.outOfService();
+        return builder
+                .withDetail("phase", status.phase())
+                .withDetail("planned", status.planned())
+                .withDetail("completed", status.completed())
+                .withDetail("failed", status.failed())
+                .build();
+    }
+}
@@ -0,0 +1,113 @@
+package com.thy.flightroutes.config;
+
+import com.thy.flightroutes.entity.DataVersion;
+import com.thy.flightroutes.service.DataVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Answers conditional GETs on the read endpoints from the global data version alone. Every response carries
+ * an ETag built from the version and the request (path and sorted query parameters) plus the time of the last
+ * change as Last-Modified; a matching If-None-Match (or If-Modified-Since) gets a 304 before the controller,
+ * the services or the caches are reached. The ETag is weak: it promises the same data, not the same bytes,
+ * which also lets Tomcat gzip the response (it leaves bodies with strong ETags uncompressed).
+ * <p>
+ * The validators are written with the body, from the version it was computed from: a body recorded in
+ * {@link ServedDataVersion} as older than the current version (a stale cache entry, a network behind the
+ * database) gets the ETag of its own version and no Last-Modified, so the next revalidation fetches it again
+ * instead of being told it is current. Responses streamed without a body write (NDJSON) carry no validators.
+ * <p>
+ * Runs after the security filter chain, whose URL rules already restrict these paths to the roles allowed
+ * to read them.
+ */
+@ControllerAdvice
+@RequiredArgsConstructor
+public class ConditionalRequestInterceptor implements HandlerInterceptor, ResponseBodyAdvice<Object> {
+
+    static final String CURRENT_VERSION_ATTRIBUTE = ConditionalRequestInterceptor.class.getName() + ".CURRENT";
+
+    private final DataVersionService dataVersionService;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String method = request.getMethod();
+        if (!HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)) {
+            return true;
+        }
+        DataVersion current = dataVersionService.current();
+        request.setAttribute(CURRENT_VERSION_ATTRIBUTE, current);
+        // Browsers and shared caches may keep the body but have to revalidate it on every use
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        String etag = etag(current.getVersion(), request);
+        long lastModified = current.getUpdatedAt().toEpochMilli();
+        // Checked without the response first, so a request that proceeds gets its validators with the body
+        if (!new ServletWebRequest(request).checkNotModified(etag, lastModified)) {
+            return true;
+        }
+        new ServletWebRequest(request, response).checkNotModified(etag, lastModified);
+        return false;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && response instanceof ServletServerHttpResponse servletResponse) {
+            setValidators(servletRequest.getServletRequest(), servletResponse.getServletResponse());
+        }
+        return body;
+    }
+
+    void setValidators(HttpServletRequest request, HttpServletResponse response) {
+        if (!(request.getAttribute(CURRENT_VERSION_ATTRIBUTE) instanceof DataVersion current)
+                || response.getStatus() != HttpStatus.OK.value()) {
+            return;
+        }
+        Long served = ServedDataVersion.of(request);
+        if (served == null || served >= current.getVersion()) {
+            response.setHeader(HttpHeaders.ETAG, etag(current.getVersion(), request));
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, current.getUpdatedAt().toEpochMilli());
+        } else {
+            // The time of that older change is not known, and the current one would validate the old body
+            response.setHeader(HttpHeaders.ETAG, etag(served, request));
+        }
+    }
+
+    static String etag(long version, HttpServletRequest request) {
+        String parameters = request.getParameterMap().entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> entry.getKey() + "=" + Arrays.stream(entry.getValue()).sorted()
+                        .collect(Collectors.joining(",")))
+                .collect(Collectors.joining("&"));
+        String digest = DigestUtils.md5DigestAsHex((request.getRequestURI() + "?" + parameters)
+                .getBytes(StandardCharsets.UTF_8));
+        return "W/\"" + version + "-" + digest.substring(0, 16) + "\"";
+    }
+}
@@ -0,0 +1,74 @@
+package com.thy.flightroutes.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured datasource with a primary/replica router when
+ * {@code datasource.replicas.enabled=true}. Each replica gets its own Hikari pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReadReplicaRoutingDataSource readReplicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                                     DataSourceProperties properties,
+                                                                     ReplicaDataSourceProperties replicaProperties,
+                                                                     MeterRegistry meterRegistry) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaProperties.getUrls().size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(replicaProperties.getUrls().get(i));
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setUsername(replicaProperties.getUsername() != null
+                    ? replicaProperties.getUsername() : properties.determineUsername());
+            replica.setPassword(replicaProperties.getPassword() != null
+                    ? replicaProperties.getPassword() : properties.determinePassword());
+            replica.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+            replica.setConnectionTimeout(primaryDataSource.getConnectionTimeout());
+            replica.setReadOnly(true);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(replica);
+        }
+
+        ReadReplicaRoutingDataSource routingDataSource = new ReadReplicaRoutingDataSource(
+                primaryDataSource, replicas, replicaProperties.getLagQuery(), replicaProperties.getMaxLag());
+        routingDataSource.startLagMonitor(replicaProperties.getLagCheckInterval());
+
+        Gauge.builder("datasource.replicas.healthy", routingDataSource, ReadReplicaRoutingDataSource::getHealthyReplicaCount)
+                .description("Replicas currently eligible for read-only transactions")
+                .register(meterRegistry);
+        return routingDataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadReplicaRoutingDataSource readReplicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readReplicaRoutingDataSource);
+    }
+}
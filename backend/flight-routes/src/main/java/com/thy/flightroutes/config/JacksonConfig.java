@@ -0,0 +1,23 @@
+package com.thy.flightroutes.config;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Route and transportation payloads are large and mostly optional fields (timetables, the before/after
+     * legs, connection times): nulls are left out, and Blackbird replaces reflective getter calls with
+     * generated lambdas, which is where most of the serialization time of these DTOs goes.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer compactJsonCustomizer() {
+        return builder -> builder
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .postConfigurer(objectMapper -> objectMapper.registerModule(new BlackbirdModule()));
+    }
+}
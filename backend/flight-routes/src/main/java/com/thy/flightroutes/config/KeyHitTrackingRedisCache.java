@@ -0,0 +1,88 @@
+package com.thy.flightroutes.config;
+
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link RedisCache} that also counts hits per key, for the hottest keys listed by {@link CacheStatsEndpoint}.
+ * Counts are kept on this instance only. Once {@code maxTrackedKeys} keys are tracked every count is halved and
+ * keys left at zero are dropped, so keys nobody reads any more fade out.
+ */
+public class KeyHitTrackingRedisCache extends RedisCache {
+
+    public record KeyHits(String key, long hits) {
+    }
+
+    private final Map<String, LongAdder> hits = new ConcurrentHashMap<>();
+    private final int maxTrackedKeys;
+
+    KeyHitTrackingRedisCache(String name, RedisCacheWriter cacheWriter, RedisCacheConfiguration cacheConfiguration,
+                             int maxTrackedKeys) {
+        super(name, cacheWriter, cacheConfiguration);
+        this.maxTrackedKeys = maxTrackedKeys;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = super.lookup(key);
+        if (value != null) {
+            recordHit(convertKey(key));
+        }
+        return value;
+    }
+
+    @Override
+    public void evict(Object key) {
+        super.evict(key);
+        hits.remove(convertKey(key));
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        hits.clear();
+    }
+
+    public List<KeyHits> topKeys(int limit) {
+        return hits.entrySet().stream()
+                .map(entry -> new KeyHits(entry.getKey(), entry.getValue().sum()))
+                .sorted(Comparator.comparingLong(KeyHits::hits).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /** Stops counting keys removed outside the cache abstraction, e.g. by a pattern eviction. */
+    public void forget(Collection<String> keys) {
+        keys.forEach(hits::remove);
+    }
+
+    void recordHit(String key) {
+        LongAdder count = hits.get(key);
+        if (count == null) {
+            if (hits.size() >= maxTrackedKeys) {
+                decay();
+            }
+            count = hits.computeIfAbsent(key, k -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    private synchronized void decay() {
+        if (hits.size() < maxTrackedKeys) {
+            return;
+        }
+        hits.entrySet().removeIf(entry -> {
+            long half = entry.getValue().sumThenReset() / 2;
+            entry.getValue().add(half);
+            return half == 0;
+        });
+    }
+}
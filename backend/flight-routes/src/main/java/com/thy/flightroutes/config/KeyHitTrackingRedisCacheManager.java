@@ -0,0 +1,30 @@
+package com.thy.flightroutes.config;
+
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.util.Map;
+
+/**
+ * {@link RedisCacheManager} creating {@link KeyHitTrackingRedisCache}s. They are still {@link RedisCache}s, so
+ * the cache metrics bound by Spring Boot keep working.
+ */
+public class KeyHitTrackingRedisCacheManager extends RedisCacheManager {
+
+    private final int maxTrackedKeys;
+
+    public KeyHitTrackingRedisCacheManager(RedisCacheWriter cacheWriter, RedisCacheConfiguration defaultConfiguration,
+                                           Map<String, RedisCacheConfiguration> initialCacheConfigurations,
+                                           int maxTrackedKeys) {
+        super(cacheWriter, defaultConfiguration, true, initialCacheConfigurations);
+        this.maxTrackedKeys = maxTrackedKeys;
+    }
+
+    @Override
+    protected RedisCache createRedisCache(String name, RedisCacheConfiguration cacheConfiguration) {
+        return new KeyHitTrackingRedisCache(name, getCacheWriter(),
+                cacheConfiguration != null ? cacheConfiguration : getDefaultCacheConfiguration(), maxTrackedKeys);
+    }
+}
@@ -0,0 +1,149 @@
+package com.thy.flightroutes.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a healthy replica and everything else to the primary.
+ * Replicas start out unhealthy and are only used once a lag check has seen them within {@code maxLag};
+ * when none qualifies, or a replica refuses a connection, reads fall back to the primary.
+ * Must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so the
+ * connection is fetched after the transaction's read-only flag is known.
+ */
+@Slf4j
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas = new HashMap<>();
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final Set<String> healthyReplicas = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final String lagQuery;
+    private final Duration maxLag;
+
+    private ScheduledExecutorService lagMonitor;
+
+    public ReadReplicaRoutingDataSource(DataSource primary, List<DataSource> replicaDataSources,
+                                        String lagQuery, Duration maxLag) {
+        this.primary = primary;
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicaDataSources.size(); i++) {
+            String key = "replica-" + i;
+            replicaKeys.add(key);
+            replicas.put(key, replicaDataSources.get(i));
+            targets.put(key, replicaDataSources.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || healthyReplicas.isEmpty()) {
+            return PRIMARY;
+        }
+        int size = replicaKeys.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            String key = replicaKeys.get((start + i) % size);
+            if (healthyReplicas.contains(key)) {
+                return key;
+            }
+        }
+        return PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        String key = (String) determineCurrentLookupKey();
+        if (PRIMARY.equals(key)) {
+            return primary.getConnection();
+        }
+        try {
+            return replicas.get(key).getConnection();
+        } catch (SQLException ex) {
+            healthyReplicas.remove(key);
+            log.warn("Replica {} refused a connection, reading from primary until the next lag check", key, ex);
+            return primary.getConnection();
+        }
+    }
+
+    /**
+     * Runs the lag query on every replica and updates the set of replicas eligible for reads.
+     */
+    public void checkReplicas() {
+        for (String key : replicaKeys) {
+            boolean healthy = isWithinMaxLag(key);
+            boolean changed = healthy ? healthyReplicas.add(key) : healthyReplicas.remove(key);
+            if (changed) {
+                log.info("Replica {} is now {}", key, healthy ? "serving reads" : "skipped");
+            }
+        }
+    }
+
+    public int getHealthyReplicaCount() {
+        return healthyReplicas.size();
+    }
+
+    public void startLagMonitor(Duration interval) {
+        lagMonitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lagMonitor.scheduleWithFixedDelay(this::checkReplicas, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (lagMonitor != null) {
+            lagMonitor.shutdownNow();
+        }
+        // The primary is owned by the application context; the replica pools are owned here
+        for (DataSource dataSource : replicas.values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private boolean isWithinMaxLag(String key) {
+        try (Connection connection = replicas.get(key).getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            double lagSeconds = resultSet.next() ? resultSet.getDouble(1) : 0;
+            if (lagSeconds * 1000 > maxLag.toMillis()) {
+                log.debug("Replica {} is {}s behind", key, lagSeconds);
+                return false;
+            }
+            return true;
+        } catch (SQLException ex) {
+            log.debug("Lag check failed for replica {}", key, ex);
+            return false;
+        }
+    }
+}
@@ -1,14 +1,22 @@
 package com.thy.flightroutes.config;
 
+import com.thy.flightroutes.service.CachedRoutes;
+import com.thy.flightroutes.service.RouteResultCache;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.BatchStrategies;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -21,6 +29,8 @@ import java.util.Map;
 @EnableCaching
 public class RedisConfig {
 
+    public static final Duration ROUTES_TTL = Duration.ofMinutes(5);
+
     @Value("${spring.data.redis.host}")
     private String redisHost;
 
@@ -30,6 +40,9 @@ public class RedisConfig {
     @Value("${spring.data.redis.database}")
     private int database;
 
+    @Value("${caches.stats.max-tracked-keys:10000}")
+    private int maxTrackedKeys;
+
     @Bean
     public LettuceConnectionFactory redisConnectionFactory() {
         RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(redisHost, redisPort);
@@ -47,8 +60,9 @@ public class RedisConfig {
         // Cache-specific TTL configurations - Optimized for different use cases
         Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
 
-        // Routes cache: 5 minutes (frequently changing, complex calculations)
-        cacheConfigurations.put("routes", config.entryTtl(Duration.ofMinutes(5)));
+        // Routes cache: each entry carries its own lifetime (see RouteResultCache); 5 minutes for anything else
+        cacheConfigurations.put(RouteResultCache.CACHE_NAME, config.entryTtl((key, value) ->
+                value instanceof CachedRoutes entry ? entry.timeToLive(System.currentTimeMillis()) : ROUTES_TTL));
 
         // Locations cache: 1 day (rarely changing, reference data)
         cacheConfigurations.put("locations", config.entryTtl(Duration.ofDays(1)));
@@ -59,10 +73,34 @@ public class RedisConfig {
         cacheConfigurations.put("transportations_search", config.entryTtl(Duration.ofMinutes(8))); // Search results
         cacheConfigurations.put("transportations_types", config.entryTtl(Duration.ofHours(2))); // Types rarely change
         cacheConfigurations.put("transportations_by_locations", config.entryTtl(Duration.ofMinutes(12))); // Location-based queries
+        cacheConfigurations.put("transportations_filtered", config); // Registered up front so it gets cache metrics
+
+        // Statistics feed the cache.gets / cache.puts / cache.removals meters per cache name. Clearing a cache
+        // walks its keys with SCAN rather than one blocking KEYS call
+        RedisCacheWriter cacheWriter = RedisCacheWriter
+                .nonLockingRedisCacheWriter(redisConnectionFactory, BatchStrategies.scan(1000))
+                .withStatisticsCollector(CacheStatisticsCollector.create());
+        return new KeyHitTrackingRedisCacheManager(cacheWriter, config, cacheConfigurations, maxTrackedKeys);
+    }
 
-        return RedisCacheManager.builder(redisConnectionFactory)
-                .cacheDefaults(config)
-                .withInitialCacheConfigurations(cacheConfigurations)
+    /**
+     * Non-blocking access to the cache entries written by {@link #cacheManager}: same key layout
+     * ({@code <cache>::<key>}) and value serializer, so both see (and evict) the same entries.
+     */
+    @Bean
+    public ReactiveRedisTemplate<String, Object> reactiveCacheTemplate(ReactiveRedisConnectionFactory connectionFactory) {
+        RedisSerializationContext<String, Object> context = RedisSerializationContext
+                .<String, Object>newSerializationContext(new StringRedisSerializer())
+                .value(new GenericJackson2JsonRedisSerializer())
                 .build();
+        return new ReactiveRedisTemplate<>(connectionFactory, context);
+    }
+
+    /** Pub/sub subscriptions, such as the network change feed. */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
     }
 }
\ No newline at end of file
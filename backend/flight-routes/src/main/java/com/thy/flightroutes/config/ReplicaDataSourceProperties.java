@@ -0,0 +1,37 @@
+package com.thy.flightroutes.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replica settings. Credentials and driver default to the primary {@code spring.datasource.*} values.
+ */
+@ConfigurationProperties(prefix = "datasource.replicas")
+@Getter
+@Setter
+public class ReplicaDataSourceProperties {
+
+    private boolean enabled = false;
+
+    private List<String> urls = new ArrayList<>();
+
+    private String username;
+
+    private String password;
+
+    private int maximumPoolSize = 20;
+
+    // Replicas further behind than this are skipped until they catch up
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    private Duration lagCheckInterval = Duration.ofSeconds(5);
+
+    // Seconds of replay lag; 0 when the replica has replayed everything it received
+    private String lagQuery = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+}
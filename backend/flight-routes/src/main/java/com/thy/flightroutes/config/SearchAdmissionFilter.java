@@ -0,0 +1,150 @@
+package com.thy.flightroutes.config;
+
+import com.thy.flightroutes.service.SearchRateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admission control for the search endpoints, placed after authorization so the caller is known. A search is
+ * let through only if the caller's token bucket has a token and fewer than {@code max-in-flight} searches are
+ * running on this instance; otherwise it is answered with 429 and a Retry-After header before any work is done.
+ * The slot is checked first, so a search turned away for concurrency does not spend one of the caller's tokens.
+ * A streamed (async) search holds its slot until the response is complete.
+ */
+@Slf4j
+public class SearchAdmissionFilter extends OncePerRequestFilter {
+
+    static final Set<String> SEARCH_PATHS = Set.of(
+            "/api/routes/search",
+            "/api/routes/search-range",
+            "/api/routes/timetable-search",
+            "/api/routes/matrix",
+            "/api/routes/reachable",
+            "/api/v2/routes/search",
+            "/api/locations/search",
+            "/api/transportations/search");
+
+    private final SearchRateLimiter rateLimiter;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final Counter rateLimited;
+    private final Counter overloaded;
+
+    public SearchAdmissionFilter(SearchRateLimiter rateLimiter, int maxInFlight, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.rateLimited = rejections(meterRegistry, "rate_limit");
+        this.overloaded = rejections(meterRegistry, "concurrency");
+        Gauge.builder("search.admission.in_flight", inFlight, permits -> maxInFlight - permits.availablePermits())
+                .description("Searches currently running on this instance")
+                .register(meterRegistry);
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("search.admission.rejected")
+                .description("Searches answered with 429 before running")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !SEARCH_PATHS.contains(path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!inFlight.tryAcquire()) {
+            overloaded.increment();
+            reject(response, Duration.ofSeconds(1), "Too many searches in progress (limit " + maxInFlight + ")");
+            return;
+        }
+        String principal = principal(request);
+        SearchRateLimiter.Decision decision = rateLimiter.tryAcquire(principal);
+        if (!decision.allowed()) {
+            inFlight.release();
+            rateLimited.increment();
+            log.debug("Search rate limit reached for {}", principal);
+            reject(response, decision.retryAfter(), "Search rate limit reached, retry later");
+            return;
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                inFlight.release();
+            }
+        };
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    private static String principal(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && authentication.getName() != null) {
+            return authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, Duration retryAfter, String error) throws IOException {
+        long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"status\":429,\"message\":\"Too many requests\",\"errors\":[\"" + error + "\"]}");
+    }
+
+    private record ReleasingListener(Runnable release) implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
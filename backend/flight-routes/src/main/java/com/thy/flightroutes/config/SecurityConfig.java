@@ -1,7 +1,11 @@
 package com.thy.flightroutes.config;
 
 import com.thy.flightroutes.service.CustomUserDetailsService;
+import com.thy.flightroutes.service.SearchRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -13,6 +17,7 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.security.web.header.writers.XXssProtectionHeaderWriter;
@@ -24,6 +29,11 @@ public class SecurityConfig {
     private final JwtTokenProvider jwtTokenProvider;
     private final CustomUserDetailsService userDetailsService;
     private final CorsConfigurationSource corsConfigurationSource;
+    private final SearchRateLimiter searchRateLimiter;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${search.admission.max-in-flight:20}")
+    private int maxSearchesInFlight;
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
@@ -42,15 +52,24 @@ public class SecurityConfig {
                 .sessionManagement(session ->
                         session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Async results are written on a second dispatch of a request that was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api-docs/**").permitAll()
                         .requestMatchers("/swagger-ui/**").permitAll()
-                        .requestMatchers("/api/routes/**").hasAnyRole("ADMIN", "AGENCY")
+                        .requestMatchers("/actuator/health/**").permitAll()
+                        // Metrics name every endpoint with its latencies, cache and pool usage; scrape as an admin
+                        .requestMatchers("/actuator/prometheus", "/actuator/metrics/**", "/actuator/cachestats/**")
+                        .hasRole("ADMIN")
+                        .requestMatchers("/api/routes/**", "/api/v2/routes/**").hasAnyRole("ADMIN", "AGENCY")
                         .requestMatchers("/api/locations/**").hasAnyRole("ADMIN", "AGENCY")
                         .requestMatchers("/api/**").hasRole("ADMIN")
                         .anyRequest().authenticated())
                 .addFilterBefore(new JwtAuthenticationFilter(jwtTokenProvider),
                         UsernamePasswordAuthenticationFilter.class)
+                // Searches are admitted only once authorized, so the limits apply per JWT subject
+                .addFilterAfter(new SearchAdmissionFilter(searchRateLimiter, maxSearchesInFlight, meterRegistry),
+                        AuthorizationFilter.class)
                 .build();
     }
     
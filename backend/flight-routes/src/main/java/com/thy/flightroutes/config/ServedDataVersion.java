@@ -0,0 +1,61 @@
+package com.thy.flightroutes.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.function.Supplier;
+
+/**
+ * The data version a response was computed from, when that can be older than the current one: a stale
+ * {@code routes} entry or an in-memory network still waiting for change events. Recorded on the request being
+ * served, keeping the oldest version reported, so {@link ConditionalRequestInterceptor} builds the validators
+ * from the data actually in the body. Outside a request (background refreshes, warm-up) nothing is recorded.
+ */
+public final class ServedDataVersion {
+
+    static final String ATTRIBUTE = ServedDataVersion.class.getName();
+
+    private ServedDataVersion() {
+    }
+
+    /** Records the version on the request bound to the current thread, if any. */
+    public static void record(long version) {
+        record(currentRequest(), version);
+    }
+
+    /** Records the version on the given request, e.g. one captured before switching to another thread. */
+    public static void record(HttpServletRequest request, long version) {
+        if (request == null) {
+            return;
+        }
+        if (!(request.getAttribute(ATTRIBUTE) instanceof Long recorded) || version < recorded) {
+            request.setAttribute(ATTRIBUTE, version);
+        }
+    }
+
+    /** @return the request bound to the current thread, or null */
+    public static HttpServletRequest currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servlet ? servlet.getRequest() : null;
+    }
+
+    /** Runs the work on the current thread as part of the given request, so what it serves is recorded there. */
+    public static <T> T callFor(HttpServletRequest request, Supplier<T> work) {
+        if (request == null) {
+            return work.get();
+        }
+        RequestAttributes previous = RequestContextHolder.getRequestAttributes();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            return work.get();
+        } finally {
+            RequestContextHolder.setRequestAttributes(previous);
+        }
+    }
+
+    static Long of(HttpServletRequest request) {
+        return request.getAttribute(ATTRIBUTE) instanceof Long recorded ? recorded : null;
+    }
+}
@@ -0,0 +1,52 @@
+package com.thy.flightroutes.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread.
+ * The counter is reset and read by {@link SqlStatementMetricsFilter} around each request. Work that runs on
+ * another thread for the same request (e.g. the phases of a route search) counts on the request's counter
+ * through {@link #capture()} and {@link #callWith}.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<AtomicInteger> COUNT = ThreadLocal.withInitial(AtomicInteger::new);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get().incrementAndGet();
+        return sql;
+    }
+
+    public static void reset() {
+        // A new counter, so work still running for the previous request cannot add to this one
+        COUNT.set(new AtomicInteger());
+    }
+
+    public static int current() {
+        return COUNT.get().get();
+    }
+
+    public static void clear() {
+        COUNT.remove();
+    }
+
+    /** The counter of the current thread, to be handed to {@link #callWith} on another thread. */
+    public static AtomicInteger capture() {
+        return COUNT.get();
+    }
+
+    /** Runs the work on the current thread, counting its statements on the given counter. */
+    public static <T> T callWith(AtomicInteger counter, Supplier<T> work) {
+        AtomicInteger previous = COUNT.get();
+        COUNT.set(counter);
+        try {
+            return work.get();
+        } finally {
+            COUNT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.thy.flightroutes.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final ConditionalRequestInterceptor conditionalRequestInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Everything served here is derived from locations and transportations, i.e. covered by the data version
+        registry.addInterceptor(conditionalRequestInterceptor)
+                .addPathPatterns("/api/locations/**", "/api/transportations/**", "/api/routes/**",
+                        "/api/v2/routes/**");
+    }
+}
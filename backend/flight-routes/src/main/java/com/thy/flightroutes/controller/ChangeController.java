@@ -0,0 +1,49 @@
+package com.thy.flightroutes.controller;
+
+import com.thy.flightroutes.dto.ChangeFeedDTO;
+import com.thy.flightroutes.service.ChangeFeedService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/changes")
+@Tag(name = "Change Feed", description = "Endpoints for mirroring locations and transportations incrementally")
+@RequiredArgsConstructor
+public class ChangeController {
+    private final ChangeFeedService changeFeedService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Get changes after a cursor",
+            description = "Returns the committed location and transportation changes after the given data version, "
+                    + "oldest first. To start a mirror, note currentVersion, load the export endpoints, then read "
+                    + "the changes after that version and pass the returned cursor next time. Location changes and "
+                    + "imports only name what changed; reload those. The same changes are streamed to Redis"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved changes",
+                    content = @Content(schema = @Schema(implementation = ChangeFeedDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or limit"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden")
+    })
+    public ChangeFeedDTO getChanges(
+            @Parameter(description = "Data version the client has applied up to", example = "0")
+            @RequestParam(defaultValue = "0") long since,
+            @Parameter(description = "Maximum number of changes", example = "100")
+            @RequestParam(defaultValue = "100") int limit) {
+        return changeFeedService.changesSince(since, limit);
+    }
+}
@@ -0,0 +1,127 @@
+package com.thy.flightroutes.controller;
+
+import com.thy.flightroutes.service.DataExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/export")
+@Tag(name = "Data Export", description = "Endpoints for streaming the full dataset")
+@RequiredArgsConstructor
+public class ExportController {
+    private final DataExportService dataExportService;
+
+    @GetMapping("/locations")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Export all locations",
+            description = "Streams every location as csv, ndjson or columnar; gzip-compressed when the client "
+                    + "accepts it"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed"),
+            @ApiResponse(responseCode = "400", description = "Unsupported format"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden")
+    })
+    public void exportLocations(
+            @Parameter(description = "csv, ndjson or columnar", example = "csv")
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response) throws IOException {
+        DataExportService.Format exportFormat = DataExportService.Format.of(format);
+        try (OutputStream out = open(response, exportFormat, "locations", acceptEncoding)) {
+            dataExportService.exportLocations(exportFormat, out);
+        }
+    }
+
+    @GetMapping("/transportations")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Export all transportations",
+            description = "Streams every transportation with location codes as csv, ndjson or columnar; "
+                    + "csv and ndjson exports can be loaded back through /api/transportations/bulk"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed"),
+            @ApiResponse(responseCode = "400", description = "Unsupported format"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden")
+    })
+    public void exportTransportations(
+            @Parameter(description = "csv, ndjson or columnar", example = "csv")
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response) throws IOException {
+        DataExportService.Format exportFormat = DataExportService.Format.of(format);
+        try (OutputStream out = open(response, exportFormat, "transportations", acceptEncoding)) {
+            dataExportService.exportTransportations(exportFormat, out);
+        }
+    }
+
+    // Compressed while streaming, so the export is never held in memory in either form
+    private OutputStream open(HttpServletResponse response, DataExportService.Format format, String name,
+                              String acceptEncoding) throws IOException {
+        response.setContentType(format.contentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + name + "." + format.extension() + "\"");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new GZIPOutputStream(response.getOutputStream(), 64 * 1024);
+        }
+        return response.getOutputStream();
+    }
+
+    // Accept-Encoding as in RFC 9110: gzip (or x-gzip) with a non-zero q-value, or * when gzip is not listed
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzip = -1;
+        double any = -1;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String[] parameter = parts[i].split("=", 2);
+                if (parameter.length == 2 && parameter[0].trim().equalsIgnoreCase("q")) {
+                    quality = quality(parameter[1].trim());
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = Math.max(gzip, quality);
+            } else if (coding.equals("*")) {
+                any = Math.max(any, quality);
+            }
+        }
+        return gzip >= 0 ? gzip > 0 : any > 0;
+    }
+
+    // A malformed q-value is read as "not acceptable"
+    private static double quality(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+}
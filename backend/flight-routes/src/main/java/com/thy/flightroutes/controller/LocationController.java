@@ -2,6 +2,7 @@ package com.thy.flightroutes.controller;
 
 import com.thy.flightroutes.dto.LocationDTO;
 import com.thy.flightroutes.dto.PageResponseDTO;
+import com.thy.flightroutes.service.CacheWarmupService;
 import com.thy.flightroutes.service.LocationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -25,6 +26,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 @RequiredArgsConstructor
 public class LocationController {
     private final LocationService locationService;
+    private final CacheWarmupService cacheWarmupService;
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'AGENCY')")
@@ -71,6 +73,7 @@ public class LocationController {
     public LocationDTO getLocationByCode(
             @Parameter(description = "Location code (IATA or city code)", required = true, example = "IST")
             @PathVariable String code) {
+        cacheWarmupService.recordLocationLookup(code);
         return locationService.getLocationByCode(code);
     }
 
@@ -116,8 +119,9 @@ public class LocationController {
             @ApiResponse(responseCode = "401", description = "Unauthorized"),
             @ApiResponse(responseCode = "403", description = "Forbidden")
     })
-    @CacheEvict(value = {"locations", "routes"}, allEntries = true)
+    @CacheEvict(value = {"locations", "routes"}, allEntries = true, beforeInvocation = true)
     public ResponseEntity<String> clearCache() {
+        cacheWarmupService.requestWarmup();
         return ResponseEntity.ok("Location caches cleared successfully");
     }
 
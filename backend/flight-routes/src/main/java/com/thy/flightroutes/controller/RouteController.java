@@ -2,8 +2,16 @@ package com.thy.flightroutes.controller;
 
 import com.thy.flightroutes.dto.LocationDTO;
 import com.thy.flightroutes.dto.RouteDTO;
+import com.thy.flightroutes.dto.RouteMatrixCellDTO;
+import com.thy.flightroutes.dto.RouteMatrixRequestDTO;
+import com.thy.flightroutes.dto.RouteRangeRequestDTO;
+import com.thy.flightroutes.dto.RouteRangeResponseDTO;
 import com.thy.flightroutes.dto.RouteRequestDTO;
+import com.thy.flightroutes.dto.TimetableSearchRequestDTO;
+import com.thy.flightroutes.dto.TimetableSearchResponseDTO;
 import com.thy.flightroutes.dto.TransportationDTO;
+import com.thy.flightroutes.service.CacheWarmupService;
+import com.thy.flightroutes.service.RouteRangeSearchService;
 import com.thy.flightroutes.service.RouteService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -15,10 +23,12 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -27,6 +37,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class RouteController {
     private final RouteService routeService;
+    private final RouteRangeSearchService routeRangeSearchService;
+    private final CacheWarmupService cacheWarmupService;
 
     @PostMapping("/search")
     @PreAuthorize("hasAnyRole('ADMIN', 'AGENCY')")
@@ -44,10 +56,100 @@ public class RouteController {
     public ResponseEntity<List<RouteDTO>> searchRoutes(
             @Parameter(description = "Route search criteria", required = true)
             @Valid @RequestBody RouteRequestDTO request) {
+        cacheWarmupService.recordRouteSearch(request);
         List<RouteDTO> routes = routeService.findRoutes(request);
         return ResponseEntity.ok(routes);
     }
 
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('ADMIN', 'AGENCY')")
+    @Operation(
+            summary = "Search routes (cacheable)",
+            description = "Same search as POST /search with the criteria in the query string, so browsers and "
+                    + "caches can revalidate the result with If-None-Match"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved routes",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = RouteDTO.class)))),
+            @ApiResponse(responseCode = "304", description = "Routes unchanged since the given ETag"),
+            @ApiResponse(responseCode = "400", description = "Invalid input data"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "404", description = "Location not found")
+    })
+    public ResponseEntity<List<RouteDTO>> searchRoutesByQuery(
+            @Parameter(description = "Origin location code", example = "CCIST", required = true)
+            @RequestParam("from") String originLocationCode,
+            @Parameter(description = "Destination location code", example = "LHR", required = true)
+            @RequestParam("to") String destinationLocationCode,
+            @Parameter(description = "Travel date (YYYY-MM-DD)", example = "2024-03-15", required = true)
+            @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return searchRoutes(new RouteRequestDTO(originLocationCode, destinationLocationCode, date));
+    }
+
+    @PostMapping("/search-range")
+    @PreAuthorize("hasAnyRole('ADMIN', 'AGENCY')")
+    @Operation(
+            summary = "Search routes over a date range",
+            description = "Search routes for every date in a range, optionally only on some weekdays (1 = Monday), "
+                    + "grouped per date"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved routes",
+                    content = @Content(schema = @Schema(implementation = RouteRangeResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input data or range too long"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "404", description = "Location not found")
+    })
+    public ResponseEntity<RouteRangeResponseDTO> searchRoutesInRange(
+            @Parameter(description = "Route search criteria with a date range", required = true)
+            @Valid @RequestBody RouteRangeRequestDTO request) {
+        RouteRangeResponseDTO routes = routeRangeSearchService.findRoutes(request);
+        return ResponseEntity.ok(routes);
+    }
+
+    @GetMapping("/reachable")
+    @PreAuthorize("hasAnyRole('ADMIN', 'AGENCY')")
+    @Operation(
+            summary = "Reachable locations",
+            description = "Get all locations that have at least one route from the given location on a specific date"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved reachable locations",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = LocationDTO.class)))),
+            @ApiResponse(responseCode = "400", description = "Invalid input data"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "404", description = "Location not found")
+    })
+    public ResponseEntity<List<LocationDTO>> getReachableLocations(
+            @Parameter(description = "Origin location code", example = "CCIST", required = true)
+            @RequestParam("from") String originLocationCode,
+            @Parameter(description = "Travel date (YYYY-MM-DD)", example = "2024-03-15", required = true)
+            @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        List<LocationDTO> locations = routeService.findReachableLocations(originLocationCode, date);
+        return ResponseEntity.ok(locations);
+    }
+
+    @PostMapping("/timetable-search")
+    @PreAuthorize("hasAnyRole('ADMIN', 'AGENCY')")
+    @Operation(
+            summary = "Timetable search",
+            description = "Search connecting itineraries using departure/arrival times and minimum connection times. "
+                    + "Returns the earliest arrival and the Pareto-optimal itineraries by legs and arrival time"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved itineraries",
+                    content = @Content(schema = @Schema(implementation = TimetableSearchResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input data"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "404", description = "Location not found")
+    })
+    public ResponseEntity<TimetableSearchResponseDTO> searchTimetableRoutes(
+            @Parameter(description = "Timetable search criteria", required = true)
+            @Valid @RequestBody TimetableSearchRequestDTO request) {
+        TimetableSearchResponseDTO itineraries = routeService.findTimetableRoutes(request);
+        return ResponseEntity.ok(itineraries);
+    }
+
     @PostMapping("/alternative-days")
     @PreAuthorize("hasAnyRole('ADMIN', 'AGENCY')")
     @Operation(
@@ -68,6 +170,27 @@ public class RouteController {
         return ResponseEntity.ok(alternativeDays);
     }
 
+    @PostMapping("/matrix")
+    @PreAuthorize("hasAnyRole('ADMIN', 'AGENCY')")
+    @Operation(
+            summary = "Route availability matrix",
+            description = "Count the routes and pick the best one for every origin, destination and date "
+                    + "in the given range, in a single request"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully computed the route matrix",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = RouteMatrixCellDTO.class)))),
+            @ApiResponse(responseCode = "400", description = "Invalid input data or too many cells"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "404", description = "Location not found")
+    })
+    public ResponseEntity<List<RouteMatrixCellDTO>> getRouteMatrix(
+            @Parameter(description = "Origins, destinations and date range", required = true)
+            @Valid @RequestBody RouteMatrixRequestDTO request) {
+        List<RouteMatrixCellDTO> cells = routeService.findRouteMatrix(request);
+        return ResponseEntity.ok(cells);
+    }
+
     @Schema(description = "Sample request body for route search")
     public static class RouteSearchExample {
         @Schema(
@@ -0,0 +1,60 @@
+package com.thy.flightroutes.controller;
+
+import com.thy.flightroutes.dto.RouteDTO;
+import com.thy.flightroutes.dto.RouteRequestDTO;
+import com.thy.flightroutes.service.CacheWarmupService;
+import com.thy.flightroutes.service.ReactiveRouteSearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/v2/routes")
+@Tag(name = "Route Search v2", description = "Non-blocking route search")
+@RequiredArgsConstructor
+public class RouteV2Controller {
+    private final ReactiveRouteSearchService reactiveRouteSearchService;
+    private final CacheWarmupService cacheWarmupService;
+
+    @GetMapping(value = "/search", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @PreAuthorize("hasAnyRole('ADMIN', 'AGENCY')")
+    @Operation(
+            summary = "Search routes without blocking a request thread",
+            description = "Same result as /api/routes/search. With Accept: application/x-ndjson the routes are "
+                    + "streamed one per line, each written only when the client has taken the previous one"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved routes",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = RouteDTO.class)))),
+            @ApiResponse(responseCode = "400", description = "Invalid input data"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "404", description = "Location not found")
+    })
+    public Flux<RouteDTO> searchRoutes(
+            @Parameter(description = "Origin location code", example = "CCIST", required = true)
+            @RequestParam("from") String originLocationCode,
+            @Parameter(description = "Destination location code", example = "LHR", required = true)
+            @RequestParam("to") String destinationLocationCode,
+            @Parameter(description = "Travel date (YYYY-MM-DD)", example = "2024-03-15", required = true)
+            @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        RouteRequestDTO request = new RouteRequestDTO(originLocationCode, destinationLocationCode, date);
+        cacheWarmupService.recordRouteSearch(request);
+        return reactiveRouteSearchService.findRoutes(request);
+    }
+}
@@ -2,6 +2,9 @@ package com.thy.flightroutes.controller;
 
 import com.thy.flightroutes.dto.PageResponseDTO;
 import com.thy.flightroutes.dto.TransportationDTO;
+import com.thy.flightroutes.dto.TransportationImportResultDTO;
+import com.thy.flightroutes.service.CacheWarmupService;
+import com.thy.flightroutes.service.TransportationImportService;
 import com.thy.flightroutes.service.TransportationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,11 +16,14 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -26,6 +32,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class TransportationController {
     private final TransportationService transportationService;
+    private final TransportationImportService transportationImportService;
+    private final CacheWarmupService cacheWarmupService;
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -190,14 +198,40 @@ public class TransportationController {
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping(value = "/bulk", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Import transportations in bulk",
+            description = "Streams a CSV file (header: originLocationCode, destinationLocationCode, transportationType, "
+                    + "operatingDays as 1;3;5, optional departureTime and arrivalTime) or newline-delimited JSON "
+                    + "and creates or updates transportations by origin, destination and type. "
+                    + "Invalid rows are skipped and reported with their line number"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished, see the result for failed rows",
+                    content = @Content(schema = @Schema(implementation = TransportationImportResultDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Missing or invalid CSV header"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden")
+    })
+    public TransportationImportResultDTO importTransportations(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) {
+        TransportationImportService.Format format = MediaType.valueOf("text/csv").isCompatibleWith(contentType)
+                ? TransportationImportService.Format.CSV
+                : TransportationImportService.Format.NDJSON;
+        return transportationImportService.importTransportations(body, format);
+    }
+
     @PostMapping("/cache/clear")
     @PreAuthorize("hasRole('ADMIN')")
-    @CacheEvict(value = {"transportations_search", "transportations_paginated", "transportations_by_locations", "transportations_types", "transportations_filtered", "routes"}, allEntries = true)
+    @CacheEvict(value = {"transportations_search", "transportations_paginated", "transportations_by_locations", "transportations_types", "transportations_filtered", "routes"}, allEntries = true, beforeInvocation = true)
     @Operation(
             summary = "Clear transportation cache",
             description = "Clears all transportation-related caches to force reload of data"
     )
     public ResponseEntity<String> clearCache() {
+        cacheWarmupService.requestWarmup();
         return ResponseEntity.ok("All transportation caches cleared successfully");
     }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.thy.flightroutes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeFeedDTO {
+    private List<NetworkChangeDTO> changes;
+    // Pass as "since" in the next request
+    private long cursor;
+    private long currentVersion;
+    private boolean hasMore;
+    // The changes after "since" are no longer kept; reload from /api/export and continue from currentVersion
+    private boolean resyncRequired;
+}
@@ -4,6 +4,7 @@ import com.thy.flightroutes.entity.Location;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -33,6 +34,14 @@ public class LocationDTO {
     @NotNull(message = "Airport status is required")
     private Boolean isAirport;
 
+    @PositiveOrZero(message = "Minimum connection time cannot be negative")
+    private Integer minConnectionMinutes;
+
+    // Constructor without the optional timetable settings
+    public LocationDTO(Long id, String name, String country, String city, String locationCode, Boolean isAirport) {
+        this(id, name, country, city, locationCode, isAirport, null);
+    }
+
     /**
      * Creates a LocationDTO from a Location entity
      * @param entity The Location entity to convert
@@ -50,6 +59,7 @@ public class LocationDTO {
         dto.setCity(entity.getCity());
         dto.setLocationCode(entity.getLocationCode());
         dto.setIsAirport(entity.getIsAirport());
+        dto.setMinConnectionMinutes(entity.getMinConnectionMinutes());
 
         return dto;
     }
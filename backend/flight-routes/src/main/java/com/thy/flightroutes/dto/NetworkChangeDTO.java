@@ -0,0 +1,20 @@
+package com.thy.flightroutes.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NetworkChangeDTO {
+    private long version;
+    private String type;
+    private Instant createdAt;
+    // The change as stored in the outbox: a JSON object with "type", "version" and the changed data
+    @JsonRawValue
+    private String change;
+}
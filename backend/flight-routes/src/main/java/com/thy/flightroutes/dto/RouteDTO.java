@@ -44,6 +44,8 @@ public class RouteDTO {
             beforeFlightCopy.setOriginLocationId(original.getOriginLocationId());
             beforeFlightCopy.setDestinationLocationId(original.getDestinationLocationId());
             beforeFlightCopy.setTransportationType(original.getTransportationType());
+            beforeFlightCopy.setDepartureTime(original.getDepartureTime());
+            beforeFlightCopy.setArrivalTime(original.getArrivalTime());
 
             // Create new HashSet for operatingDays
             if (original.getOperatingDays() != null) {
@@ -58,7 +60,8 @@ public class RouteDTO {
                         original.getOriginLocation().getCountry(),
                         original.getOriginLocation().getCity(),
                         original.getOriginLocation().getLocationCode(),
-                        original.getOriginLocation().getIsAirport()
+                        original.getOriginLocation().getIsAirport(),
+                        original.getOriginLocation().getMinConnectionMinutes()
                 ));
             }
 
@@ -69,7 +72,8 @@ public class RouteDTO {
                         original.getDestinationLocation().getCountry(),
                         original.getDestinationLocation().getCity(),
                         original.getDestinationLocation().getLocationCode(),
-                        original.getDestinationLocation().getIsAirport()
+                        original.getDestinationLocation().getIsAirport(),
+                        original.getDestinationLocation().getMinConnectionMinutes()
                 ));
             }
 
@@ -85,6 +89,8 @@ public class RouteDTO {
             flightCopy.setOriginLocationId(original.getOriginLocationId());
             flightCopy.setDestinationLocationId(original.getDestinationLocationId());
             flightCopy.setTransportationType(original.getTransportationType());
+            flightCopy.setDepartureTime(original.getDepartureTime());
+            flightCopy.setArrivalTime(original.getArrivalTime());
 
             // Create new HashSet for operatingDays
             if (original.getOperatingDays() != null) {
@@ -99,7 +105,8 @@ public class RouteDTO {
                         original.getOriginLocation().getCountry(),
                         original.getOriginLocation().getCity(),
                         original.getOriginLocation().getLocationCode(),
-                        original.getOriginLocation().getIsAirport()
+                        original.getOriginLocation().getIsAirport(),
+                        original.getOriginLocation().getMinConnectionMinutes()
                 ));
             }
 
@@ -110,7 +117,8 @@ public class RouteDTO {
                         original.getDestinationLocation().getCountry(),
                         original.getDestinationLocation().getCity(),
                         original.getDestinationLocation().getLocationCode(),
-                        original.getDestinationLocation().getIsAirport()
+                        original.getDestinationLocation().getIsAirport(),
+                        original.getDestinationLocation().getMinConnectionMinutes()
                 ));
             }
 
@@ -126,6 +134,8 @@ public class RouteDTO {
             afterFlightCopy.setOriginLocationId(original.getOriginLocationId());
             afterFlightCopy.setDestinationLocationId(original.getDestinationLocationId());
             afterFlightCopy.setTransportationType(original.getTransportationType());
+            afterFlightCopy.setDepartureTime(original.getDepartureTime());
+            afterFlightCopy.setArrivalTime(original.getArrivalTime());
 
             // Create new HashSet for operatingDays
             if (original.getOperatingDays() != null) {
@@ -140,7 +150,8 @@ public class RouteDTO {
                         original.getOriginLocation().getCountry(),
                         original.getOriginLocation().getCity(),
                         original.getOriginLocation().getLocationCode(),
-                        original.getOriginLocation().getIsAirport()
+                        original.getOriginLocation().getIsAirport(),
+                        original.getOriginLocation().getMinConnectionMinutes()
                 ));
             }
 
@@ -151,7 +162,8 @@ public class RouteDTO {
                         original.getDestinationLocation().getCountry(),
                         original.getDestinationLocation().getCity(),
                         original.getDestinationLocation().getLocationCode(),
-                        original.getDestinationLocation().getIsAirport()
+                        original.getDestinationLocation().getIsAirport(),
+                        original.getDestinationLocation().getMinConnectionMinutes()
                 ));
             }
 
@@ -0,0 +1,19 @@
+package com.thy.flightroutes.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteDayResultDTO {
+    @JsonFormat(pattern="yyyy-MM-dd")
+    private LocalDate date;
+    private int routeCount;
+    private List<RouteDTO> routes;
+}
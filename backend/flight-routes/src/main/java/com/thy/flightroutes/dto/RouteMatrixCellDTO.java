@@ -0,0 +1,21 @@
+package com.thy.flightroutes.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteMatrixCellDTO {
+    private String originLocationCode;
+    private String destinationLocationCode;
+    @JsonFormat(pattern="yyyy-MM-dd")
+    private LocalDate date;
+    private long routeCount;
+    // Fewest segments first, then the lowest flight id; null when there is no route
+    private RouteDTO bestRoute;
+}
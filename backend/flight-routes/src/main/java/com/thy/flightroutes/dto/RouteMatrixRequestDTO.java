@@ -0,0 +1,32 @@
+package com.thy.flightroutes.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RouteMatrixRequestDTO {
+    @NotEmpty(message = "At least one origin location code is required")
+    private List<String> originLocationCodes;
+
+    @NotEmpty(message = "At least one destination location code is required")
+    private List<String> destinationLocationCodes;
+
+    @NotNull(message = "Start date is required")
+    @JsonFormat(pattern="yyyy-MM-dd")
+    private LocalDate startDate;
+
+    @NotNull(message = "End date is required")
+    @JsonFormat(pattern="yyyy-MM-dd")
+    private LocalDate endDate;
+}
@@ -0,0 +1,38 @@
+package com.thy.flightroutes.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RouteRangeRequestDTO {
+    @NotBlank(message = "Origin location code is required")
+    private String originLocationCode;
+
+    @NotBlank(message = "Destination location code is required")
+    private String destinationLocationCode;
+
+    @NotNull(message = "Start date is required")
+    @JsonFormat(pattern="yyyy-MM-dd")
+    private LocalDate startDate;
+
+    @NotNull(message = "End date is required")
+    @JsonFormat(pattern="yyyy-MM-dd")
+    private LocalDate endDate;
+
+    // Optional filter, 1 (Monday) to 7 (Sunday) like operating days; empty means every day
+    private Set<@Min(value = 1, message = "Days of week must be between 1 and 7")
+                @Max(value = 7, message = "Days of week must be between 1 and 7") Integer> daysOfWeek;
+}
@@ -0,0 +1,24 @@
+package com.thy.flightroutes.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteRangeResponseDTO {
+    private String originLocationCode;
+    private String destinationLocationCode;
+    @JsonFormat(pattern="yyyy-MM-dd")
+    private LocalDate startDate;
+    @JsonFormat(pattern="yyyy-MM-dd")
+    private LocalDate endDate;
+    private long totalRoutes;
+    private int daysWithRoutes;
+    private List<RouteDayResultDTO> days;
+}
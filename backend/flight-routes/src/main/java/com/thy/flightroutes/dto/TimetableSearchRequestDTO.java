@@ -0,0 +1,32 @@
+package com.thy.flightroutes.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TimetableSearchRequestDTO {
+    @NotBlank(message = "Origin location code is required")
+    private String originLocationCode;
+
+    @NotBlank(message = "Destination location code is required")
+    private String destinationLocationCode;
+
+    @NotNull(message = "Date is required")
+    @JsonFormat(pattern="yyyy-MM-dd")
+    private LocalDate date;
+
+    // Optional, defaults to midnight
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime departureAfter;
+}
@@ -0,0 +1,17 @@
+package com.thy.flightroutes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimetableSearchResponseDTO {
+    // Null when nothing connects
+    private TimetableItineraryDTO earliestArrival;
+    // Fewest legs first; each one arrives earlier than the previous
+    private List<TimetableItineraryDTO> paretoOptimal;
+}
@@ -1,9 +1,11 @@
 package com.thy.flightroutes.dto;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
 import com.thy.flightroutes.entity.Transportation;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalTime;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -16,6 +18,12 @@ public class TransportationDTO {
     private Transportation.TransportationType transportationType;
     private Set<Integer> operatingDays = new HashSet<>();
 
+    // Optional timetable; an arrival earlier than the departure is on the next day
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime departureTime;
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime arrivalTime;
+
     // Navigation properties for easier frontend usage
     private LocationDTO originLocation;
     private LocationDTO destinationLocation;
@@ -88,6 +96,9 @@ public class TransportationDTO {
             dto.setOperatingDays(new HashSet<>(entity.getOperatingDays()));
         }
 
+        dto.setDepartureTime(entity.getDepartureTime());
+        dto.setArrivalTime(entity.getArrivalTime());
+
         return dto;
     }
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.thy.flightroutes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransportationImportErrorDTO {
+    // 1-based line in the uploaded file, header included
+    private long line;
+    private String message;
+}
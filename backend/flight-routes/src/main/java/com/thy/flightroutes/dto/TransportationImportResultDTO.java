@@ -0,0 +1,20 @@
+package com.thy.flightroutes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransportationImportResultDTO {
+    private long totalRows;
+    private long created;
+    private long updated;
+    private long failed;
+    // Capped at transportations.import.max-reported-errors; failed keeps the full count
+    private List<TransportationImportErrorDTO> errors = new ArrayList<>();
+}
@@ -0,0 +1,24 @@
+package com.thy.flightroutes.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.thy.flightroutes.entity.Transportation;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.Set;
+
+// One line of a bulk import; locations are referenced by code instead of id
+@Data
+@NoArgsConstructor
+public class TransportationImportRowDTO {
+    private String originLocationCode;
+    private String destinationLocationCode;
+    private Transportation.TransportationType transportationType;
+    private Set<Integer> operatingDays = new HashSet<>();
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime departureTime;
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime arrivalTime;
+}
@@ -0,0 +1,44 @@
+package com.thy.flightroutes.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Single-row counter bumped in every transaction that changes locations or transportations.
+ * Derived copies of the data (snapshots, HTTP validators) compare against it to detect staleness.
+ */
+@Entity
+@Table(name = "data_version")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class DataVersion {
+    public static final int SINGLETON_ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    // Random id of this database's data; a recreated schema or another database gets a new one
+    @Column(length = 36)
+    private String epoch;
+
+    // Version the route_candidates table is up to date with; behind the version while it is not maintained
+    @Column(name = "route_candidates_version")
+    private Long routeCandidatesVersion;
+
+    public DataVersion(Integer id, Long version, Instant updatedAt) {
+        this(id, version, updatedAt, null, null);
+    }
+}
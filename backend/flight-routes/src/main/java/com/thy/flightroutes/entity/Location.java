@@ -10,14 +10,15 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "locations")
+@Table(name = "locations", indexes = @Index(name = "locations_city_idx", columnList = "city"))
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Location {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "locations_seq")
+    @SequenceGenerator(name = "locations_seq", sequenceName = "locations_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -35,6 +36,10 @@ public class Location {
     @Column(name = "is_airport", nullable = false)
     private Boolean isAirport = false;
 
+    // Minimum time to change between two legs here; null falls back to the configured default
+    @Column(name = "min_connection_minutes")
+    private Integer minConnectionMinutes;
+
     @OneToMany(mappedBy = "originLocation")
     private Set<Transportation> departingTransportations = new HashSet<>();
 
@@ -0,0 +1,39 @@
+package com.thy.flightroutes.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Outbox row of a committed network change, written in the same transaction as the change itself.
+ * The key is the data version the change produced, so rows are gap-free and ordered like the commits.
+ * {@code payload} is the change serialized as a {@code NetworkChangeEvent}; {@code publishedAt} is set once
+ * the relay has put it on the Redis stream.
+ */
+@Entity
+@Table(name = "network_changes", indexes = {
+        @Index(name = "network_changes_published_at_idx", columnList = "published_at")})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class NetworkChange {
+    @Id
+    private Long version;
+
+    @Column(nullable = false, length = 40)
+    private String type;
+
+    @Column(nullable = false, length = 4000)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "published_at")
+    private Instant publishedAt;
+}
@@ -0,0 +1,49 @@
+package com.thy.flightroutes.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A ready-made itinerary ([transfer] -> flight -> [transfer]) between two locations.
+ * Rows are derived from {@link Transportation} and kept in sync by the write services,
+ * so a route search is a single lookup on (origin, destination).
+ */
+@Entity
+@Table(name = "route_candidates", indexes = {
+        @Index(name = "route_candidates_orig_dest_idx", columnList = "origin_location_id, destination_location_id"),
+        @Index(name = "route_candidates_flight_idx", columnList = "flight_id"),
+        @Index(name = "route_candidates_before_idx", columnList = "before_id"),
+        @Index(name = "route_candidates_after_idx", columnList = "after_id")})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteCandidate {
+    // Candidates are rebuilt in bulk; pooled ids let saveAll batch its inserts
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "route_candidates_seq")
+    @SequenceGenerator(name = "route_candidates_seq", sequenceName = "route_candidates_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "origin_location_id", nullable = false)
+    private Long originLocationId;
+
+    @Column(name = "destination_location_id", nullable = false)
+    private Long destinationLocationId;
+
+    @Column(name = "before_id")
+    private Long beforeId;
+
+    @Column(name = "flight_id", nullable = false)
+    private Long flightId;
+
+    @Column(name = "after_id")
+    private Long afterId;
+
+    // Bit (day - 1) is set when every leg of the itinerary operates on that day
+    @Column(name = "day_mask", nullable = false)
+    private Integer dayMask;
+}
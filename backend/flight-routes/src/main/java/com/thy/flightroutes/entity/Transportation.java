@@ -6,21 +6,31 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.LocalTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
 @Table(name = "transportations", uniqueConstraints =
 @UniqueConstraint(
-        name = "transp_orig_dest_type_pk",
-        columnNames = {"origin_location_id","destination_location_id", "transportation_type" }))
+        name = "transp_orig_dest_type_dep_uk",
+        columnNames = {"origin_location_id","destination_location_id", "transportation_type", "departure_time" }),
+        indexes = {
+                @Index(name = "transportations_dest_type_orig_idx",
+                        columnList = "destination_location_id, transportation_type, origin_location_id"),
+                @Index(name = "transportations_type_orig_dest_idx",
+                        columnList = "transportation_type, origin_location_id, destination_location_id")})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Transportation {
+    // Ids are handed out in blocks (pooled-lo), so inserts can be batched; bulk JDBC loads allocate the same way
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transportations_seq")
+    @SequenceGenerator(name = "transportations_seq", sequenceName = "transportations_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -37,9 +47,19 @@ public class Transportation {
 
     @ElementCollection
     @CollectionTable(name = "transportation_operating_days",
-            joinColumns = @JoinColumn(name = "transportation_id"))
+            joinColumns = @JoinColumn(name = "transportation_id"),
+            indexes = @Index(name = "transportation_operating_days_transp_day_idx",
+                    columnList = "transportation_id, operating_days"))
     private Set<Integer> operatingDays = new HashSet<>();
 
+    // Local times; an arrival earlier than the departure is on the next day. Both null when untimed.
+    // Each departure of a connection is its own row, so the departure time is part of the natural key.
+    @Column(name = "departure_time")
+    private LocalTime departureTime;
+
+    @Column(name = "arrival_time")
+    private LocalTime arrivalTime;
+
     public enum TransportationType {
         FLIGHT, BUS, SUBWAY, UBER
     }
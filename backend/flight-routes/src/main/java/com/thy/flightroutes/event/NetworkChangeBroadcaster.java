@@ -0,0 +1,81 @@
+package com.thy.flightroutes.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Carries committed network changes to every {@link NetworkChangeSubscriber}: on the writing instance right
+ * after the commit, so its own next search already sees the change, and on all instances through the Redis
+ * channel {@value #CHANNEL}. A change lost on the way (Redis down, a dropped subscription) shows up as a version
+ * gap; the subscribers then resync, and their data version check catches up the rest.
+ */
+@Slf4j
+@Component
+public class NetworkChangeBroadcaster implements MessageListener {
+
+    public static final String CHANNEL = "network-changes";
+
+    private final List<NetworkChangeSubscriber> subscribers;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+
+    public NetworkChangeBroadcaster(List<NetworkChangeSubscriber> subscribers, StringRedisTemplate redisTemplate,
+                                    RedisMessageListenerContainer listenerContainer, ObjectMapper objectMapper) {
+        this.subscribers = subscribers;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @TransactionalEventListener
+    public void afterCommit(NetworkChangeEvent event) {
+        deliver(event);
+        try {
+            redisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException | DataAccessException ex) {
+            log.warn("Could not publish network change v{}: {}", event.version(), ex.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        NetworkChangeEvent event;
+        try {
+            event = objectMapper.readValue(message.getBody(), NetworkChangeEvent.class);
+        } catch (IOException ex) {
+            log.warn("Ignoring unreadable network change: {}", ex.getMessage());
+            return;
+        }
+        deliver(event);
+    }
+
+    private void deliver(NetworkChangeEvent event) {
+        for (NetworkChangeSubscriber subscriber : subscribers) {
+            try {
+                subscriber.onNetworkChange(event);
+            } catch (RuntimeException ex) {
+                log.warn("{} failed to apply network change v{}", subscriber.getClass().getSimpleName(),
+                        event.version(), ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.thy.flightroutes.event;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.thy.flightroutes.entity.Transportation;
+import com.thy.flightroutes.entity.Transportation.TransportationType;
+
+import java.time.LocalTime;
+import java.util.Set;
+
+/**
+ * A committed change to the route network. {@link #version()} is the data version the change produced; every
+ * write transaction increments it by one, so it doubles as the sequence number of the change feed.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+@JsonSubTypes({
+        @JsonSubTypes.Type(value = NetworkChangeEvent.TransportationAdded.class, name = "transportation-added"),
+        @JsonSubTypes.Type(value = NetworkChangeEvent.TransportationUpdated.class, name = "transportation-updated"),
+        @JsonSubTypes.Type(value = NetworkChangeEvent.TransportationRemoved.class, name = "transportation-removed"),
+        @JsonSubTypes.Type(value = NetworkChangeEvent.LocationChanged.class, name = "location-changed"),
+        @JsonSubTypes.Type(value = NetworkChangeEvent.ImportChunkCommitted.class, name = "import-chunk-committed"),
+        @JsonSubTypes.Type(value = NetworkChangeEvent.TransportationsImported.class, name = "transportations-imported")
+})
+public sealed interface NetworkChangeEvent {
+
+    long version();
+
+    record TransportationAdded(long version, TransportationData transportation) implements NetworkChangeEvent {
+    }
+
+    record TransportationUpdated(long version, TransportationData transportation) implements NetworkChangeEvent {
+    }
+
+    record TransportationRemoved(long version, long transportationId) implements NetworkChangeEvent {
+    }
+
+    /** A location was created, edited or deleted; {@code cities} holds its city before and after. */
+    record LocationChanged(long version, long locationId, Set<String> cities) implements NetworkChangeEvent {
+    }
+
+    /**
+     * One chunk of a bulk import was committed. It only moves the version on: the import ends with a
+     * {@link TransportationsImported} covering every chunk, so copies reload once then instead of per chunk.
+     */
+    record ImportChunkCommitted(long version) implements NetworkChangeEvent {
+    }
+
+    /** A bulk import changed an unknown set of transportations; sent once, after its last chunk. */
+    record TransportationsImported(long version) implements NetworkChangeEvent {
+    }
+
+    /** The state of a transportation after the change, without its locations. */
+    record TransportationData(long id, long originLocationId, long destinationLocationId,
+                              TransportationType transportationType, Set<Integer> operatingDays,
+                              LocalTime departureTime, LocalTime arrivalTime) {
+
+        public static TransportationData from(Transportation transportation) {
+            return new TransportationData(transportation.getId(), transportation.getOriginLocation().getId(),
+                    transportation.getDestinationLocation().getId(), transportation.getTransportationType(),
+                    Set.copyOf(transportation.getOperatingDays()), transportation.getDepartureTime(),
+                    transportation.getArrivalTime());
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.thy.flightroutes.event;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thy.flightroutes.entity.NetworkChange;
+import com.thy.flightroutes.entity.Transportation;
+import com.thy.flightroutes.event.NetworkChangeEvent.ImportChunkCommitted;
+import com.thy.flightroutes.event.NetworkChangeEvent.LocationChanged;
+import com.thy.flightroutes.event.NetworkChangeEvent.TransportationAdded;
+import com.thy.flightroutes.event.NetworkChangeEvent.TransportationData;
+import com.thy.flightroutes.event.NetworkChangeEvent.TransportationRemoved;
+import com.thy.flightroutes.event.NetworkChangeEvent.TransportationUpdated;
+import com.thy.flightroutes.event.NetworkChangeEvent.TransportationsImported;
+import com.thy.flightroutes.repository.NetworkChangeRepository;
+import com.thy.flightroutes.service.DataVersionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.LongFunction;
+
+/**
+ * Entry point for the write paths: increments the data version and publishes the change inside the writing
+ * transaction. Listeners run before the commit (route candidates) or after it (in-memory copies, the Redis
+ * feed), so a rolled-back write publishes nothing. The change is also written to the {@link NetworkChange}
+ * outbox in the same transaction, which {@link NetworkChangeRelay} and {@code /api/changes} serve to other
+ * services.
+ */
+@Component
+@Transactional(propagation = Propagation.MANDATORY)
+@RequiredArgsConstructor
+public class NetworkChangePublisher {
+
+    private final DataVersionService dataVersionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NetworkChangeRepository networkChangeRepository;
+    private final ObjectMapper objectMapper;
+
+    public void transportationAdded(Transportation transportation) {
+        publish(version -> new TransportationAdded(version, TransportationData.from(transportation)));
+    }
+
+    public void transportationUpdated(Transportation transportation) {
+        publish(version -> new TransportationUpdated(version, TransportationData.from(transportation)));
+    }
+
+    public void transportationRemoved(Long transportationId) {
+        publish(version -> new TransportationRemoved(version, transportationId));
+    }
+
+    public void locationChanged(Long locationId, Collection<String> cities) {
+        publish(version -> new LocationChanged(version, locationId, Set.copyOf(cities)));
+    }
+
+    public void importChunkCommitted() {
+        publish(ImportChunkCommitted::new);
+    }
+
+    public void transportationsImported() {
+        publish(TransportationsImported::new);
+    }
+
+    private void publish(LongFunction<NetworkChangeEvent> change) {
+        NetworkChangeEvent event = change.apply(dataVersionService.increment());
+        JsonNode payload = objectMapper.valueToTree(event);
+        networkChangeRepository.save(new NetworkChange(event.version(), payload.get("type").asText(),
+                payload.toString(), Instant.now(), null));
+        eventPublisher.publishEvent(event);
+    }
+}
@@ -0,0 +1,194 @@
+package com.thy.flightroutes.event;
+
+import com.thy.flightroutes.entity.NetworkChange;
+import com.thy.flightroutes.repository.NetworkChangeRepository;
+import com.thy.flightroutes.service.DataVersionService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves committed changes from the {@link NetworkChange} outbox to the Redis stream
+ * {@code changes.relay.stream-key}, for services that mirror the network. Each entry's stream id is
+ * {@code <version>-0} and carries the version, type and payload, so consumers can dedupe by id and notice gaps
+ * (the stream is trimmed to {@code changes.relay.stream-max-length}); a gap or a lost stream is filled from
+ * {@code GET /api/changes}. A relay runs right after every commit and on a fixed delay, which also catches up
+ * after Redis outages and prunes published rows older than {@code changes.relay.retention}.
+ * <p>
+ * A row is marked published in the same transaction that reads it, after its XADD. If that transaction fails
+ * the rows are relayed again, and the ones already on the stream (up to its last id) are skipped.
+ * <p>
+ * Versions only order the changes of one database, so every entry also carries the database epoch. A stream
+ * whose last entry has another epoch (Redis kept across a reset or restore of the database, which starts
+ * counting again) or none is deleted and refilled from the unpublished rows, instead of taking the new changes
+ * for ones it already holds; consumers see the epoch change and resync from {@code GET /api/changes}.
+ */
+@Component
+@Slf4j
+public class NetworkChangeRelay {
+
+    private final NetworkChangeRepository networkChangeRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final DataVersionService dataVersionService;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicBoolean relayRequested = new AtomicBoolean();
+    private ScheduledExecutorService executor;
+
+    @Value("${changes.relay.enabled:true}")
+    private boolean enabled;
+
+    @Value("${changes.relay.stream-key:network-changes:stream}")
+    private String streamKey;
+
+    @Value("${changes.relay.interval:5s}")
+    private Duration interval;
+
+    @Value("${changes.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${changes.relay.stream-max-length:100000}")
+    private long streamMaxLength;
+
+    @Value("${changes.relay.retention:7d}")
+    private Duration retention;
+
+    public NetworkChangeRelay(NetworkChangeRepository networkChangeRepository, StringRedisTemplate redisTemplate,
+                              DataVersionService dataVersionService, PlatformTransactionManager transactionManager) {
+        this.networkChangeRepository = networkChangeRepository;
+        this.redisTemplate = redisTemplate;
+        this.dataVersionService = dataVersionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "network-change-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            relay();
+            prune();
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /** Relays shortly after a commit; commits arriving before the relay starts are picked up by the same run. */
+    @TransactionalEventListener
+    public void afterCommit(NetworkChangeEvent event) {
+        if (enabled && relayRequested.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                relayRequested.set(false);
+                relay();
+            });
+        }
+    }
+
+    /** @return the number of changes put on the stream */
+    int relay() {
+        int relayed = 0;
+        try {
+            Integer batch;
+            do {
+                batch = transactionTemplate.execute(status -> relayBatch());
+                relayed += batch;
+            } while (batch == batchSize);
+        } catch (DataAccessException ex) {
+            log.warn("Could not relay network changes, retrying in {}: {}", interval, ex.getMessage());
+        }
+        return relayed;
+    }
+
+    private int relayBatch() {
+        List<NetworkChange> batch = networkChangeRepository.findByPublishedAtIsNullOrderByVersion(
+                PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        String epoch = dataVersionService.currentEpoch();
+        if (epoch == null) {
+            // Set when the application is ready; the scheduled run picks the rows up
+            return 0;
+        }
+        StreamOperations<String, Object, Object> stream = redisTemplate.opsForStream();
+        long lastOnStream = lastVersionOnStream(stream, epoch);
+        Instant now = Instant.now();
+        for (NetworkChange change : batch) {
+            if (change.getVersion() > lastOnStream) {
+                MapRecord<String, String, String> record = StreamRecords.string(Map.of(
+                                "version", change.getVersion().toString(),
+                                "epoch", epoch,
+                                "type", change.getType(),
+                                "payload", change.getPayload()))
+                        .withStreamKey(streamKey)
+                        .withId(RecordId.of(change.getVersion(), 0));
+                stream.add(record);
+            }
+            change.setPublishedAt(now);
+        }
+        stream.trim(streamKey, streamMaxLength, true);
+        return batch.size();
+    }
+
+    private long lastVersionOnStream(StreamOperations<String, Object, Object> stream, String epoch) {
+        List<MapRecord<String, Object, Object>> last = stream.reverseRange(streamKey, Range.unbounded(),
+                Limit.limit().count(1));
+        if (last == null || last.isEmpty()) {
+            return 0;
+        }
+        Object lastEpoch = last.get(0).getValue().get("epoch");
+        if (!epoch.equals(lastEpoch)) {
+            // Its ids are versions of another database; XADD also refuses ids below the last one it generated
+            log.warn("Network change stream {} holds epoch {} up to version {}, this database is {}; recreating it",
+                    streamKey, lastEpoch, last.get(0).getId().getTimestamp(), epoch);
+            redisTemplate.delete(streamKey);
+            return 0;
+        }
+        return last.get(0).getId().getTimestamp();
+    }
+
+    void prune() {
+        try {
+            Integer pruned = transactionTemplate.execute(status ->
+                    networkChangeRepository.deletePublishedBefore(Instant.now().minus(retention)));
+            if (pruned != null && pruned > 0) {
+                log.debug("Pruned {} published network changes", pruned);
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Could not prune network changes: {}", ex.getMessage());
+        }
+    }
+}
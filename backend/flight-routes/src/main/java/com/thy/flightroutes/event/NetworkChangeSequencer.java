@@ -0,0 +1,105 @@
+package com.thy.flightroutes.event;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies changes to a {@link Replica} strictly in version order. A change right after the replica's version is
+ * applied at once; an older one is dropped; a newer one waits, since the changes before it may still be on
+ * their way (commits on other instances are published independently). If the gap is not filled within
+ * {@code gapTimeout} the replica is resynced from the database and the waiting changes it does not contain yet
+ * are applied on top.
+ */
+@Slf4j
+public class NetworkChangeSequencer {
+
+    public interface Replica {
+
+        /** @return the version the replica reflects, or -1 while it has not been loaded */
+        long version();
+
+        /** Applies the change for {@code version() + 1}. */
+        void apply(NetworkChangeEvent event);
+
+        /** Reloads the replica; afterwards it is at least at the version current in the database. */
+        void resync();
+    }
+
+    private final Replica replica;
+    private final Duration gapTimeout;
+    private final NavigableMap<Long, NetworkChangeEvent> pending = new TreeMap<>();
+    private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> gapCheck;
+
+    public NetworkChangeSequencer(Replica replica, Duration gapTimeout) {
+        this.replica = replica;
+        this.gapTimeout = gapTimeout;
+    }
+
+    public synchronized void accept(NetworkChangeEvent event) {
+        long version = replica.version();
+        if (version < 0 || event.version() <= version) {
+            return;
+        }
+        pending.put(event.version(), event);
+        drain();
+        if (!pending.isEmpty() && gapCheck == null) {
+            log.debug("Network change v{} arrived before v{}, waiting for the gap", event.version(), version + 1);
+            gapCheck = scheduler().schedule(this::checkGap, gapTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    synchronized void checkGap() {
+        gapCheck = null;
+        if (pending.isEmpty()) {
+            return;
+        }
+        log.info("Network changes v{}..v{} missing after {}, resyncing", replica.version() + 1,
+                pending.firstKey() - 1, gapTimeout);
+        replica.resync();
+        drain();
+        if (!pending.isEmpty()) {
+            gapCheck = scheduler().schedule(this::checkGap, gapTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    public synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void drain() {
+        NetworkChangeEvent next;
+        while ((next = pending.remove(replica.version() + 1)) != null) {
+            replica.apply(next);
+        }
+        pending.headMap(replica.version(), true).clear();
+        if (pending.isEmpty() && gapCheck != null) {
+            gapCheck.cancel(false);
+            gapCheck = null;
+        }
+    }
+
+    private ScheduledExecutorService scheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "network-change-gap");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return scheduler;
+    }
+}
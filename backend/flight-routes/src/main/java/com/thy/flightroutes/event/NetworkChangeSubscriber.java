@@ -0,0 +1,11 @@
+package com.thy.flightroutes.event;
+
+/**
+ * An in-memory copy of the network kept up to date by the change feed. Changes are delivered once after their
+ * commit on the writing instance and once more through Redis, on every instance, possibly out of order; the
+ * subscriber orders them by version (see {@link NetworkChangeSequencer}) and ignores those it already has.
+ */
+public interface NetworkChangeSubscriber {
+
+    void onNetworkChange(NetworkChangeEvent event);
+}
@@ -0,0 +1,12 @@
+package com.thy.flightroutes.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class RouteSearchTimeoutException extends RuntimeException {
+
+    public RouteSearchTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,49 @@
+package com.thy.flightroutes.repository;
+
+import com.thy.flightroutes.entity.DataVersion;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface DataVersionRepository extends JpaRepository<DataVersion, Integer> {
+
+    @Query("SELECT d.version FROM DataVersion d WHERE d.id = " + DataVersion.SINGLETON_ID)
+    Optional<Long> findCurrentVersion();
+
+    @Query("SELECT d.epoch FROM DataVersion d WHERE d.id = " + DataVersion.SINGLETON_ID)
+    Optional<String> findEpoch();
+
+    /** Sets the epoch unless another instance already did. */
+    @Modifying
+    @Query("UPDATE DataVersion d SET d.epoch = :epoch WHERE d.id = " + DataVersion.SINGLETON_ID
+            + " AND d.epoch IS NULL")
+    int initializeEpoch(@Param("epoch") String epoch);
+
+    @Modifying
+    @Query("UPDATE DataVersion d SET d.version = d.version + 1, d.updatedAt = :now WHERE d.id = "
+            + DataVersion.SINGLETON_ID)
+    int increment(@Param("now") Instant now);
+
+    /** Locks the row the way {@link #increment} does, so no write can bump the version until the transaction ends. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM DataVersion d WHERE d.id = " + DataVersion.SINGLETON_ID)
+    Optional<DataVersion> findForUpdate();
+
+    @Modifying
+    @Query("UPDATE DataVersion d SET d.routeCandidatesVersion = :version WHERE d.id = " + DataVersion.SINGLETON_ID)
+    int updateRouteCandidatesVersion(@Param("version") long version);
+
+    /** Moves the candidates version to {@code version} only if the table was current up to the version before it. */
+    @Modifying
+    @Query("UPDATE DataVersion d SET d.routeCandidatesVersion = :version WHERE d.id = " + DataVersion.SINGLETON_ID
+            + " AND d.routeCandidatesVersion = :version - 1")
+    int advanceRouteCandidatesVersion(@Param("version") long version);
+}
@@ -8,13 +8,16 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface LocationRepository extends JpaRepository<Location, Long> {
     Optional<Location> findByLocationCode(String locationCode);
+    List<Location> findByLocationCodeIn(Collection<String> locationCodes);
     List<Location> findByCity(String city);
+    List<Location> findByCityIn(Collection<String> cities);
     
     @Query("SELECT l FROM Location l WHERE " +
            "LOWER(l.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
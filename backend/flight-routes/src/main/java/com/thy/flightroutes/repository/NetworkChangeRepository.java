@@ -0,0 +1,32 @@
+package com.thy.flightroutes.repository;
+
+import com.thy.flightroutes.entity.NetworkChange;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface NetworkChangeRepository extends JpaRepository<NetworkChange, Long> {
+
+    List<NetworkChange> findByVersionGreaterThanOrderByVersion(Long version, Pageable pageable);
+
+    // Locked so that relays on several instances take turns and publish in version order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<NetworkChange> findByPublishedAtIsNullOrderByVersion(Pageable pageable);
+
+    @Query("SELECT MIN(c.version) FROM NetworkChange c")
+    Optional<Long> findFirstVersion();
+
+    @Modifying
+    @Query("DELETE FROM NetworkChange c WHERE c.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") Instant before);
+}
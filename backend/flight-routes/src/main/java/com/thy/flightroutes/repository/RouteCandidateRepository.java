@@ -0,0 +1,35 @@
+package com.thy.flightroutes.repository;
+
+import com.thy.flightroutes.entity.RouteCandidate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RouteCandidateRepository extends JpaRepository<RouteCandidate, Long> {
+
+    @Query("SELECT c FROM RouteCandidate c " +
+           "WHERE c.originLocationId = :originLocationId AND c.destinationLocationId = :destinationLocationId " +
+           "ORDER BY c.flightId, c.afterId, c.beforeId")
+    List<RouteCandidate> findByOriginAndDestination(
+            @Param("originLocationId") Long originLocationId,
+            @Param("destinationLocationId") Long destinationLocationId
+    );
+
+    @Query("SELECT DISTINCT c.flightId FROM RouteCandidate c " +
+           "WHERE c.beforeId = :transportationId OR c.afterId = :transportationId")
+    List<Long> findFlightIdsByTransferId(@Param("transportationId") Long transportationId);
+
+    @Modifying
+    @Query("DELETE FROM RouteCandidate c WHERE c.flightId IN :flightIds")
+    void deleteByFlightIdIn(@Param("flightIds") Collection<Long> flightIds);
+
+    @Modifying
+    @Query("DELETE FROM RouteCandidate c")
+    void deleteAllCandidates();
+}
@@ -54,6 +54,10 @@ public interface TransportationRepository extends JpaRepository<Transportation,
             Collection<Location> originLocation, Collection<Location> destinationLocation, TransportationType transportationType, Integer operatingDays
     );
 
+    List<Transportation> findByOriginLocationInAndTransportationTypeAndOperatingDaysContaining(
+            Collection<Location> originLocation, TransportationType transportationType, Integer operatingDays
+    );
+
     List<Transportation> findByOriginLocationAndTransportationType(
             Location originLocation,
             TransportationType type
@@ -74,6 +78,66 @@ public interface TransportationRepository extends JpaRepository<Transportation,
 
     List<Transportation> findByTransportationType(TransportationType type);
 
+    List<Transportation> findByOriginLocationAndTransportationTypeNot(
+            Location originLocation, TransportationType transportationType
+    );
+
+    List<Transportation> findByDestinationLocationAndTransportationTypeNot(
+            Location destinationLocation, TransportationType transportationType
+    );
+
+    @Query("SELECT t FROM Transportation t " +
+           "JOIN FETCH t.originLocation ol " +
+           "JOIN FETCH t.destinationLocation dl " +
+           "WHERE t.transportationType = :transportationType " +
+           "AND (ol.id IN :locationIds OR dl.id IN :locationIds)")
+    List<Transportation> findByTransportationTypeTouchingLocations(
+            @Param("transportationType") TransportationType transportationType,
+            @Param("locationIds") Collection<Long> locationIds
+    );
+
+    @Query("SELECT t FROM Transportation t " +
+           "JOIN FETCH t.originLocation " +
+           "JOIN FETCH t.destinationLocation " +
+           "LEFT JOIN FETCH t.operatingDays " +
+           "WHERE t.originLocation IN :originLocations AND t.transportationType = :transportationType " +
+           "AND :day MEMBER OF t.operatingDays")
+    List<Transportation> findByOriginLocationsAndTransportationTypeOnDayWithLocations(
+            @Param("originLocations") Collection<Location> originLocations,
+            @Param("transportationType") TransportationType transportationType,
+            @Param("day") Integer day
+    );
+
+    @Query("SELECT t FROM Transportation t " +
+           "JOIN FETCH t.originLocation " +
+           "JOIN FETCH t.destinationLocation " +
+           "LEFT JOIN FETCH t.operatingDays " +
+           "WHERE t.originLocation IN :originLocations AND t.transportationType <> :transportationType " +
+           "AND :day MEMBER OF t.operatingDays")
+    List<Transportation> findByOriginLocationsAndTransportationTypeNotOnDayWithLocations(
+            @Param("originLocations") Collection<Location> originLocations,
+            @Param("transportationType") TransportationType transportationType,
+            @Param("day") Integer day
+    );
+
+    @Query("SELECT t FROM Transportation t " +
+           "JOIN FETCH t.originLocation " +
+           "JOIN FETCH t.destinationLocation " +
+           "LEFT JOIN FETCH t.operatingDays " +
+           "WHERE t.destinationLocation IN :destinationLocations AND t.transportationType <> :transportationType " +
+           "AND :day MEMBER OF t.operatingDays")
+    List<Transportation> findByDestinationLocationsAndTransportationTypeNotOnDayWithLocations(
+            @Param("destinationLocations") Collection<Location> destinationLocations,
+            @Param("transportationType") TransportationType transportationType,
+            @Param("day") Integer day
+    );
+
+    @Query("SELECT t FROM Transportation t " +
+           "JOIN FETCH t.originLocation " +
+           "JOIN FETCH t.destinationLocation " +
+           "WHERE t.id IN :ids")
+    List<Transportation> findAllByIdInWithLocations(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT DISTINCT t.operatingDays FROM Transportation t " +
            "JOIN t.operatingDays od " +
            "WHERE t.originLocation IN :originLocations " +
@@ -85,6 +149,14 @@ public interface TransportationRepository extends JpaRepository<Transportation,
             @Param("transportationType") TransportationType transportationType
     );
 
+    // Scalar projections for bulk loads that should not hydrate entities
+    @Query("SELECT t.id, t.originLocation.id, t.destinationLocation.id, t.transportationType, " +
+           "t.departureTime, t.arrivalTime FROM Transportation t")
+    List<Object[]> findAllTransportationRows();
+
+    @Query("SELECT t.id, od FROM Transportation t JOIN t.operatingDays od")
+    List<Object[]> findAllOperatingDayRows();
+
     @Query("SELECT DISTINCT t.transportationType FROM Transportation t")
     List<TransportationType> findDistinctTransportationTypes();
 
@@ -0,0 +1,294 @@
+package com.thy.flightroutes.service;
+
+import com.thy.flightroutes.dto.RouteRequestDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pre-computes the most requested routes and locations so that the first requests after a deploy or a
+ * cache clear do not all miss. Request frequencies are counted locally, flushed to Redis sorted sets
+ * bucketed per day (kept for a week, shared by all instances), and the top entries of the last seven days
+ * are replayed through the cached service methods on a single background thread, at a limited rate.
+ */
+@Service
+@Slf4j
+public class CacheWarmupService {
+
+    static final String ROUTE_KEY_PREFIX = "warmup:routes:";
+    static final String LOCATION_KEY_PREFIX = "warmup:locations:";
+    static final int BUCKET_DAYS = 7;
+
+    public enum Phase { DISABLED, PENDING, RUNNING, DONE }
+
+    public record Status(boolean ready, Phase phase, int planned, int completed, int failed) {
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final RouteService routeService;
+    private final LocationService locationService;
+
+    @Value("${routes.warmup.enabled:false}")
+    private boolean enabled;
+
+    @Value("${routes.warmup.top-routes:200}")
+    private int topRoutes;
+
+    @Value("${routes.warmup.top-locations:50}")
+    private int topLocations;
+
+    @Value("${routes.warmup.max-per-second:20}")
+    private int maxPerSecond;
+
+    @Value("${routes.warmup.flush-interval:10s}")
+    private Duration flushInterval;
+
+    @Value("${routes.warmup.delay:5s}")
+    private Duration delay;
+
+    @Value("${routes.warmup.readiness-timeout:2m}")
+    private Duration readinessTimeout;
+
+    private final Map<String, LongAdder> routeCounts = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> locationCounts = new ConcurrentHashMap<>();
+    private final AtomicBoolean warmupScheduled = new AtomicBoolean();
+    private final AtomicInteger planned = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile Phase phase = Phase.PENDING;
+    // Only the warm-up at startup gates readiness; later ones run while the instance keeps serving
+    private volatile boolean startupWarmupFinished;
+    private volatile long readyDeadline = Long.MAX_VALUE;
+    private ScheduledExecutorService executor;
+
+    public CacheWarmupService(StringRedisTemplate redisTemplate, RouteService routeService,
+                              LocationService locationService) {
+        this.redisTemplate = redisTemplate;
+        this.routeService = routeService;
+        this.locationService = locationService;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            phase = Phase.DISABLED;
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flushFrequencies, flushInterval.toMillis(), flushInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        readyDeadline = System.nanoTime() + readinessTimeout.toNanos();
+        schedule(Duration.ZERO);
+    }
+
+    /** Warms the caches again shortly; repeated calls before it starts collapse into one run. */
+    public void requestWarmup() {
+        if (enabled) {
+            schedule(delay);
+        }
+    }
+
+    public void recordRouteSearch(RouteRequestDTO request) {
+        if (enabled && request.getDate() != null) {
+            String member = request.getOriginLocationCode() + "|" + request.getDestinationLocationCode() + "|"
+                    + request.getDate().getDayOfWeek().getValue();
+            routeCounts.computeIfAbsent(member, key -> new LongAdder()).increment();
+        }
+    }
+
+    public void recordLocationLookup(String code) {
+        if (enabled) {
+            locationCounts.computeIfAbsent(code, key -> new LongAdder()).increment();
+        }
+    }
+
+    public Status status() {
+        boolean ready = !enabled || startupWarmupFinished || System.nanoTime() - readyDeadline > 0;
+        return new Status(ready, phase, planned.get(), completed.get(), failed.get());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            flushFrequencies();
+        }
+    }
+
+    private void schedule(Duration after) {
+        if (warmupScheduled.compareAndSet(false, true)) {
+            executor.schedule(this::warmUp, after.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /* ---------- FREQUENCIES ---------- */
+
+    void flushFrequencies() {
+        String day = LocalDate.now().toString();
+        Map<String, Long> routes = drain(routeCounts);
+        Map<String, Long> locations = drain(locationCounts);
+        if (routes.isEmpty() && locations.isEmpty()) {
+            return;
+        }
+        long ttlSeconds = Duration.ofDays(BUCKET_DAYS + 1).toSeconds();
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                increment(connection, ROUTE_KEY_PREFIX + day, routes, ttlSeconds);
+                increment(connection, LOCATION_KEY_PREFIX + day, locations, ttlSeconds);
+                return null;
+            });
+        } catch (DataAccessException ex) {
+            // Losing a few counts only makes the ranking slightly less exact
+            log.warn("Could not record cache warm-up frequencies: {}", ex.getMessage());
+        }
+    }
+
+    private static Map<String, Long> drain(Map<String, LongAdder> counts) {
+        Map<String, Long> drained = new HashMap<>();
+        for (String key : counts.keySet()) {
+            LongAdder adder = counts.remove(key);
+            if (adder != null) {
+                drained.put(key, adder.sum());
+            }
+        }
+        return drained;
+    }
+
+    private static void increment(RedisConnection connection, String key, Map<String, Long> counts, long ttlSeconds) {
+        if (counts.isEmpty()) {
+            return;
+        }
+        StringRedisConnection strings = (StringRedisConnection) connection;
+        counts.forEach((member, count) -> strings.zIncrBy(key, count, member));
+        strings.expire(key, ttlSeconds);
+    }
+
+    List<String> topMembers(String prefix, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        LocalDate today = LocalDate.now();
+        List<String> buckets = new ArrayList<>();
+        for (int i = 1; i < BUCKET_DAYS; i++) {
+            buckets.add(prefix + today.minusDays(i));
+        }
+        String top = prefix + "top";
+        redisTemplate.opsForZSet().unionAndStore(prefix + today, buckets, top);
+        Set<String> members = redisTemplate.opsForZSet().reverseRange(top, 0, limit - 1);
+        redisTemplate.expire(top, Duration.ofMinutes(5));
+        return members == null ? List.of() : new ArrayList<>(members);
+    }
+
+    /* ---------- WARM-UP ---------- */
+
+    void warmUp() {
+        warmupScheduled.set(false);
+        phase = Phase.RUNNING;
+        planned.set(0);
+        completed.set(0);
+        failed.set(0);
+        long started = System.nanoTime();
+        try {
+            flushFrequencies();
+            List<String> locations = topMembers(LOCATION_KEY_PREFIX, topLocations);
+            List<String> routes = topMembers(ROUTE_KEY_PREFIX, topRoutes);
+            planned.set(locations.size() + routes.size());
+
+            Pacer pacer = new Pacer(maxPerSecond);
+            for (String code : locations) {
+                pacer.await();
+                warm(() -> locationService.getLocationByCode(code));
+            }
+            LocalDate today = LocalDate.now();
+            for (String member : routes) {
+                String[] parts = member.split("\\|");
+                if (parts.length != 3) {
+                    failed.incrementAndGet();
+                    continue;
+                }
+                LocalDate date = today.with(TemporalAdjusters.nextOrSame(DayOfWeek.of(Integer.parseInt(parts[2]))));
+                pacer.await();
+                warm(() -> routeService.findRoutes(RouteRequestDTO.builder()
+                        .originLocationCode(parts[0])
+                        .destinationLocationCode(parts[1])
+                        .date(date)
+                        .build()));
+            }
+            log.info("Cache warm-up finished in {} ms: {} of {} entries, {} failed",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), completed.get(), planned.get(),
+                    failed.get());
+        } catch (DataAccessException ex) {
+            log.warn("Cache warm-up skipped, frequencies are unavailable: {}", ex.getMessage());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            phase = Phase.DONE;
+            startupWarmupFinished = true;
+        }
+    }
+
+    private void warm(Runnable call) {
+        try {
+            call.run();
+            completed.incrementAndGet();
+        } catch (RuntimeException ex) {
+            // e.g. a location deleted since it was counted
+            failed.incrementAndGet();
+            log.debug("Cache warm-up entry failed: {}", ex.getMessage());
+        }
+    }
+
+    private static final class Pacer {
+        private final long intervalNanos;
+        private long next = System.nanoTime();
+
+        Pacer(int perSecond) {
+            this.intervalNanos = perSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / perSecond : 0;
+        }
+
+        void await() throws InterruptedException {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            next = Math.max(next, System.nanoTime()) + intervalNanos;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.thy.flightroutes.service;
+
+import com.thy.flightroutes.dto.RouteDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * A {@code routes} cache entry: the search result plus what {@link RouteResultCache} needs to decide whether it
+ * may still be served. Times are epoch milliseconds.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedRoutes {
+    private List<RouteDTO> routes;
+
+    // Data version the result was computed from
+    private long dataVersion;
+
+    private long computedAt;
+
+    private long freshUntil;
+
+    // How long after going stale the entry may still be served while it is refreshed; 0 for cold keys
+    private long staleMillis;
+
+    /** Redis expiry: once both the fresh and the stale window are over nobody may read it. */
+    public Duration timeToLive(long now) {
+        return Duration.ofMillis(Math.max(1000, freshUntil + staleMillis - now));
+    }
+}
@@ -0,0 +1,59 @@
+package com.thy.flightroutes.service;
+
+import com.thy.flightroutes.dto.ChangeFeedDTO;
+import com.thy.flightroutes.dto.NetworkChangeDTO;
+import com.thy.flightroutes.entity.NetworkChange;
+import com.thy.flightroutes.repository.NetworkChangeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Cursor-based reads of the network change outbox. The cursor is the data version: versions are consecutive
+ * and every one has a row, so a consumer that applies the changes in order and stores the returned cursor
+ * sees every change exactly once, whatever it retries.
+ * <p>
+ * Read on the primary, not in a read-only transaction that may go to a replica: a replica behind the version a
+ * consumer already holds would report its cursor as ahead of the data and ask it to resync.
+ */
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class ChangeFeedService {
+
+    private final NetworkChangeRepository networkChangeRepository;
+    private final DataVersionService dataVersionService;
+
+    @Value("${changes.feed.max-limit:1000}")
+    private int maxLimit;
+
+    public ChangeFeedDTO changesSince(long since, int limit) {
+        if (since < 0) {
+            throw new IllegalArgumentException("since cannot be negative");
+        }
+        if (limit < 1 || limit > maxLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxLimit);
+        }
+        long currentVersion = dataVersionService.currentVersion();
+        // Rows before the first one were pruned, or predate the outbox
+        long firstKept = networkChangeRepository.findFirstVersion().orElse(currentVersion + 1);
+        if (since > currentVersion || (since < currentVersion && since + 1 < firstKept)) {
+            return new ChangeFeedDTO(List.of(), since, currentVersion, false, true);
+        }
+
+        List<NetworkChange> rows = networkChangeRepository.findByVersionGreaterThanOrderByVersion(
+                since, PageRequest.of(0, limit + 1));
+        boolean hasMore = rows.size() > limit;
+        List<NetworkChangeDTO> changes = rows.stream()
+                .limit(limit)
+                .map(row -> new NetworkChangeDTO(row.getVersion(), row.getType(), row.getCreatedAt(),
+                        row.getPayload()))
+                .toList();
+        long cursor = changes.isEmpty() ? since : changes.get(changes.size() - 1).getVersion();
+        return new ChangeFeedDTO(changes, cursor, currentVersion, hasMore, false);
+    }
+}
@@ -0,0 +1,249 @@
+package com.thy.flightroutes.service;
+
+import com.thy.flightroutes.entity.Transportation.TransportationType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Connection Scan over a {@link TimetableIndex}: one pass over the day's connections in departure order,
+ * followed by the next day's so that overnight arrivals can still connect. Itineraries keep the
+ * [transfer] -> flight -> [transfer] shape of the untimed search, so each location has one earliest
+ * arrival per stage of that shape. Changing legs at a location requires its minimum connection time.
+ * As in the untimed search, a transfer can only be skipped at an airport that has none: a flight leaves
+ * directly from a city airport only if no transfer from the origin serves it, and ends the itinerary at
+ * a destination-city airport only if no transfer from it serves the destination.
+ * Times are minutes from the start of the search date.
+ */
+final class ConnectionScan {
+
+    private static final int FLIGHT = TransportationType.FLIGHT.ordinal();
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int NONE = Integer.MAX_VALUE;
+
+    // Stages: at the start, after the before-flight transfer, after the flight (with or without a
+    // before-flight transfer) and after the after-flight transfer (likewise)
+    private static final int START = 0;
+    private static final int BEFORE = 1;
+    private static final int FLOWN = 2;
+    private static final int FLOWN_AFTER_BEFORE = 3;
+    private static final int DONE = 4;
+    private static final int DONE_AFTER_BEFORE = 5;
+
+    /** Transportation indexes of one itinerary, -1 for a missing transfer. */
+    record Journey(int before, int flight, int after, int departure, int arrival) {
+
+        int legs() {
+            return 1 + (before >= 0 ? 1 : 0) + (after >= 0 ? 1 : 0);
+        }
+    }
+
+    private final RouteNetwork network;
+    private final int defaultMinConnectionMinutes;
+    private final int origin;
+    private final int destination;
+    private final BitSet originAirports;
+    private final BitSet destinationAirports;
+    private final BitSet servedByBefore = new BitSet();
+    private final BitSet servedByAfter = new BitSet();
+    private final int[][] arrivals;
+    private final int[][] reachedBy;
+    // Earliest arrival at the destination per number of legs, used to stop the scan early
+    private final int[] bestByLegs = {NONE, NONE, NONE, NONE};
+
+    private ConnectionScan(RouteNetwork network, int origin, int destination, int[] originAirports,
+                           int[] destinationAirports, int defaultMinConnectionMinutes) {
+        this.network = network;
+        this.origin = origin;
+        this.destination = destination;
+        this.defaultMinConnectionMinutes = defaultMinConnectionMinutes;
+        this.originAirports = toBitSet(originAirports);
+        this.destinationAirports = toBitSet(destinationAirports);
+        this.arrivals = new int[DONE_AFTER_BEFORE + 1][network.locationCount()];
+        this.reachedBy = new int[DONE_AFTER_BEFORE + 1][network.locationCount()];
+        for (int[] stage : arrivals) {
+            Arrays.fill(stage, NONE);
+        }
+    }
+
+    /**
+     * @param originAirports      airports a flight may leave from, as in the untimed search
+     * @param destinationAirports airports a flight may arrive at, as in the untimed search
+     * @param earliestDeparture   minutes after midnight of the search date
+     * @return the Pareto-optimal itineraries on (legs, arrival), fewest legs first; the last one arrives earliest
+     */
+    static List<Journey> search(RouteNetwork network, int origin, int destination,
+                                int[] originAirports, int[] destinationAirports,
+                                int day, int earliestDeparture, int defaultMinConnectionMinutes) {
+        ConnectionScan scan = new ConnectionScan(network, origin, destination, originAirports,
+                destinationAirports, defaultMinConnectionMinutes);
+        scan.run(day, earliestDeparture);
+        return scan.paretoJourneys();
+    }
+
+    private void run(int day, int earliestDeparture) {
+        findTransferAirports(day, earliestDeparture);
+        arrivals[START][origin] = earliestDeparture;
+        for (int airport = originAirports.nextSetBit(0); airport >= 0; airport = originAirports.nextSetBit(airport + 1)) {
+            if (!servedByBefore.get(airport)) {
+                arrivals[START][airport] = earliestDeparture;
+            }
+        }
+        TimetableIndex timetable = network.timetable();
+        for (int dayOffset = 0; dayOffset < 2; dayOffset++) {
+            int[] connections = timetable.connections((day - 1 + dayOffset) % 7 + 1);
+            for (int connection : connections) {
+                int departure = dayOffset * MINUTES_PER_DAY + network.departureMinute(connection);
+                // Later connections cannot improve any arrival: the one-leg arrival bounds all others
+                if (departure >= bestByLegs[1]) {
+                    return;
+                }
+                scan(connection, departure, dayOffset == 0);
+            }
+        }
+    }
+
+    private void findTransferAirports(int day, int earliestDeparture) {
+        int dayBit = 1 << (day - 1);
+        int nextDayBit = 1 << (day % 7);
+        RouteNetwork.EdgeCursor cursor = network.cursor();
+        if (!isAirport(origin)) {
+            cursor.outgoing(origin);
+            while (cursor.next()) {
+                int departure = network.departureMinute(cursor.edge());
+                if (cursor.typeOrdinal() != FLIGHT && departure >= earliestDeparture
+                        && (cursor.dayMask() & dayBit) != 0 && originAirports.get(cursor.destination())) {
+                    servedByBefore.set(cursor.destination());
+                }
+            }
+        }
+        if (!isAirport(destination)) {
+            cursor.incoming(destination);
+            while (cursor.next()) {
+                if (cursor.typeOrdinal() != FLIGHT && network.departureMinute(cursor.edge()) >= 0
+                        && (cursor.dayMask() & (dayBit | nextDayBit)) != 0
+                        && destinationAirports.get(cursor.origin())) {
+                    servedByAfter.set(cursor.origin());
+                }
+            }
+        }
+    }
+
+    private void scan(int connection, int departure, boolean firstDay) {
+        int from = network.origin(connection);
+        int to = network.destination(connection);
+        int arrival = departure + network.duration(connection);
+        if (network.typeOrdinal(connection) == FLIGHT) {
+            if (!originAirports.get(from) || !destinationAirports.get(to)) {
+                return;
+            }
+            if (firstDay && arrivals[START][from] <= departure) {
+                relax(FLOWN, to, arrival, connection, servedByAfter.get(to) ? 0 : 1);
+            }
+            if (canConnect(BEFORE, from, departure)) {
+                relax(FLOWN_AFTER_BEFORE, to, arrival, connection, servedByAfter.get(to) ? 0 : 2);
+            }
+        } else {
+            if (firstDay && from == origin && servedByBefore.get(to) && arrivals[START][from] <= departure) {
+                relax(BEFORE, to, arrival, connection, 0);
+            }
+            if (to == destination && servedByAfter.get(from)) {
+                if (canConnect(FLOWN, from, departure)) {
+                    relax(DONE, to, arrival, connection, 2);
+                }
+                if (canConnect(FLOWN_AFTER_BEFORE, from, departure)) {
+                    relax(DONE_AFTER_BEFORE, to, arrival, connection, 3);
+                }
+            }
+        }
+    }
+
+    private boolean canConnect(int stage, int location, int departure) {
+        int arrival = arrivals[stage][location];
+        if (arrival == NONE) {
+            return false;
+        }
+        int minConnection = network.minConnectionMinutes(location);
+        return arrival + (minConnection >= 0 ? minConnection : defaultMinConnectionMinutes) <= departure;
+    }
+
+    // legs > 0 marks an arrival that ends an itinerary
+    private void relax(int stage, int location, int arrival, int connection, int legs) {
+        if (arrival < arrivals[stage][location]) {
+            arrivals[stage][location] = arrival;
+            reachedBy[stage][location] = connection;
+            if (legs > 0 && arrival < bestByLegs[legs]) {
+                bestByLegs[legs] = arrival;
+            }
+        }
+    }
+
+    private List<Journey> paretoJourneys() {
+        Journey[] bestByLegCount = new Journey[4];
+        for (int airport = destinationAirports.nextSetBit(0); airport >= 0;
+             airport = destinationAirports.nextSetBit(airport + 1)) {
+            if (servedByAfter.get(airport)) {
+                continue;
+            }
+            keepEarlier(bestByLegCount, journeyTo(FLOWN, airport));
+            keepEarlier(bestByLegCount, journeyTo(FLOWN_AFTER_BEFORE, airport));
+        }
+        keepEarlier(bestByLegCount, journeyTo(DONE, destination));
+        keepEarlier(bestByLegCount, journeyTo(DONE_AFTER_BEFORE, destination));
+
+        List<Journey> journeys = new ArrayList<>();
+        int earliest = NONE;
+        for (int legs = 1; legs <= 3; legs++) {
+            Journey journey = bestByLegCount[legs];
+            if (journey != null && journey.arrival() < earliest) {
+                journeys.add(journey);
+                earliest = journey.arrival();
+            }
+        }
+        return journeys;
+    }
+
+    private static void keepEarlier(Journey[] bestByLegCount, Journey journey) {
+        if (journey != null && (bestByLegCount[journey.legs()] == null
+                || journey.arrival() < bestByLegCount[journey.legs()].arrival())) {
+            bestByLegCount[journey.legs()] = journey;
+        }
+    }
+
+    private Journey journeyTo(int stage, int location) {
+        int arrival = arrivals[stage][location];
+        if (arrival == NONE) {
+            return null;
+        }
+        int after = -1;
+        int flightStage = stage;
+        if (stage == DONE || stage == DONE_AFTER_BEFORE) {
+            after = reachedBy[stage][location];
+            flightStage = stage == DONE ? FLOWN : FLOWN_AFTER_BEFORE;
+            location = network.origin(after);
+        }
+        int flight = reachedBy[flightStage][location];
+        int departure = arrivals[flightStage][location] - network.duration(flight);
+        int before = -1;
+        if (flightStage == FLOWN_AFTER_BEFORE) {
+            int airport = network.origin(flight);
+            before = reachedBy[BEFORE][airport];
+            departure = arrivals[BEFORE][airport] - network.duration(before);
+        }
+        return new Journey(before, flight, after, departure, arrival);
+    }
+
+    private boolean isAirport(int location) {
+        return network.locationCode(location).length() == 3;
+    }
+
+    private static BitSet toBitSet(int[] locations) {
+        BitSet set = new BitSet();
+        for (int location : locations) {
+            set.set(location);
+        }
+        return set;
+    }
+}
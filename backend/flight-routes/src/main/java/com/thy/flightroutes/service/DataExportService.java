@@ -0,0 +1,190 @@
+package com.thy.flightroutes.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thy.flightroutes.service.ExportWriter.Column;
+import com.thy.flightroutes.service.ExportWriter.ColumnType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streams the full location and transportation tables. Rows are read with a forward-only cursor and a fixed
+ * fetch size inside a read-only transaction (PostgreSQL only honours the fetch size without auto-commit), and
+ * written straight to the output, so memory use does not depend on the table size and no entities are loaded.
+ */
+@Slf4j
+@Service
+public class DataExportService {
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson"),
+        COLUMNAR("application/octet-stream", "frcx");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public static Format of(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Unsupported export format: " + name + ". Use csv, ndjson or columnar");
+            }
+        }
+    }
+
+    static final List<Column> LOCATION_COLUMNS = List.of(
+            new Column("id", ColumnType.LONG),
+            new Column("locationCode", ColumnType.STRING),
+            new Column("name", ColumnType.STRING),
+            new Column("city", ColumnType.STRING),
+            new Column("country", ColumnType.STRING),
+            new Column("isAirport", ColumnType.BOOLEAN),
+            new Column("minConnectionMinutes", ColumnType.INT));
+
+    // Same names as the bulk import, so an export can be loaded back as is
+    static final List<Column> TRANSPORTATION_COLUMNS = List.of(
+            new Column("id", ColumnType.LONG),
+            new Column("originLocationCode", ColumnType.STRING),
+            new Column("destinationLocationCode", ColumnType.STRING),
+            new Column("transportationType", ColumnType.STRING),
+            new Column("operatingDays", ColumnType.DAYS),
+            new Column("departureTime", ColumnType.TIME),
+            new Column("arrivalTime", ColumnType.TIME));
+
+    private static final String LOCATIONS_SQL = "SELECT id, location_code, name, city, country, is_airport, "
+            + "min_connection_minutes FROM locations ORDER BY id";
+
+    // One row per operating day, ordered by transportation, folded back into one row per transportation
+    private static final String TRANSPORTATIONS_SQL = "SELECT t.id, o.location_code, d.location_code, "
+            + "t.transportation_type, t.departure_time, t.arrival_time, od.operating_days "
+            + "FROM transportations t "
+            + "JOIN locations o ON o.id = t.origin_location_id "
+            + "JOIN locations d ON d.id = t.destination_location_id "
+            + "LEFT JOIN transportation_operating_days od ON od.transportation_id = t.id "
+            + "ORDER BY t.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonFactory jsonFactory;
+
+    public DataExportService(DataSource dataSource,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             @Value("${exports.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public long exportLocations(Format format, OutputStream out) throws IOException {
+        ExportWriter writer = ExportWriter.create(format, LOCATION_COLUMNS, out, jsonFactory);
+        long rows = stream(LOCATIONS_SQL, rs -> {
+            Object[] row = new Object[LOCATION_COLUMNS.size()];
+            row[0] = rs.getLong(1);
+            row[1] = rs.getString(2);
+            row[2] = rs.getString(3);
+            row[3] = rs.getString(4);
+            row[4] = rs.getString(5);
+            row[5] = rs.getBoolean(6);
+            int minConnectionMinutes = rs.getInt(7);
+            row[6] = rs.wasNull() ? null : minConnectionMinutes;
+            write(writer, row);
+            return 1;
+        });
+        writer.finish();
+        log.info("Exported {} locations as {}", rows, format);
+        return rows;
+    }
+
+    public long exportTransportations(Format format, OutputStream out) throws IOException {
+        ExportWriter writer = ExportWriter.create(format, TRANSPORTATION_COLUMNS, out, jsonFactory);
+        Object[][] pending = new Object[1][];
+        long rows = stream(TRANSPORTATIONS_SQL, rs -> {
+            long id = rs.getLong(1);
+            int day = rs.getInt(7);
+            int dayBit = rs.wasNull() ? 0 : 1 << (day - 1);
+            if (pending[0] != null && (Long) pending[0][0] == id) {
+                pending[0][4] = (Integer) pending[0][4] | dayBit;
+                return 0;
+            }
+            int written = 0;
+            if (pending[0] != null) {
+                write(writer, pending[0]);
+                written = 1;
+            }
+            Object[] row = new Object[TRANSPORTATION_COLUMNS.size()];
+            row[0] = id;
+            row[1] = rs.getString(2);
+            row[2] = rs.getString(3);
+            row[3] = rs.getString(4);
+            row[4] = dayBit;
+            row[5] = rs.getObject(5, LocalTime.class);
+            row[6] = rs.getObject(6, LocalTime.class);
+            pending[0] = row;
+            return written;
+        });
+        if (pending[0] != null) {
+            writer.write(pending[0]);
+            rows++;
+        }
+        writer.finish();
+        log.info("Exported {} transportations as {}", rows, format);
+        return rows;
+    }
+
+    private interface RowHandler {
+        // Returns how many output rows were written for this result row
+        int handle(ResultSet rs) throws SQLException;
+    }
+
+    private long stream(String sql, RowHandler handler) throws IOException {
+        long[] written = new long[1];
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(sql, rs -> {
+                written[0] += handler.handle(rs);
+            }));
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        return written[0];
+    }
+
+    private static void write(ExportWriter writer, Object[] row) {
+        try {
+            writer.write(row);
+        } catch (IOException ex) {
+            // Usually the client went away; rolls back the read-only transaction and ends the cursor
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.thy.flightroutes.service;
+
+import com.thy.flightroutes.entity.DataVersion;
+import com.thy.flightroutes.repository.DataVersionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Global version of the route network data. The increment runs inside the writing transaction,
+ * so a reader that sees version N also sees every change counted in N.
+ */
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class DataVersionService {
+
+    private final DataVersionRepository dataVersionRepository;
+
+    // Before the listeners that compare their copies against the version and epoch
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void initialize() {
+        // Schemas created by Hibernate (dev and test profiles) don't get the row Liquibase inserts; they start
+        // at version 0 again on every boot, so the new epoch is what tells their data apart
+        if (!dataVersionRepository.existsById(DataVersion.SINGLETON_ID)) {
+            DataVersion dataVersion = new DataVersion(DataVersion.SINGLETON_ID, 0L, Instant.now());
+            dataVersion.setEpoch(UUID.randomUUID().toString());
+            dataVersionRepository.save(dataVersion);
+        } else {
+            dataVersionRepository.initializeEpoch(UUID.randomUUID().toString());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long currentVersion() {
+        return dataVersionRepository.findCurrentVersion().orElse(0L);
+    }
+
+    /**
+     * Random id of this database's data. Versions only order the changes of one database; a copy is current
+     * when both its version and its epoch match.
+     */
+    @Transactional(readOnly = true)
+    public String currentEpoch() {
+        return dataVersionRepository.findEpoch().orElse(null);
+    }
+
+    /** Version and time of the last change, for HTTP validators. */
+    @Transactional(readOnly = true)
+    public DataVersion current() {
+        return dataVersionRepository.findById(DataVersion.SINGLETON_ID)
+                .orElseGet(() -> new DataVersion(DataVersion.SINGLETON_ID, 0L, Instant.EPOCH));
+    }
+
+    /**
+     * @return the new version; the row stays locked until the transaction ends, so concurrent writers get
+     * consecutive versions in commit order
+     */
+    public long increment() {
+        dataVersionRepository.increment(Instant.now());
+        return dataVersionRepository.findCurrentVersion().orElse(0L);
+    }
+}
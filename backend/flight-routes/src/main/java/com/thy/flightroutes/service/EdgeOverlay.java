@@ -0,0 +1,186 @@
+package com.thy.flightroutes.service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Transportations added, changed or removed since a {@link RouteNetwork}'s {@link EdgeStore} was built, so a
+ * single write is applied without rebuilding the store. Immutable: a change returns a new overlay, which costs
+ * O(overlay) rather than O(network) because the network is rebuilt once the overlay grows past
+ * {@code routes.network.max-overlay}.
+ * <p>
+ * Overlay edges take the indexes after the store's ({@code baseEdges + k}). Removed edges, from the store or
+ * superseded overlay edges, are flagged in {@link #removed}. The per-location lists only hold live overlay edges,
+ * sorted by transportation id like the store's ranges, so a cursor can merge the two.
+ */
+final class EdgeOverlay {
+
+    static final EdgeOverlay EMPTY = new EdgeOverlay(0, new BitSet(), 0, new long[0], new int[0], new int[0],
+            new byte[0], new byte[0], new short[0], new short[0], Map.of(), Map.of(), Map.of());
+
+    private static final int[] NONE = new int[0];
+
+    private final int baseEdges;
+    private final BitSet removed;
+    private final int size;
+    private final long[] ids;
+    private final int[] origins;
+    private final int[] destinations;
+    private final byte[] types;
+    private final byte[] dayMasks;
+    private final short[] departures;
+    private final short[] durations;
+    private final Map<Integer, int[]> outgoing;
+    private final Map<Integer, int[]> incoming;
+    private final Map<Long, Integer> liveById;
+
+    private EdgeOverlay(int baseEdges, BitSet removed, int size, long[] ids, int[] origins, int[] destinations,
+                        byte[] types, byte[] dayMasks, short[] departures, short[] durations,
+                        Map<Integer, int[]> outgoing, Map<Integer, int[]> incoming, Map<Long, Integer> liveById) {
+        this.baseEdges = baseEdges;
+        this.removed = removed;
+        this.size = size;
+        this.ids = ids;
+        this.origins = origins;
+        this.destinations = destinations;
+        this.types = types;
+        this.dayMasks = dayMasks;
+        this.departures = departures;
+        this.durations = durations;
+        this.outgoing = outgoing;
+        this.incoming = incoming;
+        this.liveById = liveById;
+    }
+
+    boolean isEmpty() {
+        return size == 0 && removed.isEmpty();
+    }
+
+    /** Overlay edges, including superseded ones; a measure of how far the network is from its store. */
+    int size() {
+        return size;
+    }
+
+    int removedCount() {
+        return removed.cardinality();
+    }
+
+    boolean isRemoved(int edge) {
+        return removed.get(edge);
+    }
+
+    /** @return the live overlay edge of the transportation, or -1 */
+    int edgeIndex(long transportationId) {
+        return liveById.getOrDefault(transportationId, -1);
+    }
+
+    int[] outgoing(int location) {
+        return outgoing.getOrDefault(location, NONE);
+    }
+
+    int[] incoming(int location) {
+        return incoming.getOrDefault(location, NONE);
+    }
+
+    long transportationId(int edge) {
+        return ids[edge - baseEdges];
+    }
+
+    int origin(int edge) {
+        return origins[edge - baseEdges];
+    }
+
+    int destination(int edge) {
+        return destinations[edge - baseEdges];
+    }
+
+    byte typeOrdinal(int edge) {
+        return types[edge - baseEdges];
+    }
+
+    int dayMask(int edge) {
+        return dayMasks[edge - baseEdges] & 0xFF;
+    }
+
+    int departureMinute(int edge) {
+        return departures[edge - baseEdges];
+    }
+
+    int duration(int edge) {
+        return durations[edge - baseEdges];
+    }
+
+    /** @param baseEdges edge count of the store the overlay applies to; only read for the first change */
+    EdgeOverlay add(int baseEdges, long id, int origin, int destination, byte type, byte dayMask,
+                    short departure, short duration) {
+        int base = size == 0 && removed.isEmpty() ? baseEdges : this.baseEdges;
+        int edge = base + size;
+        long[] newIds = Arrays.copyOf(ids, size + 1);
+        int[] newOrigins = Arrays.copyOf(origins, size + 1);
+        int[] newDestinations = Arrays.copyOf(destinations, size + 1);
+        byte[] newTypes = Arrays.copyOf(types, size + 1);
+        byte[] newDayMasks = Arrays.copyOf(dayMasks, size + 1);
+        short[] newDepartures = Arrays.copyOf(departures, size + 1);
+        short[] newDurations = Arrays.copyOf(durations, size + 1);
+        newIds[size] = id;
+        newOrigins[size] = origin;
+        newDestinations[size] = destination;
+        newTypes[size] = type;
+        newDayMasks[size] = dayMask;
+        newDepartures[size] = departure;
+        newDurations[size] = duration;
+
+        Map<Long, Integer> newLiveById = new HashMap<>(liveById);
+        newLiveById.put(id, edge);
+        return new EdgeOverlay(base, removed, size + 1, newIds, newOrigins, newDestinations, newTypes,
+                newDayMasks, newDepartures, newDurations,
+                insert(outgoing, origin, edge, id, base, newIds), insert(incoming, destination, edge, id, base, newIds),
+                newLiveById);
+    }
+
+    /** @param baseEdges edge count of the store the overlay applies to; only read for the first change */
+    EdgeOverlay remove(int baseEdges, int edge) {
+        int base = size == 0 && removed.isEmpty() ? baseEdges : this.baseEdges;
+        BitSet newRemoved = (BitSet) removed.clone();
+        newRemoved.set(edge);
+        if (edge < base) {
+            return new EdgeOverlay(base, newRemoved, size, ids, origins, destinations, types, dayMasks, departures,
+                    durations, outgoing, incoming, liveById);
+        }
+        Map<Long, Integer> newLiveById = new HashMap<>(liveById);
+        newLiveById.remove(transportationId(edge));
+        return new EdgeOverlay(base, newRemoved, size, ids, origins, destinations, types, dayMasks, departures,
+                durations, without(outgoing, origin(edge), edge), without(incoming, destination(edge), edge),
+                newLiveById);
+    }
+
+    private static Map<Integer, int[]> insert(Map<Integer, int[]> lists, int location, int edge, long id,
+                                              int base, long[] ids) {
+        int[] list = lists.getOrDefault(location, NONE);
+        int position = 0;
+        while (position < list.length && ids[list[position] - base] < id) {
+            position++;
+        }
+        int[] newList = new int[list.length + 1];
+        System.arraycopy(list, 0, newList, 0, position);
+        newList[position] = edge;
+        System.arraycopy(list, position, newList, position + 1, list.length - position);
+        Map<Integer, int[]> newLists = new HashMap<>(lists);
+        newLists.put(location, newList);
+        return newLists;
+    }
+
+    private static Map<Integer, int[]> without(Map<Integer, int[]> lists, int location, int edge) {
+        int[] list = lists.getOrDefault(location, NONE);
+        int[] newList = Arrays.stream(list).filter(e -> e != edge).toArray();
+        Map<Integer, int[]> newLists = new HashMap<>(lists);
+        if (newList.length == 0) {
+            newLists.remove(location);
+        } else {
+            newLists.put(location, newList);
+        }
+        return newLists;
+    }
+}
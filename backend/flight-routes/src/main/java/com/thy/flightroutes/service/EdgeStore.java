@@ -0,0 +1,213 @@
+package com.thy.flightroutes.service;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Primitive, off-heap storage for the transportation graph. Everything lives in one direct (or mapped)
+ * buffer, laid out as:
+ * <pre>
+ * long[T]    transportation ids
+ * T x 12 B   edge: int origin, int destination, byte type ordinal, byte day mask, 2 B padding
+ * int[T]     incoming edge indexes, grouped by destination
+ * int[L + 1] outgoing offsets
+ * int[L + 1] incoming offsets
+ * short[T]   departure minute of day, -1 when untimed
+ * short[T]   duration in minutes
+ * </pre>
+ * Edges are sorted by (origin, id), so a location's outgoing edges are the contiguous range
+ * {@code [outStart, outEnd)} and need no index array. That is 28 bytes per transportation, 12 of which
+ * are touched while traversing; the timetable columns are only read by the timetable search.
+ * <p>
+ * The region is a {@link ByteBuffer} rather than a {@code MemorySegment}: networks are swapped while searches
+ * still read the old one, so it must be freed by the garbage collector, not by closing an arena; and the
+ * snapshot code hands the same buffer to {@code FileChannel.map}/{@code write} and {@code CRC32C} as is.
+ * Int offsets are enough, since snapshots are limited to 2 GB.
+ */
+final class EdgeStore {
+
+    static final int EDGE_BYTES = 12;
+
+    private final int locationCount;
+    private final int edgeCount;
+    private final ByteBuffer region;
+    private final int edgesOffset;
+    private final int inEdgesOffset;
+    private final int outOffsetsOffset;
+    private final int inOffsetsOffset;
+    private final int departuresOffset;
+    private final int durationsOffset;
+
+    // Built on the first single-transportation change; searches never look edges up by id
+    private volatile Map<Long, Integer> edgeIndexById;
+
+    private EdgeStore(int locationCount, int edgeCount, ByteBuffer region) {
+        this.locationCount = locationCount;
+        this.edgeCount = edgeCount;
+        this.region = region;
+        this.edgesOffset = edgeCount * Long.BYTES;
+        this.inEdgesOffset = edgesOffset + edgeCount * EDGE_BYTES;
+        this.outOffsetsOffset = inEdgesOffset + edgeCount * Integer.BYTES;
+        this.inOffsetsOffset = outOffsetsOffset + (locationCount + 1) * Integer.BYTES;
+        this.departuresOffset = inOffsetsOffset + (locationCount + 1) * Integer.BYTES;
+        this.durationsOffset = departuresOffset + edgeCount * Short.BYTES;
+    }
+
+    static long regionSize(int locationCount, int edgeCount) {
+        return (long) edgeCount * (Long.BYTES + EDGE_BYTES + Integer.BYTES + 2 * Short.BYTES)
+                + 2L * (locationCount + 1) * Integer.BYTES;
+    }
+
+    /**
+     * Uses an existing region, e.g. a slice of a memory-mapped snapshot, without copying it.
+     */
+    static EdgeStore wrap(int locationCount, int edgeCount, ByteBuffer region) {
+        if (region.capacity() != regionSize(locationCount, edgeCount)) {
+            throw new IllegalArgumentException("Region size does not match " + locationCount + " locations and "
+                    + edgeCount + " edges");
+        }
+        return new EdgeStore(locationCount, edgeCount, region);
+    }
+
+    /**
+     * Copies the given columns, in any order, into a new direct buffer.
+     */
+    static EdgeStore build(int locationCount, long[] ids, int[] origins, int[] destinations,
+                           byte[] types, byte[] dayMasks, short[] departures, short[] durations) {
+        int edgeCount = ids.length;
+        long size = regionSize(locationCount, edgeCount);
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Graph too large for a single buffer: " + size + " bytes");
+        }
+        EdgeStore store = new EdgeStore(locationCount, edgeCount, ByteBuffer.allocateDirect((int) size));
+
+        int[] byOrigin = sortedIndexes(edgeCount, origins, ids);
+        for (int e = 0; e < edgeCount; e++) {
+            int source = byOrigin[e];
+            store.region.putLong(e * Long.BYTES, ids[source]);
+            int position = store.edgesOffset + e * EDGE_BYTES;
+            store.region.putInt(position, origins[source]);
+            store.region.putInt(position + 4, destinations[source]);
+            store.region.put(position + 8, types[source]);
+            store.region.put(position + 9, dayMasks[source]);
+            store.region.putShort(store.departuresOffset + e * Short.BYTES, departures[source]);
+            store.region.putShort(store.durationsOffset + e * Short.BYTES, durations[source]);
+        }
+        store.writeOffsets(store.outOffsetsOffset, origins);
+
+        // Incoming edges reference the final edge indexes, grouped by destination and ordered by id
+        int[] sortedDestinations = new int[edgeCount];
+        long[] sortedIds = new long[edgeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            sortedDestinations[e] = destinations[byOrigin[e]];
+            sortedIds[e] = ids[byOrigin[e]];
+        }
+        int[] byDestination = sortedIndexes(edgeCount, sortedDestinations, sortedIds);
+        for (int p = 0; p < edgeCount; p++) {
+            store.region.putInt(store.inEdgesOffset + p * Integer.BYTES, byDestination[p]);
+        }
+        store.writeOffsets(store.inOffsetsOffset, destinations);
+        return store;
+    }
+
+    private static int[] sortedIndexes(int count, int[] keys, long[] ids) {
+        return IntStream.range(0, count).boxed()
+                .sorted((a, b) -> keys[a] != keys[b] ? Integer.compare(keys[a], keys[b]) : Long.compare(ids[a], ids[b]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private void writeOffsets(int offset, int[] endpoints) {
+        int[] counts = new int[locationCount + 1];
+        for (int endpoint : endpoints) {
+            counts[endpoint + 1]++;
+        }
+        for (int i = 1; i <= locationCount; i++) {
+            counts[i] += counts[i - 1];
+        }
+        for (int i = 0; i <= locationCount; i++) {
+            region.putInt(offset + i * Integer.BYTES, counts[i]);
+        }
+    }
+
+    /** Read-only view of the whole region, positioned at 0, for writing it out verbatim. */
+    ByteBuffer region() {
+        return region.duplicate().clear().asReadOnlyBuffer();
+    }
+
+    int locationCount() {
+        return locationCount;
+    }
+
+    int edgeCount() {
+        return edgeCount;
+    }
+
+    /** @return the edge of the transportation, or -1 */
+    int edgeIndex(long transportationId) {
+        Map<Long, Integer> index = edgeIndexById;
+        if (index == null) {
+            synchronized (this) {
+                index = edgeIndexById;
+                if (index == null) {
+                    index = new HashMap<>(edgeCount * 2);
+                    for (int e = 0; e < edgeCount; e++) {
+                        index.put(transportationId(e), e);
+                    }
+                    edgeIndexById = index;
+                }
+            }
+        }
+        return index.getOrDefault(transportationId, -1);
+    }
+
+    long transportationId(int edge) {
+        return region.getLong(edge * Long.BYTES);
+    }
+
+    int origin(int edge) {
+        return region.getInt(edgesOffset + edge * EDGE_BYTES);
+    }
+
+    int destination(int edge) {
+        return region.getInt(edgesOffset + edge * EDGE_BYTES + 4);
+    }
+
+    byte typeOrdinal(int edge) {
+        return region.get(edgesOffset + edge * EDGE_BYTES + 8);
+    }
+
+    int dayMask(int edge) {
+        return region.get(edgesOffset + edge * EDGE_BYTES + 9) & 0xFF;
+    }
+
+    int departureMinute(int edge) {
+        return region.getShort(departuresOffset + edge * Short.BYTES);
+    }
+
+    int duration(int edge) {
+        return region.getShort(durationsOffset + edge * Short.BYTES);
+    }
+
+    int outStart(int location) {
+        return region.getInt(outOffsetsOffset + location * Integer.BYTES);
+    }
+
+    int outEnd(int location) {
+        return region.getInt(outOffsetsOffset + (location + 1) * Integer.BYTES);
+    }
+
+    int inStart(int location) {
+        return region.getInt(inOffsetsOffset + location * Integer.BYTES);
+    }
+
+    int inEnd(int location) {
+        return region.getInt(inOffsetsOffset + (location + 1) * Integer.BYTES);
+    }
+
+    int inEdge(int position) {
+        return region.getInt(inEdgesOffset + position * Integer.BYTES);
+    }
+}
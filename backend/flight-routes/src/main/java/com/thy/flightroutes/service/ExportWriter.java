@@ -0,0 +1,266 @@
+package com.thy.flightroutes.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes export rows one at a time; nothing but the current row (or row group, for the columnar format) is kept.
+ * Rows are {@code Object[]} in column order, with {@code null} for missing values.
+ */
+abstract class ExportWriter {
+
+    enum ColumnType { LONG, INT, BOOLEAN, STRING, TIME, DAYS }
+
+    record Column(String name, ColumnType type) {
+    }
+
+    protected final List<Column> columns;
+
+    protected ExportWriter(List<Column> columns) {
+        this.columns = columns;
+    }
+
+    static ExportWriter create(DataExportService.Format format, List<Column> columns, OutputStream out,
+                               JsonFactory jsonFactory) throws IOException {
+        return switch (format) {
+            case CSV -> new Csv(columns, out);
+            case NDJSON -> new Ndjson(columns, out, jsonFactory);
+            case COLUMNAR -> new Columnar(columns, out);
+        };
+    }
+
+    abstract void write(Object[] row) throws IOException;
+
+    /** Writes whatever is buffered; does not close the underlying stream. */
+    abstract void finish() throws IOException;
+
+    // Operating days are stored as a bit mask, bit (day - 1) set when the day runs
+    static String daysToString(int mask, String separator) {
+        StringBuilder days = new StringBuilder();
+        for (int day = 1; day <= 7; day++) {
+            if ((mask & (1 << (day - 1))) != 0) {
+                if (!days.isEmpty()) {
+                    days.append(separator);
+                }
+                days.append(day);
+            }
+        }
+        return days.toString();
+    }
+
+    static String timeToString(LocalTime time) {
+        return String.format("%02d:%02d", time.getHour(), time.getMinute());
+    }
+
+    /** Header line with the column names, then one line per row; days as "1;3;5" so the file imports back. */
+    private static final class Csv extends ExportWriter {
+        private final Writer writer;
+
+        Csv(List<Column> columns, OutputStream out) throws IOException {
+            super(columns);
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            for (int c = 0; c < columns.size(); c++) {
+                if (c > 0) {
+                    writer.write(',');
+                }
+                writer.write(columns.get(c).name());
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        void write(Object[] row) throws IOException {
+            for (int c = 0; c < columns.size(); c++) {
+                if (c > 0) {
+                    writer.write(',');
+                }
+                Object value = row[c];
+                if (value == null) {
+                    continue;
+                }
+                switch (columns.get(c).type()) {
+                    case DAYS -> writer.write(daysToString((Integer) value, ";"));
+                    case TIME -> writer.write(timeToString((LocalTime) value));
+                    case STRING -> writeEscaped((String) value);
+                    default -> writer.write(value.toString());
+                }
+            }
+            writer.write('\n');
+        }
+
+        private void writeEscaped(String value) throws IOException {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        void finish() throws IOException {
+            writer.flush();
+        }
+    }
+
+    /** One JSON object per line; days as an array, matching the bulk import. */
+    private static final class Ndjson extends ExportWriter {
+        private final JsonGenerator generator;
+        private boolean empty = true;
+
+        Ndjson(List<Column> columns, OutputStream out, JsonFactory jsonFactory) throws IOException {
+            super(columns);
+            this.generator = jsonFactory.createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+        }
+
+        @Override
+        void write(Object[] row) throws IOException {
+            empty = false;
+            generator.writeStartObject();
+            for (int c = 0; c < columns.size(); c++) {
+                Column column = columns.get(c);
+                Object value = row[c];
+                if (value == null) {
+                    continue;
+                }
+                generator.writeFieldName(column.name());
+                switch (column.type()) {
+                    case LONG -> generator.writeNumber((Long) value);
+                    case INT -> generator.writeNumber((Integer) value);
+                    case BOOLEAN -> generator.writeBoolean((Boolean) value);
+                    case STRING -> generator.writeString((String) value);
+                    case TIME -> generator.writeString(timeToString((LocalTime) value));
+                    case DAYS -> {
+                        generator.writeStartArray();
+                        int mask = (Integer) value;
+                        for (int day = 1; day <= 7; day++) {
+                            if ((mask & (1 << (day - 1))) != 0) {
+                                generator.writeNumber(day);
+                            }
+                        }
+                        generator.writeEndArray();
+                    }
+                }
+            }
+            generator.writeEndObject();
+        }
+
+        @Override
+        void finish() throws IOException {
+            if (!empty) {
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+        }
+    }
+
+    /**
+     * Column-oriented binary format, big-endian:
+     * <pre>
+     * int    magic "FRCX", int format version, int column count
+     * C x    string name (int length + UTF-8), byte {@link ColumnType} ordinal
+     * groups int row count n (0 ends the file), then per column: int chunk length in bytes,
+     *        byte[ceil(n / 8)] null bitmap (bit set = null), followed by n values:
+     *        LONG long, INT int, BOOLEAN byte, TIME short minute of day, DAYS byte mask, STRING string;
+     *        null values are written as 0 / the empty string
+     * </pre>
+     * Readers can skip the columns they do not need and every column compresses well on its own.
+     */
+    static final class Columnar extends ExportWriter {
+        static final int MAGIC = 0x46524358;
+        static final int FORMAT_VERSION = 1;
+        static final int ROW_GROUP_SIZE = 4096;
+
+        private final DataOutputStream out;
+        private final ByteArrayOutputStream chunk = new ByteArrayOutputStream();
+        private final DataOutputStream chunkOut = new DataOutputStream(chunk);
+        private final Object[][] group;
+        private int size;
+
+        Columnar(List<Column> columns, OutputStream out) throws IOException {
+            super(columns);
+            this.out = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+            this.group = new Object[ROW_GROUP_SIZE][];
+            this.out.writeInt(MAGIC);
+            this.out.writeInt(FORMAT_VERSION);
+            this.out.writeInt(columns.size());
+            for (Column column : columns) {
+                writeString(this.out, column.name());
+                this.out.writeByte(column.type().ordinal());
+            }
+        }
+
+        @Override
+        void write(Object[] row) throws IOException {
+            group[size++] = row;
+            if (size == ROW_GROUP_SIZE) {
+                writeGroup();
+            }
+        }
+
+        private void writeGroup() throws IOException {
+            out.writeInt(size);
+            for (int c = 0; c < columns.size(); c++) {
+                chunk.reset();
+                byte[] nulls = new byte[(size + 7) / 8];
+                for (int r = 0; r < size; r++) {
+                    if (group[r][c] == null) {
+                        nulls[r / 8] |= (byte) (1 << (r % 8));
+                    }
+                }
+                chunkOut.write(nulls);
+                ColumnType type = columns.get(c).type();
+                for (int r = 0; r < size; r++) {
+                    writeValue(chunkOut, type, group[r][c]);
+                }
+                out.writeInt(chunk.size());
+                chunk.writeTo(out);
+            }
+            Arrays.fill(group, 0, size, null);
+            size = 0;
+        }
+
+        private static void writeValue(DataOutputStream out, ColumnType type, Object value) throws IOException {
+            switch (type) {
+                case LONG -> out.writeLong(value == null ? 0L : (Long) value);
+                case INT -> out.writeInt(value == null ? 0 : (Integer) value);
+                case BOOLEAN -> out.writeByte(value != null && (Boolean) value ? 1 : 0);
+                case TIME -> out.writeShort(value == null ? 0 : ((LocalTime) value).toSecondOfDay() / 60);
+                case DAYS -> out.writeByte(value == null ? 0 : (Integer) value);
+                case STRING -> writeString(out, value == null ? "" : (String) value);
+            }
+        }
+
+        private static void writeString(DataOutputStream out, String value) throws IOException {
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(encoded.length);
+            out.write(encoded);
+        }
+
+        @Override
+        void finish() throws IOException {
+            if (size > 0) {
+                writeGroup();
+            }
+            out.writeInt(0);
+            out.flush();
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.thy.flightroutes.service;
 import com.thy.flightroutes.dto.LocationDTO;
 import com.thy.flightroutes.dto.PageResponseDTO;
 import com.thy.flightroutes.entity.Location;
+import com.thy.flightroutes.event.NetworkChangePublisher;
 import com.thy.flightroutes.exception.ResourceNotFoundException;
 import com.thy.flightroutes.repository.LocationRepository;
 import jakarta.transaction.Transactional;
@@ -16,6 +17,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,6 +26,7 @@ import java.util.stream.Collectors;
 public class LocationService {
 
   private final LocationRepository locationRepository;
+  private final NetworkChangePublisher networkChangePublisher;
 
   /* ---------- READ OPERATIONS ---------- */
 
@@ -120,7 +123,7 @@ public class LocationService {
   /* ---------- WRITE OPERATIONS ---------- */
 
   // Granular cache eviction - clear locations and routes cache as new locations affect route calculations
-  @CacheEvict(value = {"locations", "routes"}, allEntries = true)
+  @CacheEvict(value = "locations", allEntries = true)
   public LocationDTO createLocation(LocationDTO locationDTO) {
     System.out.println("Creating location: " + locationDTO.getName() + " - Cache will be evicted");
     validateLocationCode(locationDTO.getLocationCode(), locationDTO.getIsAirport());
@@ -131,13 +134,15 @@ public class LocationService {
     location.setCity(locationDTO.getCity());
     location.setLocationCode(locationDTO.getLocationCode());
     location.setIsAirport(locationDTO.getIsAirport());
+    location.setMinConnectionMinutes(locationDTO.getMinConnectionMinutes());
 
     location = locationRepository.save(location);
+    networkChangePublisher.locationChanged(location.getId(), List.of(location.getCity()));
     return toDTO(location);
   }
 
   // Granular cache eviction - clear locations and routes cache as location changes affect route calculations
-  @CacheEvict(value = {"locations", "routes"}, allEntries = true)
+  @CacheEvict(value = "locations", allEntries = true)
   public LocationDTO updateLocation(Long id, LocationDTO locationDTO) {
     Location location =
         locationRepository
@@ -153,23 +158,28 @@ public class LocationService {
       validateLocationCode(locationDTO.getLocationCode(), locationDTO.getIsAirport());
     }
 
+    String previousCity = location.getCity();
     location.setName(locationDTO.getName());
     location.setCountry(locationDTO.getCountry());
     location.setCity(locationDTO.getCity());
     location.setLocationCode(locationDTO.getLocationCode());
+    location.setMinConnectionMinutes(locationDTO.getMinConnectionMinutes());
     // isAirport alanını güncelleme - değiştirilemez olduğu için set etmiyoruz
 
     location = locationRepository.save(location);
+    networkChangePublisher.locationChanged(location.getId(), Set.of(previousCity, location.getCity()));
     return toDTO(location);
   }
 
   // Granular cache eviction - clear locations and routes cache as location deletion affects route calculations
-  @CacheEvict(value = {"locations", "routes"}, allEntries = true)
+  @CacheEvict(value = "locations", allEntries = true)
   public void deleteLocation(Long id) {
-    if (!locationRepository.existsById(id)) {
-      throw new ResourceNotFoundException("Location not found");
-    }
+    Location location =
+        locationRepository
+            .findById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("Location not found"));
     locationRepository.deleteById(id);
+    networkChangePublisher.locationChanged(id, List.of(location.getCity()));
   }
 
   /* ---------- HELPER METHODS ---------- */
@@ -200,6 +210,7 @@ public class LocationService {
         location.getCountry(),
         location.getCity(),
         location.getLocationCode(),
-        location.getIsAirport());
+        location.getIsAirport(),
+        location.getMinConnectionMinutes());
   }
 }
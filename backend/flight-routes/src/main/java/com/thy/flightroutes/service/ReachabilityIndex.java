@@ -0,0 +1,92 @@
+package com.thy.flightroutes.service;
+
+import com.thy.flightroutes.entity.Transportation.TransportationType;
+
+import java.util.BitSet;
+
+/**
+ * Per-weekday reachability over a {@link RouteNetwork}: for every location and day, the set of location
+ * indexes that a route search would return at least one route to. A route needs a flight between the
+ * origin's airports and the destination's airports; transfers are optional, so they never change the answer.
+ * Built once per network version, after which a lookup is a single array access.
+ */
+final class ReachabilityIndex {
+
+    private static final int FLIGHT = TransportationType.FLIGHT.ordinal();
+
+    // [day - 1][location]
+    private final BitSet[][] rows;
+
+    private ReachabilityIndex(BitSet[][] rows) {
+        this.rows = rows;
+    }
+
+    static ReachabilityIndex build(RouteNetwork network) {
+        int locationCount = network.locationCount();
+
+        // An airport serves itself and the non-airport locations of its city
+        BitSet[] served = new BitSet[locationCount];
+        for (int airport = 0; airport < locationCount; airport++) {
+            if (isAirport(network, airport)) {
+                served[airport] = new BitSet(locationCount);
+                served[airport].set(airport);
+                for (int location : network.locationsInCity(network.locationCity(airport))) {
+                    if (!isAirport(network, location)) {
+                        served[airport].set(location);
+                    }
+                }
+            }
+        }
+
+        RouteNetwork.EdgeCursor cursor = network.cursor();
+        BitSet[][] rows = new BitSet[7][locationCount];
+        for (int day = 1; day <= 7; day++) {
+            int dayBit = 1 << (day - 1);
+            BitSet[] byAirport = new BitSet[locationCount];
+            for (int airport = 0; airport < locationCount; airport++) {
+                if (served[airport] == null) {
+                    continue;
+                }
+                byAirport[airport] = new BitSet(locationCount);
+                cursor.outgoing(airport);
+                while (cursor.next()) {
+                    if (cursor.typeOrdinal() == FLIGHT && (cursor.dayMask() & dayBit) != 0
+                            && served[cursor.destination()] != null) {
+                        byAirport[airport].or(served[cursor.destination()]);
+                    }
+                }
+            }
+            for (int location = 0; location < locationCount; location++) {
+                BitSet row = new BitSet(locationCount);
+                if (isAirport(network, location)) {
+                    row.or(byAirport[location]);
+                } else {
+                    for (int airport : network.locationsInCity(network.locationCity(location))) {
+                        if (byAirport[airport] != null) {
+                            row.or(byAirport[airport]);
+                        }
+                    }
+                }
+                row.clear(location);
+                rows[day - 1][location] = row;
+            }
+        }
+        return new ReachabilityIndex(rows);
+    }
+
+    /**
+     * @param day 1 (Monday) to 7 (Sunday)
+     * @return a copy of the reachable location indexes
+     */
+    BitSet reachable(int location, int day) {
+        return (BitSet) rows[day - 1][location].clone();
+    }
+
+    boolean isReachable(int origin, int destination, int day) {
+        return rows[day - 1][origin].get(destination);
+    }
+
+    private static boolean isAirport(RouteNetwork network, int location) {
+        return network.locationCode(location).length() == 3;
+    }
+}
@@ -0,0 +1,219 @@
+package com.thy.flightroutes.service;
+
+import com.thy.flightroutes.config.ServedDataVersion;
+import com.thy.flightroutes.dto.RouteDTO;
+import com.thy.flightroutes.dto.RouteRequestDTO;
+import com.thy.flightroutes.dto.TransportationDTO;
+import com.thy.flightroutes.entity.DataVersion;
+import com.thy.flightroutes.entity.Location;
+import com.thy.flightroutes.entity.Transportation;
+import com.thy.flightroutes.exception.ResourceNotFoundException;
+import com.thy.flightroutes.repository.LocationRepository;
+import com.thy.flightroutes.repository.TransportationRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * Route search that does not hold a request thread. The three leg queries of {@link RouteService#findRoutes}
+ * (direct flights, transfers before and after the flight) run concurrently, each in its own read-only
+ * transaction, on a scheduler with a fixed number of threads and a bounded queue; the JDBC driver and JPA are
+ * blocking, so they are confined there instead of being replaced. Results share the {@code routes} cache
+ * entries, and {@link RouteResultCache}'s freshness rules, with the blocking endpoint; they are read and written
+ * through the reactive Lettuce connection.
+ */
+@Slf4j
+@Service
+public class ReactiveRouteSearchService {
+
+    static final String CACHE_KEY_PREFIX = "routes::";
+
+    private final TransportationRepository transportationRepository;
+    private final LocationRepository locationRepository;
+    private final RouteService routeService;
+    private final RouteCandidateService routeCandidateService;
+    private final RouteNetworkService routeNetworkService;
+    private final RouteMatrixBuilder routeMatrixBuilder;
+    private final RouteResultCache routeResultCache;
+    private final ReactiveRedisTemplate<String, Object> reactiveCacheTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Scheduler scheduler;
+
+    public ReactiveRouteSearchService(TransportationRepository transportationRepository,
+                                      LocationRepository locationRepository,
+                                      RouteService routeService,
+                                      RouteCandidateService routeCandidateService,
+                                      RouteNetworkService routeNetworkService,
+                                      RouteMatrixBuilder routeMatrixBuilder,
+                                      RouteResultCache routeResultCache,
+                                      ReactiveRedisTemplate<String, Object> reactiveCacheTemplate,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${routes.reactive-search.threads:4}") int threads,
+                                      @Value("${routes.reactive-search.queued-tasks:1000}") int queuedTasks) {
+        this.transportationRepository = transportationRepository;
+        this.locationRepository = locationRepository;
+        this.routeService = routeService;
+        this.routeCandidateService = routeCandidateService;
+        this.routeNetworkService = routeNetworkService;
+        this.routeMatrixBuilder = routeMatrixBuilder;
+        this.routeResultCache = routeResultCache;
+        this.reactiveCacheTemplate = reactiveCacheTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // Beyond threads + queuedTasks waiting searches, new ones fail fast instead of piling up
+        this.scheduler = Schedulers.newBoundedElastic(threads, queuedTasks, "route-search-reactive");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+    }
+
+    public Flux<RouteDTO> findRoutes(RouteRequestDTO request) {
+        String key = RouteResultCache.key(request);
+        routeResultCache.recordAccess(key);
+        // The rest runs on other threads; the version served is still recorded on this request
+        HttpServletRequest servedFor = ServedDataVersion.currentRequest();
+        return cachedRoutes(key)
+                // Freshness may read the data version from the database, so it is not decided on a Redis thread
+                .publishOn(scheduler)
+                .flatMap(entry -> switch (routeResultCache.freshness(entry)) {
+                    case FRESH -> {
+                        ServedDataVersion.record(servedFor, entry.getDataVersion());
+                        yield Mono.just(entry.getRoutes());
+                    }
+                    case STALE -> {
+                        routeResultCache.refreshInBackground(key, () -> routeService.searchRoutes(request),
+                                (refreshedKey, refreshed) -> store(refreshedKey, refreshed).subscribe());
+                        ServedDataVersion.record(servedFor, entry.getDataVersion());
+                        yield Mono.just(entry.getRoutes());
+                    }
+                    case EXPIRED -> Mono.empty();
+                })
+                .switchIfEmpty(Mono.defer(() -> {
+                    DataVersion computedFrom = routeResultCache.currentVersion();
+                    ServedDataVersion.record(servedFor, computedFrom.getVersion());
+                    return search(request, servedFor).flatMap(routes ->
+                            store(key, routeResultCache.newEntry(key, routes, computedFrom)).thenReturn(routes));
+                }))
+                .flatMapMany(Flux::fromIterable);
+    }
+
+    // Same entries as RouteService#findRoutes, which goes through the Spring cache named "routes"
+    static String cacheKey(String key) {
+        return CACHE_KEY_PREFIX + key;
+    }
+
+    private Mono<CachedRoutes> cachedRoutes(String key) {
+        return reactiveCacheTemplate.opsForValue().get(cacheKey(key))
+                .ofType(CachedRoutes.class)
+                .onErrorResume(ex -> {
+                    log.warn("Route cache read failed, searching instead: {}", ex.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Boolean> store(String key, CachedRoutes entry) {
+        return reactiveCacheTemplate.opsForValue()
+                .set(cacheKey(key), entry, entry.timeToLive(System.currentTimeMillis()))
+                .onErrorResume(ex -> {
+                    log.warn("Route cache write failed: {}", ex.getMessage());
+                    return Mono.just(false);
+                });
+    }
+
+    Mono<List<RouteDTO>> search(RouteRequestDTO request, HttpServletRequest servedFor) {
+        if (routeNetworkService.isEnabled() || routeCandidateService.isEnabled()) {
+            // Served from memory or a single query; there is nothing to fan out
+            return blocking(() -> ServedDataVersion.callFor(servedFor, () -> routeService.searchRoutes(request)));
+        }
+        int day = request.getDate().getDayOfWeek().getValue();
+        return blocking(() -> inTransaction(() -> resolve(request)))
+                .flatMap(endpoints -> Mono.zip(
+                                blocking(() -> inTransaction(() -> toDtos(transportationRepository
+                                        .findByOriginLocationInAndDestinationLocationInAndTransportationTypeAndOperatingDaysContaining(
+                                                endpoints.originAirports(), endpoints.destinationAirports(),
+                                                Transportation.TransportationType.FLIGHT, day)))),
+                                blocking(() -> inTransaction(() -> beforeTransfers(endpoints.origin(), day))),
+                                blocking(() -> inTransaction(() -> afterTransfers(endpoints.destination(), day))))
+                        .publishOn(scheduler)
+                        .map(legs -> routeMatrixBuilder.build(endpoints.origin().getName(),
+                                endpoints.destination().getName(), legs.getT2(), legs.getT1(), legs.getT3())));
+    }
+
+    private record Endpoints(Location origin, Location destination,
+                             List<Location> originAirports, List<Location> destinationAirports) {
+    }
+
+    private Endpoints resolve(RouteRequestDTO request) {
+        Location origin = locationRepository.findByLocationCode(request.getOriginLocationCode())
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Origin location not found: " + request.getOriginLocationCode()));
+        Location destination = locationRepository.findByLocationCode(request.getDestinationLocationCode())
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Destination location not found: " + request.getDestinationLocationCode()));
+        if (origin.getLocationCode().equalsIgnoreCase(destination.getLocationCode())) {
+            throw new IllegalArgumentException("Origin and destination cannot be the same");
+        }
+        return new Endpoints(origin, destination, airports(origin), airports(destination));
+    }
+
+    private List<Location> airports(Location location) {
+        if (isAirport(location)) {
+            return List.of(location);
+        }
+        return locationRepository.findByCity(location.getCity()).stream()
+                .filter(ReactiveRouteSearchService::isAirport)
+                .toList();
+    }
+
+    private List<TransportationDTO> beforeTransfers(Location origin, int day) {
+        if (isAirport(origin)) {
+            return List.of();
+        }
+        return toDtos(transportationRepository.findByOriginLocationAndTransportationTypeNotAndOperatingDaysContaining(
+                        origin, Transportation.TransportationType.FLIGHT, day).stream()
+                .filter(transportation -> isAirport(transportation.getDestinationLocation()))
+                .toList());
+    }
+
+    private List<TransportationDTO> afterTransfers(Location destination, int day) {
+        if (isAirport(destination)) {
+            return List.of();
+        }
+        return toDtos(transportationRepository.findByDestinationLocationAndTransportationTypeNotAndOperatingDaysContaining(
+                        destination, Transportation.TransportationType.FLIGHT, day).stream()
+                .filter(transportation -> isAirport(transportation.getOriginLocation()))
+                .toList());
+    }
+
+    private static boolean isAirport(Location location) {
+        return location.getLocationCode().length() == 3;
+    }
+
+    private static List<TransportationDTO> toDtos(List<Transportation> transportations) {
+        return transportations.stream().map(TransportationDTO::fromEntity).toList();
+    }
+
+    // Entities are turned into DTOs before the transaction (and its session) ends
+    private <T> T inTransaction(Supplier<T> work) {
+        return readOnlyTransaction.execute(status -> work.get());
+    }
+
+    private <T> Mono<T> blocking(Callable<T> work) {
+        return Mono.fromCallable(work).subscribeOn(scheduler);
+    }
+}
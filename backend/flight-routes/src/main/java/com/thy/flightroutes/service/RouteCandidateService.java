@@ -0,0 +1,318 @@
+package com.thy.flightroutes.service;
+
+import com.thy.flightroutes.dto.RouteDTO;
+import com.thy.flightroutes.dto.TransportationDTO;
+import com.thy.flightroutes.entity.DataVersion;
+import com.thy.flightroutes.entity.Location;
+import com.thy.flightroutes.entity.RouteCandidate;
+import com.thy.flightroutes.entity.Transportation;
+import com.thy.flightroutes.entity.Transportation.TransportationType;
+import com.thy.flightroutes.event.NetworkChangeEvent;
+import com.thy.flightroutes.event.NetworkChangeEvent.ImportChunkCommitted;
+import com.thy.flightroutes.event.NetworkChangeEvent.LocationChanged;
+import com.thy.flightroutes.event.NetworkChangeEvent.TransportationAdded;
+import com.thy.flightroutes.event.NetworkChangeEvent.TransportationData;
+import com.thy.flightroutes.event.NetworkChangeEvent.TransportationRemoved;
+import com.thy.flightroutes.event.NetworkChangeEvent.TransportationUpdated;
+import com.thy.flightroutes.event.NetworkChangeEvent.TransportationsImported;
+import com.thy.flightroutes.repository.DataVersionRepository;
+import com.thy.flightroutes.repository.LocationRepository;
+import com.thy.flightroutes.repository.RouteCandidateRepository;
+import com.thy.flightroutes.repository.TransportationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the materialized {@code route_candidates} table.
+ * Every write to a transportation or location only recomputes the flights it can affect,
+ * so searches can read finished itineraries with one indexed lookup. The data version the table is
+ * up to date with is recorded on the {@code data_version} row; writes made while the table is not
+ * maintained leave it behind, and it is rebuilt on the next start.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RouteCandidateService {
+
+    static final int ALL_DAYS_MASK = 0x7F;
+
+    private final RouteCandidateRepository routeCandidateRepository;
+    private final TransportationRepository transportationRepository;
+    private final LocationRepository locationRepository;
+    private final DataVersionRepository dataVersionRepository;
+
+    @Value("${routes.candidates.enabled:false}")
+    private boolean enabled;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initialize() {
+        if (!enabled) {
+            return;
+        }
+        // The lock keeps writes out between the check and the rebuild
+        Optional<DataVersion> dataVersion = dataVersionRepository.findForUpdate();
+        if (dataVersion.isEmpty()
+                || !dataVersion.get().getVersion().equals(dataVersion.get().getRouteCandidatesVersion())) {
+            rebuildAll();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<RouteDTO> findRoutes(Location originLocation, Location destinationLocation, LocalDate date) {
+        int dayBit = toDayMask(Set.of(date.getDayOfWeek().getValue()));
+        List<RouteCandidate> candidates = routeCandidateRepository
+                .findByOriginAndDestination(originLocation.getId(), destinationLocation.getId())
+                .stream()
+                .filter(candidate -> (candidate.getDayMask() & dayBit) != 0)
+                .toList();
+        if (candidates.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<Long> legIds = new HashSet<>();
+        for (RouteCandidate candidate : candidates) {
+            legIds.add(candidate.getFlightId());
+            if (candidate.getBeforeId() != null) {
+                legIds.add(candidate.getBeforeId());
+            }
+            if (candidate.getAfterId() != null) {
+                legIds.add(candidate.getAfterId());
+            }
+        }
+        Map<Long, TransportationDTO> legs = transportationRepository.findAllByIdInWithLocations(legIds).stream()
+                .collect(Collectors.toMap(Transportation::getId, TransportationDTO::fromEntity));
+
+        List<RouteDTO> routes = new ArrayList<>(candidates.size());
+        for (RouteCandidate candidate : candidates) {
+            routes.add(RouteDTO.builder()
+                    .beforeFlight(candidate.getBeforeId() != null ? legs.get(candidate.getBeforeId()) : null)
+                    .flight(legs.get(candidate.getFlightId()))
+                    .afterFlight(candidate.getAfterId() != null ? legs.get(candidate.getAfterId()) : null)
+                    .originLocationName(originLocation.getName())
+                    .destinationLocationName(destinationLocation.getName())
+                    .build());
+        }
+        return routes;
+    }
+
+    /**
+     * Recomputes the whole table from scratch. Used on start when the table is behind the data and
+     * after bulk loads that bypass the services.
+     */
+    @Transactional
+    public void rebuildAll() {
+        // Holding the version lock, no write can commit between reading the data and recording its version
+        Optional<DataVersion> dataVersion = dataVersionRepository.findForUpdate();
+        routeCandidateRepository.deleteAllCandidates();
+
+        List<Transportation> transportations = transportationRepository.findAllWithLocations();
+        Map<String, List<Location>> locationsByCity = locationRepository.findAll().stream()
+                .collect(Collectors.groupingBy(Location::getCity));
+        Map<Long, List<Transportation>> transfersByDestination = transportations.stream()
+                .filter(t -> t.getTransportationType() != TransportationType.FLIGHT)
+                .collect(Collectors.groupingBy(t -> t.getDestinationLocation().getId()));
+        Map<Long, List<Transportation>> transfersByOrigin = transportations.stream()
+                .filter(t -> t.getTransportationType() != TransportationType.FLIGHT)
+                .collect(Collectors.groupingBy(t -> t.getOriginLocation().getId()));
+
+        List<RouteCandidate> rows = new ArrayList<>();
+        for (Transportation flight : transportations) {
+            if (flight.getTransportationType() != TransportationType.FLIGHT) {
+                continue;
+            }
+            rows.addAll(expand(
+                    flight,
+                    locationsByCity.getOrDefault(flight.getOriginLocation().getCity(), List.of()),
+                    transfersByDestination.getOrDefault(flight.getOriginLocation().getId(), List.of()),
+                    locationsByCity.getOrDefault(flight.getDestinationLocation().getCity(), List.of()),
+                    transfersByOrigin.getOrDefault(flight.getDestinationLocation().getId(), List.of())));
+        }
+        routeCandidateRepository.saveAll(rows);
+        dataVersion.ifPresent(current -> dataVersionRepository.updateRouteCandidatesVersion(current.getVersion()));
+        log.info("Rebuilt {} route candidates", rows.size());
+    }
+
+    /**
+     * Keeps the table in step with each write. Runs just before the writing transaction commits, so the
+     * candidates are committed (or rolled back) together with the change. Spring rejects transactional
+     * listeners that would join it, which is why the class is not {@code @Transactional} as a whole.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onNetworkChange(NetworkChangeEvent event) {
+        if (!enabled) {
+            return;
+        }
+        switch (event) {
+            case TransportationAdded added -> transportationSaved(added.transportation());
+            case TransportationUpdated updated -> {
+                // The endpoints may have changed: drop what the old state produced, then expand the new one
+                transportationRemoved(updated.transportation().id());
+                transportationSaved(updated.transportation());
+            }
+            case TransportationRemoved removed -> transportationRemoved(removed.transportationId());
+            case LocationChanged changed -> locationsChanged(changed.cities());
+            case TransportationsImported imported -> rebuildAll();
+            case ImportChunkCommitted chunk -> {
+                // Left behind the data until the import's closing rebuild
+                return;
+            }
+        }
+        // Only a table that was current before this change is current after it
+        dataVersionRepository.advanceRouteCandidatesVersion(event.version());
+    }
+
+    /** A transportation was created or its new state was saved. */
+    @Transactional
+    public void transportationSaved(TransportationData transportation) {
+        if (!enabled) {
+            return;
+        }
+        refreshFlights(transportationRepository.findByTransportationTypeTouchingLocations(
+                TransportationType.FLIGHT,
+                Set.of(transportation.originLocationId(), transportation.destinationLocationId())));
+    }
+
+    /** A transportation was deleted, or is about to be saved with different endpoints. */
+    @Transactional
+    public void transportationRemoved(Long transportationId) {
+        if (!enabled) {
+            return;
+        }
+        List<Long> affectedFlightIds = routeCandidateRepository.findFlightIdsByTransferId(transportationId);
+        routeCandidateRepository.deleteByFlightIdIn(List.of(transportationId));
+        if (!affectedFlightIds.isEmpty()) {
+            refreshFlights(transportationRepository.findAllByIdInWithLocations(affectedFlightIds));
+        }
+    }
+
+    /** Locations in the given cities were created, renamed, moved or deleted. */
+    @Transactional
+    public void locationsChanged(Collection<String> cities) {
+        if (!enabled) {
+            return;
+        }
+        Set<Long> airportIds = locationRepository.findByCityIn(cities).stream()
+                .filter(this::isAirport)
+                .map(Location::getId)
+                .collect(Collectors.toSet());
+        if (!airportIds.isEmpty()) {
+            refreshFlights(transportationRepository.findByTransportationTypeTouchingLocations(
+                    TransportationType.FLIGHT, airportIds));
+        }
+    }
+
+    private void refreshFlights(Collection<Transportation> flights) {
+        if (flights.isEmpty()) {
+            return;
+        }
+        routeCandidateRepository.deleteByFlightIdIn(flights.stream().map(Transportation::getId).toList());
+
+        Map<String, List<Location>> cityCache = new HashMap<>();
+        Map<Long, List<Transportation>> transfersIntoCache = new HashMap<>();
+        Map<Long, List<Transportation>> transfersOutOfCache = new HashMap<>();
+        List<RouteCandidate> rows = new ArrayList<>();
+        for (Transportation flight : flights) {
+            Location origin = flight.getOriginLocation();
+            Location destination = flight.getDestinationLocation();
+            rows.addAll(expand(
+                    flight,
+                    cityCache.computeIfAbsent(origin.getCity(), locationRepository::findByCity),
+                    transfersIntoCache.computeIfAbsent(origin.getId(), id -> transportationRepository
+                            .findByDestinationLocationAndTransportationTypeNot(origin, TransportationType.FLIGHT)),
+                    cityCache.computeIfAbsent(destination.getCity(), locationRepository::findByCity),
+                    transfersOutOfCache.computeIfAbsent(destination.getId(), id -> transportationRepository
+                            .findByOriginLocationAndTransportationTypeNot(destination, TransportationType.FLIGHT))));
+        }
+        routeCandidateRepository.saveAll(rows);
+    }
+
+    /**
+     * Expands one flight into every itinerary RouteService would return for it: the flight on its own
+     * from/to its airports, and from/to every non-airport location of the same city either through a
+     * matching transfer or, on days without one, with the flight alone.
+     */
+    private List<RouteCandidate> expand(Transportation flight,
+                                        List<Location> originCity,
+                                        List<Transportation> transfersIntoOrigin,
+                                        List<Location> destinationCity,
+                                        List<Transportation> transfersOutOfDestination) {
+        Location origin = flight.getOriginLocation();
+        Location destination = flight.getDestinationLocation();
+        if (!isAirport(origin) || !isAirport(destination)) {
+            return List.of();
+        }
+
+        List<Leg> originLegs = legs(origin, originCity, transfersIntoOrigin, Transportation::getOriginLocation);
+        List<Leg> destinationLegs =
+                legs(destination, destinationCity, transfersOutOfDestination, Transportation::getDestinationLocation);
+        int flightMask = toDayMask(flight.getOperatingDays());
+
+        List<RouteCandidate> rows = new ArrayList<>();
+        for (Leg originLeg : originLegs) {
+            for (Leg destinationLeg : destinationLegs) {
+                int dayMask = flightMask & originLeg.dayMask() & destinationLeg.dayMask();
+                if (dayMask == 0 || originLeg.locationId().equals(destinationLeg.locationId())) {
+                    continue;
+                }
+                rows.add(new RouteCandidate(null, originLeg.locationId(), destinationLeg.locationId(),
+                        originLeg.transportationId(), flight.getId(), destinationLeg.transportationId(), dayMask));
+            }
+        }
+        return rows;
+    }
+
+    private List<Leg> legs(Location airport,
+                           List<Location> city,
+                           List<Transportation> transfers,
+                           Function<Transportation, Location> transferEnd) {
+        List<Leg> legs = new ArrayList<>();
+        legs.add(new Leg(airport.getId(), null, ALL_DAYS_MASK));
+        for (Location location : city) {
+            if (isAirport(location)) {
+                continue;
+            }
+            int coveredDays = 0;
+            for (Transportation transfer : transfers) {
+                if (transferEnd.apply(transfer).getId().equals(location.getId())) {
+                    int transferMask = toDayMask(transfer.getOperatingDays());
+                    legs.add(new Leg(location.getId(), transfer.getId(), transferMask));
+                    coveredDays |= transferMask;
+                }
+            }
+            legs.add(new Leg(location.getId(), null, ALL_DAYS_MASK & ~coveredDays));
+        }
+        return legs;
+    }
+
+    private boolean isAirport(Location location) {
+        return location.getLocationCode().length() == 3;
+    }
+
+    static int toDayMask(Collection<Integer> operatingDays) {
+        int mask = 0;
+        for (Integer day : operatingDays) {
+            mask |= 1 << (day - 1);
+        }
+        return mask;
+    }
+
+    private record Leg(Long locationId, Long transportationId, int dayMask) {
+    }
+}
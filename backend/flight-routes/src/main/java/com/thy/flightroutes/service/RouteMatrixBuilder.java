@@ -0,0 +1,105 @@
+package com.thy.flightroutes.service;
+
+import com.thy.flightroutes.dto.RouteDTO;
+import com.thy.flightroutes.dto.TransportationDTO;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Expands the flights of a route search into before/flight/after combinations.
+ * Transfers are grouped by the airport they connect to, so each flight only looks at its own transfers.
+ * Large searches are expanded per flight on a bounded pool; the result keeps the flight order either way.
+ */
+@Component
+public class RouteMatrixBuilder {
+
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+
+    public RouteMatrixBuilder(@Value("${routes.matrix.parallelism:0}") int parallelism,
+                              @Value("${routes.matrix.parallel-threshold:2000}") int parallelThreshold) {
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Builds every route for the given legs. Inputs must already be detached DTOs,
+     * the expansion may run outside the calling thread and its Hibernate session.
+     */
+    public List<RouteDTO> build(String originLocationName,
+                                String destinationLocationName,
+                                List<TransportationDTO> before,
+                                List<TransportationDTO> flights,
+                                List<TransportationDTO> after) {
+        Map<Long, List<TransportationDTO>> beforeByAirport = before.stream()
+                .collect(Collectors.groupingBy(TransportationDTO::getDestinationLocationId));
+        Map<Long, List<TransportationDTO>> afterByAirport = after.stream()
+                .collect(Collectors.groupingBy(TransportationDTO::getOriginLocationId));
+
+        long candidateCount = 0;
+        for (TransportationDTO flight : flights) {
+            candidateCount += (long) Math.max(beforeByAirport.getOrDefault(flight.getOriginLocationId(), List.of()).size(), 1)
+                    * Math.max(afterByAirport.getOrDefault(flight.getDestinationLocationId(), List.of()).size(), 1);
+        }
+
+        List<List<RouteDTO>> routesPerFlight;
+        if (flights.size() > 1 && candidateCount >= parallelThreshold) {
+            // An ordered parallel stream collects in encounter order, so the output matches the serial one
+            routesPerFlight = pool.submit(() -> flights.parallelStream()
+                    .map(flight -> expand(originLocationName, destinationLocationName,
+                            beforeByAirport, flight, afterByAirport))
+                    .toList()).join();
+        } else {
+            routesPerFlight = flights.stream()
+                    .map(flight -> expand(originLocationName, destinationLocationName,
+                            beforeByAirport, flight, afterByAirport))
+                    .toList();
+        }
+
+        List<RouteDTO> routes = new ArrayList<>((int) Math.min(candidateCount, Integer.MAX_VALUE));
+        routesPerFlight.forEach(routes::addAll);
+        return routes;
+    }
+
+    /**
+     * Rota: [Şehir içi ulaşım] -> [Uçuş] -> [Şehir içi ulaşım] Kurallar: - İlk adımda, origin'den
+     * intra-city (uçuş öncesi) transfer yapılmalı. - Ardından, ilk transferin varış noktasının şehri
+     * ile eşleşen bir uçuş, route hedefi ile biten segmenti oluşturmalı. - Son adımda, uçuşun varış
+     * noktasından, destination'a giden intra-city transfer eklenmeli.
+     */
+    private List<RouteDTO> expand(String originLocationName,
+                                  String destinationLocationName,
+                                  Map<Long, List<TransportationDTO>> beforeByAirport,
+                                  TransportationDTO flight,
+                                  Map<Long, List<TransportationDTO>> afterByAirport) {
+        List<TransportationDTO> before = beforeByAirport.getOrDefault(flight.getOriginLocationId(), List.of());
+        List<TransportationDTO> after = afterByAirport.getOrDefault(flight.getDestinationLocationId(), List.of());
+        int beforeSizeNormalized = Integer.max(before.size(), 1);
+        int afterSizeNormalized = Integer.max(after.size(), 1);
+        int totalSize = beforeSizeNormalized * afterSizeNormalized;
+
+        List<RouteDTO> routes = new ArrayList<>(totalSize);
+        for (int i = 0; i < totalSize; i++) {
+            routes.add(RouteDTO.builder()
+                    .beforeFlight(before.isEmpty() ? null : before.get(i % beforeSizeNormalized))
+                    .flight(flight)
+                    .afterFlight(after.isEmpty() ? null : after.get(i / beforeSizeNormalized))
+                    .originLocationName(originLocationName)
+                    .destinationLocationName(destinationLocationName)
+                    .build());
+        }
+        return routes;
+    }
+}
@@ -0,0 +1,416 @@
+package com.thy.flightroutes.service;
+
+import com.thy.flightroutes.entity.Transportation.TransportationType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable copy of all locations and transportations at one data version.
+ * Locations stay in on-heap arrays; transportations and their adjacency live off-heap in an {@link EdgeStore}.
+ * Both are addressed by dense indexes. A location's outgoing and incoming transportations are CSR ranges
+ * sorted by transportation id, walked with an {@link EdgeCursor}. Day masks use bit (day - 1).
+ * <p>
+ * Single writes are applied with {@link #withTransportation} / {@link #withoutTransportation}, which share the
+ * location arrays and the store and record the change in an {@link EdgeOverlay}. Indexes of the store's edges
+ * stay valid; overlay edges are appended after them, and removed edges are skipped by the cursor, so
+ * {@link #edgeSlots()} can be larger than {@link #transportationCount()}.
+ */
+public class RouteNetwork {
+
+    private static final TransportationType[] TYPES = TransportationType.values();
+
+    private final long version;
+
+    private final long[] locationIds;
+    private final boolean[] airportFlags;
+    private final String[] locationCodes;
+    private final String[] locationNames;
+    private final String[] locationCities;
+    private final String[] locationCountries;
+    private final int[] minConnectionMinutes;
+
+    private final EdgeStore edges;
+    private final EdgeOverlay overlay;
+
+    private final Map<String, Integer> locationIndexByCode;
+    private final Map<Long, Integer> locationIndexById;
+    private final Map<String, int[]> locationsByCity;
+
+    // Derived on first use; every rebuild after a write starts with a fresh network and index
+    private volatile ReachabilityIndex reachability;
+    private volatile TimetableIndex timetable;
+
+    RouteNetwork(long version,
+                 long[] locationIds, boolean[] airportFlags, String[] locationCodes, String[] locationNames,
+                 String[] locationCities, String[] locationCountries, int[] minConnectionMinutes,
+                 EdgeStore edges) {
+        this.version = version;
+        this.locationIds = locationIds;
+        this.airportFlags = airportFlags;
+        this.locationCodes = locationCodes;
+        this.locationNames = locationNames;
+        this.locationCities = locationCities;
+        this.locationCountries = locationCountries;
+        this.minConnectionMinutes = minConnectionMinutes;
+        this.edges = edges;
+        this.overlay = EdgeOverlay.EMPTY;
+
+        this.locationIndexByCode = new HashMap<>(locationIds.length * 2);
+        this.locationIndexById = new HashMap<>(locationIds.length * 2);
+        Map<String, List<Integer>> cities = new HashMap<>();
+        for (int i = 0; i < locationIds.length; i++) {
+            locationIndexByCode.put(locationCodes[i], i);
+            locationIndexById.put(locationIds[i], i);
+            cities.computeIfAbsent(locationCities[i], city -> new ArrayList<>()).add(i);
+        }
+        this.locationsByCity = new HashMap<>(cities.size() * 2);
+        cities.forEach((city, indexes) ->
+                locationsByCity.put(city, indexes.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    private RouteNetwork(RouteNetwork source, long version, EdgeOverlay overlay) {
+        this.version = version;
+        this.locationIds = source.locationIds;
+        this.airportFlags = source.airportFlags;
+        this.locationCodes = source.locationCodes;
+        this.locationNames = source.locationNames;
+        this.locationCities = source.locationCities;
+        this.locationCountries = source.locationCountries;
+        this.minConnectionMinutes = source.minConnectionMinutes;
+        this.edges = source.edges;
+        this.overlay = overlay;
+        this.locationIndexByCode = source.locationIndexByCode;
+        this.locationIndexById = source.locationIndexById;
+        this.locationsByCity = source.locationsByCity;
+    }
+
+    /**
+     * Builds the edge store for transportations given in any order.
+     * Edges are ordered by (origin, id) so iteration order is stable across rebuilds.
+     */
+    static RouteNetwork build(long version,
+                              long[] locationIds, boolean[] airportFlags, String[] locationCodes,
+                              String[] locationNames, String[] locationCities, String[] locationCountries,
+                              int[] minConnectionMinutes,
+                              long[] transportationIds, int[] origins, int[] destinations,
+                              byte[] types, byte[] dayMasks, short[] departures, short[] durations) {
+        EdgeStore edges = EdgeStore.build(locationIds.length, transportationIds, origins, destinations,
+                types, dayMasks, departures, durations);
+        return new RouteNetwork(version, locationIds, airportFlags, locationCodes, locationNames,
+                locationCities, locationCountries, minConnectionMinutes, edges);
+    }
+
+    /**
+     * @return a network at {@code version} in which the transportation with {@code id} has the given values,
+     * whether it existed before or not; the receiver is unchanged
+     */
+    RouteNetwork withTransportation(long version, long id, int origin, int destination, byte type,
+                                    byte dayMask, short departure, short duration) {
+        EdgeOverlay changed = overlayWithout(id);
+        return new RouteNetwork(this, version,
+                changed.add(edges.edgeCount(), id, origin, destination, type, dayMask, departure, duration));
+    }
+
+    /** @return the same network labelled with {@code version} */
+    RouteNetwork atVersion(long version) {
+        return new RouteNetwork(this, version, overlay);
+    }
+
+    /** @return a network at {@code version} without the transportation, if it had it */
+    RouteNetwork withoutTransportation(long version, long id) {
+        return new RouteNetwork(this, version, overlayWithout(id));
+    }
+
+    private EdgeOverlay overlayWithout(long id) {
+        int edge = overlay.edgeIndex(id);
+        if (edge < 0) {
+            edge = edges.edgeIndex(id);
+            if (edge >= 0 && overlay.isRemoved(edge)) {
+                edge = -1;
+            }
+        }
+        return edge < 0 ? overlay : overlay.remove(edges.edgeCount(), edge);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int locationCount() {
+        return locationIds.length;
+    }
+
+    public int transportationCount() {
+        return edges.edgeCount() + overlay.size() - overlay.removedCount();
+    }
+
+    /** @return the upper bound of transportation indexes; some below it may be {@link #isRemoved removed} */
+    public int edgeSlots() {
+        return edges.edgeCount() + overlay.size();
+    }
+
+    public boolean isRemoved(int transportation) {
+        return overlay.isRemoved(transportation);
+    }
+
+    /** @return changes applied since the edge store was built; a rebuild brings it back to 0 */
+    public int overlaySize() {
+        return overlay.size() + overlay.removedCount();
+    }
+
+    /** @return the location index, or -1 when the code is unknown */
+    public int locationIndex(String locationCode) {
+        Integer index = locationIndexByCode.get(locationCode);
+        return index != null ? index : -1;
+    }
+
+    /** @return the location index, or -1 when the id is unknown */
+    public int locationIndexById(long locationId) {
+        Integer index = locationIndexById.get(locationId);
+        return index != null ? index : -1;
+    }
+
+    public int[] locationsInCity(String city) {
+        return locationsByCity.getOrDefault(city, new int[0]);
+    }
+
+    public long locationId(int location) {
+        return locationIds[location];
+    }
+
+    public boolean airportFlag(int location) {
+        return airportFlags[location];
+    }
+
+    public String locationCode(int location) {
+        return locationCodes[location];
+    }
+
+    public String locationName(int location) {
+        return locationNames[location];
+    }
+
+    public String locationCity(int location) {
+        return locationCities[location];
+    }
+
+    public String locationCountry(int location) {
+        return locationCountries[location];
+    }
+
+    /** @return the location's minimum connection time in minutes, or -1 when it uses the default */
+    public int minConnectionMinutes(int location) {
+        return minConnectionMinutes[location];
+    }
+
+    public long transportationId(int transportation) {
+        return transportation < edges.edgeCount()
+                ? edges.transportationId(transportation) : overlay.transportationId(transportation);
+    }
+
+    public int origin(int transportation) {
+        return transportation < edges.edgeCount()
+                ? edges.origin(transportation) : overlay.origin(transportation);
+    }
+
+    public int destination(int transportation) {
+        return transportation < edges.edgeCount()
+                ? edges.destination(transportation) : overlay.destination(transportation);
+    }
+
+    public TransportationType type(int transportation) {
+        return TYPES[typeOrdinal(transportation)];
+    }
+
+    public byte typeOrdinal(int transportation) {
+        return transportation < edges.edgeCount()
+                ? edges.typeOrdinal(transportation) : overlay.typeOrdinal(transportation);
+    }
+
+    public int dayMask(int transportation) {
+        return transportation < edges.edgeCount()
+                ? edges.dayMask(transportation) : overlay.dayMask(transportation);
+    }
+
+    /** @return the departure as minute of day, or -1 when the transportation has no timetable */
+    public int departureMinute(int transportation) {
+        return transportation < edges.edgeCount()
+                ? edges.departureMinute(transportation) : overlay.departureMinute(transportation);
+    }
+
+    public int duration(int transportation) {
+        return transportation < edges.edgeCount()
+                ? edges.duration(transportation) : overlay.duration(transportation);
+    }
+
+    /** @return the number of live outgoing transportations */
+    public int outDegree(int location) {
+        if (overlay.isEmpty()) {
+            return edges.outEnd(location) - edges.outStart(location);
+        }
+        int degree = overlay.outgoing(location).length;
+        for (int edge = edges.outStart(location); edge < edges.outEnd(location); edge++) {
+            if (!overlay.isRemoved(edge)) {
+                degree++;
+            }
+        }
+        return degree;
+    }
+
+    // The CSR ranges below cover the edge store only; use a cursor to include the overlay
+
+    public int outStart(int location) {
+        return edges.outStart(location);
+    }
+
+    public int outEnd(int location) {
+        return edges.outEnd(location);
+    }
+
+    /** Outgoing edges are stored contiguously per origin, so the position is the transportation index. */
+    public int outEdge(int position) {
+        return position;
+    }
+
+    public int inStart(int location) {
+        return edges.inStart(location);
+    }
+
+    public int inEnd(int location) {
+        return edges.inEnd(location);
+    }
+
+    public int inEdge(int position) {
+        return edges.inEdge(position);
+    }
+
+    /**
+     * @return a new cursor; it can be reset with {@link EdgeCursor#outgoing} / {@link EdgeCursor#incoming}
+     * and reused for any number of locations
+     */
+    public EdgeCursor cursor() {
+        return new EdgeCursor();
+    }
+
+    ReachabilityIndex reachability() {
+        ReachabilityIndex index = reachability;
+        if (index == null) {
+            synchronized (this) {
+                index = reachability;
+                if (index == null) {
+                    index = ReachabilityIndex.build(this);
+                    reachability = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    TimetableIndex timetable() {
+        TimetableIndex index = timetable;
+        if (index == null) {
+            synchronized (this) {
+                index = timetable;
+                if (index == null) {
+                    index = TimetableIndex.build(this);
+                    timetable = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    EdgeStore edges() {
+        return edges;
+    }
+
+    /**
+     * Allocation-free iterator over one location's outgoing or incoming transportations, in transportation id
+     * order. Not thread-safe; use one cursor per search.
+     */
+    public final class EdgeCursor {
+
+        private static final int[] NONE = new int[0];
+
+        private boolean incoming;
+        private int position;
+        private int end;
+        private int[] added = NONE;
+        private int addedPosition;
+        private int edge = -1;
+
+        private EdgeCursor() {
+        }
+
+        public EdgeCursor outgoing(int location) {
+            return reset(false, edges.outStart(location), edges.outEnd(location),
+                    overlay.isEmpty() ? NONE : overlay.outgoing(location));
+        }
+
+        public EdgeCursor incoming(int location) {
+            return reset(true, edges.inStart(location), edges.inEnd(location),
+                    overlay.isEmpty() ? NONE : overlay.incoming(location));
+        }
+
+        private EdgeCursor reset(boolean incoming, int start, int end, int[] added) {
+            this.incoming = incoming;
+            this.position = start;
+            this.end = end;
+            this.added = added;
+            this.addedPosition = 0;
+            this.edge = -1;
+            return this;
+        }
+
+        public boolean next() {
+            int stored = -1;
+            while (position < end) {
+                stored = incoming ? edges.inEdge(position) : position;
+                if (!overlay.isRemoved(stored)) {
+                    break;
+                }
+                stored = -1;
+                position++;
+            }
+            if (addedPosition < added.length
+                    && (stored < 0 || overlay.transportationId(added[addedPosition]) < edges.transportationId(stored))) {
+                edge = added[addedPosition++];
+                return true;
+            }
+            if (stored < 0) {
+                return false;
+            }
+            edge = stored;
+            position++;
+            return true;
+        }
+
+        /** @return the current transportation index */
+        public int edge() {
+            return edge;
+        }
+
+        public int origin() {
+            return RouteNetwork.this.origin(edge);
+        }
+
+        public int destination() {
+            return RouteNetwork.this.destination(edge);
+        }
+
+        public byte typeOrdinal() {
+            return RouteNetwork.this.typeOrdinal(edge);
+        }
+
+        public int dayMask() {
+            return RouteNetwork.this.dayMask(edge);
+        }
+
+        public long transportationId() {
+            return RouteNetwork.this.transportationId(edge);
+        }
+    }
+}
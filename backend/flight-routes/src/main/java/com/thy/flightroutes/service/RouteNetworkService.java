@@ -0,0 +1,750 @@
+package com.thy.flightroutes.service;
+
+import com.thy.flightroutes.config.ServedDataVersion;
+import com.thy.flightroutes.dto.LocationDTO;
+import com.thy.flightroutes.dto.RouteDTO;
+import com.thy.flightroutes.dto.RouteMatrixCellDTO;
+import com.thy.flightroutes.dto.RouteMatrixRequestDTO;
+import com.thy.flightroutes.dto.RouteRequestDTO;
+import com.thy.flightroutes.dto.TimetableItineraryDTO;
+import com.thy.flightroutes.dto.TimetableSearchRequestDTO;
+import com.thy.flightroutes.dto.TimetableSearchResponseDTO;
+import com.thy.flightroutes.dto.TransportationDTO;
+import com.thy.flightroutes.entity.Location;
+import com.thy.flightroutes.entity.Transportation.TransportationType;
+import com.thy.flightroutes.event.NetworkChangeEvent;
+import com.thy.flightroutes.event.NetworkChangeEvent.ImportChunkCommitted;
+import com.thy.flightroutes.event.NetworkChangeEvent.TransportationAdded;
+import com.thy.flightroutes.event.NetworkChangeEvent.TransportationData;
+import com.thy.flightroutes.event.NetworkChangeEvent.TransportationRemoved;
+import com.thy.flightroutes.event.NetworkChangeEvent.TransportationUpdated;
+import com.thy.flightroutes.event.NetworkChangeSequencer;
+import com.thy.flightroutes.event.NetworkChangeSubscriber;
+import com.thy.flightroutes.exception.ResourceNotFoundException;
+import com.thy.flightroutes.repository.LocationRepository;
+import com.thy.flightroutes.repository.TransportationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Serves route searches from an in-memory {@link RouteNetwork}.
+ * On startup the network is mapped from the binary snapshot when the snapshot matches the current
+ * data version and epoch, otherwise it is loaded from the database with scalar queries. Every search checks the
+ * data version and rebuilds the network (and rewrites the snapshot) once it has moved on.
+ * <p>
+ * Single transportation writes arrive as {@link NetworkChangeEvent}s and are applied to the network in place
+ * of a rebuild; location changes and imports still rebuild it, an import once after its last chunk. A search
+ * that finds the network behind the data version waits up to {@code routes.network.change-gap-timeout} for the
+ * events before rebuilding; what it serves meanwhile is recorded as {@link ServedDataVersion}.
+ * <p>
+ * With {@code routes.network.enabled} off, route, matrix and reachability searches go to the database instead
+ * (see {@link RouteService}). The timetable search has no database counterpart: it loads the network on first
+ * use, which is then kept current from the change events like an enabled one.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RouteNetworkService implements NetworkChangeSubscriber {
+
+    private static final int FLIGHT = TransportationType.FLIGHT.ordinal();
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final LocationRepository locationRepository;
+    private final TransportationRepository transportationRepository;
+    private final DataVersionService dataVersionService;
+    private final RouteMatrixBuilder routeMatrixBuilder;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Object rebuildLock = new Object();
+    private volatile RouteNetwork network;
+    private volatile long behindSince;
+    private NetworkChangeSequencer sequencer;
+
+    @Value("${routes.network.enabled:false}")
+    private boolean enabled;
+
+    @Value("${routes.network.snapshot-path:${java.io.tmpdir}/flight-routes/route-network.bin}")
+    private String snapshotPath;
+
+    @Value("${routes.timetable.default-min-connection-minutes:60}")
+    private int defaultMinConnectionMinutes;
+
+    @Value("${routes.availability-matrix.max-cells:10000}")
+    private long maxMatrixCells;
+
+    @Value("${routes.network.change-gap-timeout:500ms}")
+    private Duration changeGapTimeout;
+
+    @Value("${routes.network.max-overlay:1000}")
+    private int maxOverlay;
+
+    @PostConstruct
+    void startChangeFeed() {
+        sequencer = new NetworkChangeSequencer(new NetworkReplica(), changeGapTimeout);
+    }
+
+    @PreDestroy
+    void stopChangeFeed() {
+        sequencer.shutdown();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        long currentVersion = dataVersionService.currentVersion();
+        RouteNetwork snapshot = readSnapshot(dataVersionService.currentEpoch());
+        if (snapshot != null && snapshot.version() == currentVersion) {
+            network = snapshot;
+            log.info("Loaded route network v{} from snapshot in {} ms",
+                    currentVersion, (System.nanoTime() - start) / 1_000_000);
+            return;
+        }
+        log.info("Route network snapshot {} is missing or stale, loading v{} from the database",
+                snapshotPath, currentVersion);
+        current();
+    }
+
+    /**
+     * @return the network for the current data version, rebuilding it first if the data has changed
+     */
+    public RouteNetwork current() {
+        long version = dataVersionService.currentVersion();
+        RouteNetwork current = network;
+        if (current != null && current.version() >= version) {
+            behindSince = 0;
+            return current;
+        }
+        // Changes committed on another instance reach this one through Redis a moment after the commit
+        long now = System.nanoTime();
+        if (current != null) {
+            if (behindSince == 0) {
+                behindSince = now;
+            }
+            if (now - behindSince < changeGapTimeout.toNanos()) {
+                ServedDataVersion.record(current.version());
+                return current;
+            }
+        }
+        synchronized (rebuildLock) {
+            current = network;
+            if (current == null || current.version() < version) {
+                current = rebuild();
+            }
+            behindSince = 0;
+            return current;
+        }
+    }
+
+    @Override
+    public void onNetworkChange(NetworkChangeEvent event) {
+        // Disabled, the network is only there once a timetable search has loaded it
+        if (enabled || network != null) {
+            sequencer.accept(event);
+        }
+    }
+
+    /**
+     * Same itineraries as the database-backed search in {@link RouteService}; the only query is the version check.
+     */
+    public List<RouteDTO> findRoutes(RouteRequestDTO request) {
+        RouteNetwork network = current();
+        int origin = network.locationIndex(request.getOriginLocationCode());
+        if (origin < 0) {
+            throw new ResourceNotFoundException("Origin location not found: " + request.getOriginLocationCode());
+        }
+        int destination = network.locationIndex(request.getDestinationLocationCode());
+        if (destination < 0) {
+            throw new ResourceNotFoundException(
+                    "Destination location not found: " + request.getDestinationLocationCode());
+        }
+        if (network.locationCode(origin).equalsIgnoreCase(network.locationCode(destination))) {
+            throw new IllegalArgumentException("Origin and destination cannot be the same");
+        }
+        int dayBit = 1 << (request.getDate().getDayOfWeek().getValue() - 1);
+
+        BitSet destinationAirports = new BitSet(network.locationCount());
+        for (int airport : airportsFor(network, destination)) {
+            destinationAirports.set(airport);
+        }
+        RouteNetwork.EdgeCursor cursor = network.cursor();
+        List<Integer> flights = new ArrayList<>();
+        for (int airport : airportsFor(network, origin)) {
+            cursor.outgoing(airport);
+            while (cursor.next()) {
+                if (cursor.typeOrdinal() == FLIGHT
+                        && (cursor.dayMask() & dayBit) != 0
+                        && destinationAirports.get(cursor.destination())) {
+                    flights.add(cursor.edge());
+                }
+            }
+        }
+        // Edges are grouped by origin airport; order by transportation id so results come out in a stable order
+        flights.sort(Comparator.comparingLong(network::transportationId));
+
+        List<Integer> before = new ArrayList<>();
+        if (!isAirport(network, origin)) {
+            cursor.outgoing(origin);
+            while (cursor.next()) {
+                if (isTransferOn(cursor, dayBit) && isAirport(network, cursor.destination())) {
+                    before.add(cursor.edge());
+                }
+            }
+        }
+        List<Integer> after = new ArrayList<>();
+        if (!isAirport(network, destination)) {
+            cursor.incoming(destination);
+            while (cursor.next()) {
+                if (isTransferOn(cursor, dayBit) && isAirport(network, cursor.origin())) {
+                    after.add(cursor.edge());
+                }
+            }
+        }
+
+        Map<Integer, TransportationDTO> dtos = new HashMap<>();
+        return routeMatrixBuilder.build(
+                network.locationName(origin),
+                network.locationName(destination),
+                toDtos(network, before, dtos),
+                toDtos(network, flights, dtos),
+                toDtos(network, after, dtos));
+    }
+
+    /**
+     * Route counts and the best route for every origin x destination x date cell.
+     * Instead of one search per cell, each distinct weekday in the range is swept once for all origins:
+     * flights are scanned once per departure airport and shared by every origin that reaches it, and
+     * the after-flight transfers of each destination are counted once. Counts equal the size of
+     * {@link #findRoutes} for the same cell; cells whose origin and destination are the same are skipped.
+     */
+    public List<RouteMatrixCellDTO> findRouteMatrix(RouteMatrixRequestDTO request) {
+        long cellCount = checkRouteMatrixRequest(request);
+        RouteNetwork network = current();
+        int[] origins = resolveLocations(network, request.getOriginLocationCodes(), "Origin");
+        int[] destinations = resolveLocations(network, request.getDestinationLocationCodes(), "Destination");
+
+        Map<DayOfWeek, MatrixSweep> sweeps = new EnumMap<>(DayOfWeek.class);
+        Map<Integer, TransportationDTO> dtos = new HashMap<>();
+        List<RouteMatrixCellDTO> cells = new ArrayList<>((int) cellCount);
+        for (LocalDate date = request.getStartDate(); !date.isAfter(request.getEndDate()); date = date.plusDays(1)) {
+            MatrixSweep sweep = sweeps.computeIfAbsent(date.getDayOfWeek(),
+                    day -> sweep(network, origins, destinations, 1 << (day.getValue() - 1)));
+            for (int i = 0; i < origins.length; i++) {
+                for (int j = 0; j < destinations.length; j++) {
+                    if (network.locationCode(origins[i]).equalsIgnoreCase(network.locationCode(destinations[j]))) {
+                        continue;
+                    }
+                    MatrixOption best = sweep.best()[i][j];
+                    cells.add(new RouteMatrixCellDTO(
+                            network.locationCode(origins[i]),
+                            network.locationCode(destinations[j]),
+                            date,
+                            sweep.counts()[i][j],
+                            best == null ? null : toRouteDto(network, origins[i], destinations[j], best, dtos)));
+                }
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Rejects reversed date ranges and matrices over {@code routes.availability-matrix.max-cells}.
+     *
+     * @return the number of cells requested
+     */
+    public long checkRouteMatrixRequest(RouteMatrixRequestDTO request) {
+        if (request.getEndDate().isBefore(request.getStartDate())) {
+            throw new IllegalArgumentException("End date cannot be before start date");
+        }
+        long dayCount = ChronoUnit.DAYS.between(request.getStartDate(), request.getEndDate()) + 1;
+        long cellCount = (long) request.getOriginLocationCodes().size()
+                * request.getDestinationLocationCodes().size() * dayCount;
+        if (cellCount > maxMatrixCells) {
+            throw new IllegalArgumentException(
+                    "Route matrix is limited to " + maxMatrixCells + " cells, requested " + cellCount);
+        }
+        return cellCount;
+    }
+
+    /**
+     * All locations that {@link #findRoutes} returns at least one route to, sorted by location code.
+     */
+    public List<LocationDTO> findReachableLocations(String originLocationCode, LocalDate date) {
+        RouteNetwork network = current();
+        int origin = network.locationIndex(originLocationCode);
+        if (origin < 0) {
+            throw new ResourceNotFoundException("Origin location not found: " + originLocationCode);
+        }
+        BitSet reachable = network.reachability().reachable(origin, date.getDayOfWeek().getValue());
+        List<LocationDTO> locations = new ArrayList<>(reachable.cardinality());
+        for (int location = reachable.nextSetBit(0); location >= 0; location = reachable.nextSetBit(location + 1)) {
+            locations.add(toLocationDto(network, location));
+        }
+        locations.sort(Comparator.comparing(LocationDTO::getLocationCode));
+        return locations;
+    }
+
+    /**
+     * Time-dependent search over the timed transportations with {@link ConnectionScan}. Returns the
+     * earliest-arriving itinerary and every itinerary that needs fewer legs than the ones arriving earlier.
+     * Transportations without departure and arrival times are not used.
+     */
+    public TimetableSearchResponseDTO findTimetableRoutes(TimetableSearchRequestDTO request) {
+        RouteNetwork network = current();
+        int origin = network.locationIndex(request.getOriginLocationCode());
+        if (origin < 0) {
+            throw new ResourceNotFoundException("Origin location not found: " + request.getOriginLocationCode());
+        }
+        int destination = network.locationIndex(request.getDestinationLocationCode());
+        if (destination < 0) {
+            throw new ResourceNotFoundException(
+                    "Destination location not found: " + request.getDestinationLocationCode());
+        }
+        if (network.locationCode(origin).equalsIgnoreCase(network.locationCode(destination))) {
+            throw new IllegalArgumentException("Origin and destination cannot be the same");
+        }
+        int earliestDeparture = request.getDepartureAfter() != null
+                ? request.getDepartureAfter().toSecondOfDay() / 60 : 0;
+
+        List<ConnectionScan.Journey> journeys = ConnectionScan.search(network, origin, destination,
+                airportsFor(network, origin), airportsFor(network, destination),
+                request.getDate().getDayOfWeek().getValue(), earliestDeparture, defaultMinConnectionMinutes);
+
+        Map<Integer, TransportationDTO> dtos = new HashMap<>();
+        List<TimetableItineraryDTO> itineraries = new ArrayList<>(journeys.size());
+        for (ConnectionScan.Journey journey : journeys) {
+            LocalDateTime start = request.getDate().atStartOfDay();
+            itineraries.add(new TimetableItineraryDTO(
+                    toRouteDto(network, origin, destination,
+                            new MatrixOption(journey.before(), journey.flight(), journey.after()), dtos),
+                    start.plusMinutes(journey.departure()),
+                    start.plusMinutes(journey.arrival()),
+                    journey.legs(),
+                    journey.arrival() - journey.departure()));
+        }
+        return new TimetableSearchResponseDTO(
+                itineraries.isEmpty() ? null : itineraries.get(itineraries.size() - 1), itineraries);
+    }
+
+    private MatrixSweep sweep(RouteNetwork network, int[] origins, int[] destinations, int dayBit) {
+        RouteNetwork.EdgeCursor cursor = network.cursor();
+        int[] slot = new int[network.locationCount()];
+        Arrays.fill(slot, -1);
+
+        // Arrival side, once per destination: its airports and the transfers from each of them
+        int[][] arrivalAirports = new int[destinations.length][];
+        int[][] afterCounts = new int[destinations.length][];
+        int[][] bestAfters = new int[destinations.length][];
+        for (int j = 0; j < destinations.length; j++) {
+            arrivalAirports[j] = airportsFor(network, destinations[j]);
+            afterCounts[j] = new int[arrivalAirports[j].length];
+            bestAfters[j] = new int[arrivalAirports[j].length];
+            if (!isAirport(network, destinations[j])) {
+                countTransfers(network, cursor.incoming(destinations[j]), true, dayBit, arrivalAirports[j], slot,
+                        afterCounts[j], bestAfters[j]);
+            }
+        }
+
+        Map<Integer, int[]> flightsByAirport = new HashMap<>();
+        long[] arrivals = new long[network.locationCount()];
+        MatrixOption[] bestArrivals = new MatrixOption[network.locationCount()];
+        long[][] counts = new long[origins.length][destinations.length];
+        MatrixOption[][] best = new MatrixOption[origins.length][destinations.length];
+        for (int i = 0; i < origins.length; i++) {
+            int[] departureAirports = airportsFor(network, origins[i]);
+            int[] beforeCounts = new int[departureAirports.length];
+            int[] bestBefores = new int[departureAirports.length];
+            if (!isAirport(network, origins[i])) {
+                countTransfers(network, cursor.outgoing(origins[i]), false, dayBit, departureAirports, slot,
+                        beforeCounts, bestBefores);
+            }
+
+            List<Integer> reached = new ArrayList<>();
+            for (int k = 0; k < departureAirports.length; k++) {
+                int[] flights = flightsByAirport.computeIfAbsent(departureAirports[k],
+                        airport -> flightsFrom(network, cursor, airport, dayBit));
+                int before = beforeCounts[k] > 0 ? bestBefores[k] : -1;
+                for (int flight : flights) {
+                    int arrival = network.destination(flight);
+                    if (arrivals[arrival] == 0) {
+                        reached.add(arrival);
+                    }
+                    arrivals[arrival] += Math.max(beforeCounts[k], 1);
+                    MatrixOption option = new MatrixOption(before, flight, -1);
+                    if (option.isBetterThan(bestArrivals[arrival], network)) {
+                        bestArrivals[arrival] = option;
+                    }
+                }
+            }
+
+            for (int j = 0; j < destinations.length; j++) {
+                for (int k = 0; k < arrivalAirports[j].length; k++) {
+                    int arrival = arrivalAirports[j][k];
+                    if (arrivals[arrival] == 0) {
+                        continue;
+                    }
+                    counts[i][j] += arrivals[arrival] * Math.max(afterCounts[j][k], 1);
+                    MatrixOption option = new MatrixOption(bestArrivals[arrival].before(),
+                            bestArrivals[arrival].flight(), afterCounts[j][k] > 0 ? bestAfters[j][k] : -1);
+                    if (option.isBetterThan(best[i][j], network)) {
+                        best[i][j] = option;
+                    }
+                }
+            }
+            for (int arrival : reached) {
+                arrivals[arrival] = 0;
+                bestArrivals[arrival] = null;
+            }
+        }
+        return new MatrixSweep(counts, best);
+    }
+
+    // Counts the day's transfers between the location and each of the given airports, keeping the lowest id
+    private void countTransfers(RouteNetwork network, RouteNetwork.EdgeCursor cursor, boolean incoming, int dayBit,
+                                int[] airports, int[] slot, int[] counts, int[] bestTransfers) {
+        for (int k = 0; k < airports.length; k++) {
+            slot[airports[k]] = k;
+        }
+        while (cursor.next()) {
+            int airport = incoming ? cursor.origin() : cursor.destination();
+            int k = slot[airport];
+            if (k >= 0 && isTransferOn(cursor, dayBit)) {
+                if (counts[k] == 0 || cursor.transportationId() < network.transportationId(bestTransfers[k])) {
+                    bestTransfers[k] = cursor.edge();
+                }
+                counts[k]++;
+            }
+        }
+        for (int airport : airports) {
+            slot[airport] = -1;
+        }
+    }
+
+    private int[] flightsFrom(RouteNetwork network, RouteNetwork.EdgeCursor cursor, int airport, int dayBit) {
+        cursor.outgoing(airport);
+        int[] flights = new int[network.outDegree(airport)];
+        int count = 0;
+        while (cursor.next()) {
+            if (cursor.typeOrdinal() == FLIGHT && (cursor.dayMask() & dayBit) != 0) {
+                flights[count++] = cursor.edge();
+            }
+        }
+        return Arrays.copyOf(flights, count);
+    }
+
+    private int[] resolveLocations(RouteNetwork network, List<String> codes, String role) {
+        int[] locations = new int[codes.size()];
+        for (int i = 0; i < locations.length; i++) {
+            locations[i] = network.locationIndex(codes.get(i));
+            if (locations[i] < 0) {
+                throw new ResourceNotFoundException(role + " location not found: " + codes.get(i));
+            }
+        }
+        return locations;
+    }
+
+    private RouteDTO toRouteDto(RouteNetwork network, int origin, int destination, MatrixOption option,
+                                Map<Integer, TransportationDTO> dtos) {
+        return RouteDTO.builder()
+                .beforeFlight(option.before() < 0 ? null : toDtos(network, List.of(option.before()), dtos).get(0))
+                .flight(toDtos(network, List.of(option.flight()), dtos).get(0))
+                .afterFlight(option.after() < 0 ? null : toDtos(network, List.of(option.after()), dtos).get(0))
+                .originLocationName(network.locationName(origin))
+                .destinationLocationName(network.locationName(destination))
+                .build();
+    }
+
+    private record MatrixSweep(long[][] counts, MatrixOption[][] best) {
+    }
+
+    /** Transportation indexes of one route, -1 for a missing transfer. */
+    private record MatrixOption(int before, int flight, int after) {
+
+        int segments() {
+            return 1 + (before >= 0 ? 1 : 0) + (after >= 0 ? 1 : 0);
+        }
+
+        boolean isBetterThan(MatrixOption other, RouteNetwork network) {
+            if (other == null) {
+                return true;
+            }
+            if (segments() != other.segments()) {
+                return segments() < other.segments();
+            }
+            int byFlight = Long.compare(network.transportationId(flight), network.transportationId(other.flight));
+            if (byFlight != 0) {
+                return byFlight < 0;
+            }
+            return idOrMinusOne(network, before) < idOrMinusOne(network, other.before)
+                    || (before == other.before && idOrMinusOne(network, after) < idOrMinusOne(network, other.after));
+        }
+
+        private static long idOrMinusOne(RouteNetwork network, int transportation) {
+            return transportation < 0 ? -1 : network.transportationId(transportation);
+        }
+    }
+
+    private RouteNetwork rebuild() {
+        RouteNetwork rebuilt = loadFromDatabase();
+        network = rebuilt;
+        writeSnapshot(rebuilt);
+        return rebuilt;
+    }
+
+    /** Applies change events to {@link #network}; the sequencer calls it in version order. */
+    private class NetworkReplica implements NetworkChangeSequencer.Replica {
+
+        @Override
+        public long version() {
+            RouteNetwork current = network;
+            return current != null ? current.version() : -1;
+        }
+
+        @Override
+        public void apply(NetworkChangeEvent event) {
+            synchronized (rebuildLock) {
+                RouteNetwork current = network;
+                if (current == null || current.version() >= event.version()) {
+                    return;
+                }
+                RouteNetwork changed = switch (event) {
+                    case TransportationAdded added ->
+                            withTransportation(current, event.version(), added.transportation());
+                    case TransportationUpdated updated ->
+                            withTransportation(current, event.version(), updated.transportation());
+                    case TransportationRemoved removed ->
+                            current.withoutTransportation(event.version(), removed.transportationId());
+                    // The import's closing change rebuilds once for all of its chunks
+                    case ImportChunkCommitted chunk -> current.atVersion(event.version());
+                    default -> null;
+                };
+                if (changed == null || changed.overlaySize() > maxOverlay) {
+                    rebuild();
+                } else {
+                    network = changed;
+                }
+            }
+        }
+
+        @Override
+        public void resync() {
+            synchronized (rebuildLock) {
+                RouteNetwork current = network;
+                if (current == null || current.version() < dataVersionService.currentVersion()) {
+                    rebuild();
+                }
+            }
+        }
+
+        /** @return null when a location is not in the network yet, which takes a rebuild */
+        private RouteNetwork withTransportation(RouteNetwork current, long version, TransportationData data) {
+            int origin = current.locationIndexById(data.originLocationId());
+            int destination = current.locationIndexById(data.destinationLocationId());
+            if (origin < 0 || destination < 0) {
+                return null;
+            }
+            int dayMask = 0;
+            for (int day : data.operatingDays()) {
+                dayMask |= 1 << (day - 1);
+            }
+            short departure = -1;
+            short duration = 0;
+            if (data.departureTime() != null && data.arrivalTime() != null) {
+                departure = (short) minuteOfDay(data.departureTime());
+                duration = (short) durationMinutes(data.departureTime(), data.arrivalTime());
+            }
+            return current.withTransportation(version, data.id(), origin, destination,
+                    (byte) data.transportationType().ordinal(), (byte) dayMask, departure, duration);
+        }
+    }
+
+    private RouteNetwork loadFromDatabase() {
+        long start = System.nanoTime();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        // Also called from after-commit listeners, where the writing transaction is still bound to the thread
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        RouteNetwork loaded = transactionTemplate.execute(status -> {
+            // Read the version before the data: a concurrent write can only make the data newer than its label
+            long version = dataVersionService.currentVersion();
+            List<Location> locations = locationRepository.findAll();
+            List<Object[]> transportations = transportationRepository.findAllTransportationRows();
+            List<Object[]> operatingDays = transportationRepository.findAllOperatingDayRows();
+
+            int locationCount = locations.size();
+            long[] locationIds = new long[locationCount];
+            boolean[] airportFlags = new boolean[locationCount];
+            String[] codes = new String[locationCount];
+            String[] names = new String[locationCount];
+            String[] cities = new String[locationCount];
+            String[] countries = new String[locationCount];
+            int[] minConnectionMinutes = new int[locationCount];
+            Map<Long, Integer> locationIndexes = new HashMap<>(locationCount * 2);
+            for (int i = 0; i < locationCount; i++) {
+                Location location = locations.get(i);
+                locationIds[i] = location.getId();
+                airportFlags[i] = Boolean.TRUE.equals(location.getIsAirport());
+                codes[i] = location.getLocationCode();
+                names[i] = location.getName();
+                cities[i] = location.getCity();
+                countries[i] = location.getCountry();
+                minConnectionMinutes[i] = location.getMinConnectionMinutes() != null
+                        ? location.getMinConnectionMinutes() : -1;
+                locationIndexes.put(location.getId(), i);
+            }
+
+            Map<Long, Integer> dayMasksById = new HashMap<>(transportations.size() * 2);
+            for (Object[] row : operatingDays) {
+                dayMasksById.merge((Long) row[0], 1 << ((Integer) row[1] - 1), (a, b) -> a | b);
+            }
+
+            int transportationCount = transportations.size();
+            long[] transportationIds = new long[transportationCount];
+            int[] origins = new int[transportationCount];
+            int[] destinations = new int[transportationCount];
+            byte[] types = new byte[transportationCount];
+            byte[] dayMasks = new byte[transportationCount];
+            short[] departures = new short[transportationCount];
+            short[] durations = new short[transportationCount];
+            for (int t = 0; t < transportationCount; t++) {
+                Object[] row = transportations.get(t);
+                transportationIds[t] = (Long) row[0];
+                origins[t] = locationIndexes.get((Long) row[1]);
+                destinations[t] = locationIndexes.get((Long) row[2]);
+                types[t] = (byte) ((TransportationType) row[3]).ordinal();
+                dayMasks[t] = (byte) (int) dayMasksById.getOrDefault(transportationIds[t], 0);
+                departures[t] = -1;
+                if (row[4] != null && row[5] != null) {
+                    departures[t] = (short) minuteOfDay((LocalTime) row[4]);
+                    durations[t] = (short) durationMinutes((LocalTime) row[4], (LocalTime) row[5]);
+                }
+            }
+
+            return RouteNetwork.build(version, locationIds, airportFlags, codes, names, cities, countries,
+                    minConnectionMinutes, transportationIds, origins, destinations, types, dayMasks,
+                    departures, durations);
+        });
+        log.info("Loaded route network v{} ({} locations, {} transportations) from the database in {} ms",
+                loaded.version(), loaded.locationCount(), loaded.transportationCount(),
+                (System.nanoTime() - start) / 1_000_000);
+        return loaded;
+    }
+
+    private RouteNetwork readSnapshot(String epoch) {
+        Path path = Path.of(snapshotPath);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            return RouteNetworkSnapshot.read(path, epoch);
+        } catch (IOException ex) {
+            log.warn("Ignoring unreadable route network snapshot {}", path, ex);
+            return null;
+        }
+    }
+
+    private void writeSnapshot(RouteNetwork network) {
+        try {
+            RouteNetworkSnapshot.write(network, dataVersionService.currentEpoch(), Path.of(snapshotPath));
+        } catch (IOException ex) {
+            log.warn("Could not write route network snapshot {}", snapshotPath, ex);
+        }
+    }
+
+    private int[] airportsFor(RouteNetwork network, int location) {
+        if (isAirport(network, location)) {
+            return new int[]{location};
+        }
+        return Arrays.stream(network.locationsInCity(network.locationCity(location)))
+                .filter(candidate -> isAirport(network, candidate))
+                .toArray();
+    }
+
+    private boolean isTransferOn(RouteNetwork.EdgeCursor cursor, int dayBit) {
+        return cursor.typeOrdinal() != FLIGHT && (cursor.dayMask() & dayBit) != 0;
+    }
+
+    private boolean isAirport(RouteNetwork network, int location) {
+        return network.locationCode(location).length() == 3;
+    }
+
+    private List<TransportationDTO> toDtos(RouteNetwork network, List<Integer> transportations,
+                                           Map<Integer, TransportationDTO> dtos) {
+        List<TransportationDTO> result = new ArrayList<>(transportations.size());
+        for (int t : transportations) {
+            result.add(dtos.computeIfAbsent(t, index -> new TransportationDTO(
+                    network.transportationId(index),
+                    network.locationId(network.origin(index)),
+                    network.locationId(network.destination(index)),
+                    network.type(index),
+                    daysOf(network.dayMask(index)),
+                    toLocationDto(network, network.origin(index)),
+                    toLocationDto(network, network.destination(index)))));
+        }
+        return result;
+    }
+
+    private LocationDTO toLocationDto(RouteNetwork network, int location) {
+        return new LocationDTO(
+                network.locationId(location),
+                network.locationName(location),
+                network.locationCountry(location),
+                network.locationCity(location),
+                network.locationCode(location),
+                network.airportFlag(location));
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.toSecondOfDay() / 60;
+    }
+
+    private static int durationMinutes(LocalTime departure, LocalTime arrival) {
+        // Arrivals before the departure time are on the next day
+        return (minuteOfDay(arrival) - minuteOfDay(departure) + MINUTES_PER_DAY) % MINUTES_PER_DAY;
+    }
+
+    private static Set<Integer> daysOf(int dayMask) {
+        Set<Integer> days = new HashSet<>();
+        for (int day = 1; day <= 7; day++) {
+            if ((dayMask & (1 << (day - 1))) != 0) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+}
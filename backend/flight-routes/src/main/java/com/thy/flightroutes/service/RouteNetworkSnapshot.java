@@ -0,0 +1,165 @@
+package com.thy.flightroutes.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary file format for {@link RouteNetwork}. All numbers are big-endian:
+ * <pre>
+ * int    magic "FRNS", int format version, string data epoch, long data version
+ * int    location count L, int transportation count T
+ * L x    long id, byte airport flag, int min connection minutes, string code, name, city, country
+ *        (string = int length + UTF-8)
+ *        zero padding to an 8-byte boundary
+ *        the {@link EdgeStore} region, verbatim
+ * long   CRC32C of everything above
+ * </pre>
+ * The edge region is used in place from the mapped file, so only the location records are decoded. The epoch
+ * ties the file to the database it was built from: versions restart when a schema is recreated, so a version
+ * alone does not identify the data.
+ * Files are written to a sibling temp file and moved into place, so readers never see a partial snapshot.
+ */
+final class RouteNetworkSnapshot {
+
+    static final int MAGIC = 0x46524E53;
+    // Bump when the layout or the TransportationType constants change
+    static final int FORMAT_VERSION = 4;
+
+    private RouteNetworkSnapshot() {
+    }
+
+    /**
+     * @throws IllegalArgumentException when the network has single changes applied; the file holds the edge
+     * store verbatim, so only a freshly built or read network can be written
+     */
+    static void write(RouteNetwork network, String epoch, Path file) throws IOException {
+        if (network.overlaySize() > 0) {
+            throw new IllegalArgumentException("Cannot snapshot route network v" + network.version()
+                    + " with " + network.overlaySize() + " unmerged changes");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + network.locationCount() * 96);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        writeString(out, epoch != null ? epoch : "");
+        out.writeLong(network.version());
+        out.writeInt(network.locationCount());
+        out.writeInt(network.edges().edgeCount());
+        for (int i = 0; i < network.locationCount(); i++) {
+            out.writeLong(network.locationId(i));
+            out.writeByte(network.airportFlag(i) ? 1 : 0);
+            out.writeInt(network.minConnectionMinutes(i));
+            writeString(out, network.locationCode(i));
+            writeString(out, network.locationName(i));
+            writeString(out, network.locationCity(i));
+            writeString(out, network.locationCountry(i));
+        }
+        while (out.size() % Long.BYTES != 0) {
+            out.writeByte(0);
+        }
+        out.flush();
+        ByteBuffer header = ByteBuffer.wrap(bytes.toByteArray());
+        ByteBuffer edges = network.edges().region();
+
+        CRC32C crc = new CRC32C();
+        crc.update(header.duplicate());
+        crc.update(edges.duplicate());
+        ByteBuffer trailer = ByteBuffer.allocate(Long.BYTES).putLong(0, crc.getValue());
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer[] parts = {header, edges, trailer};
+            while (trailer.hasRemaining()) {
+                channel.write(parts);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps the file read-only, decodes the location records and wraps the edge region without copying it.
+     *
+     * @return null when the file was written for another epoch than the given one
+     * @throws IOException when the file is unreadable, truncated, of another format or fails its checksum
+     */
+    static RouteNetwork read(Path file, String epoch) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 32 || size > Integer.MAX_VALUE) {
+                throw new IOException("Unexpected snapshot size " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.slice(0, (int) size - Long.BYTES));
+            if (crc.getValue() != buffer.getLong((int) size - Long.BYTES)) {
+                throw new IOException("Snapshot checksum mismatch");
+            }
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot format");
+            }
+            if (epoch == null || !epoch.equals(readString(buffer))) {
+                return null;
+            }
+            return decode(buffer.limit((int) size - Long.BYTES));
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException
+                 | NegativeArraySizeException ex) {
+            throw new IOException("Corrupt snapshot", ex);
+        }
+    }
+
+    private static RouteNetwork decode(ByteBuffer buffer) {
+        long version = buffer.getLong();
+        int locationCount = buffer.getInt();
+        int transportationCount = buffer.getInt();
+
+        long[] locationIds = new long[locationCount];
+        boolean[] airportFlags = new boolean[locationCount];
+        String[] codes = new String[locationCount];
+        String[] names = new String[locationCount];
+        String[] cities = new String[locationCount];
+        String[] countries = new String[locationCount];
+        int[] minConnectionMinutes = new int[locationCount];
+        for (int i = 0; i < locationCount; i++) {
+            locationIds[i] = buffer.getLong();
+            airportFlags[i] = buffer.get() != 0;
+            minConnectionMinutes[i] = buffer.getInt();
+            codes[i] = readString(buffer);
+            names[i] = readString(buffer);
+            cities[i] = readString(buffer);
+            countries[i] = readString(buffer);
+        }
+
+        int edgesStart = (buffer.position() + Long.BYTES - 1) / Long.BYTES * Long.BYTES;
+        EdgeStore edges = EdgeStore.wrap(locationCount, transportationCount,
+                buffer.slice(edgesStart, buffer.limit() - edgesStart));
+
+        return new RouteNetwork(version, locationIds, airportFlags, codes, names, cities, countries,
+                minConnectionMinutes, edges);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(encoded.length);
+        out.write(encoded);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] encoded = new byte[buffer.getInt()];
+        buffer.get(encoded);
+        return new String(encoded, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,73 @@
+package com.thy.flightroutes.service;
+
+import com.thy.flightroutes.dto.RouteDTO;
+import com.thy.flightroutes.dto.RouteDayResultDTO;
+import com.thy.flightroutes.dto.RouteRangeRequestDTO;
+import com.thy.flightroutes.dto.RouteRangeResponseDTO;
+import com.thy.flightroutes.dto.RouteRequestDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Flexible-date search over a date range. Operating days repeat weekly, so each distinct weekday in the
+ * range is searched once, through {@link RouteService#findRoutes} and its cache, and the result is
+ * repeated for every date falling on that weekday.
+ */
+@Service
+@RequiredArgsConstructor
+public class RouteRangeSearchService {
+
+    private final RouteService routeService;
+
+    @Value("${routes.range-search.max-days:62}")
+    private long maxDays;
+
+    public RouteRangeResponseDTO findRoutes(RouteRangeRequestDTO request) {
+        LocalDate startDate = request.getStartDate();
+        LocalDate endDate = request.getEndDate();
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date cannot be before start date");
+        }
+        long dayCount = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        if (dayCount > maxDays) {
+            throw new IllegalArgumentException("Date range is limited to " + maxDays + " days, requested " + dayCount);
+        }
+
+        Map<DayOfWeek, List<RouteDTO>> routesByWeekday = new EnumMap<>(DayOfWeek.class);
+        List<RouteDayResultDTO> days = new ArrayList<>();
+        long totalRoutes = 0;
+        int daysWithRoutes = 0;
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            if (!isRequested(request, date)) {
+                continue;
+            }
+            // The first date of each weekday is the one searched (and cached); later ones reuse it
+            LocalDate searchDate = date;
+            List<RouteDTO> routes = routesByWeekday.computeIfAbsent(date.getDayOfWeek(),
+                    day -> routeService.findRoutes(new RouteRequestDTO(
+                            request.getOriginLocationCode(), request.getDestinationLocationCode(), searchDate)));
+            days.add(new RouteDayResultDTO(date, routes.size(), routes));
+            totalRoutes += routes.size();
+            if (!routes.isEmpty()) {
+                daysWithRoutes++;
+            }
+        }
+        return new RouteRangeResponseDTO(request.getOriginLocationCode(), request.getDestinationLocationCode(),
+                startDate, endDate, totalRoutes, daysWithRoutes, days);
+    }
+
+    private boolean isRequested(RouteRangeRequestDTO request, LocalDate date) {
+        return request.getDaysOfWeek() == null
+                || request.getDaysOfWeek().isEmpty()
+                || request.getDaysOfWeek().contains(date.getDayOfWeek().getValue());
+    }
+}
@@ -0,0 +1,310 @@
+package com.thy.flightroutes.service;
+
+import com.thy.flightroutes.config.ServedDataVersion;
+import com.thy.flightroutes.dto.RouteDTO;
+import com.thy.flightroutes.dto.RouteRequestDTO;
+import com.thy.flightroutes.entity.DataVersion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * The {@code routes} cache with per-entry lifetimes instead of one fixed TTL.
+ * <ul>
+ *   <li>Fresh time grows with the age of the data: a network unchanged for hours is cached long, one edited a
+ *   minute ago briefly ({@code data-age-factor}, between {@code min-ttl} and {@code max-ttl}).</li>
+ *   <li>An entry goes stale when its fresh time is over or the data version it was computed from changes;
+ *   writes no longer evict it.</li>
+ *   <li>Hot keys ({@code hot-threshold} searches per {@code frequency-window}) are served stale for up to
+ *   {@code max-staleness} while a single background refresh recomputes them, guarded by a Redis lock across
+ *   instances. Cold keys get at most {@code cold-ttl} and no stale window, so they leave Redis soon.</li>
+ * </ul>
+ * Redis expires an entry at the end of its stale window, so nothing older is ever served. After a data change
+ * the window counts from the latest change. The version an answer was computed from is recorded as
+ * {@link ServedDataVersion}, so HTTP validators do not present a stale answer as current.
+ */
+@Slf4j
+@Service
+public class RouteResultCache {
+
+    public static final String CACHE_NAME = "routes";
+    static final String REFRESH_LOCK_PREFIX = "routes-refresh::";
+
+    public enum Freshness {
+        FRESH, STALE, EXPIRED
+    }
+
+    private final Cache cache;
+    private final StringRedisTemplate redisTemplate;
+    private final DataVersionService dataVersionService;
+    private final Clock clock;
+    private final ThreadPoolExecutor refreshPool;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<String, LongAdder> accessCounts = new ConcurrentHashMap<>();
+    private final AtomicLong windowStart;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final Counter staleServed;
+    private final Counter refreshed;
+    private final Counter refreshFailed;
+
+    private volatile DataVersion version;
+    private volatile long versionCheckedAt;
+
+    @Value("${routes.cache.min-ttl:1m}")
+    private Duration minTtl;
+
+    @Value("${routes.cache.max-ttl:30m}")
+    private Duration maxTtl;
+
+    @Value("${routes.cache.data-age-factor:0.1}")
+    private double dataAgeFactor;
+
+    @Value("${routes.cache.cold-ttl:2m}")
+    private Duration coldTtl;
+
+    @Value("${routes.cache.hot-threshold:5}")
+    private int hotThreshold;
+
+    @Value("${routes.cache.frequency-window:10m}")
+    private Duration frequencyWindow;
+
+    @Value("${routes.cache.max-staleness:2m}")
+    private Duration maxStaleness;
+
+    @Value("${routes.cache.version-check-interval:1s}")
+    private Duration versionCheckInterval;
+
+    @Value("${routes.cache.refresh-lock-timeout:30s}")
+    private Duration refreshLockTimeout;
+
+    @Autowired
+    public RouteResultCache(CacheManager cacheManager, StringRedisTemplate redisTemplate,
+                            DataVersionService dataVersionService, MeterRegistry meterRegistry,
+                            @Value("${routes.cache.refresh-threads:2}") int refreshThreads,
+                            @Value("${routes.cache.refresh-queued:100}") int refreshQueued) {
+        this(cacheManager, redisTemplate, dataVersionService, meterRegistry, Clock.systemUTC(), refreshThreads,
+                refreshQueued);
+    }
+
+    RouteResultCache(CacheManager cacheManager, StringRedisTemplate redisTemplate,
+                     DataVersionService dataVersionService, MeterRegistry meterRegistry, Clock clock,
+                     int refreshThreads, int refreshQueued) {
+        this.cache = cacheManager.getCache(CACHE_NAME);
+        this.redisTemplate = redisTemplate;
+        this.dataVersionService = dataVersionService;
+        this.clock = clock;
+        this.windowStart = new AtomicLong(clock.millis());
+        AtomicInteger counter = new AtomicInteger();
+        this.refreshPool = new ThreadPoolExecutor(refreshThreads, refreshThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(refreshQueued), runnable -> {
+                    Thread thread = new Thread(runnable, "routes-refresh-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.staleServed = Counter.builder("routes.cache.stale.served")
+                .description("Route searches answered from a stale entry while it was refreshed")
+                .register(meterRegistry);
+        this.refreshed = refreshes(meterRegistry, "success");
+        this.refreshFailed = refreshes(meterRegistry, "failure");
+    }
+
+    private static Counter refreshes(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("routes.cache.refreshes")
+                .description("Background recomputations of stale route entries")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshPool.shutdownNow();
+    }
+
+    public static String key(RouteRequestDTO request) {
+        return "origin_" + request.getOriginLocationCode() + "_dest_" + request.getDestinationLocationCode()
+                + "_date_" + request.getDate();
+    }
+
+    /**
+     * Cached routes for the request, or the loader's result. A stale entry is returned as is and refreshed in
+     * the background; only a miss or an expired entry makes the caller wait for the loader.
+     */
+    public List<RouteDTO> get(RouteRequestDTO request, Supplier<List<RouteDTO>> loader) {
+        String key = key(request);
+        recordAccess(key);
+        CachedRoutes entry = read(key);
+        if (entry != null) {
+            Freshness freshness = freshness(entry);
+            if (freshness == Freshness.FRESH) {
+                ServedDataVersion.record(entry.getDataVersion());
+                return entry.getRoutes();
+            }
+            if (freshness == Freshness.STALE) {
+                refreshInBackground(key, loader, this::write);
+                ServedDataVersion.record(entry.getDataVersion());
+                return entry.getRoutes();
+            }
+        }
+        return load(key, loader);
+    }
+
+    public Freshness freshness(CachedRoutes entry) {
+        long now = clock.millis();
+        DataVersion current = currentVersion();
+        long staleSince = entry.getDataVersion() == current.getVersion()
+                ? entry.getFreshUntil()
+                : Math.min(entry.getFreshUntil(), current.getUpdatedAt().toEpochMilli());
+        if (now < staleSince) {
+            return Freshness.FRESH;
+        }
+        return now - staleSince < entry.getStaleMillis() ? Freshness.STALE : Freshness.EXPIRED;
+    }
+
+    /** Counts a search for the key; returns the searches in the current frequency window. */
+    public long recordAccess(String key) {
+        long now = clock.millis();
+        long start = windowStart.get();
+        if (now - start >= frequencyWindow.toMillis() && windowStart.compareAndSet(start, now)) {
+            // Halve every count so old popularity fades; keys nobody searches any more drop out
+            accessCounts.entrySet().removeIf(count -> {
+                long half = count.getValue().sumThenReset() / 2;
+                count.getValue().add(half);
+                return half == 0;
+            });
+        }
+        LongAdder count = accessCounts.computeIfAbsent(key, k -> new LongAdder());
+        count.increment();
+        return count.sum();
+    }
+
+    /** Builds the entry for routes computed from {@code version}, with a lifetime for how hot the key is. */
+    public CachedRoutes newEntry(String key, List<RouteDTO> routes, DataVersion version) {
+        long now = clock.millis();
+        long dataAge = Math.max(0, now - version.getUpdatedAt().toEpochMilli());
+        long fresh = Math.min(maxTtl.toMillis(), Math.max(minTtl.toMillis(), (long) (dataAge * dataAgeFactor)));
+        LongAdder count = accessCounts.get(key);
+        boolean hot = count != null && count.sum() >= hotThreshold;
+        if (!hot) {
+            fresh = Math.min(fresh, coldTtl.toMillis());
+        }
+        return new CachedRoutes(new ArrayList<>(routes), version.getVersion(), now, now + fresh,
+                hot ? maxStaleness.toMillis() : 0);
+    }
+
+    /**
+     * Recomputes the key on the refresh pool unless this or another instance is already doing so. The result is
+     * handed to {@code store}; a full pool or a held lock just leaves the stale entry in place.
+     */
+    public void refreshInBackground(String key, Supplier<List<RouteDTO>> loader, EntryWriter store) {
+        staleServed.increment();
+        if (!refreshing.add(key)) {
+            return;
+        }
+        String lock = REFRESH_LOCK_PREFIX + key;
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lock, instanceId, refreshLockTimeout))) {
+                refreshing.remove(key);
+                return;
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Route refresh lock unavailable for {}: {}", key, ex.getMessage());
+            refreshing.remove(key);
+            return;
+        }
+        try {
+            refreshPool.execute(() -> {
+                try {
+                    DataVersion computedFrom = currentVersion();
+                    store.write(key, newEntry(key, loader.get(), computedFrom));
+                    refreshed.increment();
+                } catch (RuntimeException ex) {
+                    refreshFailed.increment();
+                    log.warn("Background refresh of {} failed: {}", key, ex.getMessage());
+                } finally {
+                    release(key, lock);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            release(key, lock);
+        }
+    }
+
+    @FunctionalInterface
+    public interface EntryWriter {
+        void write(String key, CachedRoutes entry);
+    }
+
+    /** The data version, re-read from the database at most once per {@code version-check-interval}. */
+    public DataVersion currentVersion() {
+        long now = clock.millis();
+        DataVersion known = version;
+        if (known == null || now - versionCheckedAt >= versionCheckInterval.toMillis()) {
+            known = dataVersionService.current();
+            version = known;
+            versionCheckedAt = now;
+        }
+        return known;
+    }
+
+    private List<RouteDTO> load(String key, Supplier<List<RouteDTO>> loader) {
+        // Read before searching: a change committed meanwhile then marks the result stale rather than hiding
+        DataVersion computedFrom = currentVersion();
+        List<RouteDTO> routes = loader.get();
+        ServedDataVersion.record(computedFrom.getVersion());
+        write(key, newEntry(key, routes, computedFrom));
+        return routes;
+    }
+
+    private CachedRoutes read(String key) {
+        try {
+            Cache.ValueWrapper cached = cache.get(key);
+            // Entries written before adaptive TTLs hold a bare list; they are recomputed
+            return cached != null && cached.get() instanceof CachedRoutes entry ? entry : null;
+        } catch (DataAccessException ex) {
+            log.warn("Route cache read failed, searching instead: {}", ex.getMessage());
+            return null;
+        }
+    }
+
+    private void write(String key, CachedRoutes entry) {
+        try {
+            cache.put(key, entry);
+        } catch (DataAccessException ex) {
+            log.warn("Route cache write failed: {}", ex.getMessage());
+        }
+    }
+
+    private void release(String key, String lock) {
+        refreshing.remove(key);
+        try {
+            redisTemplate.delete(lock);
+        } catch (DataAccessException ex) {
+            log.debug("Route refresh lock {} left to expire: {}", lock, ex.getMessage());
+        }
+    }
+}
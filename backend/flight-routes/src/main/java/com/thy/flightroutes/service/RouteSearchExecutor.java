@@ -0,0 +1,121 @@
+package com.thy.flightroutes.service;
+
+import com.thy.flightroutes.config.SqlStatementCounter;
+import com.thy.flightroutes.exception.RouteSearchTimeoutException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the independent queries of one route search side by side on a fixed pool. Each query gets its own
+ * read-only transaction (and so its own connection, possibly on a replica) whose timeout matches the phase
+ * timeout, so a slow query is also cancelled in the database. The pool is kept below the connection pool size;
+ * when its queue is full new searches are rejected rather than queued without bound. The statements a phase
+ * executes are counted on the forking request's {@link SqlStatementCounter}.
+ */
+@Component
+public class RouteSearchExecutor {
+
+    private final ThreadPoolExecutor pool;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Duration phaseTimeout;
+
+    public RouteSearchExecutor(PlatformTransactionManager transactionManager,
+                               @Value("${routes.search.threads:4}") int threads,
+                               @Value("${routes.search.queued-tasks:200}") int queuedTasks,
+                               @Value("${routes.search.phase-timeout:5s}") Duration phaseTimeout) {
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queuedTasks), runnable -> {
+                    Thread thread = new Thread(runnable, "route-search-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setTimeout((int) Math.max(1, (phaseTimeout.toMillis() + 999) / 1000));
+        this.phaseTimeout = phaseTimeout;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /** Opens a scope for one search; closing it cancels whatever it forked and did not join. */
+    public Scope open() {
+        return new Scope();
+    }
+
+    public final class Scope implements AutoCloseable {
+        private final List<Future<?>> forks = new ArrayList<>();
+
+        private Scope() {
+        }
+
+        /** Starts the work in its own read-only transaction. Entities must not leave it; map them to DTOs inside. */
+        public <T> Phase<T> fork(Supplier<T> work) {
+            AtomicInteger statements = SqlStatementCounter.capture();
+            Future<T> future = pool.submit(() -> SqlStatementCounter.callWith(statements,
+                    () -> readOnlyTransaction.execute(status -> work.get())));
+            forks.add(future);
+            return new Phase<>(future, System.nanoTime() + phaseTimeout.toNanos());
+        }
+
+        /**
+         * Waits for the phase until its deadline. If it fails or times out, every other phase of the scope is
+         * cancelled and the failure is rethrown as is (e.g. a location that was not found stays a 404).
+         */
+        public <T> T join(Phase<T> phase) {
+            try {
+                return phase.future.get(Math.max(0, phase.deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException ex) {
+                close();
+                throw new RouteSearchTimeoutException("Route search query did not finish within " + phaseTimeout);
+            } catch (ExecutionException ex) {
+                close();
+                if (ex.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                if (ex.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw new IllegalStateException(ex.getCause());
+            } catch (InterruptedException ex) {
+                close();
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Route search interrupted");
+            }
+        }
+
+        @Override
+        public void close() {
+            forks.forEach(future -> future.cancel(true));
+        }
+    }
+
+    public static final class Phase<T> {
+        private final Future<T> future;
+        private final long deadline;
+
+        private Phase(Future<T> future, long deadline) {
+            this.future = future;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -1,113 +1,203 @@
 package com.thy.flightroutes.service;
 
+import com.thy.flightroutes.dto.LocationDTO;
 import com.thy.flightroutes.dto.RouteDTO;
+import com.thy.flightroutes.dto.RouteMatrixCellDTO;
+import com.thy.flightroutes.dto.RouteMatrixRequestDTO;
 import com.thy.flightroutes.dto.RouteRequestDTO;
+import com.thy.flightroutes.dto.TimetableSearchRequestDTO;
+import com.thy.flightroutes.dto.TimetableSearchResponseDTO;
 import com.thy.flightroutes.dto.TransportationDTO;
 import com.thy.flightroutes.entity.Location;
 import com.thy.flightroutes.entity.Transportation;
 import com.thy.flightroutes.exception.ResourceNotFoundException;
 import com.thy.flightroutes.repository.LocationRepository;
 import com.thy.flightroutes.repository.TransportationRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class RouteService {
 
+  /** Ağdaki tarama ile aynı sıra: en az segment, sonra en küçük uçuş, önceki ve sonraki ulaşım id'si. */
+  private static final Comparator<RouteDTO> BEST_ROUTE_ORDER =
+      Comparator.comparingInt(RouteService::segments)
+          .thenComparingLong(route -> route.getFlight().getId())
+          .thenComparingLong(route -> idOrMinusOne(route.getBeforeFlight()))
+          .thenComparingLong(route -> idOrMinusOne(route.getAfterFlight()));
+
   private final TransportationRepository transportationRepository;
   private final LocationRepository locationRepository;
+  private final RouteCandidateService routeCandidateService;
+  private final RouteMatrixBuilder routeMatrixBuilder;
+  private final RouteNetworkService routeNetworkService;
+  private final MeterRegistry meterRegistry;
+  private final RouteSearchExecutor routeSearchExecutor;
+  private final RouteResultCache routeResultCache;
 
-  @Cacheable(
-      value = "routes",
-      key =
-          "'origin_' + #request.originLocationCode + '_dest_' + #request.destinationLocationCode + '_date_' + #request.date")
-  @Transactional(readOnly = true)
+  /**
+   * Önbellekten okur; kayıt bayatsa eskisi döner ve arka planda yeniden hesaplanır (bkz. {@link
+   * RouteResultCache}).
+   */
   public List<RouteDTO> findRoutes(RouteRequestDTO request) {
-    // Lokasyonları bul
-    Location originLocation =
-        locationRepository
-            .findByLocationCode(request.getOriginLocationCode())
-            .orElseThrow(
-                () ->
-                    new ResourceNotFoundException(
-                        "Origin location not found: " + request.getOriginLocationCode()));
-    List<Location> originAirports;
-    List<Location> destinationAirports;
+    return routeResultCache.get(request, () -> searchRoutes(request));
+  }
 
-    Location destinationLocation =
-        locationRepository
-            .findByLocationCode(request.getDestinationLocationCode())
-            .orElseThrow(
+  /**
+   * Önbelleğe bakmadan arar. Dışarıda bir işlem (transaction) açılmaz: sorgular {@link RouteSearchExecutor}
+   * üzerinde, her biri kendi salt-okunur işleminde paralel çalışır. Bekleyen istek thread'i böylece bağlantı
+   * tutmaz.
+   */
+  public List<RouteDTO> searchRoutes(RouteRequestDTO request) {
+    if (routeNetworkService.isEnabled()) {
+      // Bellekteki ağ üzerinden, veritabanına gitmeden ara
+      List<RouteDTO> networkRoutes =
+          timePhase("network_search", () -> routeNetworkService.findRoutes(request));
+      recordGeneratedRoutes(networkRoutes.size());
+      return timePhase(
+          "deep_copy",
+          () -> networkRoutes.stream().map(RouteDTO::deepCopy).collect(Collectors.toList()));
+    }
+
+    try (RouteSearchExecutor.Scope scope = routeSearchExecutor.open()) {
+      // Lokasyonları paralel bul
+      Timer.Sample locationResolution = Timer.start(meterRegistry);
+      RouteSearchExecutor.Phase<Optional<Location>> originLookup =
+          scope.fork(() -> locationRepository.findByLocationCode(request.getOriginLocationCode()));
+      RouteSearchExecutor.Phase<Optional<Location>> destinationLookup =
+          scope.fork(
+              () -> locationRepository.findByLocationCode(request.getDestinationLocationCode()));
+      Location originLocation =
+          scope
+              .join(originLookup)
+              .orElseThrow(
+                  () ->
+                      new ResourceNotFoundException(
+                          "Origin location not found: " + request.getOriginLocationCode()));
+      Location destinationLocation =
+          scope
+              .join(destinationLookup)
+              .orElseThrow(
+                  () ->
+                      new ResourceNotFoundException(
+                          "Destination location not found: "
+                              + request.getDestinationLocationCode()));
+
+      if (originLocation.getLocationCode().equalsIgnoreCase(destinationLocation.getLocationCode())) {
+        throw new IllegalArgumentException("Origin and destination cannot be the same");
+      }
+
+      if (routeCandidateService.isEnabled()) {
+        locationResolution.stop(phaseTimer("location_resolution"));
+        // Hazır rotalar tablosundan tek sorguyla oku
+        List<RouteDTO> candidateRoutes =
+            timePhase(
+                "candidate_query",
                 () ->
-                    new ResourceNotFoundException(
-                        "Destination location not found: " + request.getDestinationLocationCode()));
+                    routeCandidateService.findRoutes(
+                        originLocation, destinationLocation, request.getDate()));
+        recordGeneratedRoutes(candidateRoutes.size());
+        return timePhase(
+            "deep_copy",
+            () -> candidateRoutes.stream().map(RouteDTO::deepCopy).collect(Collectors.toList()));
+      }
 
-    if (originLocation.getLocationCode().equalsIgnoreCase(destinationLocation.getLocationCode())) {
-      throw new IllegalArgumentException("Origin and destination cannot be the same");
-    }
+      // Birbirinden bağımsız sorgular aynı anda çalışır; arama süresi en yavaş sorgu kadar olur.
+      // Entity'ler kendi işlemleri (transaction) içinde DTO'ya çevrilir.
 
-    boolean isOriginAnAirport = originLocation.getLocationCode().length() == 3;
-    boolean isDestinationAnAirport = destinationLocation.getLocationCode().length() == 3;
+      // 2) Rota: Uçuş öncesi şehir içi ulaşım -> Uçuş
+      RouteSearchExecutor.Phase<List<TransportationDTO>> before =
+          scope.fork(
+              () ->
+                  timePhase(
+                      "before_query",
+                      () ->
+                          toDtos(
+                              addRoutesWithBeforeFlight(originLocation, request.getDate()).stream()
+                                  .filter(
+                                      transportation ->
+                                          transportation
+                                                  .getDestinationLocation()
+                                                  .getLocationCode()
+                                                  .length()
+                                              == 3)
+                                  .toList())));
+      // 3) Rota: Uçuş -> Uçuş sonrası şehir içi ulaşım
+      RouteSearchExecutor.Phase<List<TransportationDTO>> after =
+          scope.fork(
+              () ->
+                  timePhase(
+                      "after_query",
+                      () ->
+                          toDtos(
+                              addRoutesWithAfterFlight(destinationLocation, request.getDate())
+                                  .stream()
+                                  .filter(
+                                      transportation ->
+                                          transportation.getOriginLocation().getLocationCode().length()
+                                              == 3)
+                                  .toList())));
+      RouteSearchExecutor.Phase<List<Location>> originAirportLookup =
+          scope.fork(() -> airports(originLocation));
+      RouteSearchExecutor.Phase<List<Location>> destinationAirportLookup =
+          scope.fork(() -> airports(destinationLocation));
+      List<Location> originAirports = scope.join(originAirportLookup);
+      List<Location> destinationAirports = scope.join(destinationAirportLookup);
+      locationResolution.stop(phaseTimer("location_resolution"));
 
-    List<Transportation> before, flights, after;
+      // 1) Sadece uçuş içeren (doğrudan uçuş) rota
+      RouteSearchExecutor.Phase<List<TransportationDTO>> flights =
+          scope.fork(
+              () ->
+                  timePhase(
+                      "flight_query",
+                      () ->
+                          toDtos(
+                              addDirectFlights(
+                                  originAirports, destinationAirports, request.getDate()))));
 
-    originAirports =
-        isOriginAnAirport
-            ? List.of(originLocation)
-            : locationRepository.findByCity(originLocation.getCity()).stream()
-                .filter(location -> location.getLocationCode().length() == 3)
-                .collect(Collectors.toList());
-    destinationAirports =
-        isDestinationAnAirport
-            ? List.of(destinationLocation)
-            : locationRepository.findByCity(destinationLocation.getCity()).stream()
-                .filter(location -> location.getLocationCode().length() == 3)
-                .collect(Collectors.toList());
+      // 4) Rota: Uçuş öncesi şehir içi ulaşım -> Uçuş -> Uçuş sonrası şehir içi ulaşım
+      List<TransportationDTO> beforeLegs = scope.join(before);
+      List<TransportationDTO> flightLegs = scope.join(flights);
+      List<TransportationDTO> afterLegs = scope.join(after);
+      List<RouteDTO> routes =
+          timePhase(
+              "matrix_building",
+              () ->
+                  routeMatrixBuilder.build(
+                      originLocation.getName(),
+                      destinationLocation.getName(),
+                      beforeLegs,
+                      flightLegs,
+                      afterLegs));
 
-    // 1) Sadece uçuş içeren (doğrudan uçuş) rota
-    flights = addDirectFlights(originAirports, destinationAirports, request.getDate());
-    List<RouteDTO> routes = new ArrayList<>();
-
-    // 2) Rota: Uçuş öncesi şehir içi ulaşım -> Uçuş
-    before =
-        addRoutesWithBeforeFlight(originLocation, request.getDate()).stream()
-            .filter(
-                transportation ->
-                    transportation.getDestinationLocation().getLocationCode().length() == 3)
-            .toList();
-    // 3) Rota: Uçuş -> Uçuş sonrası şehir içi ulaşım
-    after =
-        addRoutesWithAfterFlight(destinationLocation, request.getDate()).stream()
-            .filter(
-                transportation ->
-                    transportation.getOriginLocation().getLocationCode().length() == 3)
-            .toList();
-    // 4) Rota: Uçuş öncesi şehir içi ulaşım -> Uçuş -> Uçuş sonrası şehir içi ulaşım
+      recordGeneratedRoutes(routes.size());
 
-    for (Transportation flight : flights) {
-      calculateRouteMatrix(
-          routes,
-          originLocation,
-          destinationLocation,
-          before.stream()
-              .filter(b -> b.getDestinationLocation().equals(flight.getOriginLocation()))
-              .toList(),
-          flight,
-          after.stream()
-              .filter(b -> b.getOriginLocation().equals(flight.getDestinationLocation()))
-              .toList());
+      // Hibernate oturumundan bağımsız deep copy'ler oluştur
+      return timePhase(
+          "deep_copy",
+          () -> routes.stream().map(RouteDTO::deepCopy).collect(Collectors.toList()));
     }
-
-    // Hibernate oturumundan bağımsız deep copy'ler oluştur
-    return routes.stream().map(RouteDTO::deepCopy).collect(Collectors.toList());
   }
 
   /**
@@ -167,6 +257,312 @@ public class RouteService {
     return availableDays;
   }
 
+  /**
+   * Birden çok başlangıç ve varış noktası için tarih aralığındaki rota sayılarını ve en iyi rotayı
+   * döner. Ağ açıksa her hücre için ayrı arama yerine bellekteki ağ üzerinde tek bir tarama yapılır;
+   * kapalıysa haftanın her günü için tüm hücrelerin bacakları birkaç küme sorgusuyla okunur.
+   */
+  public List<RouteMatrixCellDTO> findRouteMatrix(RouteMatrixRequestDTO request) {
+    if (routeNetworkService.isEnabled()) {
+      return timePhase("matrix_sweep", () -> routeNetworkService.findRouteMatrix(request));
+    }
+    long cellCount = routeNetworkService.checkRouteMatrixRequest(request);
+    return timePhase("matrix_query", () -> searchRouteMatrix(request, cellCount));
+  }
+
+  /**
+   * Verilen günde başlangıç noktasından en az bir rota ile ulaşılabilen lokasyonları döner. Ağ kapalıysa
+   * aynı sonuç, başlangıç havalimanlarından o gün kalkan uçuşların vardığı havalimanları ve şehirlerinden
+   * hesaplanır.
+   */
+  public List<LocationDTO> findReachableLocations(String originLocationCode, LocalDate date) {
+    if (routeNetworkService.isEnabled()) {
+      return timePhase(
+          "reachability_lookup",
+          () -> routeNetworkService.findReachableLocations(originLocationCode, date));
+    }
+    try (RouteSearchExecutor.Scope scope = routeSearchExecutor.open()) {
+      return timePhase(
+          "reachability_query",
+          () -> scope.join(scope.fork(() -> queryReachableLocations(originLocationCode, date))));
+    }
+  }
+
+  /**
+   * Kalkış/varış saatleri ve minimum aktarma süreleri dikkate alınarak en erken varan ve daha az
+   * aktarmalı (Pareto-optimal) rotaları döner.
+   */
+  public TimetableSearchResponseDTO findTimetableRoutes(TimetableSearchRequestDTO request) {
+    return timePhase("connection_scan", () -> routeNetworkService.findTimetableRoutes(request));
+  }
+
+  /**
+   * Ağ kapalıyken matris, hücre başına arama yerine küme sorgularıyla hesaplanır: aralıktaki her farklı
+   * gün için tüm başlangıç havalimanlarından kalkan uçuşlar, başlangıç şehir noktalarından çıkan ve varış
+   * şehir noktalarına gelen transferler birer sorguda okunur. Hücreler bu bacaklardan {@link
+   * #findRoutes} ile aynı kurallarla bellekte oluşturulur.
+   */
+  private List<RouteMatrixCellDTO> searchRouteMatrix(RouteMatrixRequestDTO request, long cellCount) {
+    // Bilinmeyen lokasyonlar ağdaki gibi ilk hücreden önce reddedilir
+    Set<String> codes = new HashSet<>(request.getOriginLocationCodes());
+    codes.addAll(request.getDestinationLocationCodes());
+    Map<String, Location> locationsByCode =
+        locationRepository.findByLocationCodeIn(codes).stream()
+            .collect(Collectors.toMap(Location::getLocationCode, location -> location, (a, b) -> a));
+    List<Location> origins =
+        resolveLocations(request.getOriginLocationCodes(), locationsByCode, "Origin");
+    List<Location> destinations =
+        resolveLocations(request.getDestinationLocationCodes(), locationsByCode, "Destination");
+
+    // Şehir noktalarının havalimanları tek sorguda
+    Set<String> cities = new HashSet<>();
+    origins.stream().filter(location -> !isAirport(location)).forEach(location -> cities.add(location.getCity()));
+    destinations.stream().filter(location -> !isAirport(location)).forEach(location -> cities.add(location.getCity()));
+    Map<String, List<Location>> airportsByCity =
+        cities.isEmpty()
+            ? Map.of()
+            : locationRepository.findByCityIn(cities).stream()
+                .filter(RouteService::isAirport)
+                .collect(Collectors.groupingBy(Location::getCity));
+    Map<Long, Set<Long>> airportIds = new HashMap<>();
+    Map<Long, Location> originAirports = new HashMap<>();
+    for (Location location : origins) {
+      List<Location> airports = airportsOf(location, airportsByCity);
+      airportIds.put(location.getId(), airports.stream().map(Location::getId).collect(Collectors.toSet()));
+      airports.forEach(airport -> originAirports.put(airport.getId(), airport));
+    }
+    for (Location location : destinations) {
+      airportIds.put(
+          location.getId(),
+          airportsOf(location, airportsByCity).stream().map(Location::getId).collect(Collectors.toSet()));
+    }
+    List<Location> originCityPoints = origins.stream().filter(location -> !isAirport(location)).toList();
+    List<Location> destinationCityPoints =
+        destinations.stream().filter(location -> !isAirport(location)).toList();
+
+    // Sonuç yalnızca haftanın gününe bağlı; her farklı gün için sorgular paralel çalışır
+    Map<DayOfWeek, MatrixLegs> legs = new EnumMap<>(DayOfWeek.class);
+    try (RouteSearchExecutor.Scope scope = routeSearchExecutor.open()) {
+      Map<DayOfWeek, RouteSearchExecutor.Phase<MatrixLegs>> queries = new EnumMap<>(DayOfWeek.class);
+      for (LocalDate date = request.getStartDate();
+          !date.isAfter(request.getEndDate()) && queries.size() < 7;
+          date = date.plusDays(1)) {
+        int day = date.getDayOfWeek().getValue();
+        queries.computeIfAbsent(
+            date.getDayOfWeek(),
+            dayOfWeek ->
+                scope.fork(
+                    () ->
+                        queryMatrixLegs(
+                            originAirports.values(), originCityPoints, destinationCityPoints, day)));
+      }
+      queries.forEach((day, query) -> legs.put(day, scope.join(query)));
+    }
+
+    Map<DayOfWeek, Map<String, RouteMatrixCellDTO>> dayCells = new EnumMap<>(DayOfWeek.class);
+    List<RouteMatrixCellDTO> cells = new ArrayList<>((int) cellCount);
+    for (LocalDate date = request.getStartDate();
+        !date.isAfter(request.getEndDate());
+        date = date.plusDays(1)) {
+      MatrixLegs dayLegs = legs.get(date.getDayOfWeek());
+      Map<String, RouteMatrixCellDTO> computed =
+          dayCells.computeIfAbsent(date.getDayOfWeek(), day -> new HashMap<>());
+      for (Location origin : origins) {
+        for (Location destination : destinations) {
+          if (origin.getLocationCode().equalsIgnoreCase(destination.getLocationCode())) {
+            continue;
+          }
+          RouteMatrixCellDTO cell =
+              computed.computeIfAbsent(
+                  origin.getLocationCode() + "|" + destination.getLocationCode(),
+                  key -> matrixCell(origin, destination, dayLegs, airportIds));
+          cells.add(
+              new RouteMatrixCellDTO(
+                  cell.getOriginLocationCode(),
+                  cell.getDestinationLocationCode(),
+                  date,
+                  cell.getRouteCount(),
+                  cell.getBestRoute()));
+        }
+      }
+    }
+    return cells;
+  }
+
+  /** Bir günün matris bacakları: havalimanından kalkan uçuşlar ve şehir noktalarının transferleri. */
+  private record MatrixLegs(
+      Map<Long, List<TransportationDTO>> flightsByOriginAirport,
+      Map<Long, List<TransportationDTO>> beforeByOrigin,
+      Map<Long, List<TransportationDTO>> afterByDestination) {}
+
+  private MatrixLegs queryMatrixLegs(
+      Collection<Location> originAirports,
+      List<Location> originCityPoints,
+      List<Location> destinationCityPoints,
+      int day) {
+    Map<Long, List<TransportationDTO>> flights =
+        originAirports.isEmpty()
+            ? Map.of()
+            : transportationRepository
+                .findByOriginLocationsAndTransportationTypeOnDayWithLocations(
+                    originAirports, Transportation.TransportationType.FLIGHT, day)
+                .stream()
+                .map(TransportationDTO::fromEntity)
+                .collect(Collectors.groupingBy(TransportationDTO::getOriginLocationId));
+    // Aramadaki gibi yalnızca havalimanına varan (önce) ve havalimanından kalkan (sonra) transferler
+    Map<Long, List<TransportationDTO>> before =
+        originCityPoints.isEmpty()
+            ? Map.of()
+            : transportationRepository
+                .findByOriginLocationsAndTransportationTypeNotOnDayWithLocations(
+                    originCityPoints, Transportation.TransportationType.FLIGHT, day)
+                .stream()
+                .filter(transportation -> isAirport(transportation.getDestinationLocation()))
+                .map(TransportationDTO::fromEntity)
+                .collect(Collectors.groupingBy(TransportationDTO::getOriginLocationId));
+    Map<Long, List<TransportationDTO>> after =
+        destinationCityPoints.isEmpty()
+            ? Map.of()
+            : transportationRepository
+                .findByDestinationLocationsAndTransportationTypeNotOnDayWithLocations(
+                    destinationCityPoints, Transportation.TransportationType.FLIGHT, day)
+                .stream()
+                .filter(transportation -> isAirport(transportation.getOriginLocation()))
+                .map(TransportationDTO::fromEntity)
+                .collect(Collectors.groupingBy(TransportationDTO::getDestinationLocationId));
+    return new MatrixLegs(flights, before, after);
+  }
+
+  private RouteMatrixCellDTO matrixCell(
+      Location origin, Location destination, MatrixLegs legs, Map<Long, Set<Long>> airportIds) {
+    Set<Long> destinationAirportIds = airportIds.get(destination.getId());
+    List<TransportationDTO> flights = new ArrayList<>();
+    for (Long originAirportId : airportIds.get(origin.getId())) {
+      for (TransportationDTO flight :
+          legs.flightsByOriginAirport().getOrDefault(originAirportId, List.of())) {
+        if (destinationAirportIds.contains(flight.getDestinationLocationId())) {
+          flights.add(flight);
+        }
+      }
+    }
+    List<RouteDTO> routes =
+        routeMatrixBuilder.build(
+            origin.getName(),
+            destination.getName(),
+            legs.beforeByOrigin().getOrDefault(origin.getId(), List.of()),
+            flights,
+            legs.afterByDestination().getOrDefault(destination.getId(), List.of()));
+    return new RouteMatrixCellDTO(
+        origin.getLocationCode(),
+        destination.getLocationCode(),
+        null,
+        routes.size(),
+        routes.stream().min(BEST_ROUTE_ORDER).orElse(null));
+  }
+
+  private static List<Location> resolveLocations(
+      List<String> codes, Map<String, Location> locationsByCode, String role) {
+    List<Location> locations = new ArrayList<>(codes.size());
+    for (String code : codes) {
+      Location location = locationsByCode.get(code);
+      if (location == null) {
+        throw new ResourceNotFoundException(role + " location not found: " + code);
+      }
+      locations.add(location);
+    }
+    return locations;
+  }
+
+  private static List<Location> airportsOf(Location location, Map<String, List<Location>> airportsByCity) {
+    return isAirport(location)
+        ? List.of(location)
+        : airportsByCity.getOrDefault(location.getCity(), List.of());
+  }
+
+  private static boolean isAirport(Location location) {
+    return location.getLocationCode().length() == 3;
+  }
+
+  private static int segments(RouteDTO route) {
+    return 1 + (route.getBeforeFlight() != null ? 1 : 0) + (route.getAfterFlight() != null ? 1 : 0);
+  }
+
+  private static long idOrMinusOne(TransportationDTO transportation) {
+    return transportation != null ? transportation.getId() : -1;
+  }
+
+  /**
+   * Arama ile aynı kural: bir lokasyona rota vardır ancak başlangıç havalimanlarından o gün, onun
+   * havalimanlarına (havalimanıysa kendisine, değilse şehrindeki havalimanlarına) bir uçuş varsa.
+   * Transferler rota sayısını çoğaltır ama rotanın varlığını değiştirmez.
+   */
+  private List<LocationDTO> queryReachableLocations(String originLocationCode, LocalDate date) {
+    Location originLocation = requireLocation(originLocationCode, "Origin");
+    List<Transportation> flights =
+        transportationRepository
+            .findByOriginLocationInAndTransportationTypeAndOperatingDaysContaining(
+                airports(originLocation),
+                Transportation.TransportationType.FLIGHT,
+                date.getDayOfWeek().getValue());
+
+    Set<Long> arrivalAirportIds = new HashSet<>();
+    Set<String> arrivalCities = new HashSet<>();
+    for (Transportation flight : flights) {
+      Location arrival = flight.getDestinationLocation();
+      if (arrival.getLocationCode().length() == 3) {
+        arrivalAirportIds.add(arrival.getId());
+        arrivalCities.add(arrival.getCity());
+      }
+    }
+    if (arrivalCities.isEmpty()) {
+      return new ArrayList<>();
+    }
+    return locationRepository.findByCityIn(arrivalCities).stream()
+        .filter(location -> !location.getLocationCode().equalsIgnoreCase(originLocation.getLocationCode()))
+        .filter(
+            location ->
+                location.getLocationCode().length() != 3
+                    || arrivalAirportIds.contains(location.getId()))
+        .map(
+            location ->
+                new LocationDTO(
+                    location.getId(),
+                    location.getName(),
+                    location.getCountry(),
+                    location.getCity(),
+                    location.getLocationCode(),
+                    location.getIsAirport()))
+        .sorted(Comparator.comparing(LocationDTO::getLocationCode))
+        .collect(Collectors.toList());
+  }
+
+  private Location requireLocation(String locationCode, String role) {
+    return locationRepository
+        .findByLocationCode(locationCode)
+        .orElseThrow(
+            () -> new ResourceNotFoundException(role + " location not found: " + locationCode));
+  }
+
+  private Timer phaseTimer(String phase) {
+    return Timer.builder("route.search.phase")
+        .description("Duration of the individual route search phases")
+        .tag("phase", phase)
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+  }
+
+  private <T> T timePhase(String phase, Supplier<T> supplier) {
+    return phaseTimer(phase).record(supplier);
+  }
+
+  private void recordGeneratedRoutes(int count) {
+    DistributionSummary.builder("route.search.routes.generated")
+        .description("Number of routes generated per search")
+        .publishPercentileHistogram()
+        .register(meterRegistry)
+        .record(count);
+  }
+
   /** Doğrudan uçuşu ekler. Geçerli: FLIGHT */
   private List<Transportation> addDirectFlights(
       List<Location> originLocation, List<Location> destinationLocation, LocalDate date) {
@@ -213,38 +609,17 @@ public class RouteService {
             date.getDayOfWeek().getValue());
   }
 
-  /**
-   * Rota: [Şehir içi ulaşım] -> [Uçuş] -> [Şehir içi ulaşım] Kurallar: - İlk adımda, origin'den
-   * intra-city (uçuş öncesi) transfer yapılmalı. - Ardından, ilk transferin varış noktasının şehri
-   * ile eşleşen bir uçuş, route hedefi ile biten segmenti oluşturmalı. - Son adımda, uçuşun varış
-   * noktasından, destination'a giden intra-city transfer eklenmeli.
-   */
-  private void calculateRouteMatrix(
-      List<RouteDTO> routes,
-      Location originLocation,
-      Location destinationLocation,
-      List<Transportation> before,
-      Transportation flight,
-      List<Transportation> after) {
-    int beforeSizeNormalized = Integer.max(before.size(), 1);
-    int afterSizeNormalized = Integer.max(after.size(), 1);
-    int totalSize = beforeSizeNormalized * afterSizeNormalized;
-
-    for (int i = 0; i < totalSize; i++) {
-      RouteDTO.RouteDTOBuilder routeBuilder =
-          RouteDTO.builder()
-              .flight(TransportationDTO.fromEntity(flight))
-              .originLocationName(originLocation.getName())
-              .destinationLocationName(destinationLocation.getName());
-      if (!before.isEmpty()) {
-        routeBuilder.beforeFlight(
-            TransportationDTO.fromEntity(before.get(i % beforeSizeNormalized)));
-      }
-      if (!after.isEmpty()) {
-        routeBuilder.afterFlight(
-            TransportationDTO.fromEntity(after.get((i / beforeSizeNormalized))));
-      }
-      routes.add(routeBuilder.build());
+  /** Şehir lokasyonu ise aynı şehirdeki havalimanlarını, havalimanı ise kendisini döner. */
+  private List<Location> airports(Location location) {
+    if (location.getLocationCode().length() == 3) {
+      return List.of(location);
     }
+    return locationRepository.findByCity(location.getCity()).stream()
+        .filter(cityLocation -> cityLocation.getLocationCode().length() == 3)
+        .collect(Collectors.toList());
+  }
+
+  private List<TransportationDTO> toDtos(List<Transportation> transportations) {
+    return transportations.stream().map(TransportationDTO::fromEntity).toList();
   }
 }
@@ -0,0 +1,122 @@
+package com.thy.flightroutes.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket per principal (the JWT subject): up to {@code capacity} searches in a burst, refilled at
+ * {@code refill-per-second}. Buckets live in this instance by default; with {@code mode=redis} they are kept in
+ * Redis and updated by one script call per request, so the limit holds across all instances. If Redis cannot
+ * be reached the local buckets take over rather than failing the search.
+ */
+@Slf4j
+@Service
+public class SearchRateLimiter {
+
+    static final String KEY_PREFIX = "ratelimit:search:";
+
+    // KEYS[1] bucket; ARGV capacity, refill per second. Returns {allowed, millis until the next token}
+    private static final RedisScript<List> TOKEN_BUCKET = new DefaultRedisScript<>("""
+            local capacity = tonumber(ARGV[1])
+            local rate = tonumber(ARGV[2])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+            local tokens = tonumber(bucket[1]) or capacity
+            local ts = tonumber(bucket[2]) or now
+            tokens = math.min(capacity, tokens + (now - ts) * rate / 1000)
+            local allowed = 0
+            local wait = 0
+            if tokens >= 1 then
+              tokens = tokens - 1
+              allowed = 1
+            else
+              wait = math.ceil((1 - tokens) * 1000 / rate)
+            end
+            redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', now)
+            redis.call('PEXPIRE', KEYS[1], math.ceil(capacity * 1000 / rate) + 1000)
+            return {allowed, wait}
+            """, List.class);
+
+    public record Decision(boolean allowed, Duration retryAfter) {
+        static final Decision ALLOWED = new Decision(true, Duration.ZERO);
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    @Value("${search.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${search.rate-limit.mode:local}")
+    private String mode;
+
+    @Value("${search.rate-limit.capacity:20}")
+    private int capacity;
+
+    @Value("${search.rate-limit.refill-per-second:5}")
+    private double refillPerSecond;
+
+    public SearchRateLimiter(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public Decision tryAcquire(String principal) {
+        if (!enabled) {
+            return Decision.ALLOWED;
+        }
+        if ("redis".equalsIgnoreCase(mode)) {
+            try {
+                return tryAcquireShared(principal);
+            } catch (DataAccessException ex) {
+                log.warn("Shared rate limit unavailable, using local buckets: {}", ex.getMessage());
+            }
+        }
+        return buckets.computeIfAbsent(principal, key -> new Bucket(capacity, System.nanoTime()))
+                .tryAcquire(capacity, refillPerSecond, System.nanoTime());
+    }
+
+    private Decision tryAcquireShared(String principal) {
+        List<?> result = redisTemplate.execute(TOKEN_BUCKET, List.of(KEY_PREFIX + principal),
+                String.valueOf(capacity), String.valueOf(refillPerSecond));
+        if (result == null || result.size() < 2) {
+            return Decision.ALLOWED;
+        }
+        if (((Number) result.get(0)).longValue() == 1) {
+            return Decision.ALLOWED;
+        }
+        return new Decision(false, Duration.ofMillis(((Number) result.get(1)).longValue()));
+    }
+
+    static final class Bucket {
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.refilledAt = now;
+        }
+
+        synchronized Decision tryAcquire(int capacity, double refillPerSecond, long now) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) / 1e9 * refillPerSecond);
+            refilledAt = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return Decision.ALLOWED;
+            }
+            long waitNanos = (long) Math.ceil((1 - tokens) / refillPerSecond * TimeUnit.SECONDS.toNanos(1));
+            return new Decision(false, Duration.ofNanos(waitNanos));
+        }
+    }
+}
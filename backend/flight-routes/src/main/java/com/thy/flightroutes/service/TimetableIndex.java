@@ -0,0 +1,42 @@
+package com.thy.flightroutes.service;
+
+import java.util.stream.IntStream;
+
+/**
+ * The timed transportations of a {@link RouteNetwork} as one connection array per weekday, sorted by
+ * departure minute (then id), which is the input order of {@link ConnectionScan}.
+ * Transportations without a timetable are left out.
+ */
+final class TimetableIndex {
+
+    // [day - 1] -> transportation indexes
+    private final int[][] connections;
+
+    private TimetableIndex(int[][] connections) {
+        this.connections = connections;
+    }
+
+    static TimetableIndex build(RouteNetwork network) {
+        int[][] connections = new int[7][];
+        for (int day = 1; day <= 7; day++) {
+            int dayBit = 1 << (day - 1);
+            connections[day - 1] = IntStream.range(0, network.edgeSlots())
+                    .filter(t -> !network.isRemoved(t))
+                    .filter(t -> network.departureMinute(t) >= 0 && (network.dayMask(t) & dayBit) != 0)
+                    .boxed()
+                    .sorted((a, b) -> network.departureMinute(a) != network.departureMinute(b)
+                            ? Integer.compare(network.departureMinute(a), network.departureMinute(b))
+                            : Long.compare(network.transportationId(a), network.transportationId(b)))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+        return new TimetableIndex(connections);
+    }
+
+    /**
+     * @param day 1 (Monday) to 7 (Sunday)
+     */
+    int[] connections(int day) {
+        return connections[day - 1];
+    }
+}
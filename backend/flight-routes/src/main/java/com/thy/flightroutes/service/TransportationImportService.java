@@ -0,0 +1,440 @@
+package com.thy.flightroutes.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.thy.flightroutes.dto.TransportationImportErrorDTO;
+import com.thy.flightroutes.dto.TransportationImportResultDTO;
+import com.thy.flightroutes.dto.TransportationImportRowDTO;
+import com.thy.flightroutes.entity.Transportation;
+import com.thy.flightroutes.entity.Transportation.TransportationType;
+import com.thy.flightroutes.event.NetworkChangePublisher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Loads transportations in bulk from CSV or newline-delimited JSON. The input is read line by line, location
+ * codes are resolved from a map loaded once per import, and rows are upserted on
+ * (origin, destination, type, departure time) with JDBC batches, one transaction per chunk; each departure of a
+ * connection is its own row. New ids are taken from the
+ * transportation sequence in blocks, as Hibernate does, so no generated keys have to be read back.
+ * Rows that fail validation are reported with their line number and skipped; a chunk that fails in the
+ * database is rolled back and all of its rows are reported. Each chunk moves the data version on in its own
+ * transaction, so it changes with every chunk that is committed, even when a later one fails. The route
+ * candidates and the in-memory networks are rebuilt once, by the change published after the last chunk, and
+ * the caches are evicted once at the end instead of once per row.
+ */
+@Slf4j
+@Service
+public class TransportationImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    static final List<String> CSV_COLUMNS = List.of("originLocationCode", "destinationLocationCode",
+            "transportationType", "operatingDays", "departureTime", "arrivalTime");
+
+    private static final String NEXT_TRANSPORTATION_ID = "SELECT nextval('transportations_seq')";
+    private static final String INSERT_TRANSPORTATION = "INSERT INTO transportations "
+            + "(id, origin_location_id, destination_location_id, transportation_type, departure_time, arrival_time) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_TRANSPORTATION =
+            "UPDATE transportations SET arrival_time = ? WHERE id = ?";
+    private static final String DELETE_OPERATING_DAYS =
+            "DELETE FROM transportation_operating_days WHERE transportation_id = ?";
+    private static final String INSERT_OPERATING_DAY =
+            "INSERT INTO transportation_operating_days (transportation_id, operating_days) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader rowReader;
+    private final NetworkChangePublisher networkChangePublisher;
+
+    @Value("${transportations.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${transportations.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public TransportationImportService(JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       ObjectMapper objectMapper,
+                                       NetworkChangePublisher networkChangePublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rowReader = objectMapper.readerFor(TransportationImportRowDTO.class);
+        this.networkChangePublisher = networkChangePublisher;
+    }
+
+    @CacheEvict(value = {"transportations_search", "transportations_paginated", "transportations_by_locations",
+            "transportations_types", "transportations_filtered"}, allEntries = true)
+    public TransportationImportResultDTO importTransportations(InputStream input, Format format) {
+        Import run = new Import(loadLocationIds(), loadTransportationIds());
+        try {
+            importChunks(input, format, run);
+        } finally {
+            if (run.created + run.updated > 0) {
+                // One rebuild of the candidates and the in-memory networks for all of the committed chunks
+                transactionTemplate.executeWithoutResult(status -> networkChangePublisher.transportationsImported());
+            }
+        }
+        log.info("Transportation import finished: {} rows, {} created, {} updated, {} failed",
+                run.totalRows, run.created, run.updated, run.failed);
+        return new TransportationImportResultDTO(run.totalRows, run.created, run.updated, run.failed, run.errors);
+    }
+
+    private void importChunks(InputStream input, Format format, Import run) {
+        long lineNumber = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            int[] columns = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == Format.CSV && columns == null) {
+                    columns = parseHeader(line);
+                    continue;
+                }
+                run.totalRows++;
+                try {
+                    TransportationImportRowDTO row = format == Format.CSV ? parseCsv(line, columns) : parseJson(line);
+                    run.chunk.add(run.resolve(lineNumber, row));
+                } catch (IllegalArgumentException ex) {
+                    run.fail(lineNumber, ex.getMessage());
+                }
+                if (run.chunk.size() >= chunkSize) {
+                    flush(run);
+                }
+            }
+        } catch (IOException ex) {
+            // Keep what was committed so far; the client sees where reading stopped
+            run.fail(lineNumber + 1, "Input could not be read: " + ex.getMessage());
+        }
+        flush(run);
+    }
+
+    /* ---------- PARSING ---------- */
+
+    private int[] parseHeader(String line) {
+        String[] names = splitCsv(line);
+        int[] columns = new int[CSV_COLUMNS.size()];
+        for (int c = 0; c < columns.length; c++) {
+            columns[c] = -1;
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equalsIgnoreCase(CSV_COLUMNS.get(c))) {
+                    columns[c] = i;
+                }
+            }
+        }
+        for (int c = 0; c < 4; c++) {
+            if (columns[c] < 0) {
+                throw new IllegalArgumentException("CSV header must contain " + String.join(", ", CSV_COLUMNS.subList(0, 4)));
+            }
+        }
+        return columns;
+    }
+
+    private TransportationImportRowDTO parseCsv(String line, int[] columns) {
+        String[] cells = splitCsv(line);
+        TransportationImportRowDTO row = new TransportationImportRowDTO();
+        row.setOriginLocationCode(cell(cells, columns[0]));
+        row.setDestinationLocationCode(cell(cells, columns[1]));
+        String type = cell(cells, columns[2]);
+        if (type != null) {
+            try {
+                row.setTransportationType(TransportationType.valueOf(type.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Invalid transportation type: " + type);
+            }
+        }
+        String days = cell(cells, columns[3]);
+        if (days != null) {
+            // "1;3;5" or "1 3 5", since commas separate the columns
+            for (String day : days.split("[;\\s|]+")) {
+                try {
+                    row.getOperatingDays().add(Integer.parseInt(day));
+                } catch (NumberFormatException ex) {
+                    throw new IllegalArgumentException("Invalid operating day: " + day);
+                }
+            }
+        }
+        row.setDepartureTime(parseTime(cell(cells, columns[4])));
+        row.setArrivalTime(parseTime(cell(cells, columns[5])));
+        return row;
+    }
+
+    private TransportationImportRowDTO parseJson(String line) {
+        try {
+            return rowReader.readValue(line);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Malformed JSON: " + ex.getOriginalMessage());
+        }
+    }
+
+    private static String[] splitCsv(String line) {
+        String[] cells = line.split(",", -1);
+        for (int i = 0; i < cells.length; i++) {
+            String cell = cells[i].trim();
+            if (cell.length() >= 2 && cell.startsWith("\"") && cell.endsWith("\"")) {
+                cell = cell.substring(1, cell.length() - 1).trim();
+            }
+            cells[i] = cell;
+        }
+        return cells;
+    }
+
+    private static String cell(String[] cells, int column) {
+        if (column < 0 || column >= cells.length || cells[column].isEmpty()) {
+            return null;
+        }
+        return cells[column];
+    }
+
+    private static LocalTime parseTime(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalTime.parse(value);
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid time, expected HH:mm: " + value);
+        }
+    }
+
+    /* ---------- WRITING ---------- */
+
+    private Map<String, Long> loadLocationIds() {
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, location_code FROM locations",
+                rs -> {
+                    ids.put(rs.getString(2), rs.getLong(1));
+                });
+        return ids;
+    }
+
+    private Map<Key, Long> loadTransportationIds() {
+        Map<Key, Long> ids = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT id, origin_location_id, destination_location_id, transportation_type, departure_time "
+                        + "FROM transportations",
+                rs -> {
+                    ids.put(new Key(rs.getLong(2), rs.getLong(3), TransportationType.valueOf(rs.getString(4)),
+                            rs.getObject(5, LocalTime.class)), rs.getLong(1));
+                });
+        return ids;
+    }
+
+    private void flush(Import run) {
+        if (run.chunk.isEmpty()) {
+            return;
+        }
+        // A key repeated within the chunk is written once, with its last row
+        Map<Key, Row> latest = new LinkedHashMap<>();
+        long created = 0;
+        for (Row row : run.chunk) {
+            if (!run.transportationIds.containsKey(row.key()) && !latest.containsKey(row.key())) {
+                created++;
+            }
+            latest.put(row.key(), row);
+        }
+        List<Row> inserts = new ArrayList<>();
+        List<Row> updates = new ArrayList<>();
+        for (Row row : latest.values()) {
+            (run.transportationIds.containsKey(row.key()) ? updates : inserts).add(row);
+        }
+
+        try {
+            Map<Key, Long> insertedIds = transactionTemplate.execute(status -> {
+                Map<Key, Long> ids = writeChunk(inserts, updates, run);
+                // Committed together with the rows, so readers never see them under the previous version
+                networkChangePublisher.importChunkCommitted();
+                return ids;
+            });
+            run.transportationIds.putAll(insertedIds);
+            run.created += created;
+            run.updated += run.chunk.size() - created;
+        } catch (DataAccessException ex) {
+            log.warn("Transportation import chunk rolled back", ex);
+            String message = "Not imported, its chunk was rolled back: " + ex.getMostSpecificCause().getMessage();
+            for (Row row : run.chunk) {
+                run.fail(row.line(), message);
+            }
+        }
+        run.chunk.clear();
+    }
+
+    private Map<Key, Long> writeChunk(List<Row> inserts, List<Row> updates, Import run) {
+        Map<Key, Long> insertedIds = new HashMap<>();
+        if (!inserts.isEmpty()) {
+            long[] ids = allocateTransportationIds(inserts.size());
+            for (int i = 0; i < inserts.size(); i++) {
+                insertedIds.put(inserts.get(i).key(), ids[i]);
+            }
+            jdbcTemplate.batchUpdate(INSERT_TRANSPORTATION, new RowSetter(inserts) {
+                @Override
+                void set(PreparedStatement ps, Row row) throws SQLException {
+                    ps.setLong(1, insertedIds.get(row.key()));
+                    ps.setLong(2, row.key().origin());
+                    ps.setLong(3, row.key().destination());
+                    ps.setString(4, row.key().type().name());
+                    ps.setObject(5, row.key().departure());
+                    ps.setObject(6, row.arrivalTime());
+                }
+            });
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_TRANSPORTATION, new RowSetter(updates) {
+                @Override
+                void set(PreparedStatement ps, Row row) throws SQLException {
+                    ps.setObject(1, row.arrivalTime());
+                    ps.setLong(2, run.transportationIds.get(row.key()));
+                }
+            });
+            jdbcTemplate.batchUpdate(DELETE_OPERATING_DAYS, new RowSetter(updates) {
+                @Override
+                void set(PreparedStatement ps, Row row) throws SQLException {
+                    ps.setLong(1, run.transportationIds.get(row.key()));
+                }
+            });
+        }
+
+        List<long[]> days = new ArrayList<>();
+        for (Row row : inserts) {
+            row.operatingDays().forEach(day -> days.add(new long[]{insertedIds.get(row.key()), day}));
+        }
+        for (Row row : updates) {
+            row.operatingDays().forEach(day -> days.add(new long[]{run.transportationIds.get(row.key()), day}));
+        }
+        jdbcTemplate.batchUpdate(INSERT_OPERATING_DAY, days, days.size(), (ps, day) -> {
+            ps.setLong(1, day[0]);
+            ps.setInt(2, (int) day[1]);
+        });
+        return insertedIds;
+    }
+
+    // Same pooled-lo scheme as Hibernate: each sequence value is the first id of a block of ID_ALLOCATION_SIZE
+    private long[] allocateTransportationIds(int count) {
+        long[] ids = new long[count];
+        long low = 0;
+        for (int i = 0; i < count; i++) {
+            int offset = i % Transportation.ID_ALLOCATION_SIZE;
+            if (offset == 0) {
+                low = jdbcTemplate.queryForObject(NEXT_TRANSPORTATION_ID, Long.class);
+            }
+            ids[i] = low + offset;
+        }
+        return ids;
+    }
+
+    /* ---------- STATE ---------- */
+
+    // departure is null for an untimed row
+    record Key(long origin, long destination, TransportationType type, LocalTime departure) {
+    }
+
+    record Row(long line, Key key, Set<Integer> operatingDays, LocalTime arrivalTime) {
+    }
+
+    private abstract static class RowSetter implements BatchPreparedStatementSetter {
+        private final List<Row> rows;
+
+        RowSetter(List<Row> rows) {
+            this.rows = rows;
+        }
+
+        abstract void set(PreparedStatement ps, Row row) throws SQLException;
+
+        @Override
+        public void setValues(PreparedStatement ps, int i) throws SQLException {
+            set(ps, rows.get(i));
+        }
+
+        @Override
+        public int getBatchSize() {
+            return rows.size();
+        }
+    }
+
+    private final class Import {
+        final Map<String, Long> locationIds;
+        final Map<Key, Long> transportationIds;
+        final List<Row> chunk = new ArrayList<>();
+        final List<TransportationImportErrorDTO> errors = new ArrayList<>();
+        long totalRows;
+        long created;
+        long updated;
+        long failed;
+
+        Import(Map<String, Long> locationIds, Map<Key, Long> transportationIds) {
+            this.locationIds = locationIds;
+            this.transportationIds = transportationIds;
+        }
+
+        // Same rules as TransportationService.validateTransportation, plus code resolution
+        Row resolve(long line, TransportationImportRowDTO row) {
+            Long origin = locationId(row.getOriginLocationCode(), "origin");
+            Long destination = locationId(row.getDestinationLocationCode(), "destination");
+            if (origin.equals(destination)) {
+                throw new IllegalArgumentException("Origin and destination cannot be the same");
+            }
+            if (row.getTransportationType() == null) {
+                throw new IllegalArgumentException("Transportation type is required");
+            }
+            if (row.getOperatingDays() == null || row.getOperatingDays().isEmpty()) {
+                throw new IllegalArgumentException("Operating days cannot be empty");
+            }
+            if (row.getOperatingDays().stream().anyMatch(day -> day == null || day < 1 || day > 7)) {
+                throw new IllegalArgumentException("Invalid operating day. Days must be between 1 and 7");
+            }
+            if ((row.getDepartureTime() == null) != (row.getArrivalTime() == null)) {
+                throw new IllegalArgumentException("Departure and arrival times must be given together");
+            }
+            return new Row(line, new Key(origin, destination, row.getTransportationType(), row.getDepartureTime()),
+                    new TreeSet<>(row.getOperatingDays()), row.getArrivalTime());
+        }
+
+        private Long locationId(String code, String role) {
+            if (code == null || code.isBlank()) {
+                throw new IllegalArgumentException("The " + role + " location code is required");
+            }
+            Long id = locationIds.get(code.trim());
+            if (id == null) {
+                throw new IllegalArgumentException("Unknown " + role + " location code: " + code);
+            }
+            return id;
+        }
+
+        void fail(long line, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new TransportationImportErrorDTO(line, message));
+            }
+        }
+    }
+}
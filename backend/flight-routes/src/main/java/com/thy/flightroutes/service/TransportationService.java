@@ -5,6 +5,7 @@ import com.thy.flightroutes.dto.PageResponseDTO;
 import com.thy.flightroutes.entity.Location;
 import com.thy.flightroutes.entity.Transportation;
 import com.thy.flightroutes.entity.Transportation.TransportationType;
+import com.thy.flightroutes.event.NetworkChangePublisher;
 import com.thy.flightroutes.exception.ResourceNotFoundException;
 import com.thy.flightroutes.repository.LocationRepository;
 import com.thy.flightroutes.repository.TransportationRepository;
@@ -29,6 +30,7 @@ import java.util.stream.Collectors;
 public class TransportationService {
     private final TransportationRepository transportationRepository;
     private final LocationRepository locationRepository;
+    private final NetworkChangePublisher networkChangePublisher;
 
     @Cacheable(value = "transportations_paginated", key = "'page_' + #page + '_size_' + #size")
     public PageResponseDTO<TransportationDTO> getAllTransportations(int page, int size) {
@@ -81,7 +83,7 @@ public class TransportationService {
     }
 
     // Granular cache eviction - only clear related caches
-    @CacheEvict(value = {"transportations_search", "transportations_paginated", "transportations_filtered", "routes"}, allEntries = true)
+    @CacheEvict(value = {"transportations_search", "transportations_paginated", "transportations_filtered"}, allEntries = true)
     public TransportationDTO createTransportation(TransportationDTO dto) {
         validateTransportation(dto);
 
@@ -96,13 +98,16 @@ public class TransportationService {
         transportation.setDestinationLocation(destination);
         transportation.setTransportationType(dto.getTransportationType());
         transportation.setOperatingDays(new HashSet<>(dto.getOperatingDays()));
+        transportation.setDepartureTime(dto.getDepartureTime());
+        transportation.setArrivalTime(dto.getArrivalTime());
 
         transportation = transportationRepository.save(transportation);
+        networkChangePublisher.transportationAdded(transportation);
         return TransportationDTO.fromEntity(transportation);
     }
 
     // Granular cache eviction - only clear related caches
-    @CacheEvict(value = {"transportations_search", "transportations_paginated", "transportations_filtered", "routes"}, allEntries = true)
+    @CacheEvict(value = {"transportations_search", "transportations_paginated", "transportations_filtered"}, allEntries = true)
     public TransportationDTO updateTransportation(Long id, TransportationDTO dto) {
         validateTransportation(dto);
 
@@ -119,18 +124,22 @@ public class TransportationService {
         transportation.setDestinationLocation(destination);
         transportation.setTransportationType(dto.getTransportationType());
         transportation.setOperatingDays(new HashSet<>(dto.getOperatingDays()));
+        transportation.setDepartureTime(dto.getDepartureTime());
+        transportation.setArrivalTime(dto.getArrivalTime());
 
         transportation = transportationRepository.save(transportation);
+        networkChangePublisher.transportationUpdated(transportation);
         return TransportationDTO.fromEntity(transportation);
     }
 
     // Granular cache eviction - only clear related caches
-    @CacheEvict(value = {"transportations_search", "transportations_paginated", "transportations_filtered", "routes"}, allEntries = true)
+    @CacheEvict(value = {"transportations_search", "transportations_paginated", "transportations_filtered"}, allEntries = true)
     public void deleteTransportation(Long id) {
         if (!transportationRepository.existsById(id)) {
             throw new ResourceNotFoundException("Transportation not found: " + id);
         }
         transportationRepository.deleteById(id);
+        networkChangePublisher.transportationRemoved(id);
     }
 
     @Cacheable(value = "transportations_types")
@@ -192,5 +201,9 @@ public class TransportationService {
         if (dto.getOperatingDays().stream().anyMatch(day -> day < 1 || day > 7)) {
             throw new IllegalArgumentException("Invalid operating day. Days must be between 1 and 7");
         }
+
+        if ((dto.getDepartureTime() == null) != (dto.getArrivalTime() == null)) {
+            throw new IllegalArgumentException("Departure and arrival times must be given together");
+        }
     }
 }
\ No newline at end of file
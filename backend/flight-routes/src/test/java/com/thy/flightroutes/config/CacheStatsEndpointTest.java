@@ -0,0 +1,131 @@
+package com.thy.flightroutes.config;
+
+import com.thy.flightroutes.config.KeyHitTrackingRedisCache.KeyHits;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatcher;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CacheStatsEndpointTest {
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private RedisCacheWriter cacheWriter;
+
+    private KeyHitTrackingRedisCache routesCache;
+    private CacheStatsEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() {
+        routesCache = new KeyHitTrackingRedisCache("routes", cacheWriter, RedisCacheConfiguration.defaultCacheConfig(),
+                3);
+        endpoint = new CacheStatsEndpoint(cacheManager, redisTemplate);
+        ReflectionTestUtils.setField(endpoint, "sampleSize", 2);
+        ReflectionTestUtils.setField(endpoint, "topKeys", 2);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void cache_reportsSizeHitRatioSampledMemoryAndHottestKeys() {
+        when(cacheManager.getCache("routes")).thenReturn(routesCache);
+        Cursor<String> keys = cursor("routes::a", "routes::b", "routes::c");
+        when(redisTemplate.scan(argThat(matching("routes::*")))).thenReturn(keys);
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("routes::a", "routes::b"))))
+                .thenReturn(List.of(3000L, 2L, 60000L, 2L));
+        CacheStatistics statistics = mock(CacheStatistics.class);
+        when(statistics.getHits()).thenReturn(3L);
+        when(statistics.getMisses()).thenReturn(1L);
+        when(statistics.getPuts()).thenReturn(4L);
+        when(cacheWriter.getCacheStatistics("routes")).thenReturn(statistics);
+        routesCache.recordHit("a");
+        routesCache.recordHit("b");
+        routesCache.recordHit("b");
+
+        CacheStatsEndpoint.CacheReport report = endpoint.cache("routes");
+
+        assertThat(report.size()).isEqualTo(3);
+        assertThat(report.hitRatio()).isEqualTo(0.75);
+        assertThat(report.puts()).isEqualTo(4);
+        assertThat(report.sampledEntries()).isEqualTo(2);
+        assertThat(report.averageEntryBytes()).isEqualTo(1500);
+        assertThat(report.estimatedBytes()).isEqualTo(4500);
+        assertThat(report.averageTtlMillis()).isEqualTo(30000);
+        assertThat(report.topKeys()).containsExactly(new KeyHits("b", 2), new KeyHits("a", 1));
+    }
+
+    @Test
+    void evict_unlinksMatchingKeysAndForgetsTheirHits() {
+        when(cacheManager.getCache("routes")).thenReturn(routesCache);
+        Cursor<String> keys = cursor("routes::origin_IST_dest_LHR_date_2026-10-21");
+        when(redisTemplate.scan(argThat(matching("routes::*IST*")))).thenReturn(keys);
+        when(redisTemplate.unlink(List.of("routes::origin_IST_dest_LHR_date_2026-10-21"))).thenReturn(1L);
+        routesCache.recordHit("origin_IST_dest_LHR_date_2026-10-21");
+        routesCache.recordHit("origin_SAW_dest_LHR_date_2026-10-21");
+
+        CacheStatsEndpoint.EvictionResult result = endpoint.evict("routes", "*IST*");
+
+        assertThat(result.evicted()).isEqualTo(1);
+        assertThat(routesCache.topKeys(10)).extracting(KeyHits::key)
+                .containsExactly("origin_SAW_dest_LHR_date_2026-10-21");
+    }
+
+    @Test
+    void evict_unknownCache_returnsNull() {
+        assertThat(endpoint.evict("unknown", "*")).isNull();
+    }
+
+    @Test
+    void recordHit_decaysCountsOnceTrackedKeysAreFull() {
+        routesCache.recordHit("a");
+        routesCache.recordHit("b");
+        routesCache.recordHit("b");
+        routesCache.recordHit("c");
+        routesCache.recordHit("c");
+        routesCache.recordHit("c");
+
+        routesCache.recordHit("d");
+
+        assertThat(routesCache.topKeys(10))
+                .containsExactlyInAnyOrder(new KeyHits("b", 1), new KeyHits("c", 1), new KeyHits("d", 1));
+    }
+
+    private static ArgumentMatcher<ScanOptions> matching(String pattern) {
+        return options -> options != null && pattern.equals(options.getPattern());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cursor<String> cursor(String... keys) {
+        Cursor<String> cursor = mock(Cursor.class);
+        Iterator<String> iterator = List.of(keys).iterator();
+        when(cursor.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> iterator.next());
+        return cursor;
+    }
+}
@@ -0,0 +1,140 @@
+package com.thy.flightroutes.config;
+
+import com.thy.flightroutes.entity.DataVersion;
+import com.thy.flightroutes.service.DataVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ConditionalRequestInterceptorTest {
+
+    private final DataVersionService dataVersionService = mock(DataVersionService.class);
+    private final ConditionalRequestInterceptor interceptor = new ConditionalRequestInterceptor(dataVersionService);
+
+    @BeforeEach
+    void setUp() {
+        when(dataVersionService.current()).thenReturn(
+                new DataVersion(DataVersion.SINGLETON_ID, 7L, Instant.parse("2026-10-19T08:00:00Z")));
+    }
+
+    @Test
+    void preHandle_setsValidatorsOnFirstRequest() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        MockHttpServletRequest request = get("IST", "LHR");
+
+        boolean proceed = interceptor.preHandle(request, response, null);
+        interceptor.setValidators(request, response);
+
+        assertThat(proceed).isTrue();
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).startsWith("W/\"7-");
+        assertThat(response.getHeader(HttpHeaders.LAST_MODIFIED)).isEqualTo("Mon, 19 Oct 2026 08:00:00 GMT");
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("no-cache");
+    }
+
+    @Test
+    void preHandle_answers304WhenETagMatches() {
+        MockHttpServletResponse first = serve(get("IST", "LHR"));
+        MockHttpServletRequest revalidation = get("IST", "LHR");
+        revalidation.addHeader(HttpHeaders.IF_NONE_MATCH, first.getHeader(HttpHeaders.ETAG));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean proceed = interceptor.preHandle(revalidation, response, null);
+
+        assertThat(proceed).isFalse();
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(first.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void setValidators_usesTheVersionTheBodyWasComputedFrom() {
+        MockHttpServletRequest request = get("IST", "LHR");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, null);
+        ServedDataVersion.record(request, 6L);
+        ServedDataVersion.record(request, 5L);
+        ServedDataVersion.record(request, 7L);
+
+        interceptor.setValidators(request, response);
+
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(ConditionalRequestInterceptor.etag(5L, request));
+        assertThat(response.getHeader(HttpHeaders.LAST_MODIFIED)).isNull();
+
+        MockHttpServletRequest revalidation = get("IST", "LHR");
+        revalidation.addHeader(HttpHeaders.IF_NONE_MATCH, response.getHeader(HttpHeaders.ETAG));
+        assertThat(interceptor.preHandle(revalidation, new MockHttpServletResponse(), null)).isTrue();
+    }
+
+    @Test
+    void setValidators_skipsErrorResponses() {
+        MockHttpServletRequest request = get("IST", "XXX");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, null);
+        response.setStatus(404);
+
+        interceptor.setValidators(request, response);
+
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNull();
+    }
+
+    @Test
+    void preHandle_proceedsWhenVersionOrParametersDiffer() {
+        String etag = serve(get("IST", "LHR")).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletRequest otherParameters = get("IST", "CDG");
+        otherParameters.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        assertThat(interceptor.preHandle(otherParameters, new MockHttpServletResponse(), null)).isTrue();
+
+        when(dataVersionService.current()).thenReturn(
+                new DataVersion(DataVersion.SINGLETON_ID, 8L, Instant.parse("2026-10-19T09:00:00Z")));
+        MockHttpServletRequest afterWrite = get("IST", "LHR");
+        afterWrite.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        assertThat(interceptor.preHandle(afterWrite, new MockHttpServletResponse(), null)).isTrue();
+    }
+
+    @Test
+    void etag_ignoresParameterOrder() {
+        MockHttpServletRequest reordered = new MockHttpServletRequest("GET", "/api/routes/search");
+        reordered.addParameter("date", "2026-10-21");
+        reordered.addParameter("to", "LHR");
+        reordered.addParameter("from", "IST");
+
+        assertThat(ConditionalRequestInterceptor.etag(7L, reordered))
+                .isEqualTo(ConditionalRequestInterceptor.etag(7L, get("IST", "LHR")));
+    }
+
+    @Test
+    void preHandle_ignoresWrites() {
+        DataVersionService untouched = mock(DataVersionService.class);
+        MockHttpServletRequest post = new MockHttpServletRequest("POST", "/api/routes/search");
+
+        assertThat(new ConditionalRequestInterceptor(untouched)
+                .preHandle(post, new MockHttpServletResponse(), null)).isTrue();
+        verifyNoInteractions(untouched);
+    }
+
+    private MockHttpServletResponse serve(MockHttpServletRequest request) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, null);
+        interceptor.setValidators(request, response);
+        return response;
+    }
+
+    private static MockHttpServletRequest get(String from, String to) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/routes/search");
+        request.addParameter("from", from);
+        request.addParameter("to", to);
+        request.addParameter("date", "2026-10-21");
+        return request;
+    }
+}
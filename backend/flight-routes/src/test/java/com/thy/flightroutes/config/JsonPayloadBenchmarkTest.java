@@ -0,0 +1,115 @@
+package com.thy.flightroutes.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thy.flightroutes.dto.LocationDTO;
+import com.thy.flightroutes.dto.RouteDTO;
+import com.thy.flightroutes.dto.TransportationDTO;
+import com.thy.flightroutes.entity.Transportation.TransportationType;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bytes on the wire and serialization CPU time per response for a large route search result and for
+ * /api/transportations/all, with Spring Boot's default ObjectMapper and with {@link JacksonConfig}.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class JsonPayloadBenchmarkTest {
+
+    private static final int ROUTES = 300;
+    private static final int TRANSPORTATIONS = 3000;
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 500;
+
+    @Test
+    void routeSearchPayload() throws IOException {
+        List<RouteDTO> routes = new ArrayList<>();
+        for (int i = 0; i < ROUTES; i++) {
+            LocationDTO city = location(i, "CC" + i, false);
+            LocationDTO origin = location(1000 + i, "A" + i, true);
+            LocationDTO destination = location(2000 + i, "B" + i, true);
+            TransportationDTO flight = transportation(i, origin, destination, TransportationType.FLIGHT);
+            flight.setDepartureTime(LocalTime.of(9, 0));
+            flight.setArrivalTime(LocalTime.of(11, 50));
+            routes.add(RouteDTO.builder()
+                    .beforeFlight(i % 2 == 0 ? transportation(10_000 + i, city, origin, TransportationType.BUS) : null)
+                    .flight(flight)
+                    .originLocationName(city.getName())
+                    .destinationLocationName(destination.getName())
+                    .build());
+        }
+        compare("route search (" + ROUTES + " routes)", routes);
+    }
+
+    @Test
+    void allTransportationsPayload() throws IOException {
+        List<TransportationDTO> transportations = new ArrayList<>();
+        for (int i = 0; i < TRANSPORTATIONS; i++) {
+            transportations.add(transportation(i, location(i % 80, "O" + i % 80, true),
+                    location(80 + i % 70, "D" + i % 70, true), TransportationType.FLIGHT));
+        }
+        compare("transportations/all (" + TRANSPORTATIONS + " rows)", transportations);
+    }
+
+    private static void compare(String name, Object payload) throws IOException {
+        JacksonConfig jacksonConfig = new JacksonConfig();
+        ObjectMapper defaults = Jackson2ObjectMapperBuilder.json().build();
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        jacksonConfig.compactJsonCustomizer().customize(builder);
+        ObjectMapper compact = builder.build();
+
+        Result before = measure(defaults, payload);
+        Result after = measure(compact, payload);
+        System.out.printf("%s: default %d bytes (%d gzip), %.0f us CPU; compact %d bytes (%d gzip), %.0f us CPU%n",
+                name, before.bytes(), before.gzipBytes(), before.cpuMicros(),
+                after.bytes(), after.gzipBytes(), after.cpuMicros());
+
+        assertThat(after.bytes()).isLessThan(before.bytes());
+        assertThat(after.gzipBytes() * 4).isLessThan(after.bytes());
+    }
+
+    private static Result measure(ObjectMapper mapper, Object payload) throws IOException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP; i++) {
+            mapper.writeValueAsBytes(payload);
+        }
+        long cpuStart = threads.getCurrentThreadCpuTime();
+        byte[] json = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+            json = mapper.writeValueAsBytes(payload);
+        }
+        long cpuNanos = threads.getCurrentThreadCpuTime() - cpuStart;
+
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+            out.write(json);
+        }
+        return new Result(json.length, gzipped.size(), cpuNanos / 1000.0 / ITERATIONS);
+    }
+
+    private static LocationDTO location(long id, String code, boolean airport) {
+        return new LocationDTO(id, "Location " + code, "Country", "City " + code, code, airport, null);
+    }
+
+    private static TransportationDTO transportation(long id, LocationDTO origin, LocationDTO destination,
+                                                    TransportationType type) {
+        return new TransportationDTO(id, origin.getId(), destination.getId(), type, Set.of(1, 3, 5, 7),
+                origin, destination);
+    }
+
+    private record Result(int bytes, int gzipBytes, double cpuMicros) {
+    }
+}
@@ -0,0 +1,127 @@
+package com.thy.flightroutes.config;
+
+import org.h2.Driver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadReplicaRoutingDataSourceTest {
+
+    private SwitchableDataSource replica;
+    private JdbcTemplate primaryJdbc;
+    private JdbcTemplate replicaJdbc;
+    private ReadReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate readWriteTransaction;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = h2("primary");
+        replica = new SwitchableDataSource(h2("replica"));
+        primaryJdbc = new JdbcTemplate(primary);
+        replicaJdbc = new JdbcTemplate(replica.getTargetDataSource());
+        replicaJdbc.execute("CREATE TABLE replica_lag (seconds DOUBLE)");
+        replicaJdbc.update("INSERT INTO replica_lag VALUES (0)");
+
+        routingDataSource = new ReadReplicaRoutingDataSource(
+                primary, List.of(replica), "SELECT seconds FROM replica_lag", Duration.ofSeconds(5));
+        routingDataSource.afterPropertiesSet();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        primaryJdbc.execute("SHUTDOWN");
+        replicaJdbc.execute("SHUTDOWN");
+    }
+
+    @Test
+    void readOnlyTransaction_usesReplicaOnceLagCheckPassed() {
+        assertThat(databaseIn(readOnlyTransaction)).isEqualTo("primary");
+
+        routingDataSource.checkReplicas();
+
+        assertThat(routingDataSource.getHealthyReplicaCount()).isEqualTo(1);
+        assertThat(databaseIn(readOnlyTransaction)).isEqualTo("replica");
+    }
+
+    @Test
+    void readWriteTransaction_alwaysUsesPrimary() {
+        routingDataSource.checkReplicas();
+
+        assertThat(databaseIn(readWriteTransaction)).isEqualTo("primary");
+        assertThat(jdbcTemplate.queryForObject("SELECT name FROM db_name", String.class)).isEqualTo("primary");
+    }
+
+    @Test
+    void laggingReplica_fallsBackToPrimary() {
+        routingDataSource.checkReplicas();
+        replicaJdbc.update("UPDATE replica_lag SET seconds = 30");
+
+        routingDataSource.checkReplicas();
+
+        assertThat(routingDataSource.getHealthyReplicaCount()).isZero();
+        assertThat(databaseIn(readOnlyTransaction)).isEqualTo("primary");
+    }
+
+    @Test
+    void replicaRefusingConnections_fallsBackToPrimary() {
+        routingDataSource.checkReplicas();
+        replica.down = true;
+
+        assertThat(databaseIn(readOnlyTransaction)).isEqualTo("primary");
+        assertThat(routingDataSource.getHealthyReplicaCount()).isZero();
+    }
+
+    private String databaseIn(TransactionTemplate transaction) {
+        return transaction.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM db_name", String.class));
+    }
+
+    private DataSource h2(String name) {
+        DataSource dataSource = new SimpleDriverDataSource(
+                new Driver(), "jdbc:h2:mem:" + name + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("CREATE TABLE db_name (name VARCHAR(20))");
+        template.update("INSERT INTO db_name VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static class SwitchableDataSource extends DelegatingDataSource {
+
+        private volatile boolean down;
+
+        SwitchableDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException("Connection refused");
+            }
+            return super.getConnection();
+        }
+    }
+}
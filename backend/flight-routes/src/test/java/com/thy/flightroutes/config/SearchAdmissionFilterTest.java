@@ -0,0 +1,117 @@
+package com.thy.flightroutes.config;
+
+import com.thy.flightroutes.service.SearchRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class SearchAdmissionFilterTest {
+
+    private final SearchRateLimiter rateLimiter = mock(SearchRateLimiter.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SearchAdmissionFilter filter = new SearchAdmissionFilter(rateLimiter, 1, meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void rateLimitedSearch_isRejectedWithRetryAfter() throws Exception {
+        authenticate("agency1");
+        when(rateLimiter.tryAcquire("agency1")).thenReturn(new SearchRateLimiter.Decision(false, Duration.ofMillis(1200)));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(search(), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(response.getContentAsString()).contains("\"status\":429");
+        assertThat(chain.getRequest()).isNull();
+        assertThat(rejected("rate_limit")).isEqualTo(1);
+
+        // The slot taken for the check is given back
+        when(rateLimiter.tryAcquire("agency1")).thenReturn(new SearchRateLimiter.Decision(true, Duration.ZERO));
+        MockHttpServletResponse next = new MockHttpServletResponse();
+        filter.doFilter(search(), next, new MockFilterChain());
+        assertThat(next.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void searchBeyondConcurrencyLimit_isRejectedUntilSlotIsReleased() throws Exception {
+        authenticate("agency1");
+        when(rateLimiter.tryAcquire("agency1")).thenReturn(new SearchRateLimiter.Decision(true, Duration.ZERO));
+        MockHttpServletResponse inner = new MockHttpServletResponse();
+
+        // The first search is still running when the second one arrives
+        filter.doFilter(search(), new MockHttpServletResponse(), (request, response) -> {
+            try {
+                filter.doFilter(search(), inner, new MockFilterChain());
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+
+        assertThat(inner.getStatus()).isEqualTo(429);
+        assertThat(inner.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(rejected("concurrency")).isEqualTo(1);
+        // The rejected search did not spend a token
+        verify(rateLimiter, times(1)).tryAcquire("agency1");
+
+        MockHttpServletResponse afterRelease = new MockHttpServletResponse();
+        filter.doFilter(search(), afterRelease, new MockFilterChain());
+        assertThat(afterRelease.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void reachabilitySearch_isLimited() throws Exception {
+        authenticate("agency1");
+        when(rateLimiter.tryAcquire("agency1")).thenReturn(new SearchRateLimiter.Decision(false, Duration.ofSeconds(1)));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/routes/reachable"), response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void otherEndpoints_areNotLimited() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/locations");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        verifyNoInteractions(rateLimiter);
+    }
+
+    private static MockHttpServletRequest search() {
+        return new MockHttpServletRequest("GET", "/api/routes/search");
+    }
+
+    private static void authenticate(String subject) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                subject, "", List.of(new SimpleGrantedAuthority("ROLE_AGENCY"))));
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.get("search.admission.rejected").tag("reason", reason).counter().count();
+    }
+}
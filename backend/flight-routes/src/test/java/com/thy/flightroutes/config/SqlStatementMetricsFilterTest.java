@@ -0,0 +1,83 @@
+package com.thy.flightroutes.config;
+
+import com.thy.flightroutes.service.RouteSearchExecutor;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class SqlStatementMetricsFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SqlStatementMetricsFilter filter = new SqlStatementMetricsFilter(meterRegistry);
+    private final SqlStatementCounter counter = new SqlStatementCounter();
+
+    @Test
+    void recordsStatementsPerRequestTaggedByUriPattern() throws Exception {
+        // Statements before the request must not be counted
+        counter.inspect("select 1");
+
+        filter.doFilter(request("/api/routes/search"), new MockHttpServletResponse(), (req, res) -> {
+            counter.inspect("select * from locations");
+            counter.inspect("select * from transportations");
+        });
+        filter.doFilter(request("/api/routes/search"), new MockHttpServletResponse(), (req, res) ->
+                counter.inspect("select * from locations"));
+
+        DistributionSummary summary = meterRegistry.get("http.server.requests.sql.statements")
+                .tag("method", "GET")
+                .tag("uri", "/api/routes/search")
+                .summary();
+        assertThat(summary.count()).isEqualTo(2);
+        assertThat(summary.totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    void countsStatementsOfForkedRouteSearchPhases() throws Exception {
+        RouteSearchExecutor executor = new RouteSearchExecutor(mock(PlatformTransactionManager.class), 2, 10,
+                Duration.ofSeconds(5));
+        try {
+            filter.doFilter(request("/api/routes/search"), new MockHttpServletResponse(), (req, res) -> {
+                counter.inspect("select * from locations");
+                try (RouteSearchExecutor.Scope scope = executor.open()) {
+                    RouteSearchExecutor.Phase<String> first = scope.fork(() -> counter.inspect("select 1"));
+                    RouteSearchExecutor.Phase<String> second = scope.fork(() -> counter.inspect("select 2"));
+                    scope.join(first);
+                    scope.join(second);
+                }
+            });
+            // Later work forked outside the request is not counted on it
+            executor.open().join(executor.open().fork(() -> counter.inspect("select 3")));
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(meterRegistry.get("http.server.requests.sql.statements").tag("uri", "/api/routes/search")
+                .summary().totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    void recordsUnmatchedRequestsAsUnknown() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/nowhere");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+        });
+
+        assertThat(meterRegistry.get("http.server.requests.sql.statements").tag("uri", "UNKNOWN").summary()
+                .totalAmount()).isZero();
+    }
+
+    private MockHttpServletRequest request(String pattern) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", pattern);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        return request;
+    }
+}
@@ -0,0 +1,39 @@
+package com.thy.flightroutes.controller;
+
+import com.thy.flightroutes.service.DataExportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ExportControllerTest {
+
+    private final ExportController controller = new ExportController(mock(DataExportService.class));
+
+    @Test
+    void acceptsGzip_readsCodingsAndQValues() {
+        assertThat(ExportController.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(ExportController.acceptsGzip("br;q=1.0, GZIP;q=0.5")).isTrue();
+        assertThat(ExportController.acceptsGzip("x-gzip")).isTrue();
+        assertThat(ExportController.acceptsGzip("*")).isTrue();
+
+        assertThat(ExportController.acceptsGzip(null)).isFalse();
+        assertThat(ExportController.acceptsGzip("identity")).isFalse();
+        assertThat(ExportController.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(ExportController.acceptsGzip("gzip ; q=0.000, deflate")).isFalse();
+        assertThat(ExportController.acceptsGzip("*, gzip;q=0")).isFalse();
+        assertThat(ExportController.acceptsGzip("gzip;q=abc")).isFalse();
+        assertThat(ExportController.acceptsGzip("deflate-gzip")).isFalse();
+    }
+
+    @Test
+    void exportRefusingGzip_isNotCompressed() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.exportLocations("csv", "gzip;q=0, identity", response);
+
+        assertThat(response.getHeader("Content-Encoding")).isNull();
+        assertThat(response.getHeader("Vary")).isEqualTo("Accept-Encoding");
+    }
+}
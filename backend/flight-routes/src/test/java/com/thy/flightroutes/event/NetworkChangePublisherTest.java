@@ -0,0 +1,44 @@
+package com.thy.flightroutes.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.thy.flightroutes.entity.NetworkChange;
+import com.thy.flightroutes.repository.NetworkChangeRepository;
+import com.thy.flightroutes.service.DataVersionService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NetworkChangePublisherTest {
+
+    private final DataVersionService dataVersionService = mock(DataVersionService.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final NetworkChangeRepository networkChangeRepository = mock(NetworkChangeRepository.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final NetworkChangePublisher publisher = new NetworkChangePublisher(
+            dataVersionService, eventPublisher, networkChangeRepository, objectMapper);
+
+    @Test
+    void publish_writesTheEventToTheOutboxUnderItsVersion() throws Exception {
+        when(dataVersionService.increment()).thenReturn(7L);
+
+        publisher.locationChanged(3L, List.of("İstanbul"));
+
+        ArgumentCaptor<NetworkChange> saved = ArgumentCaptor.forClass(NetworkChange.class);
+        verify(networkChangeRepository).save(saved.capture());
+        assertThat(saved.getValue().getVersion()).isEqualTo(7L);
+        assertThat(saved.getValue().getType()).isEqualTo("location-changed");
+        assertThat(saved.getValue().getPublishedAt()).isNull();
+        NetworkChangeEvent event = objectMapper.readValue(saved.getValue().getPayload(), NetworkChangeEvent.class);
+        assertThat(event).isEqualTo(new NetworkChangeEvent.LocationChanged(7L, 3L, Set.of("İstanbul")));
+        verify(eventPublisher).publishEvent(event);
+    }
+}
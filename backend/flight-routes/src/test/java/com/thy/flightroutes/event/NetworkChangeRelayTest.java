@@ -0,0 +1,133 @@
+package com.thy.flightroutes.event;
+
+import com.thy.flightroutes.entity.NetworkChange;
+import com.thy.flightroutes.repository.NetworkChangeRepository;
+import com.thy.flightroutes.service.DataVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NetworkChangeRelayTest {
+
+    private static final String STREAM = "network-changes:stream";
+    private static final String EPOCH = "5d3f1c2b-7a6e-4b9d-8c0f-1e2d3c4b5a69";
+
+    @Mock
+    private NetworkChangeRepository networkChangeRepository;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private StreamOperations<String, Object, Object> streamOperations;
+
+    @Mock
+    private DataVersionService dataVersionService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private NetworkChangeRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new NetworkChangeRelay(networkChangeRepository, redisTemplate, dataVersionService,
+                transactionManager);
+        ReflectionTestUtils.setField(relay, "streamKey", STREAM);
+        ReflectionTestUtils.setField(relay, "interval", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(relay, "batchSize", 2);
+        ReflectionTestUtils.setField(relay, "streamMaxLength", 1000L);
+        when(redisTemplate.opsForStream()).thenReturn(streamOperations);
+        when(dataVersionService.currentEpoch()).thenReturn(EPOCH);
+    }
+
+    @Test
+    void relay_addsUnpublishedChangesWithTheVersionAsStreamId() {
+        NetworkChange first = change(3);
+        NetworkChange second = change(4);
+        NetworkChange third = change(5);
+        when(networkChangeRepository.findByPublishedAtIsNullOrderByVersion(any()))
+                .thenReturn(List.of(first, second), List.of(third));
+        // v3 made it to the stream before, but marking it published did not commit
+        when(streamOperations.reverseRange(eq(STREAM), any(), any())).thenReturn(List.of(onStream(3, EPOCH)));
+
+        assertThat(relay.relay()).isEqualTo(3);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<MapRecord<String, String, String>> added = ArgumentCaptor.forClass(MapRecord.class);
+        verify(streamOperations, times(2)).add(added.capture());
+        assertThat(added.getAllValues()).extracting(MapRecord::getId)
+                .containsExactly(RecordId.of(4, 0), RecordId.of(5, 0));
+        assertThat(added.getAllValues().get(0).getValue())
+                .containsEntry("version", "4")
+                .containsEntry("epoch", EPOCH)
+                .containsEntry("type", "transportation-removed");
+        assertThat(List.of(first, second, third)).allSatisfy(change -> assertThat(change.getPublishedAt()).isNotNull());
+        verify(streamOperations, times(2)).trim(STREAM, 1000L, true);
+        verify(redisTemplate, never()).delete(STREAM);
+    }
+
+    @Test
+    void relay_recreatesTheStreamOfAnotherDatabase() {
+        // Redis kept the stream while the database was reset and counted up to v3 again
+        NetworkChange first = change(2);
+        NetworkChange second = change(3);
+        when(networkChangeRepository.findByPublishedAtIsNullOrderByVersion(any()))
+                .thenReturn(List.of(first, second), List.of());
+        when(streamOperations.reverseRange(eq(STREAM), any(), any()))
+                .thenReturn(List.of(onStream(9, "c81e728d-9d4c-4f63-a0b5-3e2a1f4b6d7c")), List.of());
+
+        assertThat(relay.relay()).isEqualTo(2);
+
+        verify(redisTemplate).delete(STREAM);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<MapRecord<String, String, String>> added = ArgumentCaptor.forClass(MapRecord.class);
+        verify(streamOperations, times(2)).add(added.capture());
+        assertThat(added.getAllValues()).extracting(MapRecord::getId)
+                .containsExactly(RecordId.of(2, 0), RecordId.of(3, 0));
+    }
+
+    @Test
+    void relay_leavesChangesForTheNextRunWhenRedisIsDown() {
+        when(networkChangeRepository.findByPublishedAtIsNullOrderByVersion(any())).thenReturn(List.of(change(3)));
+        when(streamOperations.reverseRange(eq(STREAM), any(), any()))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        assertThat(relay.relay()).isZero();
+    }
+
+    private static MapRecord<String, Object, Object> onStream(long version, String epoch) {
+        return MapRecord.<String, Object, Object>create(STREAM, Map.of("version", String.valueOf(version),
+                "epoch", epoch)).withId(RecordId.of(version, 0));
+    }
+
+    private NetworkChange change(long version) {
+        return new NetworkChange(version, "transportation-removed",
+                "{\"type\":\"transportation-removed\",\"version\":" + version + ",\"transportationId\":1}",
+                Instant.EPOCH, null);
+    }
+}
@@ -0,0 +1,92 @@
+package com.thy.flightroutes.event;
+
+import com.thy.flightroutes.event.NetworkChangeEvent.TransportationRemoved;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NetworkChangeSequencerTest {
+
+    private final FakeReplica replica = new FakeReplica();
+    private final NetworkChangeSequencer sequencer = new NetworkChangeSequencer(replica, Duration.ofMinutes(1));
+
+    @AfterEach
+    void tearDown() {
+        sequencer.shutdown();
+    }
+
+    @Test
+    void accept_appliesChangesInVersionOrder() {
+        replica.version = 1;
+
+        sequencer.accept(removed(3));
+        assertThat(replica.applied).isEmpty();
+        assertThat(sequencer.pendingCount()).isEqualTo(1);
+
+        sequencer.accept(removed(2));
+        assertThat(replica.applied).containsExactly(2L, 3L);
+        assertThat(sequencer.pendingCount()).isZero();
+    }
+
+    @Test
+    void accept_ignoresDuplicatesAndChangesBeforeTheFirstLoad() {
+        replica.version = -1;
+        sequencer.accept(removed(1));
+        assertThat(sequencer.pendingCount()).isZero();
+
+        replica.version = 1;
+        sequencer.accept(removed(2));
+        sequencer.accept(removed(2));
+        sequencer.accept(removed(1));
+        assertThat(replica.applied).containsExactly(2L);
+    }
+
+    @Test
+    void checkGap_resyncsAndAppliesTheChangesAfterIt() {
+        replica.version = 1;
+        sequencer.accept(removed(4));
+        sequencer.accept(removed(5));
+
+        // The database is at v4: v2 and v3 were lost, v4 is already contained in the reload
+        replica.databaseVersion = 4;
+        sequencer.checkGap();
+
+        assertThat(replica.resyncs).isEqualTo(1);
+        assertThat(replica.applied).containsExactly(5L);
+        assertThat(sequencer.pendingCount()).isZero();
+    }
+
+    private static NetworkChangeEvent removed(long version) {
+        return new TransportationRemoved(version, 1L);
+    }
+
+    private static class FakeReplica implements NetworkChangeSequencer.Replica {
+
+        private long version;
+        private long databaseVersion;
+        private int resyncs;
+        private final List<Long> applied = new ArrayList<>();
+
+        @Override
+        public long version() {
+            return version;
+        }
+
+        @Override
+        public void apply(NetworkChangeEvent event) {
+            applied.add(event.version());
+            version = event.version();
+        }
+
+        @Override
+        public void resync() {
+            resyncs++;
+            version = Math.max(version, databaseVersion);
+        }
+    }
+}
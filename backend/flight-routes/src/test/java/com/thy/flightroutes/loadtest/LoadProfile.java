@@ -0,0 +1,84 @@
+package com.thy.flightroutes.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * What the harness replays, read from {@code -Dloadtest.*} system properties so a run can be repeated exactly:
+ * same seed, same network, same mix.
+ *
+ * <pre>
+ * loadtest.duration=30s           measured phase
+ * loadtest.warmup=10s             replayed first and discarded
+ * loadtest.clients=16             concurrent closed-loop clients, one JWT subject each
+ * loadtest.cities=200             synthetic cities (an airport and two city centres each)
+ * loadtest.flights-per-city=8     outbound flights per synthetic airport
+ * loadtest.zipf-exponent=1.1      skew over city pairs and autocomplete prefixes
+ * loadtest.mix=search:80,autocomplete:18,write:2
+ * loadtest.seed=42
+ * </pre>
+ */
+record LoadProfile(Duration duration,
+                   Duration warmup,
+                   int clients,
+                   int cities,
+                   int flightsPerCity,
+                   double zipfExponent,
+                   Map<Operation, Integer> mix,
+                   long seed) {
+
+    enum Operation {
+        SEARCH, AUTOCOMPLETE, WRITE
+    }
+
+    static LoadProfile fromSystemProperties() {
+        return new LoadProfile(
+                DurationStyle.detectAndParse(System.getProperty("loadtest.duration", "30s")),
+                DurationStyle.detectAndParse(System.getProperty("loadtest.warmup", "10s")),
+                Integer.getInteger("loadtest.clients", 16),
+                Integer.getInteger("loadtest.cities", 200),
+                Integer.getInteger("loadtest.flights-per-city", 8),
+                Double.parseDouble(System.getProperty("loadtest.zipf-exponent", "1.1")),
+                parseMix(System.getProperty("loadtest.mix", "search:80,autocomplete:18,write:2")),
+                Long.getLong("loadtest.seed", 42L));
+    }
+
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid loadtest.mix entry: " + entry);
+            }
+            weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("loadtest.mix has no positive weight: " + mix);
+        }
+        return weights;
+    }
+
+    /** Picks an operation for {@code roll} in [0, total weight). */
+    Operation operation(int roll) {
+        for (Map.Entry<Operation, Integer> weight : mix.entrySet()) {
+            roll -= weight.getValue();
+            if (roll < 0) {
+                return weight.getKey();
+            }
+        }
+        throw new IllegalArgumentException("Roll beyond the total weight");
+    }
+
+    int totalWeight() {
+        return mix.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("duration=%s warmup=%s clients=%d cities=%d flights-per-city=%d zipf=%.2f mix=%s seed=%d",
+                duration, warmup, clients, cities, flightsPerCity, zipfExponent, mix, seed);
+    }
+}
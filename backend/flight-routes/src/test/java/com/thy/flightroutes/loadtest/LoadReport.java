@@ -0,0 +1,98 @@
+package com.thy.flightroutes.loadtest;
+
+import com.thy.flightroutes.loadtest.LoadProfile.Operation;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.HdrHistogram.Histogram;
+import org.hibernate.stat.Statistics;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Server-side counters read before and after the measured phase (cache gets per cache and result, SQL
+ * statements per URI from {@code http.server.requests.sql.statements}, and Hibernate's prepared statement
+ * total, which also covers queries run off the request thread), formatted together with the client histograms.
+ */
+final class LoadReport {
+
+    record Snapshot(Map<String, Double> cacheGets, Map<String, double[]> sqlPerUri, long preparedStatements) {
+
+        static Snapshot take(MeterRegistry meterRegistry, Statistics statistics) {
+            Map<String, Double> cacheGets = new TreeMap<>();
+            for (FunctionCounter counter : meterRegistry.find("cache.gets").functionCounters()) {
+                String key = counter.getId().getTag("cache") + "|" + counter.getId().getTag("result");
+                cacheGets.merge(key, counter.count(), Double::sum);
+            }
+            Map<String, double[]> sqlPerUri = new TreeMap<>();
+            for (DistributionSummary summary : meterRegistry.find("http.server.requests.sql.statements").summaries()) {
+                String key = summary.getId().getTag("method") + " " + summary.getId().getTag("uri");
+                sqlPerUri.merge(key, new double[]{summary.count(), summary.totalAmount()},
+                        (a, b) -> new double[]{a[0] + b[0], a[1] + b[1]});
+            }
+            return new Snapshot(cacheGets, sqlPerUri, statistics.getPrepareStatementCount());
+        }
+    }
+
+    private LoadReport() {
+    }
+
+    static String format(LoadProfile profile, SyntheticNetwork network, TrafficReplayer.Phase phase,
+                         Snapshot before, Snapshot after) {
+        StringBuilder report = new StringBuilder();
+        double seconds = phase.elapsed().toNanos() / 1e9;
+        long total = 0;
+        report.append(String.format("Load test: %s%n", profile));
+        report.append(String.format("Network: %d synthetic locations, %d flights%n",
+                network.locationCount(), network.flights().size()));
+        report.append(String.format("%n%-13s %9s %9s %9s %9s %9s %9s %9s  %s%n",
+                "operation", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "outcomes"));
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = phase.latencies().get(operation);
+            long count = histogram.getTotalCount();
+            total += count;
+            if (count == 0) {
+                continue;
+            }
+            report.append(String.format("%-13s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n",
+                    operation.name().toLowerCase(), count, count / seconds,
+                    millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                    histogram.getMaxValue() / 1000.0, new TreeMap<>(phase.outcomes().get(operation))));
+        }
+        report.append(String.format("%-13s %9d %9.1f%n", "total", total, total / seconds));
+
+        report.append(String.format("%nCache hit rate%n"));
+        Map<String, double[]> caches = new TreeMap<>();
+        after.cacheGets().forEach((key, value) -> {
+            double delta = value - before.cacheGets().getOrDefault(key, 0.0);
+            String[] cacheAndResult = key.split("\\|");
+            double[] hitsAndMisses = caches.computeIfAbsent(cacheAndResult[0], cache -> new double[2]);
+            hitsAndMisses["hit".equals(cacheAndResult[1]) ? 0 : 1] += delta;
+        });
+        caches.forEach((cache, hitsAndMisses) -> {
+            double gets = hitsAndMisses[0] + hitsAndMisses[1];
+            if (gets > 0) {
+                report.append(String.format("  %-30s %6.1f%% of %.0f gets%n",
+                        cache, 100 * hitsAndMisses[0] / gets, gets));
+            }
+        });
+
+        long statements = after.preparedStatements() - before.preparedStatements();
+        report.append(String.format("%nSQL: %d statements prepared, %.2f per request%n",
+                statements, total == 0 ? 0.0 : (double) statements / total));
+        after.sqlPerUri().forEach((uri, countAndTotal) -> {
+            double[] previous = before.sqlPerUri().getOrDefault(uri, new double[2]);
+            double requests = countAndTotal[0] - previous[0];
+            if (requests > 0) {
+                report.append(String.format("  %-45s %8.2f per request on the request thread (%.0f requests)%n",
+                        uri, (countAndTotal[1] - previous[1]) / requests, requests));
+            }
+        });
+        return report.toString();
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,119 @@
+package com.thy.flightroutes.loadtest;
+
+import com.thy.flightroutes.config.JwtTokenProvider;
+import com.thy.flightroutes.loadtest.LoadProfile.Operation;
+import com.thy.flightroutes.repository.LocationRepository;
+import com.thy.flightroutes.repository.TransportationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Boots the whole app on a random port with the {@code test} profile (H2) and a Redis server started from the
+ * test, seeds a {@link SyntheticNetwork} on top of the sample data and replays the {@link LoadProfile} mix over
+ * HTTP. Throughput, latency percentiles, cache hit rates and SQL counts are printed and written to
+ * {@code target/loadtest-report.txt}.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=LoadTestHarnessTest}, adding {@code -Dloadtest.*} properties to
+ * change the profile. The per-user rate limit is off unless {@code -Dloadtest.rate-limit=true}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "search.rate-limit.enabled=${loadtest.rate-limit:false}"})
+@ActiveProfiles("test")
+class LoadTestHarnessTest {
+
+    private static RedisServer redisServer;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private TransportationRepository transportationRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) throws IOException {
+        int redisPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            redisPort = socket.getLocalPort();
+        }
+        redisServer = RedisServer.newRedisServer()
+                .port(redisPort)
+                .bind("127.0.0.1")
+                .setting("save \"\"")
+                .setting("appendonly no")
+                .build();
+        redisServer.start();
+        registry.add("spring.data.redis.host", () -> "127.0.0.1");
+        registry.add("spring.data.redis.port", () -> redisPort);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    @Test
+    void replayTrafficMix() throws Exception {
+        LoadProfile profile = LoadProfile.fromSystemProperties();
+        SyntheticNetwork network = SyntheticNetwork.seed(profile, locationRepository, transportationRepository,
+                transactionTemplate);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        TrafficReplayer replayer = new TrafficReplayer(URI.create("http://localhost:" + port), profile, network,
+                client -> jwtTokenProvider.createToken("loadtest-agency-" + client, "AGENCY"),
+                jwtTokenProvider.createToken("loadtest-admin", "ADMIN"));
+
+        replayer.run(profile.warmup(), 0);
+        LoadReport.Snapshot before = LoadReport.Snapshot.take(meterRegistry, statistics);
+        TrafficReplayer.Phase measured = replayer.run(profile.duration(), 1);
+        LoadReport.Snapshot after = LoadReport.Snapshot.take(meterRegistry, statistics);
+
+        String report = LoadReport.format(profile, network, measured, before, after);
+        System.out.println(report);
+        Files.writeString(Path.of("target", "loadtest-report.txt"), report);
+
+        assertThat(measured.latencies().get(Operation.SEARCH).getTotalCount()).isPositive();
+        measured.outcomes().forEach((operation, outcomes) -> assertThat(outcomes)
+                .as("%s outcomes", operation)
+                .doesNotContainKeys("5xx", "io-error"));
+    }
+}
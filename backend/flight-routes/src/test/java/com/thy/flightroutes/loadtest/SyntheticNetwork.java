@@ -0,0 +1,148 @@
+package com.thy.flightroutes.loadtest;
+
+import com.thy.flightroutes.entity.Location;
+import com.thy.flightroutes.entity.Transportation;
+import com.thy.flightroutes.entity.Transportation.TransportationType;
+import com.thy.flightroutes.repository.LocationRepository;
+import com.thy.flightroutes.repository.TransportationRepository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A network scaled by {@link LoadProfile#cities()}: every city has an airport and two city centres linked to it
+ * by bus and Uber in both directions, and each airport flies to {@code flightsPerCity} other airports on a random
+ * subset of weekdays. Built from the profile's seed, so two runs with the same profile search the same network.
+ */
+record SyntheticNetwork(List<City> cities, List<Flight> flights) {
+
+    private static final String[] SYLLABLES = {
+            "ka", "lo", "ri", "ma", "no", "te", "si", "va", "du", "pe", "zo", "ben", "tar", "lin", "mor", "sel"};
+
+    record City(String name, String airportCode, List<String> centreCodes) {
+    }
+
+    record Flight(long id, long originId, long destinationId, Set<Integer> operatingDays) {
+    }
+
+    static SyntheticNetwork seed(LoadProfile profile, LocationRepository locationRepository,
+                                 TransportationRepository transportationRepository,
+                                 TransactionTemplate transactionTemplate) {
+        Random random = new Random(profile.seed());
+        return transactionTemplate.execute(status -> {
+            Set<String> taken = locationRepository.findAll().stream()
+                    .map(Location::getLocationCode)
+                    .collect(Collectors.toCollection(HashSet::new));
+            List<Location> airports = new ArrayList<>();
+            List<City> cities = new ArrayList<>();
+            List<Location> locations = new ArrayList<>();
+            List<Transportation> ground = new ArrayList<>();
+            for (int i = 0; i < profile.cities(); i++) {
+                String name = cityName(i);
+                Location airport = location(name + " Airport", name, freeAirportCode(taken), true);
+                Location north = location(name + " North", name, String.format("SC%04dN", i), false);
+                Location south = location(name + " South", name, String.format("SC%04dS", i), false);
+                locations.addAll(List.of(airport, north, south));
+                airports.add(airport);
+                cities.add(new City(name, airport.getLocationCode(),
+                        List.of(north.getLocationCode(), south.getLocationCode())));
+                for (Location centre : List.of(north, south)) {
+                    for (TransportationType type : List.of(TransportationType.BUS, TransportationType.UBER)) {
+                        ground.add(transportation(centre, airport, type, Set.of(1, 2, 3, 4, 5, 6, 7)));
+                        ground.add(transportation(airport, centre, type, Set.of(1, 2, 3, 4, 5, 6, 7)));
+                    }
+                }
+            }
+            locationRepository.saveAll(locations);
+            transportationRepository.saveAll(ground);
+
+            List<Transportation> flights = new ArrayList<>();
+            int perCity = Math.min(profile.flightsPerCity(), airports.size() - 1);
+            for (int i = 0; i < airports.size(); i++) {
+                Set<Integer> destinations = new HashSet<>();
+                while (destinations.size() < perCity) {
+                    int j = random.nextInt(airports.size());
+                    if (j != i) {
+                        destinations.add(j);
+                    }
+                }
+                for (int j : destinations) {
+                    flights.add(transportation(airports.get(i), airports.get(j), TransportationType.FLIGHT,
+                            operatingDays(random)));
+                }
+            }
+            transportationRepository.saveAll(flights);
+            return new SyntheticNetwork(cities, flights.stream()
+                    .map(flight -> new Flight(flight.getId(), flight.getOriginLocation().getId(),
+                            flight.getDestinationLocation().getId(), Set.copyOf(flight.getOperatingDays())))
+                    .toList());
+        });
+    }
+
+    int locationCount() {
+        return cities.size() * 3;
+    }
+
+    private static String cityName(int index) {
+        StringBuilder name = new StringBuilder();
+        int remaining = index;
+        do {
+            name.append(SYLLABLES[remaining % SYLLABLES.length]);
+            remaining /= SYLLABLES.length;
+        } while (remaining > 0);
+        name.append(SYLLABLES[(index * 7 + 3) % SYLLABLES.length]);
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1) + " " + index;
+    }
+
+    private static String freeAirportCode(Set<String> taken) {
+        for (char first : new char[]{'Q', 'Z', 'X', 'Y'}) {
+            for (char second = 'A'; second <= 'Z'; second++) {
+                for (char third = 'A'; third <= 'Z'; third++) {
+                    String code = "" + first + second + third;
+                    if (taken.add(code)) {
+                        return code;
+                    }
+                }
+            }
+        }
+        throw new IllegalStateException("Ran out of synthetic airport codes");
+    }
+
+    private static Set<Integer> operatingDays(Random random) {
+        Set<Integer> days = new HashSet<>();
+        for (int day = 1; day <= 7; day++) {
+            if (random.nextInt(10) < 6) {
+                days.add(day);
+            }
+        }
+        if (days.isEmpty()) {
+            days.add(1 + random.nextInt(7));
+        }
+        return days;
+    }
+
+    private static Location location(String name, String city, String code, boolean airport) {
+        Location location = new Location();
+        location.setName(name);
+        location.setCountry("Synthetica");
+        location.setCity(city);
+        location.setLocationCode(code);
+        location.setIsAirport(airport);
+        return location;
+    }
+
+    private static Transportation transportation(Location origin, Location destination, TransportationType type,
+                                                 Set<Integer> operatingDays) {
+        Transportation transportation = new Transportation();
+        transportation.setOriginLocation(origin);
+        transportation.setDestinationLocation(destination);
+        transportation.setTransportationType(type);
+        transportation.setOperatingDays(new HashSet<>(operatingDays));
+        return transportation;
+    }
+}
@@ -0,0 +1,175 @@
+package com.thy.flightroutes.loadtest;
+
+import com.thy.flightroutes.loadtest.LoadProfile.Operation;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Closed-loop clients replaying the profile's mix against the running app over HTTP. City popularity follows a
+ * Zipf distribution over a seeded shuffle of the cities; a searched pair is two independent draws, so its
+ * popularity is the product of both cities' and the head pairs dominate. Latencies go into one HdrHistogram
+ * recorder per operation.
+ */
+final class TrafficReplayer {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int SEARCH_DAYS = 14;
+
+    record Phase(Duration elapsed, Map<Operation, Histogram> latencies, Map<Operation, Map<String, Long>> outcomes) {
+    }
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(REQUEST_TIMEOUT)
+            .build();
+    private final URI baseUri;
+    private final LoadProfile profile;
+    private final SyntheticNetwork network;
+    private final IntFunction<String> agencyToken;
+    private final String adminToken;
+    private final List<SyntheticNetwork.City> citiesByPopularity;
+    private final ZipfSampler citySampler;
+    private final LocalDate firstDate = LocalDate.now();
+    private final Map<Operation, Recorder> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, Map<String, LongAdder>> outcomes = new EnumMap<>(Operation.class);
+
+    TrafficReplayer(URI baseUri, LoadProfile profile, SyntheticNetwork network,
+                    IntFunction<String> agencyToken, String adminToken) {
+        this.baseUri = baseUri;
+        this.profile = profile;
+        this.network = network;
+        this.agencyToken = agencyToken;
+        this.adminToken = adminToken;
+        List<SyntheticNetwork.City> cities = new ArrayList<>(network.cities());
+        Collections.shuffle(cities, new Random(profile.seed()));
+        this.citiesByPopularity = cities;
+        this.citySampler = new ZipfSampler(cities.size(), profile.zipfExponent());
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new Recorder(3));
+            outcomes.put(operation, new ConcurrentHashMap<>());
+        }
+    }
+
+    /** Replays for {@code duration} and returns what was recorded since the previous call. */
+    Phase run(Duration duration, long round) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        List<Thread> clients = new ArrayList<>();
+        for (int client = 0; client < profile.clients(); client++) {
+            Random random = new Random(profile.seed() * 31 + round * 1_000_003 + client);
+            String token = agencyToken.apply(client);
+            clients.add(Thread.ofPlatform().name("loadtest-client-" + client).start(() -> {
+                while (System.nanoTime() < deadline) {
+                    execute(profile.operation(random.nextInt(profile.totalWeight())), random, token);
+                }
+            }));
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        Map<Operation, Map<String, Long>> counts = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, latencies.get(operation).getIntervalHistogram());
+            counts.put(operation, outcomes.get(operation).entrySet().stream()
+                    .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().sumThenReset())));
+        }
+        return new Phase(elapsed, histograms, counts);
+    }
+
+    private void execute(Operation operation, Random random, String agencyToken) {
+        HttpRequest request = switch (operation) {
+            case SEARCH -> search(random, agencyToken);
+            case AUTOCOMPLETE -> autocomplete(random, agencyToken);
+            case WRITE -> write(random);
+        };
+        long start = System.nanoTime();
+        String outcome;
+        try {
+            int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            outcome = status == 429 ? "429" : (status / 100) + "xx";
+        } catch (IOException ex) {
+            outcome = "io-error";
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        latencies.get(operation).recordValue((System.nanoTime() - start) / 1_000);
+        outcomes.get(operation).computeIfAbsent(outcome, key -> new LongAdder()).increment();
+    }
+
+    private HttpRequest search(Random random, String token) {
+        SyntheticNetwork.City origin = popularCity(random);
+        SyntheticNetwork.City destination = popularCity(random);
+        while (destination == origin) {
+            destination = popularCity(random);
+        }
+        String from = origin.centreCodes().get(random.nextInt(origin.centreCodes().size()));
+        String to = random.nextBoolean() ? destination.airportCode()
+                : destination.centreCodes().get(random.nextInt(destination.centreCodes().size()));
+        LocalDate date = firstDate.plusDays(random.nextInt(SEARCH_DAYS));
+        return get("/api/routes/search?from=" + from + "&to=" + to + "&date=" + date, token);
+    }
+
+    private HttpRequest autocomplete(Random random, String token) {
+        String name = popularCity(random).name();
+        String prefix = name.substring(0, Math.min(name.length(), 3 + random.nextInt(3)));
+        return get("/api/locations/search?size=10&searchTerm=" + URLEncoder.encode(prefix, StandardCharsets.UTF_8),
+                token);
+    }
+
+    private HttpRequest write(Random random) {
+        SyntheticNetwork.Flight flight = network.flights().get(random.nextInt(network.flights().size()));
+        Set<Integer> days = new TreeSet<>(flight.operatingDays());
+        int day = 1 + random.nextInt(7);
+        if (!days.remove(day) || days.isEmpty()) {
+            days.add(day);
+        }
+        String body = String.format(
+                "{\"originLocationId\":%d,\"destinationLocationId\":%d,\"transportationType\":\"FLIGHT\","
+                        + "\"operatingDays\":%s}", flight.originId(), flight.destinationId(), days);
+        return HttpRequest.newBuilder(baseUri.resolve("/api/transportations/" + flight.id()))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Authorization", "Bearer " + adminToken)
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private SyntheticNetwork.City popularCity(Random random) {
+        return citiesByPopularity.get(citySampler.sample(random));
+    }
+
+    private HttpRequest get(String path, String token) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Authorization", "Bearer " + token)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.thy.flightroutes.repository;
+
+import liquibase.integration.spring.SpringLiquibase;
+import org.h2.Driver;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Applies the Liquibase changelog to H2 (plain and PostgreSQL mode) and checks with EXPLAIN
+ * that every query issued by a route search is answered from an index instead of a table scan.
+ */
+class RouteSearchIndexTest {
+
+    // Same shapes Hibernate generates for the repository methods used by RouteService
+    private static final List<String> ROUTE_SEARCH_QUERIES = List.of(
+            // LocationRepository.findByLocationCode
+            "SELECT l.id FROM locations l WHERE l.location_code = 'IST'",
+            // LocationRepository.findByCity
+            "SELECT l.id FROM locations l WHERE l.city = 'City 1'",
+            // findByOriginLocationInAndDestinationLocationInAndTransportationTypeAndOperatingDaysContaining
+            "SELECT t.id FROM transportations t WHERE t.origin_location_id IN (1, 2) "
+                    + "AND t.destination_location_id IN (3, 4) AND t.transportation_type = 'FLIGHT' "
+                    + "AND 3 IN (SELECT od.operating_days FROM transportation_operating_days od "
+                    + "WHERE t.id = od.transportation_id)",
+            // findByDestinationLocationAndTransportationTypeNotAndOperatingDaysContaining
+            "SELECT t.id FROM transportations t WHERE t.destination_location_id = 1 "
+                    + "AND t.transportation_type <> 'FLIGHT' "
+                    + "AND 3 IN (SELECT od.operating_days FROM transportation_operating_days od "
+                    + "WHERE t.id = od.transportation_id)",
+            // findByOriginLocationAndTransportationTypeNotAndOperatingDaysContaining
+            "SELECT t.id FROM transportations t WHERE t.origin_location_id = 1 "
+                    + "AND t.transportation_type <> 'FLIGHT' "
+                    + "AND 3 IN (SELECT od.operating_days FROM transportation_operating_days od "
+                    + "WHERE t.id = od.transportation_id)",
+            // findByTransportationType
+            "SELECT t.id FROM transportations t WHERE t.transportation_type = 'FLIGHT'",
+            // Lazy load of Transportation.operatingDays
+            "SELECT od.operating_days FROM transportation_operating_days od WHERE od.transportation_id = 1");
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", ";MODE=PostgreSQL"})
+    void routeSearchQueries_useIndexes(String urlOptions) throws Exception {
+        SimpleDriverDataSource dataSource = new SimpleDriverDataSource(
+                new Driver(), "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1" + urlOptions, "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        migrate(dataSource, jdbcTemplate);
+        seed(jdbcTemplate);
+
+        for (String query : ROUTE_SEARCH_QUERIES) {
+            String plan = jdbcTemplate.queryForObject("EXPLAIN " + query, String.class);
+            assertThat(plan).as(query).doesNotContainIgnoringCase("tableScan");
+        }
+    }
+
+    private void migrate(SimpleDriverDataSource dataSource, JdbcTemplate jdbcTemplate) throws Exception {
+        // The baseline changelog only alters the user table, which was created outside of it
+        jdbcTemplate.execute("CREATE TABLE \"USER\" (id BIGINT NOT NULL, username VARCHAR(255))");
+
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:/db/changelog/db.changelog-master.yaml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        for (int i = 1; i <= 100; i++) {
+            String code = i % 4 == 0 ? String.format("A%02d", i % 100) : "LOC" + i;
+            jdbcTemplate.update(
+                    "INSERT INTO locations (name, country, city, location_code, is_airport) VALUES (?, ?, ?, ?, ?)",
+                    "Location " + i, "Country", "City " + (i % 20), code, code.length() == 3);
+        }
+        String[] types = {"FLIGHT", "BUS", "SUBWAY", "UBER"};
+        long id = 0;
+        for (int origin = 1; origin <= 100; origin++) {
+            for (int step = 1; step <= 10; step++) {
+                int destination = (origin + step * 7) % 100 + 1;
+                jdbcTemplate.update(
+                        "INSERT INTO transportations (origin_location_id, destination_location_id, transportation_type) "
+                                + "VALUES (?, ?, ?)",
+                        origin, destination, types[step % types.length]);
+                id++;
+                for (int day = 1; day <= 7; day += 2) {
+                    jdbcTemplate.update(
+                            "INSERT INTO transportation_operating_days (transportation_id, operating_days) VALUES (?, ?)",
+                            id, day);
+                }
+            }
+        }
+        jdbcTemplate.execute("ANALYZE");
+    }
+}
@@ -0,0 +1,112 @@
+package com.thy.flightroutes.repository;
+
+import com.thy.flightroutes.entity.Location;
+import com.thy.flightroutes.entity.Transportation;
+import com.thy.flightroutes.entity.Transportation.TransportationType;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Loads an all-pairs airport mesh, the shape TransportationDatabaseInitializer produces, once with JDBC
+ * batching switched off for the session (what IDENTITY ids forced) and once with the configured batch size.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+class TransportationBulkLoadBenchmarkTest {
+
+    private static final int AIRPORTS = 60;
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private TransportationRepository transportationRepository;
+
+    @Test
+    void meshLoad_batchedVersusUnbatched() {
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        Result unbatched = null;
+        Result batched = null;
+        for (int round = 0; round < ROUNDS; round++) {
+            unbatched = load(1, statistics);
+            batched = load(50, statistics);
+        }
+
+        System.out.printf("Mesh load, %d transportations: unbatched %.0f rows/s (%d statements), "
+                        + "batched %.0f rows/s (%d statements)%n",
+                batched.rows(), unbatched.rowsPerSecond(), unbatched.statements(),
+                batched.rowsPerSecond(), batched.statements());
+        assertThat(batched.statements() * 10).isLessThan(unbatched.statements());
+    }
+
+    private Result load(int batchSize, Statistics statistics) {
+        entityManager.createQuery("DELETE FROM Transportation").executeUpdate();
+        entityManager.createNativeQuery("DELETE FROM transportation_operating_days").executeUpdate();
+        entityManager.createQuery("DELETE FROM Location").executeUpdate();
+        entityManager.clear();
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+        statistics.clear();
+
+        long start = System.nanoTime();
+        List<Location> airports = new ArrayList<>();
+        for (int i = 0; i < AIRPORTS; i++) {
+            Location airport = new Location();
+            airport.setName("Airport " + i);
+            airport.setCountry("Country");
+            airport.setCity("City " + i);
+            airport.setLocationCode(String.format("%c%c%c", 'A' + i / 26 % 26, 'A' + i % 26, 'X'));
+            airport.setIsAirport(true);
+            airports.add(airport);
+        }
+        locationRepository.saveAll(airports);
+
+        List<Transportation> flights = new ArrayList<>();
+        for (Location origin : airports) {
+            for (Location destination : airports) {
+                if (origin != destination) {
+                    Transportation flight = new Transportation();
+                    flight.setOriginLocation(origin);
+                    flight.setDestinationLocation(destination);
+                    flight.setTransportationType(TransportationType.FLIGHT);
+                    flight.setOperatingDays(Set.of(1, 3, 5));
+                    flights.add(flight);
+                }
+            }
+        }
+        transportationRepository.saveAll(flights);
+        entityManager.flush();
+        long elapsed = System.nanoTime() - start;
+
+        entityManager.clear();
+        return new Result(flights.size(), elapsed, statistics.getPrepareStatementCount());
+    }
+
+    private record Result(int rows, long nanos, long statements) {
+        double rowsPerSecond() {
+            return rows * 1e9 / nanos;
+        }
+    }
+}
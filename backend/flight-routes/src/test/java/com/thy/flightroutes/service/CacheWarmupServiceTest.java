@@ -0,0 +1,108 @@
+package com.thy.flightroutes.service;
+
+import com.thy.flightroutes.dto.LocationDTO;
+import com.thy.flightroutes.dto.RouteRequestDTO;
+import com.thy.flightroutes.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CacheWarmupServiceTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    @Mock
+    private RouteService routeService;
+
+    @Mock
+    private LocationService locationService;
+
+    @InjectMocks
+    private CacheWarmupService cacheWarmupService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cacheWarmupService, "enabled", true);
+        ReflectionTestUtils.setField(cacheWarmupService, "topRoutes", 10);
+        ReflectionTestUtils.setField(cacheWarmupService, "topLocations", 5);
+        ReflectionTestUtils.setField(cacheWarmupService, "maxPerSecond", 0);
+    }
+
+    @Test
+    void warmUp_replaysTopEntriesOnTheirNextWeekday() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.unionAndStore(anyString(), anyCollection(), anyString())).thenReturn(1L);
+        when(zSetOperations.reverseRange(CacheWarmupService.LOCATION_KEY_PREFIX + "top", 0, 4))
+                .thenReturn(new LinkedHashSet<>(List.of("IST", "GONE")));
+        when(zSetOperations.reverseRange(CacheWarmupService.ROUTE_KEY_PREFIX + "top", 0, 9))
+                .thenReturn(new LinkedHashSet<>(List.of("IST|LHR|3", "malformed")));
+        when(locationService.getLocationByCode("IST")).thenReturn(new LocationDTO());
+        when(locationService.getLocationByCode("GONE")).thenThrow(new ResourceNotFoundException("Location not found"));
+        assertThat(cacheWarmupService.status().ready()).isFalse();
+
+        cacheWarmupService.warmUp();
+
+        ArgumentCaptor<RouteRequestDTO> request = ArgumentCaptor.forClass(RouteRequestDTO.class);
+        verify(routeService).findRoutes(request.capture());
+        assertThat(request.getValue().getOriginLocationCode()).isEqualTo("IST");
+        assertThat(request.getValue().getDestinationLocationCode()).isEqualTo("LHR");
+        assertThat(request.getValue().getDate())
+                .isEqualTo(LocalDate.now().with(TemporalAdjusters.nextOrSame(DayOfWeek.WEDNESDAY)));
+
+        CacheWarmupService.Status status = cacheWarmupService.status();
+        assertThat(status.ready()).isTrue();
+        assertThat(status.phase()).isEqualTo(CacheWarmupService.Phase.DONE);
+        assertThat(status.planned()).isEqualTo(4);
+        assertThat(status.completed()).isEqualTo(2);
+        assertThat(status.failed()).isEqualTo(2);
+    }
+
+    @Test
+    void flushFrequencies_pipelinesCountsIntoTodaysBucket() {
+        cacheWarmupService.recordRouteSearch(new RouteRequestDTO("IST", "LHR", LocalDate.of(2026, 10, 21)));
+        cacheWarmupService.recordRouteSearch(new RouteRequestDTO("IST", "LHR", LocalDate.of(2026, 10, 28)));
+
+        cacheWarmupService.flushFrequencies();
+        cacheWarmupService.flushFrequencies();
+
+        // The second flush has nothing left to write
+        verify(redisTemplate).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void status_isReadyWhenDisabled() {
+        ReflectionTestUtils.setField(cacheWarmupService, "enabled", false);
+
+        assertThat(cacheWarmupService.status().ready()).isTrue();
+        cacheWarmupService.recordLocationLookup("IST");
+        cacheWarmupService.flushFrequencies();
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+    }
+}
@@ -0,0 +1,102 @@
+package com.thy.flightroutes.service;
+
+import com.thy.flightroutes.dto.ChangeFeedDTO;
+import com.thy.flightroutes.dto.NetworkChangeDTO;
+import com.thy.flightroutes.entity.NetworkChange;
+import com.thy.flightroutes.repository.NetworkChangeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeFeedServiceTest {
+
+    @Mock
+    private NetworkChangeRepository networkChangeRepository;
+
+    @Mock
+    private DataVersionService dataVersionService;
+
+    @InjectMocks
+    private ChangeFeedService changeFeedService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(changeFeedService, "maxLimit", 100);
+    }
+
+    @Test
+    void changesSince_returnsChangesAfterTheCursorInPages() {
+        when(dataVersionService.currentVersion()).thenReturn(13L);
+        when(networkChangeRepository.findFirstVersion()).thenReturn(Optional.of(10L));
+        when(networkChangeRepository.findByVersionGreaterThanOrderByVersion(10L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(change(11), change(12), change(13)));
+
+        ChangeFeedDTO feed = changeFeedService.changesSince(10L, 2);
+
+        assertThat(feed.getChanges()).extracting(NetworkChangeDTO::getVersion).containsExactly(11L, 12L);
+        assertThat(feed.getChanges().get(0).getChange()).isEqualTo("{\"type\":\"transportation-removed\"}");
+        assertThat(feed.getCursor()).isEqualTo(12L);
+        assertThat(feed.getCurrentVersion()).isEqualTo(13L);
+        assertThat(feed.isHasMore()).isTrue();
+        assertThat(feed.isResyncRequired()).isFalse();
+    }
+
+    @Test
+    void changesSince_keepsTheCursorWhenUpToDate() {
+        when(dataVersionService.currentVersion()).thenReturn(13L);
+        when(networkChangeRepository.findFirstVersion()).thenReturn(Optional.of(10L));
+        when(networkChangeRepository.findByVersionGreaterThanOrderByVersion(13L, PageRequest.of(0, 101)))
+                .thenReturn(List.of());
+
+        ChangeFeedDTO feed = changeFeedService.changesSince(13L, 100);
+
+        assertThat(feed.getChanges()).isEmpty();
+        assertThat(feed.getCursor()).isEqualTo(13L);
+        assertThat(feed.isHasMore()).isFalse();
+        assertThat(feed.isResyncRequired()).isFalse();
+    }
+
+    @Test
+    void changesSince_requiresResyncWhenChangesAfterTheCursorAreGone() {
+        when(dataVersionService.currentVersion()).thenReturn(13L);
+        when(networkChangeRepository.findFirstVersion()).thenReturn(Optional.of(10L));
+        assertThat(changeFeedService.changesSince(8L, 100).isResyncRequired()).isTrue();
+        assertThat(changeFeedService.changesSince(9L, 100).isResyncRequired()).isFalse();
+
+        // Nothing kept at all, e.g. all writes predate the outbox
+        when(networkChangeRepository.findFirstVersion()).thenReturn(Optional.empty());
+        assertThat(changeFeedService.changesSince(0L, 100).isResyncRequired()).isTrue();
+
+        // A cursor ahead of the data, e.g. after a restore
+        assertThat(changeFeedService.changesSince(20L, 100).isResyncRequired()).isTrue();
+    }
+
+    @Test
+    void changesSince_rejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> changeFeedService.changesSince(-1L, 10));
+        assertThrows(IllegalArgumentException.class, () -> changeFeedService.changesSince(0L, 0));
+        assertThrows(IllegalArgumentException.class, () -> changeFeedService.changesSince(0L, 101));
+        verify(dataVersionService, never()).currentVersion();
+    }
+
+    private NetworkChange change(long version) {
+        return new NetworkChange(version, "transportation-removed", "{\"type\":\"transportation-removed\"}",
+                Instant.EPOCH, null);
+    }
+}
@@ -0,0 +1,99 @@
+package com.thy.flightroutes.service;
+
+import com.thy.flightroutes.entity.Transportation.TransportationType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConnectionScanTest {
+
+    private static final int CCIST = 0;
+    private static final int CCLON = 4;
+    private static final int[] ISTANBUL_AIRPORTS = {1, 2};
+    private static final int[] LONDON_AIRPORTS = {3};
+    private static final int MONDAY = 1;
+    private static final int SUNDAY = 7;
+
+    @Test
+    void search_returnsParetoFrontOnLegsAndArrival() {
+        RouteNetwork network = sampleNetwork(-1);
+
+        List<ConnectionScan.Journey> journeys = ConnectionScan.search(network, CCIST, CCLON,
+                ISTANBUL_AIRPORTS, LONDON_AIRPORTS, MONDAY, 0, 60);
+
+        // SAW has no transfer from Taksim, so its flight leaves without one; LHR has transfers, so one is needed
+        assertThat(journeys).extracting(journey -> ids(network, journey))
+                .containsExactly(List.of(-1L, 12L, 23L), List.of(1L, 10L, 21L));
+        assertThat(journeys.get(0).departure()).isEqualTo(12 * 60);
+        assertThat(journeys.get(0).arrival()).isEqualTo(16 * 60 + 15);
+        // Bus 20 at 11:30 is missed: the flight lands at 11:00 and LHR needs 60 minutes
+        assertThat(journeys.get(1).legs()).isEqualTo(3);
+        assertThat(journeys.get(1).departure()).isEqualTo(6 * 60);
+        assertThat(journeys.get(1).arrival()).isEqualTo(13 * 60);
+    }
+
+    @Test
+    void search_usesTheMinimumConnectionTimeOfTheLocation() {
+        RouteNetwork network = sampleNetwork(20);
+
+        List<ConnectionScan.Journey> journeys = ConnectionScan.search(network, CCIST, CCLON,
+                ISTANBUL_AIRPORTS, LONDON_AIRPORTS, MONDAY, 0, 60);
+
+        ConnectionScan.Journey earliest = journeys.get(journeys.size() - 1);
+        assertThat(ids(network, earliest)).containsExactly(1L, 10L, 20L);
+        assertThat(earliest.arrival()).isEqualTo(12 * 60 + 30);
+    }
+
+    @Test
+    void search_connectsOvernightIntoTheNextDay() {
+        RouteNetwork network = sampleNetwork(-1);
+
+        // The 06:00 bus is gone and the 07:30 Uber misses the morning flight at IST (90 minutes)
+        List<ConnectionScan.Journey> journeys = ConnectionScan.search(network, CCIST, CCLON,
+                ISTANBUL_AIRPORTS, LONDON_AIRPORTS, SUNDAY, 6 * 60 + 30, 60);
+
+        assertThat(journeys).hasSize(1);
+        assertThat(ids(network, journeys.get(0))).containsExactly(2L, 11L, 22L);
+        assertThat(journeys.get(0).departure()).isEqualTo(7 * 60 + 30);
+        assertThat(journeys.get(0).arrival()).isEqualTo(24 * 60 + 3 * 60);
+    }
+
+    @Test
+    void search_returnsNothingWhenNoFlightIsLeftThatDay() {
+        RouteNetwork network = sampleNetwork(-1);
+
+        assertThat(ConnectionScan.search(network, CCIST, CCLON, ISTANBUL_AIRPORTS, LONDON_AIRPORTS,
+                MONDAY, 23 * 60 + 30, 60)).isEmpty();
+    }
+
+    private List<Long> ids(RouteNetwork network, ConnectionScan.Journey journey) {
+        return List.of(journey.before() < 0 ? -1L : network.transportationId(journey.before()),
+                network.transportationId(journey.flight()),
+                journey.after() < 0 ? -1L : network.transportationId(journey.after()));
+    }
+
+    private RouteNetwork sampleNetwork(int heathrowMinConnection) {
+        byte bus = (byte) TransportationType.BUS.ordinal();
+        byte uber = (byte) TransportationType.UBER.ordinal();
+        byte flight = (byte) TransportationType.FLIGHT.ordinal();
+        return RouteNetwork.build(1L,
+                new long[]{101, 102, 103, 104, 105},
+                new boolean[]{false, true, true, true, false},
+                new String[]{"CCIST", "IST", "SAW", "LHR", "CCLON"},
+                new String[]{"Taksim", "Istanbul Airport", "Sabiha Gokcen", "Heathrow", "Westminster"},
+                new String[]{"Istanbul", "Istanbul", "Istanbul", "London", "London"},
+                new String[]{"Turkey", "Turkey", "Turkey", "UK", "UK"},
+                new int[]{-1, 90, -1, heathrowMinConnection, -1},
+                new long[]{1, 2, 10, 11, 12, 20, 21, 22, 23},
+                new int[]{0, 0, 1, 1, 2, 3, 3, 3, 3},
+                new int[]{1, 1, 3, 3, 3, 4, 4, 4, 4},
+                new byte[]{bus, uber, flight, flight, flight, bus, bus, uber, bus},
+                // SAW-LHR does not fly on Sundays
+                new byte[]{0x7F, 0x7F, 0x7F, 0x7F, 0x3F, 0x7F, 0x7F, 0x7F, 0x7F},
+                new short[]{6 * 60, 7 * 60 + 30, 8 * 60 + 45, 23 * 60, 12 * 60, 11 * 60 + 30, 12 * 60 + 15,
+                        2 * 60 + 30, 15 * 60 + 30},
+                new short[]{60, 30, 135, 150, 150, 60, 45, 30, 45});
+    }
+}
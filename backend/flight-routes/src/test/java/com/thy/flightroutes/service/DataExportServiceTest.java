@@ -0,0 +1,129 @@
+package com.thy.flightroutes.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.thy.flightroutes.dto.TransportationImportResultDTO;
+import com.thy.flightroutes.event.NetworkChangePublisher;
+import liquibase.integration.spring.SpringLiquibase;
+import org.h2.Driver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class DataExportServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private SimpleDriverDataSource dataSource;
+    private DataExportService exportService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new SimpleDriverDataSource(
+                new Driver(), "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE \"USER\" (id BIGINT NOT NULL, username VARCHAR(255))");
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:/db/changelog/db.changelog-master.yaml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+
+        jdbcTemplate.update("INSERT INTO locations (id, name, country, city, location_code, is_airport, "
+                + "min_connection_minutes) VALUES (1, 'Taksim, Meydan', 'Turkey', 'Istanbul', 'CCIST', false, NULL), "
+                + "(2, 'Istanbul Airport', 'Turkey', 'Istanbul', 'IST', true, 45), "
+                + "(3, 'Heathrow', 'UK', 'London', 'LHR', true, NULL)");
+        jdbcTemplate.update("INSERT INTO transportations (id, origin_location_id, destination_location_id, "
+                + "transportation_type, departure_time, arrival_time) VALUES (10, 1, 2, 'BUS', NULL, NULL), "
+                + "(11, 2, 3, 'FLIGHT', '09:00:00', '11:50:00')");
+        jdbcTemplate.update("INSERT INTO transportation_operating_days (transportation_id, operating_days) "
+                + "VALUES (10, 1), (10, 2), (10, 7), (11, 5), (11, 3)");
+
+        exportService = new DataExportService(dataSource, new DataSourceTransactionManager(dataSource), objectMapper, 2);
+    }
+
+    @Test
+    void exportTransportationsCsv_foldsOperatingDaysIntoOneRow() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.exportTransportations(DataExportService.Format.CSV, out);
+
+        assertThat(rows).isEqualTo(2);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "id,originLocationCode,destinationLocationCode,transportationType,operatingDays,departureTime,arrivalTime\n"
+                        + "10,CCIST,IST,BUS,1;2;7,,\n"
+                        + "11,IST,LHR,FLIGHT,3;5,09:00,11:50\n");
+    }
+
+    @Test
+    void exportLocationsNdjson_writesOneObjectPerLine() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportLocations(DataExportService.Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(3);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("name").asText()).isEqualTo("Taksim, Meydan");
+        assertThat(first.has("minConnectionMinutes")).isFalse();
+        assertThat(objectMapper.readTree(lines[1]).get("minConnectionMinutes").asInt()).isEqualTo(45);
+    }
+
+    @Test
+    void exportColumnar_writesRowGroupsColumnByColumn() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportTransportations(DataExportService.Format.COLUMNAR, out);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+        assertThat(in.readInt()).isEqualTo(ExportWriter.Columnar.MAGIC);
+        assertThat(in.readInt()).isEqualTo(ExportWriter.Columnar.FORMAT_VERSION);
+        int columns = in.readInt();
+        assertThat(columns).isEqualTo(DataExportService.TRANSPORTATION_COLUMNS.size());
+        for (int c = 0; c < columns; c++) {
+            in.skipNBytes(in.readInt());
+            in.readByte();
+        }
+        assertThat(in.readInt()).isEqualTo(2);
+        // id column: null bitmap, then the ids
+        assertThat(in.readInt()).isEqualTo(1 + 2 * Long.BYTES);
+        assertThat(in.readByte()).isZero();
+        assertThat(in.readLong()).isEqualTo(10L);
+        assertThat(in.readLong()).isEqualTo(11L);
+        for (int c = 1; c < columns; c++) {
+            in.skipNBytes(in.readInt());
+        }
+        assertThat(in.readInt()).isZero();
+        assertThat(in.available()).isZero();
+    }
+
+    @Test
+    void exportCsv_importsBackWithoutChanges() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportTransportations(DataExportService.Format.CSV, out);
+        TransportationImportService importService = new TransportationImportService(new JdbcTemplate(dataSource),
+                new DataSourceTransactionManager(dataSource), objectMapper, mock(NetworkChangePublisher.class));
+        ReflectionTestUtils.setField(importService, "chunkSize", 100);
+
+        TransportationImportResultDTO result = importService.importTransportations(
+                new ByteArrayInputStream(out.toByteArray()), TransportationImportService.Format.CSV);
+
+        assertThat(result.getUpdated()).isEqualTo(2);
+        assertThat(result.getCreated()).isZero();
+        assertThat(result.getFailed()).isZero();
+    }
+}
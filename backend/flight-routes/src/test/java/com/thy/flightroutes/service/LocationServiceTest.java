@@ -2,6 +2,7 @@ package com.thy.flightroutes.service;
 
 import com.thy.flightroutes.dto.LocationDTO;
 import com.thy.flightroutes.entity.Location;
+import com.thy.flightroutes.event.NetworkChangePublisher;
 import com.thy.flightroutes.exception.ResourceNotFoundException;
 import com.thy.flightroutes.repository.LocationRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +12,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -24,6 +26,9 @@ class LocationServiceTest {
     @Mock
     private LocationRepository locationRepository;
 
+    @Mock
+    private NetworkChangePublisher networkChangePublisher;
+
     @InjectMocks
     private LocationService locationService;
 
@@ -115,20 +120,21 @@ class LocationServiceTest {
 
     @Test
     void deleteLocation_whenExists_shouldDelete() {
-        when(locationRepository.existsById(1L)).thenReturn(true);
+        when(locationRepository.findById(1L)).thenReturn(Optional.of(existingLocation));
 
         locationService.deleteLocation(1L);
 
-        verify(locationRepository).existsById(1L);
+        verify(locationRepository).findById(1L);
         verify(locationRepository).deleteById(1L);
+        verify(networkChangePublisher).locationChanged(1L, List.of("İstanbul"));
     }
 
     @Test
     void deleteLocation_whenNotExists_shouldThrowException() {
-        when(locationRepository.existsById(1L)).thenReturn(false);
+        when(locationRepository.findById(1L)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> locationService.deleteLocation(1L));
-        verify(locationRepository).existsById(1L);
+        verify(locationRepository).findById(1L);
         verify(locationRepository, never()).deleteById(any());
     }
 }
\ No newline at end of file
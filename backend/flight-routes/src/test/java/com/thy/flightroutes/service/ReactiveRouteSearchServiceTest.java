@@ -0,0 +1,214 @@
+package com.thy.flightroutes.service;
+
+import com.thy.flightroutes.dto.RouteDTO;
+import com.thy.flightroutes.dto.RouteRequestDTO;
+import com.thy.flightroutes.entity.DataVersion;
+import com.thy.flightroutes.entity.Location;
+import com.thy.flightroutes.entity.Transportation;
+import com.thy.flightroutes.entity.Transportation.TransportationType;
+import com.thy.flightroutes.repository.LocationRepository;
+import com.thy.flightroutes.repository.TransportationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.transaction.PlatformTransactionManager;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveRouteSearchServiceTest {
+
+    private static final LocalDate WEDNESDAY = LocalDate.of(2026, 10, 21);
+    private static final RouteRequestDTO REQUEST = new RouteRequestDTO("CCIST", "CCLON", WEDNESDAY);
+    private static final String KEY = "routes::origin_CCIST_dest_CCLON_date_2026-10-21";
+    private static final DataVersion VERSION = new DataVersion(DataVersion.SINGLETON_ID, 7L, Instant.EPOCH);
+
+    @Mock
+    private TransportationRepository transportationRepository;
+
+    @Mock
+    private LocationRepository locationRepository;
+
+    @Mock
+    private RouteService routeService;
+
+    @Mock
+    private RouteCandidateService routeCandidateService;
+
+    @Mock
+    private RouteNetworkService routeNetworkService;
+
+    @Mock
+    private RouteResultCache routeResultCache;
+
+    @Mock
+    private ReactiveRedisTemplate<String, Object> reactiveCacheTemplate;
+
+    @Mock
+    private ReactiveValueOperations<String, Object> valueOperations;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ReactiveRouteSearchService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ReactiveRouteSearchService(transportationRepository, locationRepository, routeService,
+                routeCandidateService, routeNetworkService, new RouteMatrixBuilder(1, Integer.MAX_VALUE),
+                routeResultCache, reactiveCacheTemplate, transactionManager, 4, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void cacheKey_matchesBlockingSearch() {
+        assertThat(ReactiveRouteSearchService.cacheKey(RouteResultCache.key(REQUEST))).isEqualTo(KEY);
+    }
+
+    @Test
+    void findRoutes_returnsCachedRoutesWithoutQuerying() {
+        RouteDTO cached = RouteDTO.builder().originLocationName("Taksim").build();
+        CachedRoutes entry = entry(cached);
+        when(reactiveCacheTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(KEY)).thenReturn(Mono.just(entry));
+        when(routeResultCache.freshness(entry)).thenReturn(RouteResultCache.Freshness.FRESH);
+
+        List<RouteDTO> routes = service.findRoutes(REQUEST).collectList().block();
+
+        assertThat(routes).containsExactly(cached);
+        verifyNoInteractions(transportationRepository, locationRepository, routeService);
+    }
+
+    @Test
+    void findRoutes_servesStaleRoutesAndRefreshesInBackground() {
+        RouteDTO stale = RouteDTO.builder().originLocationName("Taksim").build();
+        CachedRoutes entry = entry(stale);
+        when(reactiveCacheTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(KEY)).thenReturn(Mono.just(entry));
+        when(routeResultCache.freshness(entry)).thenReturn(RouteResultCache.Freshness.STALE);
+
+        List<RouteDTO> routes = service.findRoutes(REQUEST).collectList().block();
+
+        assertThat(routes).containsExactly(stale);
+        verify(routeResultCache).refreshInBackground(eq(RouteResultCache.key(REQUEST)), any(), any());
+        verifyNoInteractions(transportationRepository, locationRepository);
+    }
+
+    @Test
+    void findRoutes_runsLegQueriesConcurrentlyAndCachesResult() {
+        CachedRoutes entry = entry();
+        when(reactiveCacheTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(KEY)).thenReturn(Mono.empty());
+        when(routeResultCache.currentVersion()).thenReturn(VERSION);
+        when(routeResultCache.newEntry(eq(RouteResultCache.key(REQUEST)), any(), eq(VERSION))).thenReturn(entry);
+        when(valueOperations.set(eq(KEY), eq(entry), any(Duration.class))).thenReturn(Mono.just(true));
+        stubNetwork();
+
+        List<RouteDTO> routes = service.findRoutes(REQUEST).collectList().block();
+
+        assertThat(routes).hasSize(1);
+        RouteDTO route = routes.get(0);
+        assertThat(route.getBeforeFlight().getId()).isEqualTo(1L);
+        assertThat(route.getFlight().getId()).isEqualTo(2L);
+        assertThat(route.getAfterFlight().getId()).isEqualTo(3L);
+        verify(routeResultCache).newEntry(RouteResultCache.key(REQUEST), routes, VERSION);
+        verify(valueOperations).set(eq(KEY), eq(entry), any(Duration.class));
+    }
+
+    @Test
+    void findRoutes_searchesWhenCacheIsUnavailable() {
+        when(reactiveCacheTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(KEY)).thenReturn(Mono.error(new IllegalStateException("connection refused")));
+        when(routeResultCache.currentVersion()).thenReturn(VERSION);
+        when(routeResultCache.newEntry(eq(RouteResultCache.key(REQUEST)), any(), eq(VERSION))).thenReturn(entry());
+        when(valueOperations.set(eq(KEY), any(), any(Duration.class)))
+                .thenReturn(Mono.error(new IllegalStateException("connection refused")));
+        stubNetwork();
+
+        List<RouteDTO> routes = service.findRoutes(REQUEST).collectList().block();
+
+        assertThat(routes).hasSize(1);
+    }
+
+    private static CachedRoutes entry(RouteDTO... routes) {
+        return new CachedRoutes(new ArrayList<>(List.of(routes)), VERSION.getVersion(), 0L, 60_000L, 0L);
+    }
+
+    private void stubNetwork() {
+        Location taksim = location(10L, "CCIST", "Istanbul");
+        Location ist = location(11L, "IST", "Istanbul");
+        Location lhr = location(12L, "LHR", "London");
+        Location westminster = location(13L, "CCLON", "London");
+        when(locationRepository.findByLocationCode("CCIST")).thenReturn(Optional.of(taksim));
+        when(locationRepository.findByLocationCode("CCLON")).thenReturn(Optional.of(westminster));
+        when(locationRepository.findByCity("Istanbul")).thenReturn(List.of(taksim, ist));
+        when(locationRepository.findByCity("London")).thenReturn(List.of(westminster, lhr));
+
+        // Each leg query waits for the other two, so the search only completes if they overlap
+        CountDownLatch allLegsStarted = new CountDownLatch(3);
+        int day = WEDNESDAY.getDayOfWeek().getValue();
+        when(transportationRepository.findByOriginLocationAndTransportationTypeNotAndOperatingDaysContaining(
+                taksim, TransportationType.FLIGHT, day))
+                .thenAnswer(invocation -> awaitOthers(allLegsStarted, transportation(1L, taksim, ist, TransportationType.BUS)));
+        when(transportationRepository.findByOriginLocationInAndDestinationLocationInAndTransportationTypeAndOperatingDaysContaining(
+                List.of(ist), List.of(lhr), TransportationType.FLIGHT, day))
+                .thenAnswer(invocation -> awaitOthers(allLegsStarted, transportation(2L, ist, lhr, TransportationType.FLIGHT)));
+        when(transportationRepository.findByDestinationLocationAndTransportationTypeNotAndOperatingDaysContaining(
+                westminster, TransportationType.FLIGHT, day))
+                .thenAnswer(invocation -> awaitOthers(allLegsStarted, transportation(3L, lhr, westminster, TransportationType.UBER)));
+    }
+
+    private static List<Transportation> awaitOthers(CountDownLatch latch, Transportation result)
+            throws InterruptedException {
+        latch.countDown();
+        assertThat(latch.await(5, TimeUnit.SECONDS)).as("leg queries ran concurrently").isTrue();
+        return List.of(result);
+    }
+
+    private static Location location(Long id, String code, String city) {
+        Location location = new Location();
+        location.setId(id);
+        location.setLocationCode(code);
+        location.setName(code);
+        location.setCity(city);
+        location.setCountry("Country");
+        location.setIsAirport(code.length() == 3);
+        return location;
+    }
+
+    private static Transportation transportation(Long id, Location origin, Location destination,
+                                                 TransportationType type) {
+        Transportation transportation = new Transportation();
+        transportation.setId(id);
+        transportation.setOriginLocation(origin);
+        transportation.setDestinationLocation(destination);
+        transportation.setTransportationType(type);
+        transportation.setOperatingDays(Set.of(3));
+        return transportation;
+    }
+}
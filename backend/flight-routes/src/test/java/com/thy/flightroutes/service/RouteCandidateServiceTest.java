@@ -0,0 +1,231 @@
+package com.thy.flightroutes.service;
+
+import com.thy.flightroutes.dto.RouteDTO;
+import com.thy.flightroutes.dto.RouteRequestDTO;
+import com.thy.flightroutes.dto.TransportationDTO;
+import com.thy.flightroutes.entity.DataVersion;
+import com.thy.flightroutes.entity.Location;
+import com.thy.flightroutes.entity.RouteCandidate;
+import com.thy.flightroutes.entity.Transportation.TransportationType;
+import com.thy.flightroutes.event.NetworkChangePublisher;
+import com.thy.flightroutes.repository.DataVersionRepository;
+import com.thy.flightroutes.repository.LocationRepository;
+import com.thy.flightroutes.repository.RouteCandidateRepository;
+import com.thy.flightroutes.repository.TransportationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Writes through TransportationService, so the candidates are maintained by the same events as in production,
+ * and checks that every search answered from the table returns the itineraries the live search builds.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({RouteCandidateService.class, TransportationService.class, NetworkChangePublisher.class,
+        DataVersionService.class, JacksonAutoConfiguration.class})
+@TestPropertySource(properties = {"routes.candidates.enabled=true", "spring.jpa.show-sql=false"})
+class RouteCandidateServiceTest {
+
+    // Monday, so the week after it covers every operating day
+    private static final LocalDate MONDAY = LocalDate.of(2026, 10, 19);
+
+    @Autowired
+    private RouteCandidateService routeCandidateService;
+
+    @Autowired
+    private TransportationService transportationService;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private TransportationRepository transportationRepository;
+
+    @Autowired
+    private RouteCandidateRepository routeCandidateRepository;
+
+    @Autowired
+    private DataVersionRepository dataVersionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private RouteMatrixBuilder routeMatrixBuilder;
+    private RouteSearchExecutor routeSearchExecutor;
+    private RouteService routeService;
+    private List<Location> locations;
+
+    @BeforeEach
+    void setUp() {
+        dataVersionService.initialize();
+        locations = locationRepository.saveAll(List.of(
+                location("Istanbul Airport", "Istanbul", "IST"),
+                location("Sabiha Gokcen", "Istanbul", "SAW"),
+                location("Taksim Square", "Istanbul", "CCIST"),
+                location("Heathrow", "London", "LHR"),
+                location("Wembley Stadium", "London", "CCLON")));
+
+        // Live search: candidates and the in-memory network switched off
+        routeMatrixBuilder = new RouteMatrixBuilder(0, 2000);
+        routeSearchExecutor = new RouteSearchExecutor(transactionManager, 4, 100, Duration.ofSeconds(5));
+        routeService = new RouteService(transportationRepository, locationRepository,
+                mock(RouteCandidateService.class), routeMatrixBuilder, mock(RouteNetworkService.class),
+                new SimpleMeterRegistry(), routeSearchExecutor, mock(RouteResultCache.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        routeSearchExecutor.shutdown();
+        routeMatrixBuilder.shutdown();
+        routeCandidateRepository.deleteAll();
+        transportationRepository.deleteAll();
+        locationRepository.deleteAll();
+        dataVersionRepository.deleteAll();
+    }
+
+    @Test
+    void candidates_matchTheLiveSearchAfterEveryWrite() {
+        routeCandidateService.initialize();
+
+        TransportationDTO istanbulLondon = create(TransportationType.FLIGHT, "IST", "LHR", 1, 2, 3, 4, 5, 6, 7);
+        create(TransportationType.FLIGHT, "SAW", "LHR", 2, 4);
+        TransportationDTO bus = create(TransportationType.BUS, "CCIST", "IST", 1, 2, 3);
+        TransportationDTO uber = create(TransportationType.UBER, "LHR", "CCLON", 1, 3, 5);
+        assertThat(routeCandidateRepository.count()).isPositive();
+        assertCandidatesMatchLiveSearch();
+
+        create(TransportationType.SUBWAY, "CCIST", "SAW", 4, 5);
+        assertCandidatesMatchLiveSearch();
+
+        // New endpoints: the itineraries through the old ones must go
+        update(bus.getId(), TransportationType.BUS, "CCIST", "SAW", 6, 7);
+        update(istanbulLondon.getId(), TransportationType.FLIGHT, "IST", "LHR", 1, 2);
+        assertCandidatesMatchLiveSearch();
+
+        transportationService.deleteTransportation(uber.getId());
+        transportationService.deleteTransportation(istanbulLondon.getId());
+        assertCandidatesMatchLiveSearch();
+    }
+
+    @Test
+    void initialize_rebuildsOnlyATableLeftBehindTheData() {
+        routeCandidateService.initialize();
+        create(TransportationType.FLIGHT, "IST", "LHR", 1, 2, 3);
+        assertThat(candidatesVersion()).isEqualTo(dataVersionService.currentVersion());
+
+        // A write while the table is not maintained, e.g. by an instance running with candidates switched off
+        RouteCandidateService target = AopTestUtils.getTargetObject(routeCandidateService);
+        ReflectionTestUtils.setField(target, "enabled", false);
+        create(TransportationType.FLIGHT, "SAW", "LHR", 1, 2, 3);
+        ReflectionTestUtils.setField(target, "enabled", true);
+        create(TransportationType.BUS, "CCIST", "IST", 1);
+        assertThat(candidatesVersion()).isLessThan(dataVersionService.currentVersion());
+
+        routeCandidateService.initialize();
+        assertThat(candidatesVersion()).isEqualTo(dataVersionService.currentVersion());
+        assertCandidatesMatchLiveSearch();
+
+        // Up to date: the next start keeps the rows as they are
+        List<Long> ids = routeCandidateRepository.findAll().stream().map(RouteCandidate::getId).toList();
+        routeCandidateService.initialize();
+        assertThat(routeCandidateRepository.findAll()).extracting(RouteCandidate::getId)
+                .containsExactlyInAnyOrderElementsOf(ids);
+    }
+
+    private void assertCandidatesMatchLiveSearch() {
+        for (Location origin : locations) {
+            for (Location destination : locations) {
+                if (origin.getId().equals(destination.getId())) {
+                    continue;
+                }
+                for (int day = 0; day < 7; day++) {
+                    LocalDate date = MONDAY.plusDays(day);
+                    List<RouteDTO> live = routeService.searchRoutes(new RouteRequestDTO(
+                            origin.getLocationCode(), destination.getLocationCode(), date));
+                    List<RouteDTO> candidates = routeCandidateService.findRoutes(origin, destination, date);
+                    assertThat(legs(candidates))
+                            .as("%s -> %s on %s", origin.getLocationCode(), destination.getLocationCode(), date)
+                            .containsExactlyInAnyOrderElementsOf(legs(live));
+                }
+            }
+        }
+    }
+
+    private List<List<Long>> legs(List<RouteDTO> routes) {
+        List<List<Long>> legs = new ArrayList<>();
+        for (RouteDTO route : routes) {
+            legs.add(Arrays.asList(id(route.getBeforeFlight()), id(route.getFlight()),
+                    id(route.getAfterFlight())));
+        }
+        return legs;
+    }
+
+    private Long id(TransportationDTO transportation) {
+        return transportation != null ? transportation.getId() : null;
+    }
+
+    private Long candidatesVersion() {
+        return dataVersionRepository.findById(DataVersion.SINGLETON_ID)
+                .map(DataVersion::getRouteCandidatesVersion)
+                .orElse(null);
+    }
+
+    private TransportationDTO create(TransportationType type, String origin, String destination, Integer... days) {
+        return transportationService.createTransportation(transportation(type, origin, destination, days));
+    }
+
+    private void update(Long id, TransportationType type, String origin, String destination, Integer... days) {
+        transportationService.updateTransportation(id, transportation(type, origin, destination, days));
+    }
+
+    private TransportationDTO transportation(TransportationType type, String origin, String destination,
+                                             Integer... days) {
+        return new TransportationDTO(null, locationId(origin), locationId(destination), type, Set.of(days));
+    }
+
+    private Long locationId(String code) {
+        return locations.stream()
+                .filter(location -> Objects.equals(location.getLocationCode(), code))
+                .findFirst()
+                .orElseThrow()
+                .getId();
+    }
+
+    private Location location(String name, String city, String code) {
+        Location location = new Location();
+        location.setName(name);
+        location.setCountry(city.equals("London") ? "United Kingdom" : "Turkey");
+        location.setCity(city);
+        location.setLocationCode(code);
+        location.setIsAirport(code.length() == 3);
+        return location;
+    }
+}
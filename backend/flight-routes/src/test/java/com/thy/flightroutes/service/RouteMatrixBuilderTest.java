@@ -0,0 +1,73 @@
+package com.thy.flightroutes.service;
+
+import com.thy.flightroutes.dto.RouteDTO;
+import com.thy.flightroutes.dto.TransportationDTO;
+import com.thy.flightroutes.entity.Transportation.TransportationType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RouteMatrixBuilderTest {
+
+    private final RouteMatrixBuilder serialBuilder = new RouteMatrixBuilder(1, Integer.MAX_VALUE);
+    private final RouteMatrixBuilder parallelBuilder = new RouteMatrixBuilder(4, 0);
+
+    private long nextId = 1;
+
+    @AfterEach
+    void tearDown() {
+        serialBuilder.shutdown();
+        parallelBuilder.shutdown();
+    }
+
+    @Test
+    void build_matchesTransfersToFlightAirports() {
+        // Taksim(10) -> IST(1) / SAW(2) -> LHR(3) -> Wembley(20)
+        TransportationDTO taksimToIst = transportation(10L, 1L, TransportationType.BUS);
+        TransportationDTO istToLhr = transportation(1L, 3L, TransportationType.FLIGHT);
+        TransportationDTO sawToLhr = transportation(2L, 3L, TransportationType.FLIGHT);
+        TransportationDTO lhrToWembley = transportation(3L, 20L, TransportationType.SUBWAY);
+
+        List<RouteDTO> routes = serialBuilder.build("Taksim", "Wembley",
+                List.of(taksimToIst), List.of(istToLhr, sawToLhr), List.of(lhrToWembley));
+
+        assertThat(routes).hasSize(2);
+        assertThat(routes.get(0).getBeforeFlight()).isEqualTo(taksimToIst);
+        assertThat(routes.get(0).getFlight()).isEqualTo(istToLhr);
+        assertThat(routes.get(0).getAfterFlight()).isEqualTo(lhrToWembley);
+        assertThat(routes.get(1).getBeforeFlight()).isNull();
+        assertThat(routes.get(1).getFlight()).isEqualTo(sawToLhr);
+        assertThat(routes.get(1).getAfterFlight()).isEqualTo(lhrToWembley);
+    }
+
+    @Test
+    void build_parallelExpansionKeepsSerialOrder() {
+        List<TransportationDTO> before = new ArrayList<>();
+        List<TransportationDTO> flights = new ArrayList<>();
+        List<TransportationDTO> after = new ArrayList<>();
+        for (long airport = 1; airport <= 8; airport++) {
+            for (int transfer = 0; transfer < 5; transfer++) {
+                before.add(transportation(100L + transfer, airport, TransportationType.UBER));
+                after.add(transportation(airport + 50, 200L + transfer, TransportationType.BUS));
+            }
+            for (long arrival = 51; arrival <= 58; arrival++) {
+                flights.add(transportation(airport, arrival, TransportationType.FLIGHT));
+            }
+        }
+
+        List<RouteDTO> serial = serialBuilder.build("A", "B", before, flights, after);
+        List<RouteDTO> parallel = parallelBuilder.build("A", "B", before, flights, after);
+
+        assertThat(serial).hasSize(64 * 25);
+        assertThat(parallel).containsExactlyElementsOf(serial);
+    }
+
+    private TransportationDTO transportation(Long originId, Long destinationId, TransportationType type) {
+        return new TransportationDTO(nextId++, originId, destinationId, type, Set.of(1, 2, 3, 4, 5, 6, 7));
+    }
+}
@@ -0,0 +1,279 @@
+package com.thy.flightroutes.service;
+
+import com.thy.flightroutes.config.ServedDataVersion;
+import com.thy.flightroutes.dto.LocationDTO;
+import com.thy.flightroutes.dto.RouteDTO;
+import com.thy.flightroutes.dto.RouteMatrixCellDTO;
+import com.thy.flightroutes.dto.RouteMatrixRequestDTO;
+import com.thy.flightroutes.dto.RouteRequestDTO;
+import com.thy.flightroutes.entity.Location;
+import com.thy.flightroutes.entity.Transportation.TransportationType;
+import com.thy.flightroutes.event.NetworkChangeEvent.ImportChunkCommitted;
+import com.thy.flightroutes.event.NetworkChangeEvent.TransportationAdded;
+import com.thy.flightroutes.event.NetworkChangeEvent.TransportationData;
+import com.thy.flightroutes.event.NetworkChangeEvent.TransportationRemoved;
+import com.thy.flightroutes.event.NetworkChangeEvent.TransportationUpdated;
+import com.thy.flightroutes.exception.ResourceNotFoundException;
+import com.thy.flightroutes.repository.LocationRepository;
+import com.thy.flightroutes.repository.TransportationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RouteNetworkServiceTest {
+
+    // 2026-10-19 is a Monday
+    private static final LocalDate MONDAY = LocalDate.of(2026, 10, 19);
+
+    @Mock
+    private LocationRepository locationRepository;
+
+    @Mock
+    private TransportationRepository transportationRepository;
+
+    @Mock
+    private DataVersionService dataVersionService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private RouteMatrixBuilder routeMatrixBuilder = new RouteMatrixBuilder(2, 2000);
+
+    @InjectMocks
+    private RouteNetworkService routeNetworkService;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(routeNetworkService, "network", sampleNetwork());
+        ReflectionTestUtils.setField(routeNetworkService, "maxMatrixCells", 1000L);
+        when(dataVersionService.currentVersion()).thenReturn(1L);
+    }
+
+    @Test
+    void findRouteMatrix_countsMatchIndividualSearches() {
+        List<String> codes = List.of("CCIST", "IST", "SAW", "LHR", "LGW", "CCLON");
+        List<RouteMatrixCellDTO> cells = routeNetworkService.findRouteMatrix(
+                new RouteMatrixRequestDTO(codes, codes, MONDAY, MONDAY.plusDays(6)));
+
+        assertThat(cells).hasSize(6 * 5 * 7);
+        for (RouteMatrixCellDTO cell : cells) {
+            int routes = routeNetworkService.findRoutes(new RouteRequestDTO(
+                    cell.getOriginLocationCode(), cell.getDestinationLocationCode(), cell.getDate())).size();
+            assertThat(cell.getRouteCount()).as("%s -> %s on %s", cell.getOriginLocationCode(),
+                    cell.getDestinationLocationCode(), cell.getDate()).isEqualTo(routes);
+            assertThat(cell.getBestRoute() != null).isEqualTo(routes > 0);
+        }
+    }
+
+    @Test
+    void findRouteMatrix_picksFewestSegmentsThenLowestFlightId() {
+        List<RouteMatrixCellDTO> cells = routeNetworkService.findRouteMatrix(
+                new RouteMatrixRequestDTO(List.of("CCIST"), List.of("CCLON", "LHR"), MONDAY, MONDAY));
+
+        RouteMatrixCellDTO toCity = cells.get(0);
+        // 2 x IST-LHR with the bus, 2 x IST-LGW, 1 x SAW-LGW; the LGW transfer does not run on Mondays
+        assertThat(toCity.getRouteCount()).isEqualTo(5);
+        assertThat(toCity.getBestRoute().getBeforeFlight().getId()).isEqualTo(3L);
+        assertThat(toCity.getBestRoute().getFlight().getId()).isEqualTo(11L);
+        assertThat(toCity.getBestRoute().getAfterFlight()).isNull();
+
+        RouteMatrixCellDTO toAirport = cells.get(1);
+        assertThat(toAirport.getRouteCount()).isEqualTo(2);
+        assertThat(toAirport.getBestRoute().getBeforeFlight().getId()).isEqualTo(1L);
+        assertThat(toAirport.getBestRoute().getFlight().getId()).isEqualTo(10L);
+        assertThat(toAirport.getBestRoute().getOriginLocationName()).isEqualTo("Taksim");
+    }
+
+    @Test
+    void findRouteMatrix_rejectsUnknownLocationsAndOversizedRequests() {
+        assertThrows(ResourceNotFoundException.class, () -> routeNetworkService.findRouteMatrix(
+                new RouteMatrixRequestDTO(List.of("XXX"), List.of("LHR"), MONDAY, MONDAY)));
+        assertThrows(IllegalArgumentException.class, () -> routeNetworkService.findRouteMatrix(
+                new RouteMatrixRequestDTO(List.of("IST"), List.of("LHR"), MONDAY, MONDAY.plusDays(1000))));
+    }
+
+    @Test
+    void findReachableLocations_matchesIndividualSearches() {
+        List<String> codes = List.of("CCIST", "IST", "SAW", "LHR", "LGW", "CCLON");
+        for (int day = 0; day < 7; day++) {
+            LocalDate date = MONDAY.plusDays(day);
+            for (String origin : codes) {
+                List<String> expected = codes.stream()
+                        .filter(destination -> !destination.equals(origin))
+                        .filter(destination -> !routeNetworkService.findRoutes(
+                                new RouteRequestDTO(origin, destination, date)).isEmpty())
+                        .sorted()
+                        .toList();
+                assertThat(routeNetworkService.findReachableLocations(origin, date))
+                        .extracting(LocationDTO::getLocationCode)
+                        .as("%s on %s", origin, date)
+                        .containsExactlyElementsOf(expected);
+            }
+        }
+        assertThat(routeNetworkService.findReachableLocations("CCIST", MONDAY.plusDays(1)))
+                .extracting(LocationDTO::getLocationCode)
+                .containsExactly("CCLON", "LGW");
+    }
+
+    @Test
+    void onNetworkChange_addedTransportationIsFoundWithoutRebuild() {
+        startChangeFeed();
+        assertThat(routeNetworkService.findRoutes(new RouteRequestDTO("SAW", "LHR", MONDAY))).isEmpty();
+
+        routeNetworkService.onNetworkChange(new TransportationAdded(2L, new TransportationData(
+                13L, 103L, 104L, TransportationType.FLIGHT, Set.of(1, 2, 3, 4, 5, 6, 7), null, null)));
+        when(dataVersionService.currentVersion()).thenReturn(2L);
+
+        assertThat(routeNetworkService.current().version()).isEqualTo(2L);
+        assertThat(routeNetworkService.current().transportationCount()).isEqualTo(9);
+        assertThat(routeNetworkService.findRoutes(new RouteRequestDTO("SAW", "LHR", MONDAY)))
+                .extracting(route -> route.getFlight().getId())
+                .containsExactly(13L);
+        assertThat(routeNetworkService.findRoutes(new RouteRequestDTO("CCIST", "LHR", MONDAY)))
+                .extracting(route -> route.getFlight().getId())
+                .containsExactly(10L, 10L, 13L);
+    }
+
+    @Test
+    void onNetworkChange_removedAndUpdatedTransportationsAreApplied() {
+        startChangeFeed();
+
+        // Out of order: v3 waits for v2
+        routeNetworkService.onNetworkChange(new TransportationUpdated(3L, new TransportationData(
+                12L, 102L, 105L, TransportationType.FLIGHT, Set.of(2), null, null)));
+        routeNetworkService.onNetworkChange(new TransportationRemoved(2L, 10L));
+        when(dataVersionService.currentVersion()).thenReturn(3L);
+
+        assertThat(routeNetworkService.current().version()).isEqualTo(3L);
+        assertThat(routeNetworkService.current().transportationCount()).isEqualTo(7);
+        assertThat(routeNetworkService.findRoutes(new RouteRequestDTO("IST", "LHR", MONDAY))).isEmpty();
+        assertThat(routeNetworkService.findRoutes(new RouteRequestDTO("IST", "LGW", MONDAY))).isEmpty();
+        List<RouteDTO> tuesday = routeNetworkService.findRoutes(new RouteRequestDTO("IST", "LGW", MONDAY.plusDays(1)));
+        assertThat(tuesday).extracting(route -> route.getFlight().getId()).containsExactly(12L);
+    }
+
+    @Test
+    void onNetworkChange_importChunksWaitForTheClosingRebuild() {
+        startChangeFeed();
+
+        routeNetworkService.onNetworkChange(new ImportChunkCommitted(2L));
+        routeNetworkService.onNetworkChange(new ImportChunkCommitted(3L));
+        when(dataVersionService.currentVersion()).thenReturn(3L);
+
+        assertThat(routeNetworkService.current().version()).isEqualTo(3L);
+        assertThat(routeNetworkService.current().transportationCount()).isEqualTo(8);
+        verify(locationRepository, never()).findAll();
+    }
+
+    @Test
+    void current_recordsTheVersionServedWhileWaitingForChanges() {
+        startChangeFeed();
+        // Version 2 is committed, its event has not arrived yet
+        when(dataVersionService.currentVersion()).thenReturn(2L);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/routes/search");
+
+        RouteNetwork served = ServedDataVersion.callFor(request, routeNetworkService::current);
+
+        assertThat(served.version()).isEqualTo(1L);
+        assertThat(request.getAttribute(ServedDataVersion.class.getName())).isEqualTo(1L);
+        assertThat(RequestContextHolder.getRequestAttributes()).isNull();
+    }
+
+    @Test
+    void initialize_loadsTheSnapshotOfTheSameEpoch() throws IOException {
+        useSnapshot("5d3f1c2b-7a6e-4b9d-8c0f-1e2d3c4b5a69");
+        when(dataVersionService.currentEpoch()).thenReturn("5d3f1c2b-7a6e-4b9d-8c0f-1e2d3c4b5a69");
+
+        routeNetworkService.initialize();
+
+        assertThat(routeNetworkService.current().locationCount()).isEqualTo(6);
+        verify(locationRepository, never()).findAll();
+    }
+
+    @Test
+    void initialize_rebuildsWhenTheSnapshotIsOfAnotherEpochAtTheSameVersion() throws IOException {
+        // Written before the dev schema was recreated and reseeded, which starts again at version 1
+        useSnapshot("5d3f1c2b-7a6e-4b9d-8c0f-1e2d3c4b5a69");
+        when(dataVersionService.currentEpoch()).thenReturn("c81e728d-9d4c-4f63-a0b5-3e2a1f4b6d7c");
+        Location istanbul = new Location();
+        istanbul.setId(201L);
+        istanbul.setName("Istanbul Airport");
+        istanbul.setCountry("Turkey");
+        istanbul.setCity("Istanbul");
+        istanbul.setLocationCode("IST");
+        istanbul.setIsAirport(true);
+        when(locationRepository.findAll()).thenReturn(List.of(istanbul));
+        when(transportationRepository.findAllTransportationRows()).thenReturn(List.of());
+        when(transportationRepository.findAllOperatingDayRows()).thenReturn(List.of());
+
+        routeNetworkService.initialize();
+
+        assertThat(routeNetworkService.current().version()).isEqualTo(1L);
+        assertThat(routeNetworkService.current().locationCount()).isEqualTo(1);
+        assertThat(routeNetworkService.current().locationIndex("CCIST")).isNegative();
+    }
+
+    private void useSnapshot(String epoch) throws IOException {
+        Path snapshot = tempDir.resolve("route-network.bin");
+        RouteNetworkSnapshot.write(sampleNetwork(), epoch, snapshot);
+        ReflectionTestUtils.setField(routeNetworkService, "network", null);
+        ReflectionTestUtils.setField(routeNetworkService, "enabled", true);
+        ReflectionTestUtils.setField(routeNetworkService, "snapshotPath", snapshot.toString());
+    }
+
+    private void startChangeFeed() {
+        ReflectionTestUtils.setField(routeNetworkService, "enabled", true);
+        ReflectionTestUtils.setField(routeNetworkService, "changeGapTimeout", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(routeNetworkService, "maxOverlay", 100);
+        routeNetworkService.startChangeFeed();
+    }
+
+    private RouteNetwork sampleNetwork() {
+        byte bus = (byte) TransportationType.BUS.ordinal();
+        byte uber = (byte) TransportationType.UBER.ordinal();
+        byte subway = (byte) TransportationType.SUBWAY.ordinal();
+        byte flight = (byte) TransportationType.FLIGHT.ordinal();
+        return RouteNetwork.build(1L,
+                new long[]{101, 102, 103, 104, 105, 106},
+                new boolean[]{false, true, true, true, true, false},
+                new String[]{"CCIST", "IST", "SAW", "LHR", "LGW", "CCLON"},
+                new String[]{"Taksim", "Istanbul Airport", "Sabiha Gokcen", "Heathrow", "Gatwick", "Westminster"},
+                new String[]{"Istanbul", "Istanbul", "Istanbul", "London", "London", "London"},
+                new String[]{"Turkey", "Turkey", "Turkey", "UK", "UK", "UK"},
+                new int[]{-1, -1, -1, -1, -1, -1},
+                new long[]{1, 2, 3, 10, 11, 12, 20, 21},
+                new int[]{0, 0, 0, 1, 2, 1, 3, 4},
+                new int[]{1, 1, 2, 3, 4, 4, 5, 5},
+                new byte[]{bus, uber, subway, flight, flight, flight, bus, uber},
+                new byte[]{0x7F, 0x7F, 0x7F, 0x05, 0x7F, 0x01, 0x7F, 0x02},
+                new short[]{-1, -1, -1, -1, -1, -1, -1, -1},
+                new short[8]);
+    }
+}
@@ -0,0 +1,136 @@
+package com.thy.flightroutes.service;
+
+import com.thy.flightroutes.entity.Transportation.TransportationType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RouteNetworkSnapshotTest {
+
+    private static final String EPOCH = "3f2c6a1e-8d5b-4c47-9a0e-5b1d7f3e2a90";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void writeThenRead_restoresNetwork() throws IOException {
+        RouteNetwork network = sampleNetwork();
+        Path file = tempDir.resolve("network.bin");
+
+        RouteNetworkSnapshot.write(network, EPOCH, file);
+        RouteNetwork restored = RouteNetworkSnapshot.read(file, EPOCH);
+
+        assertThat(restored.version()).isEqualTo(42L);
+        assertThat(restored.locationCount()).isEqualTo(3);
+        assertThat(restored.transportationCount()).isEqualTo(3);
+        assertThat(restored.locationIndex("IST")).isEqualTo(network.locationIndex("IST"));
+        assertThat(restored.locationName(0)).isEqualTo("Taksim Meydanı");
+        assertThat(restored.airportFlag(1)).isTrue();
+        assertThat(restored.minConnectionMinutes(1)).isEqualTo(45);
+        assertThat(restored.minConnectionMinutes(2)).isEqualTo(-1);
+        assertThat(restored.locationsInCity("İstanbul")).containsExactly(0, 1);
+        for (int t = 0; t < network.transportationCount(); t++) {
+            assertThat(restored.transportationId(t)).isEqualTo(network.transportationId(t));
+            assertThat(restored.origin(t)).isEqualTo(network.origin(t));
+            assertThat(restored.destination(t)).isEqualTo(network.destination(t));
+            assertThat(restored.type(t)).isEqualTo(network.type(t));
+            assertThat(restored.dayMask(t)).isEqualTo(network.dayMask(t));
+            assertThat(restored.departureMinute(t)).isEqualTo(network.departureMinute(t));
+            assertThat(restored.duration(t)).isEqualTo(network.duration(t));
+        }
+        assertThat(restored.outStart(1)).isEqualTo(network.outStart(1));
+        assertThat(restored.outEnd(1)).isEqualTo(network.outEnd(1));
+        assertThat(restored.inEdge(restored.inStart(1))).isEqualTo(network.inEdge(network.inStart(1)));
+    }
+
+    @Test
+    void build_ordersAdjacencyByTransportationId() {
+        RouteNetwork network = sampleNetwork();
+        RouteNetwork.EdgeCursor cursor = network.cursor();
+
+        // Transportations were passed as ids 30, 10, 20; each adjacency range is ordered by id
+        assertThat(transportationIds(cursor.outgoing(network.locationIndex("CCIST")))).containsExactly(20L, 30L);
+        assertThat(transportationIds(cursor.incoming(network.locationIndex("LHR")))).containsExactly(10L, 20L);
+
+        int ist = network.locationIndex("IST");
+        assertThat(network.outEnd(ist) - network.outStart(ist)).isEqualTo(1);
+        assertThat(network.type(network.outEdge(network.outStart(ist)))).isEqualTo(TransportationType.FLIGHT);
+        assertThat(cursor.outgoing(ist).next()).isTrue();
+        assertThat(cursor.dayMask()).isEqualTo(0x15);
+        assertThat(cursor.next()).isFalse();
+    }
+
+    @Test
+    void edgeStore_usesTwentyEightBytesPerTransportation() {
+        assertThat(EdgeStore.regionSize(10, 1000) - EdgeStore.regionSize(10, 0)).isEqualTo(28_000L);
+        assertThat(sampleNetwork().edges().region().isDirect()).isTrue();
+    }
+
+    @Test
+    void read_ignoresSnapshotOfAnotherEpoch() throws IOException {
+        Path file = tempDir.resolve("network.bin");
+        RouteNetworkSnapshot.write(sampleNetwork(), EPOCH, file);
+
+        // Same version, but written before the schema was recreated
+        assertThat(RouteNetworkSnapshot.read(file, "9b7e4d2c-1a3f-4e5d-8c6b-0a9f8e7d6c5b")).isNull();
+        assertThat(RouteNetworkSnapshot.read(file, null)).isNull();
+        assertThat(RouteNetworkSnapshot.read(file, EPOCH).version()).isEqualTo(42L);
+    }
+
+    @Test
+    void read_rejectsCorruptedFile() throws IOException {
+        Path file = tempDir.resolve("network.bin");
+        RouteNetworkSnapshot.write(sampleNetwork(), EPOCH, file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x01;
+        Files.write(file, bytes);
+
+        assertThrows(IOException.class, () -> RouteNetworkSnapshot.read(file, EPOCH));
+    }
+
+    @Test
+    void read_rejectsTruncatedFile() throws IOException {
+        Path file = tempDir.resolve("network.bin");
+        RouteNetworkSnapshot.write(sampleNetwork(), EPOCH, file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 12));
+
+        assertThrows(IOException.class, () -> RouteNetworkSnapshot.read(file, EPOCH));
+    }
+
+    private List<Long> transportationIds(RouteNetwork.EdgeCursor cursor) {
+        List<Long> ids = new ArrayList<>();
+        while (cursor.next()) {
+            ids.add(cursor.transportationId());
+        }
+        return ids;
+    }
+
+    private RouteNetwork sampleNetwork() {
+        return RouteNetwork.build(42L,
+                new long[]{1, 2, 3},
+                new boolean[]{false, true, true},
+                new String[]{"CCIST", "IST", "LHR"},
+                new String[]{"Taksim Meydanı", "Istanbul Airport", "Heathrow"},
+                new String[]{"İstanbul", "İstanbul", "London"},
+                new String[]{"Turkey", "Turkey", "UK"},
+                new int[]{-1, 45, -1},
+                new long[]{30, 10, 20},
+                new int[]{0, 1, 0},
+                new int[]{1, 2, 2},
+                new byte[]{(byte) TransportationType.BUS.ordinal(), (byte) TransportationType.FLIGHT.ordinal(),
+                        (byte) TransportationType.UBER.ordinal()},
+                new byte[]{0x7F, 0x15, 0x01},
+                new short[]{-1, 540, -1},
+                new short[]{0, 230, 0});
+    }
+}
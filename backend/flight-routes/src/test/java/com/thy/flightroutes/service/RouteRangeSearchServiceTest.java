@@ -0,0 +1,83 @@
+package com.thy.flightroutes.service;
+
+import com.thy.flightroutes.dto.RouteDTO;
+import com.thy.flightroutes.dto.RouteRangeRequestDTO;
+import com.thy.flightroutes.dto.RouteRangeResponseDTO;
+import com.thy.flightroutes.dto.RouteRequestDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RouteRangeSearchServiceTest {
+
+    // 2026-10-19 is a Monday
+    private static final LocalDate MONDAY = LocalDate.of(2026, 10, 19);
+
+    @Mock
+    private RouteService routeService;
+
+    @InjectMocks
+    private RouteRangeSearchService routeRangeSearchService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(routeRangeSearchService, "maxDays", 62L);
+    }
+
+    @Test
+    void findRoutes_searchesEachWeekdayOnce() {
+        // Routes only on Mondays
+        when(routeService.findRoutes(any(RouteRequestDTO.class))).thenAnswer(invocation -> {
+            RouteRequestDTO request = invocation.getArgument(0);
+            return request.getDate().getDayOfWeek().getValue() == 1 ? List.of(new RouteDTO()) : List.of();
+        });
+
+        RouteRangeResponseDTO response = routeRangeSearchService.findRoutes(
+                new RouteRangeRequestDTO("IST", "LHR", MONDAY, MONDAY.plusDays(29), null));
+
+        verify(routeService, times(7)).findRoutes(any(RouteRequestDTO.class));
+        assertThat(response.getDays()).hasSize(30);
+        assertThat(response.getDays().get(7).getDate()).isEqualTo(MONDAY.plusDays(7));
+        assertThat(response.getDays().get(7).getRouteCount()).isEqualTo(1);
+        assertThat(response.getDays().get(8).getRoutes()).isEmpty();
+        assertThat(response.getTotalRoutes()).isEqualTo(5);
+        assertThat(response.getDaysWithRoutes()).isEqualTo(5);
+    }
+
+    @Test
+    void findRoutes_onlySearchesRequestedWeekdays() {
+        when(routeService.findRoutes(any(RouteRequestDTO.class))).thenReturn(List.of(new RouteDTO()));
+
+        RouteRangeResponseDTO response = routeRangeSearchService.findRoutes(
+                new RouteRangeRequestDTO("IST", "LHR", MONDAY, MONDAY.plusDays(13), Set.of(6, 7)));
+
+        verify(routeService, times(2)).findRoutes(any(RouteRequestDTO.class));
+        assertThat(response.getDays()).extracting(day -> day.getDate().getDayOfWeek().getValue())
+                .containsExactly(6, 7, 6, 7);
+        assertThat(response.getTotalRoutes()).isEqualTo(4);
+    }
+
+    @Test
+    void findRoutes_rejectsInvalidRanges() {
+        assertThrows(IllegalArgumentException.class, () -> routeRangeSearchService.findRoutes(
+                new RouteRangeRequestDTO("IST", "LHR", MONDAY, MONDAY.minusDays(1), null)));
+        assertThrows(IllegalArgumentException.class, () -> routeRangeSearchService.findRoutes(
+                new RouteRangeRequestDTO("IST", "LHR", MONDAY, MONDAY.plusDays(62), null)));
+    }
+}
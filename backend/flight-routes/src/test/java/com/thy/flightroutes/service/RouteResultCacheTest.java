@@ -0,0 +1,242 @@
+package com.thy.flightroutes.service;
+
+import com.thy.flightroutes.config.ConditionalRequestInterceptor;
+import com.thy.flightroutes.dto.RouteDTO;
+import com.thy.flightroutes.dto.RouteRequestDTO;
+import com.thy.flightroutes.entity.DataVersion;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RouteResultCacheTest {
+
+    private static final RouteRequestDTO REQUEST = new RouteRequestDTO("CCIST", "LHR", LocalDate.of(2026, 10, 21));
+    private static final String KEY = "origin_CCIST_dest_LHR_date_2026-10-21";
+    private static final long START = Instant.parse("2026-10-19T12:00:00Z").toEpochMilli();
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private DataVersionService dataVersionService;
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(RouteResultCache.CACHE_NAME);
+    private final Clock clock = mock(Clock.class);
+    private long now = START;
+    private RouteResultCache routeResultCache;
+
+    @BeforeEach
+    void setUp() {
+        when(clock.millis()).thenAnswer(invocation -> now);
+        routeResultCache = new RouteResultCache(cacheManager, redisTemplate, dataVersionService,
+                new SimpleMeterRegistry(), clock, 1, 10);
+        ReflectionTestUtils.setField(routeResultCache, "minTtl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(routeResultCache, "maxTtl", Duration.ofMinutes(30));
+        ReflectionTestUtils.setField(routeResultCache, "dataAgeFactor", 0.1);
+        ReflectionTestUtils.setField(routeResultCache, "coldTtl", Duration.ofMinutes(2));
+        ReflectionTestUtils.setField(routeResultCache, "hotThreshold", 3);
+        ReflectionTestUtils.setField(routeResultCache, "frequencyWindow", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(routeResultCache, "maxStaleness", Duration.ofMinutes(2));
+        ReflectionTestUtils.setField(routeResultCache, "versionCheckInterval", Duration.ZERO);
+        ReflectionTestUtils.setField(routeResultCache, "refreshLockTimeout", Duration.ofSeconds(30));
+        // The data last changed two hours ago
+        when(dataVersionService.current()).thenReturn(version(5L, START - Duration.ofHours(2).toMillis()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        routeResultCache.shutdown();
+    }
+
+    @Test
+    void newEntry_scalesWithDataAgeForHotKeysAndCapsColdKeys() {
+        DataVersion version = routeResultCache.currentVersion();
+
+        CachedRoutes cold = routeResultCache.newEntry(KEY, List.of(), version);
+        makeHot();
+        CachedRoutes hot = routeResultCache.newEntry(KEY, List.of(), version);
+
+        assertThat(cold.getFreshUntil() - START).isEqualTo(Duration.ofMinutes(2).toMillis());
+        assertThat(cold.getStaleMillis()).isZero();
+        assertThat(hot.getFreshUntil() - START).isEqualTo(Duration.ofMinutes(12).toMillis());
+        assertThat(hot.getStaleMillis()).isEqualTo(Duration.ofMinutes(2).toMillis());
+        assertThat(hot.timeToLive(START)).isEqualTo(Duration.ofMinutes(14));
+    }
+
+    @Test
+    void get_loadsOnceWhileFresh() {
+        AtomicInteger loads = new AtomicInteger();
+
+        routeResultCache.get(REQUEST, () -> routes("first", loads));
+        now += Duration.ofMinutes(1).toMillis();
+        List<RouteDTO> routes = routeResultCache.get(REQUEST, () -> routes("second", loads));
+
+        assertThat(loads).hasValue(1);
+        assertThat(routes).extracting(RouteDTO::getOriginLocationName).containsExactly("first");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void get_servesStaleHotEntryAndRefreshesInBackground() throws InterruptedException {
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(RouteResultCache.REFRESH_LOCK_PREFIX + KEY), anyString(),
+                eq(Duration.ofSeconds(30)))).thenReturn(true);
+        AtomicInteger loads = new AtomicInteger();
+        makeHot();
+        routeResultCache.get(REQUEST, () -> routes("first", loads));
+        // A transportation changes a minute after the entry was computed
+        now += Duration.ofMinutes(1).toMillis();
+        when(dataVersionService.current()).thenReturn(version(6L, now));
+        now += Duration.ofSeconds(30).toMillis();
+
+        CountDownLatch refreshed = new CountDownLatch(1);
+        List<RouteDTO> routes = routeResultCache.get(REQUEST, () -> {
+            refreshed.countDown();
+            return routes("second", loads);
+        });
+
+        assertThat(routes).extracting(RouteDTO::getOriginLocationName).containsExactly("first");
+        assertThat(refreshed.await(2, TimeUnit.SECONDS)).isTrue();
+        awaitRefreshFinished();
+        assertThat(routeResultCache.get(REQUEST, () -> routes("third", loads)))
+                .extracting(RouteDTO::getOriginLocationName).containsExactly("second");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void get_staleEntryIsNotRevalidatedAsCurrent() throws InterruptedException {
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(RouteResultCache.REFRESH_LOCK_PREFIX + KEY), anyString(),
+                eq(Duration.ofSeconds(30)))).thenReturn(true);
+        ConditionalRequestInterceptor interceptor = new ConditionalRequestInterceptor(dataVersionService);
+        AtomicInteger loads = new AtomicInteger();
+        makeHot();
+        routeResultCache.get(REQUEST, () -> routes("first", loads));
+        now += Duration.ofMinutes(1).toMillis();
+        when(dataVersionService.current()).thenReturn(version(6L, now));
+        now += Duration.ofSeconds(30).toMillis();
+
+        // Served from the entry computed before the write: validators of version 5, no Last-Modified
+        MockHttpServletResponse stale = serve(interceptor, null, () -> routeResultCache.get(REQUEST,
+                () -> routes("second", loads)));
+        assertThat(stale.getHeader(HttpHeaders.ETAG)).startsWith("W/\"5-");
+        assertThat(stale.getHeader(HttpHeaders.LAST_MODIFIED)).isNull();
+        awaitRefreshFinished();
+
+        MockHttpServletResponse revalidated = serve(interceptor, stale.getHeader(HttpHeaders.ETAG),
+                () -> routeResultCache.get(REQUEST, () -> routes("third", loads)));
+        assertThat(revalidated.getStatus()).isEqualTo(200);
+        assertThat(revalidated.getHeader(HttpHeaders.ETAG)).startsWith("W/\"6-");
+
+        MockHttpServletResponse unchanged = serve(interceptor, revalidated.getHeader(HttpHeaders.ETAG),
+                () -> routeResultCache.get(REQUEST, () -> routes("fourth", loads)));
+        assertThat(unchanged.getStatus()).isEqualTo(304);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_waitsForSearchOnceStalenessBoundIsExceeded() {
+        AtomicInteger loads = new AtomicInteger();
+        makeHot();
+        routeResultCache.get(REQUEST, () -> routes("first", loads));
+        // Past the 12 minute fresh time and the 2 minute stale window
+        now += Duration.ofMinutes(15).toMillis();
+
+        List<RouteDTO> routes = routeResultCache.get(REQUEST, () -> routes("second", loads));
+
+        assertThat(routes).extracting(RouteDTO::getOriginLocationName).containsExactly("second");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void freshness_coldEntryExpiresAsSoonAsDataChanges() {
+        CachedRoutes entry = routeResultCache.newEntry(KEY, List.of(), routeResultCache.currentVersion());
+        now += Duration.ofSeconds(10).toMillis();
+        when(dataVersionService.current()).thenReturn(version(6L, now));
+
+        assertThat(routeResultCache.freshness(entry)).isEqualTo(RouteResultCache.Freshness.EXPIRED);
+    }
+
+    private void makeHot() {
+        for (int i = 0; i < 3; i++) {
+            routeResultCache.recordAccess(KEY);
+        }
+    }
+
+    private void awaitRefreshFinished() throws InterruptedException {
+        @SuppressWarnings("unchecked")
+        java.util.Set<String> refreshing = (java.util.Set<String>) ReflectionTestUtils.getField(routeResultCache,
+                "refreshing");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!refreshing.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    // What the dispatcher does around a GET on the search endpoint
+    private static MockHttpServletResponse serve(ConditionalRequestInterceptor interceptor, String ifNoneMatch,
+                                                 Supplier<List<RouteDTO>> handler) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/routes/search");
+        request.addParameter("from", REQUEST.getOriginLocationCode());
+        request.addParameter("to", REQUEST.getDestinationLocationCode());
+        request.addParameter("date", REQUEST.getDate().toString());
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        try {
+            if (interceptor.preHandle(request, response, null)) {
+                interceptor.beforeBodyWrite(handler.get(), null, MediaType.APPLICATION_JSON, null,
+                        new ServletServerHttpRequest(request), new ServletServerHttpResponse(response));
+            }
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+        return response;
+    }
+
+    private static List<RouteDTO> routes(String name, AtomicInteger loads) {
+        loads.incrementAndGet();
+        return List.of(RouteDTO.builder().originLocationName(name).build());
+    }
+
+    private static DataVersion version(long version, long updatedAt) {
+        return new DataVersion(DataVersion.SINGLETON_ID, version, Instant.ofEpochMilli(updatedAt));
+    }
+}
@@ -0,0 +1,100 @@
+package com.thy.flightroutes.service;
+
+import com.thy.flightroutes.exception.ResourceNotFoundException;
+import com.thy.flightroutes.exception.RouteSearchTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class RouteSearchExecutorTest {
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final RouteSearchExecutor executor =
+            new RouteSearchExecutor(transactionManager, 4, 10, Duration.ofMillis(300));
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void fork_runsPhasesConcurrentlyInReadOnlyTransactions() {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        try (RouteSearchExecutor.Scope scope = executor.open()) {
+            RouteSearchExecutor.Phase<Boolean> first = scope.fork(() -> awaitOther(bothStarted));
+            RouteSearchExecutor.Phase<Boolean> second = scope.fork(() -> awaitOther(bothStarted));
+
+            assertThat(scope.join(first)).isTrue();
+            assertThat(scope.join(second)).isTrue();
+        }
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager, atLeastOnce()).getTransaction(definition.capture());
+        assertThat(definition.getValue().isReadOnly()).isTrue();
+        assertThat(definition.getValue().getTimeout()).isEqualTo(1);
+    }
+
+    @Test
+    void join_rethrowsFailureAndCancelsOtherPhases() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        try (RouteSearchExecutor.Scope scope = executor.open()) {
+            scope.fork(() -> {
+                started.countDown();
+                return sleepUntilInterrupted(interrupted);
+            });
+            // A phase cancelled before it starts never runs, so there would be nothing to interrupt
+            assertThat(started.await(2, TimeUnit.SECONDS)).isTrue();
+            RouteSearchExecutor.Phase<Object> failing = scope.fork(() -> {
+                throw new ResourceNotFoundException("Origin location not found: XXX");
+            });
+
+            assertThatThrownBy(() -> scope.join(failing))
+                    .isInstanceOf(ResourceNotFoundException.class)
+                    .hasMessageContaining("XXX");
+        }
+        assertThat(interrupted.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void join_timesOutSlowPhase() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        try (RouteSearchExecutor.Scope scope = executor.open()) {
+            RouteSearchExecutor.Phase<Object> slow = scope.fork(() -> sleepUntilInterrupted(interrupted));
+
+            assertThatThrownBy(() -> scope.join(slow)).isInstanceOf(RouteSearchTimeoutException.class);
+        }
+        assertThat(interrupted.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static boolean awaitOther(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            return latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Object sleepUntilInterrupted(CountDownLatch interrupted) {
+        try {
+            Thread.sleep(10_000);
+        } catch (InterruptedException ex) {
+            interrupted.countDown();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,188 @@
+package com.thy.flightroutes.service;
+
+import com.thy.flightroutes.dto.RouteMatrixCellDTO;
+import com.thy.flightroutes.dto.RouteMatrixRequestDTO;
+import com.thy.flightroutes.entity.Location;
+import com.thy.flightroutes.entity.Transportation;
+import com.thy.flightroutes.entity.Transportation.TransportationType;
+import com.thy.flightroutes.exception.ResourceNotFoundException;
+import com.thy.flightroutes.repository.DataVersionRepository;
+import com.thy.flightroutes.repository.LocationRepository;
+import com.thy.flightroutes.repository.TransportationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * With the in-memory network switched off, matrix and reachability requests are answered from the database.
+ * Both must give what the network gives for the same data.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(DataVersionService.class)
+@TestPropertySource(properties = "spring.jpa.show-sql=false")
+class RouteServiceDatabaseFallbackTest {
+
+    // Monday, so the week after it covers every operating day
+    private static final LocalDate MONDAY = LocalDate.of(2026, 10, 19);
+    private static final List<String> CODES = List.of("IST", "SAW", "CCIST", "LHR", "LGW", "CCLON", "ESB");
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private TransportationRepository transportationRepository;
+
+    @Autowired
+    private DataVersionRepository dataVersionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path tempDir;
+
+    private RouteMatrixBuilder routeMatrixBuilder;
+    private RouteSearchExecutor routeSearchExecutor;
+    private RouteNetworkService routeNetworkService;
+    private RouteResultCache routeResultCache;
+    private RouteService routeService;
+
+    @BeforeEach
+    void setUp() {
+        dataVersionService.initialize();
+        Map<String, Location> locations = locationRepository.saveAll(List.of(
+                        location("Istanbul Airport", "Istanbul", "IST"),
+                        location("Sabiha Gokcen", "Istanbul", "SAW"),
+                        location("Taksim Square", "Istanbul", "CCIST"),
+                        location("Heathrow", "London", "LHR"),
+                        location("Gatwick", "London", "LGW"),
+                        location("Wembley Stadium", "London", "CCLON"),
+                        location("Esenboga", "Ankara", "ESB")))
+                .stream()
+                .collect(Collectors.toMap(Location::getLocationCode, Function.identity()));
+        transportationRepository.saveAll(List.of(
+                transportation(locations, TransportationType.FLIGHT, "IST", "LHR", 1, 3, 5),
+                transportation(locations, TransportationType.FLIGHT, "SAW", "LHR", 2),
+                transportation(locations, TransportationType.FLIGHT, "SAW", "LGW", 1, 2, 3, 4, 5, 6, 7),
+                transportation(locations, TransportationType.FLIGHT, "LHR", "ESB", 1),
+                transportation(locations, TransportationType.BUS, "CCIST", "IST", 1, 2, 3, 4, 5, 6, 7),
+                transportation(locations, TransportationType.UBER, "CCIST", "SAW", 1),
+                transportation(locations, TransportationType.SUBWAY, "LHR", "CCLON", 1, 2),
+                transportation(locations, TransportationType.BUS, "LGW", "CCLON", 3)));
+
+        routeMatrixBuilder = new RouteMatrixBuilder(0, 2000);
+        routeSearchExecutor = new RouteSearchExecutor(transactionManager, 4, 100, Duration.ofSeconds(5));
+        routeNetworkService = new RouteNetworkService(locationRepository, transportationRepository,
+                dataVersionService, routeMatrixBuilder, transactionManager);
+        ReflectionTestUtils.setField(routeNetworkService, "maxMatrixCells", 1000L);
+        ReflectionTestUtils.setField(routeNetworkService, "changeGapTimeout", Duration.ZERO);
+        ReflectionTestUtils.setField(routeNetworkService, "snapshotPath", tempDir.resolve("network.bin").toString());
+        routeNetworkService.startChangeFeed();
+
+        routeResultCache = mock(RouteResultCache.class);
+        when(routeResultCache.get(any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        routeService = new RouteService(transportationRepository, locationRepository,
+                mock(RouteCandidateService.class), routeMatrixBuilder, routeNetworkService,
+                new SimpleMeterRegistry(), routeSearchExecutor, routeResultCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        routeNetworkService.stopChangeFeed();
+        routeSearchExecutor.shutdown();
+        routeMatrixBuilder.shutdown();
+        transportationRepository.deleteAll();
+        locationRepository.deleteAll();
+        dataVersionRepository.deleteAll();
+    }
+
+    @Test
+    void findReachableLocations_matchesTheNetwork() {
+        for (String origin : CODES) {
+            for (int day = 0; day < 7; day++) {
+                LocalDate date = MONDAY.plusDays(day);
+                assertThat(routeService.findReachableLocations(origin, date))
+                        .as("%s on %s", origin, date)
+                        .usingRecursiveFieldByFieldElementComparator()
+                        .containsExactlyElementsOf(routeNetworkService.findReachableLocations(origin, date));
+            }
+        }
+        assertThat(routeService.findReachableLocations("CCIST", MONDAY))
+                .extracting("locationCode")
+                .containsExactly("CCLON", "LGW", "LHR");
+        assertThrows(ResourceNotFoundException.class,
+                () -> routeService.findReachableLocations("XXX", MONDAY));
+    }
+
+    @Test
+    void findRouteMatrix_matchesTheNetwork() {
+        RouteMatrixRequestDTO request = new RouteMatrixRequestDTO(
+                CODES, CODES, MONDAY, MONDAY.plusDays(8));
+
+        List<RouteMatrixCellDTO> cells = routeService.findRouteMatrix(request);
+
+        assertThat(cells)
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(routeNetworkService.findRouteMatrix(request));
+        assertThat(cells).anySatisfy(cell -> assertThat(cell.getRouteCount()).isGreaterThan(1));
+        // Built from set-based queries, not from one cached search per cell
+        verify(routeResultCache, never()).get(any(), any());
+        assertThrows(ResourceNotFoundException.class, () -> routeService.findRouteMatrix(
+                new RouteMatrixRequestDTO(List.of("IST"), List.of("XXX"), MONDAY, MONDAY)));
+    }
+
+    private Transportation transportation(Map<String, Location> locations, TransportationType type,
+                                          String origin, String destination, Integer... days) {
+        Transportation transportation = new Transportation();
+        transportation.setOriginLocation(locations.get(origin));
+        transportation.setDestinationLocation(locations.get(destination));
+        transportation.setTransportationType(type);
+        transportation.setOperatingDays(Set.of(days));
+        return transportation;
+    }
+
+    private Location location(String name, String city, String code) {
+        Location location = new Location();
+        location.setName(name);
+        location.setCountry(city.equals("London") ? "United Kingdom" : "Turkey");
+        location.setCity(city);
+        location.setLocationCode(code);
+        location.setIsAirport(code.length() == 3);
+        return location;
+    }
+}
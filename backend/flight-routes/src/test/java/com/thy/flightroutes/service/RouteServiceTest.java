@@ -8,12 +8,18 @@ import com.thy.flightroutes.entity.Transportation;
 import com.thy.flightroutes.entity.Transportation.TransportationType;
 import com.thy.flightroutes.exception.ResourceNotFoundException;
 import com.thy.flightroutes.repository.LocationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.*;
 
@@ -21,6 +27,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -33,6 +40,22 @@ class RouteServiceTest {
     @Mock
     private RouteFinderService routeFinderService;
 
+    @Mock
+    private RouteCandidateService routeCandidateService;
+
+    @Mock
+    private RouteNetworkService routeNetworkService;
+
+    @Spy
+    private RouteMatrixBuilder routeMatrixBuilder = new RouteMatrixBuilder(2, 2000);
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private RouteSearchExecutor routeSearchExecutor =
+            new RouteSearchExecutor(mock(PlatformTransactionManager.class), 4, 10, Duration.ofSeconds(5));
+
     @InjectMocks
     private RouteService routeService;
 
@@ -84,40 +107,56 @@ class RouteServiceTest {
     }
 
     @Test
-    void findRoutes_WithSameLocations_ShouldThrowException() {
+    void searchRoutes_WithSameLocations_ShouldThrowException() {
         // Given
         requestDTO.setDestinationLocationCode("IST");
         when(locationRepository.findByLocationCode(eq("IST"))).thenReturn(Optional.of(origin));
 
         // When/Then
         assertThrows(IllegalArgumentException.class, () ->
-                routeService.findRoutes(requestDTO)
+                routeService.searchRoutes(requestDTO)
         );
     }
 
     @Test
-    void findRoutes_WhenOriginNotFound_ShouldThrowException() {
+    void searchRoutes_WhenOriginNotFound_ShouldThrowException() {
         // Given
         when(locationRepository.findByLocationCode(eq("IST"))).thenReturn(Optional.empty());
 
         // When/Then
         assertThrows(ResourceNotFoundException.class, () ->
-                routeService.findRoutes(requestDTO)
+                routeService.searchRoutes(requestDTO)
         );
     }
 
     @Test
-    void findRoutes_WhenDestinationNotFound_ShouldThrowException() {
+    void searchRoutes_WhenDestinationNotFound_ShouldThrowException() {
         // Given
         when(locationRepository.findByLocationCode(eq("IST"))).thenReturn(Optional.of(origin));
         when(locationRepository.findByLocationCode(eq("LHR"))).thenReturn(Optional.empty());
 
         // When/Then
         assertThrows(ResourceNotFoundException.class, () ->
-                routeService.findRoutes(requestDTO)
+                routeService.searchRoutes(requestDTO)
         );
     }
 
+    @Test
+    void searchRoutes_recordsPhaseTimersAndRouteCount() {
+        when(routeNetworkService.isEnabled()).thenReturn(true);
+        when(routeNetworkService.findRoutes(requestDTO)).thenReturn(List.of(
+                createRouteDTO(null, directFlight, null), createRouteDTO(null, transferFlight, null)));
+
+        routeService.searchRoutes(requestDTO);
+        routeService.searchRoutes(requestDTO);
+
+        assertThat(meterRegistry.get("route.search.phase").tag("phase", "network_search").timer().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("route.search.phase").tag("phase", "deep_copy").timer().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("route.search.routes.generated").summary().totalAmount()).isEqualTo(4);
+    }
+
     private RouteDTO createRouteDTO(TransportationDTO before, Transportation flight, TransportationDTO after) {
         RouteDTO dto = new RouteDTO();
         dto.setBeforeFlight(before);
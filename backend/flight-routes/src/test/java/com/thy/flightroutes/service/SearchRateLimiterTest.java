@@ -0,0 +1,87 @@
+package com.thy.flightroutes.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SearchRateLimiterTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private SearchRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new SearchRateLimiter(redisTemplate);
+        ReflectionTestUtils.setField(rateLimiter, "enabled", true);
+        ReflectionTestUtils.setField(rateLimiter, "mode", "local");
+        ReflectionTestUtils.setField(rateLimiter, "capacity", 3);
+        ReflectionTestUtils.setField(rateLimiter, "refillPerSecond", 0.5);
+    }
+
+    @Test
+    void tryAcquire_allowsBurstThenRejectsPerPrincipal() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(rateLimiter.tryAcquire("agency1").allowed()).isTrue();
+        }
+
+        SearchRateLimiter.Decision rejected = rateLimiter.tryAcquire("agency1");
+
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.retryAfter()).isGreaterThan(Duration.ofMillis(1500)).isLessThanOrEqualTo(Duration.ofSeconds(2));
+        assertThat(rateLimiter.tryAcquire("agency2").allowed()).isTrue();
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void bucket_refillsOverTime() {
+        long start = 0;
+        SearchRateLimiter.Bucket bucket = new SearchRateLimiter.Bucket(1, start);
+
+        assertThat(bucket.tryAcquire(1, 2, start).allowed()).isTrue();
+        assertThat(bucket.tryAcquire(1, 2, start + TimeUnit.MILLISECONDS.toNanos(100)).allowed()).isFalse();
+        assertThat(bucket.tryAcquire(1, 2, start + TimeUnit.MILLISECONDS.toNanos(600)).allowed()).isTrue();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tryAcquire_usesSharedBucketInRedisMode() {
+        ReflectionTestUtils.setField(rateLimiter, "mode", "redis");
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("ratelimit:search:agency1")), anyString(), anyString()))
+                .thenReturn(List.of(0L, 1500L));
+
+        SearchRateLimiter.Decision decision = rateLimiter.tryAcquire("agency1");
+
+        assertThat(decision.allowed()).isFalse();
+        assertThat(decision.retryAfter()).isEqualTo(Duration.ofMillis(1500));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tryAcquire_fallsBackToLocalBucketWhenRedisIsDown() {
+        ReflectionTestUtils.setField(rateLimiter, "mode", "redis");
+        when(redisTemplate.execute(any(RedisScript.class), any(List.class), anyString(), anyString()))
+                .thenThrow(new RedisConnectionFailureException("connection refused"));
+
+        assertThat(rateLimiter.tryAcquire("agency1").allowed()).isTrue();
+    }
+}
@@ -0,0 +1,168 @@
+package com.thy.flightroutes.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.thy.flightroutes.dto.TransportationImportErrorDTO;
+import com.thy.flightroutes.dto.TransportationImportResultDTO;
+import com.thy.flightroutes.event.NetworkChangePublisher;
+import liquibase.integration.spring.SpringLiquibase;
+import org.h2.Driver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class TransportationImportServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private NetworkChangePublisher networkChangePublisher;
+    private TransportationImportService importService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        SimpleDriverDataSource dataSource = new SimpleDriverDataSource(
+                new Driver(), "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE \"USER\" (id BIGINT NOT NULL, username VARCHAR(255))");
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:/db/changelog/db.changelog-master.yaml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+
+        for (String code : List.of("CCIST", "IST", "SAW", "LHR")) {
+            jdbcTemplate.update(
+                    "INSERT INTO locations (name, country, city, location_code, is_airport) VALUES (?, ?, ?, ?, ?)",
+                    code, "Country", "City", code, code.length() == 3);
+        }
+        // The 09:00 IST -> LHR departure already exists, so importing it again updates it
+        jdbcTemplate.update("INSERT INTO transportations (origin_location_id, destination_location_id, "
+                + "transportation_type, departure_time, arrival_time) "
+                + "SELECT o.id, d.id, 'FLIGHT', TIME '09:00', TIME '11:30' FROM locations o, locations d "
+                + "WHERE o.location_code = 'IST' AND d.location_code = 'LHR'");
+        jdbcTemplate.update("INSERT INTO transportation_operating_days (transportation_id, operating_days) "
+                + "SELECT id, 1 FROM transportations");
+
+        networkChangePublisher = mock(NetworkChangePublisher.class);
+        importService = new TransportationImportService(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+                new ObjectMapper().registerModule(new JavaTimeModule()), networkChangePublisher);
+        ReflectionTestUtils.setField(importService, "chunkSize", 2);
+        ReflectionTestUtils.setField(importService, "maxReportedErrors", 10);
+    }
+
+    @Test
+    void importCsv_upsertsValidRowsAndReportsInvalidOnes() {
+        TransportationImportResultDTO result = importService.importTransportations(stream(
+                "originLocationCode,destinationLocationCode,transportationType,operatingDays,departureTime,arrivalTime",
+                "CCIST,IST,BUS,1;2;3,,",
+                "IST,LHR,flight,2 4,09:00,11:50",
+                "IST,IST,BUS,1,,",
+                "XXX,LHR,FLIGHT,1,,",
+                "",
+                "SAW,LHR,FLIGHT,8,,",
+                "SAW,LHR,FLIGHT,5,10:00,"), TransportationImportService.Format.CSV);
+
+        assertThat(result.getTotalRows()).isEqualTo(6);
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getUpdated()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(4);
+        assertThat(result.getErrors()).extracting(TransportationImportErrorDTO::getLine).containsExactly(4L, 5L, 7L, 8L);
+        assertThat(result.getErrors().get(1).getMessage()).isEqualTo("Unknown origin location code: XXX");
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transportations", Integer.class)).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT od.operating_days FROM transportation_operating_days od "
+                        + "JOIN transportations t ON t.id = od.transportation_id WHERE t.transportation_type = 'FLIGHT' "
+                        + "ORDER BY od.operating_days", Integer.class)).containsExactly(2, 4);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT arrival_time FROM transportations WHERE transportation_type = 'FLIGHT'", String.class))
+                .startsWith("11:50");
+        verify(networkChangePublisher, times(1)).transportationsImported();
+    }
+
+    @Test
+    void importCsv_keepsEachDepartureAsItsOwnRow() {
+        TransportationImportResultDTO result = importService.importTransportations(stream(
+                "originLocationCode,destinationLocationCode,transportationType,operatingDays,departureTime,arrivalTime",
+                "IST,LHR,FLIGHT,1,14:00,16:30",
+                "IST,LHR,FLIGHT,1,20:15,22:45",
+                "IST,LHR,FLIGHT,1,,"), TransportationImportService.Format.CSV);
+
+        assertThat(result.getCreated()).isEqualTo(3);
+        assertThat(result.getUpdated()).isZero();
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT departure_time FROM transportations WHERE departure_time IS NOT NULL ORDER BY departure_time",
+                String.class))
+                .satisfiesExactly(
+                        time -> assertThat(time).startsWith("09:00"),
+                        time -> assertThat(time).startsWith("14:00"),
+                        time -> assertThat(time).startsWith("20:15"));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transportations WHERE departure_time IS NULL", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void importNdjson_writesRepeatedKeyOnceWithItsLastRow() {
+        TransportationImportResultDTO result = importService.importTransportations(stream(
+                "{\"originLocationCode\":\"SAW\",\"destinationLocationCode\":\"LHR\",\"transportationType\":\"FLIGHT\",\"operatingDays\":[1]}",
+                "{\"originLocationCode\":\"SAW\",\"destinationLocationCode\":\"LHR\",\"transportationType\":\"FLIGHT\",\"operatingDays\":[6,7]}",
+                "{not json",
+                "{\"originLocationCode\":\"SAW\",\"destinationLocationCode\":\"LHR\",\"transportationType\":\"TRAIN\",\"operatingDays\":[1]}"),
+                TransportationImportService.Format.NDJSON);
+
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getUpdated()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(TransportationImportErrorDTO::getLine).containsExactly(3L, 4L);
+        assertThat(jdbcTemplate.queryForList("SELECT od.operating_days FROM transportation_operating_days od "
+                + "JOIN transportations t ON t.id = od.transportation_id "
+                + "JOIN locations l ON l.id = t.origin_location_id WHERE l.location_code = 'SAW' "
+                + "ORDER BY od.operating_days", Integer.class)).containsExactly(6, 7);
+    }
+
+    @Test
+    void import_movesTheVersionPerChunkAndRebuildsOnce() {
+        TransportationImportResultDTO result = importService.importTransportations(stream(
+                "originLocationCode,destinationLocationCode,transportationType,operatingDays",
+                "CCIST,IST,BUS,1",
+                "SAW,LHR,FLIGHT,2",
+                "CCIST,SAW,BUS,3"), TransportationImportService.Format.CSV);
+
+        assertThat(result.getCreated()).isEqualTo(3);
+        InOrder inOrder = inOrder(networkChangePublisher);
+        inOrder.verify(networkChangePublisher, times(2)).importChunkCommitted();
+        inOrder.verify(networkChangePublisher).transportationsImported();
+    }
+
+    @Test
+    void importWithoutValidRows_keepsDataVersion() {
+        TransportationImportResultDTO result = importService.importTransportations(stream(
+                "originLocationCode,destinationLocationCode,transportationType,operatingDays",
+                "IST,LHR,FLIGHT,"), TransportationImportService.Format.CSV);
+
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getErrors().get(0).getMessage()).isEqualTo("Operating days cannot be empty");
+        verify(networkChangePublisher, never()).importChunkCommitted();
+        verify(networkChangePublisher, never()).transportationsImported();
+    }
+
+    private InputStream stream(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
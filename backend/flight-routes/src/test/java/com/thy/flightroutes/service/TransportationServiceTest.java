@@ -4,6 +4,7 @@ import com.thy.flightroutes.dto.TransportationDTO;
 import com.thy.flightroutes.entity.Location;
 import com.thy.flightroutes.entity.Transportation;
 import com.thy.flightroutes.entity.Transportation.TransportationType;
+import com.thy.flightroutes.event.NetworkChangePublisher;
 import com.thy.flightroutes.exception.ResourceNotFoundException;
 import com.thy.flightroutes.repository.LocationRepository;
 import com.thy.flightroutes.repository.TransportationRepository;
@@ -30,6 +31,9 @@ class TransportationServiceTest {
     @Mock
     private LocationRepository locationRepository;
 
+    @Mock
+    private NetworkChangePublisher networkChangePublisher;
+
     @InjectMocks
     private TransportationService transportationService;
 
@@ -190,6 +194,7 @@ class TransportationServiceTest {
         // Then
         verify(transportationRepository).existsById(id);
         verify(transportationRepository).deleteById(id);
+        verify(networkChangePublisher).transportationRemoved(id);
     }
 
     @Test